@@ -0,0 +1,61 @@
+package com.hotel.model;
+
+import java.util.function.Function;
+
+/**
+ * Tham chiếu tới một đối tượng khác theo ID, chỉ tra cứu ở lần truy cập đầu tiên
+ * Nếu chưa tìm thấy (tham chiếu treo) thì lần truy cập sau sẽ tra cứu lại.
+ * An toàn khi nhiều luồng cùng đọc: value được ghi trước khi resolver bị xóa, cả hai đều volatile,
+ * nên luồng thấy isResolved() cũng thấy đối tượng đã tra cứu.
+ *
+ * @param <T> Kiểu đối tượng được tham chiếu
+ */
+public final class LazyReference<T> {
+    private final String id;
+    private volatile Function<String, T> resolver;
+    private volatile T value;
+
+    private LazyReference(String id, Function<String, T> resolver, T value) {
+        this.id = id;
+        this.resolver = resolver;
+        this.value = value;
+    }
+
+    /**
+     * Tham chiếu trễ: chỉ giữ ID, tra cứu qua resolver khi cần
+     */
+    public static <T> LazyReference<T> of(String id, Function<String, T> resolver) {
+        return new LazyReference<>(id, resolver, null);
+    }
+
+    /**
+     * Tham chiếu đã có sẵn đối tượng
+     */
+    public static <T> LazyReference<T> resolved(String id, T value) {
+        return new LazyReference<>(id, null, value);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return Đối tượng được tham chiếu, null nếu không tìm thấy
+     */
+    public T get() {
+        Function<String, T> current = resolver;
+        if (current == null || id == null) {
+            return value;
+        }
+        T found = current.apply(id);
+        if (found != null) {
+            value = found;
+            resolver = null;
+        }
+        return found;
+    }
+
+    public boolean isResolved() {
+        return resolver == null;
+    }
+}
@@ -0,0 +1,18 @@
+package com.hotel.model;
+
+/**
+ * Đối tượng có số phiên bản, tăng mỗi lần manager ghi nhận một thay đổi
+ * Dùng cho cập nhật lạc quan: ghi nhớ getVersion() khi bắt đầu sửa và gửi kèm khi lưu;
+ * nếu đã có người khác lưu trước thì thao tác lưu bị từ chối thay vì ghi đè.
+ *
+ * Phiên bản chỉ có ý nghĩa trong phiên làm việc, không được lưu xuống file.
+ */
+public interface Versioned {
+
+    long getVersion();
+
+    /**
+     * Chỉ manager được gọi
+     */
+    void setVersion(long version);
+}
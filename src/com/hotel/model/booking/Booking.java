@@ -1,5 +1,7 @@
 package com.hotel.model.booking;
 
+import com.hotel.model.LazyReference;
+import com.hotel.model.Versioned;
 import com.hotel.model.customer.Customer;
 import com.hotel.model.enums.BookingStatus;
 import com.hotel.model.room.Room;
@@ -7,20 +9,24 @@ import com.hotel.model.room.Room;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.Objects;
+import java.util.function.Function;
 
 /**
  * Lớp đại diện cho đặt phòng
  * Contains booking information including customer, room, dates, and status
  */
-public class Booking {
+public class Booking implements Versioned {
     private String bookingId;
-    private Customer customer;
-    private Room room;
+    private LazyReference<Customer> customer;
+    private LazyReference<Room> room;
     private LocalDate checkInDate;
     private LocalDate checkOutDate;
     private BookingStatus status;
     private double totalPrice;
+    /** Tổng tiền chưa được tính (booking tạo bằng tham chiếu trễ) */
+    private boolean priceStale;
     private String notes;
+    private long version;
 
     /**
      * Constructor đầy đủ thông tin
@@ -28,8 +34,8 @@ public class Booking {
     public Booking(String bookingId, Customer customer, Room room,
                    LocalDate checkInDate, LocalDate checkOutDate, BookingStatus status) {
         this.bookingId = bookingId;
-        this.customer = customer;
-        this.room = room;
+        this.customer = LazyReference.resolved(customer != null ? customer.getCustomerId() : null, customer);
+        this.room = LazyReference.resolved(room != null ? room.getRoomId() : null, room);
         this.checkInDate = checkInDate;
         this.checkOutDate = checkOutDate;
         this.status = status;
@@ -37,14 +43,33 @@ public class Booking {
         this.notes = "";
     }
 
+    /**
+     * Constructor tham chiếu trễ: chỉ giữ ID khách hàng và phòng
+     * Đối tượng được tra cứu qua customers/rooms ở lần truy cập đầu tiên; tổng tiền
+     * cũng chỉ được tính khi cần. Dùng khi tải dữ liệu lưu trữ lớn.
+     */
+    public Booking(String bookingId, String customerId, String roomId,
+                   Function<String, Customer> customers, Function<String, Room> rooms,
+                   LocalDate checkInDate, LocalDate checkOutDate, BookingStatus status) {
+        this.bookingId = bookingId;
+        this.customer = LazyReference.of(customerId, customers);
+        this.room = LazyReference.of(roomId, rooms);
+        this.checkInDate = checkInDate;
+        this.checkOutDate = checkOutDate;
+        this.status = status;
+        this.priceStale = true;
+        this.notes = "";
+    }
+
     /**
      * Tính tổng giá tiền dựa trên số ngày và giá phòng
      */
     public double calculateTotalPrice() {
-        if (checkInDate != null && checkOutDate != null && room != null) {
+        Room bookedRoom = getRoom();
+        if (checkInDate != null && checkOutDate != null && bookedRoom != null) {
             long days = ChronoUnit.DAYS.between(checkInDate, checkOutDate);
             if (days <= 0) days = 1;
-            return room.calculatePrice((int) days);
+            return bookedRoom.calculatePrice((int) days);
         }
         return 0;
     }
@@ -64,7 +89,7 @@ public class Booking {
      * Kiểm tra xem booking có hợp lệ không
      */
     public boolean isValid() {
-        return customerId() != null && room != null &&
+        return getCustomerId() != null && getRoomId() != null &&
                checkInDate != null && checkOutDate != null &&
                checkOutDate.isAfter(checkInDate);
     }
@@ -79,21 +104,42 @@ public class Booking {
     }
 
     public Customer getCustomer() {
-        return customer;
+        return customer.get();
+    }
+
+    /**
+     * ID khách hàng (không cần tra cứu đối tượng Customer)
+     */
+    public String getCustomerId() {
+        return customer.getId();
     }
 
     public void setCustomer(Customer customer) {
-        this.customer = customer;
-        this.totalPrice = calculateTotalPrice();
+        this.customer = LazyReference.resolved(customer != null ? customer.getCustomerId() : null, customer);
+        updateTotalPrice();
     }
 
     public Room getRoom() {
-        return room;
+        return room.get();
+    }
+
+    /**
+     * ID phòng (không cần tra cứu đối tượng Room)
+     */
+    public String getRoomId() {
+        return room.getId();
     }
 
     public void setRoom(Room room) {
-        this.room = room;
-        this.totalPrice = calculateTotalPrice();
+        this.room = LazyReference.resolved(room != null ? room.getRoomId() : null, room);
+        updateTotalPrice();
+    }
+
+    /**
+     * Khách hàng và phòng đã được tra cứu chưa (luôn true với booking tạo bằng đối tượng)
+     */
+    public boolean isResolved() {
+        return customer.isResolved() && room.isResolved();
     }
 
     public LocalDate getCheckInDate() {
@@ -102,7 +148,7 @@ public class Booking {
 
     public void setCheckInDate(LocalDate checkInDate) {
         this.checkInDate = checkInDate;
-        this.totalPrice = calculateTotalPrice();
+        updateTotalPrice();
     }
 
     public LocalDate getCheckOutDate() {
@@ -111,7 +157,7 @@ public class Booking {
 
     public void setCheckOutDate(LocalDate checkOutDate) {
         this.checkOutDate = checkOutDate;
-        this.totalPrice = calculateTotalPrice();
+        updateTotalPrice();
     }
 
     public BookingStatus getStatus() {
@@ -123,11 +169,31 @@ public class Booking {
     }
 
     public double getTotalPrice() {
+        if (priceStale) {
+            updateTotalPrice();
+        }
         return totalPrice;
     }
 
     public void setTotalPrice(double totalPrice) {
         this.totalPrice = totalPrice;
+        this.priceStale = false;
+    }
+
+    /**
+     * Tính lại tổng tiền; vẫn đánh dấu cần tính lại khi phòng chưa tra cứu được (tham chiếu treo),
+     * để tổng tiền được sửa khi phòng xuất hiện sau đó
+     */
+    private void updateTotalPrice() {
+        this.totalPrice = calculateTotalPrice();
+        this.priceStale = !room.isResolved();
+    }
+
+    /**
+     * Tổng tiền đã được tính trên phòng thật chưa (false khi phòng còn là tham chiếu treo)
+     */
+    public boolean isPriceResolved() {
+        return room.isResolved();
     }
 
     public String getNotes() {
@@ -138,8 +204,14 @@ public class Booking {
         this.notes = notes;
     }
 
-    private String customerId() {
-        return customer != null ? customer.getCustomerId() : null;
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public void setVersion(long version) {
+        this.version = version;
     }
 
     @Override
@@ -159,12 +231,12 @@ public class Booking {
     public String toString() {
         return "Booking{" +
                 "bookingId='" + bookingId + '\'' +
-                ", customer=" + customer.getFullName() +
-                ", room=" + room.getRoomId() +
+                ", customer=" + (getCustomer() != null ? getCustomer().getFullName() : getCustomerId()) +
+                ", room=" + getRoomId() +
                 ", checkInDate=" + checkInDate +
                 ", checkOutDate=" + checkOutDate +
                 ", status=" + status +
-                ", totalPrice=" + totalPrice +
+                ", totalPrice=" + getTotalPrice() +
                 '}';
     }
 }
@@ -1,5 +1,7 @@
 package com.hotel.model.customer;
 
+import com.hotel.model.Versioned;
+
 import java.time.LocalDate;
 import java.util.Objects;
 
@@ -7,7 +9,7 @@ import java.util.Objects;
  * Lớp đại diện cho khách hàng
  * Contains customer information like name, email, phone, etc.
  */
-public class Customer {
+public class Customer implements Versioned {
     private String customerId;
     private String fullName;
     private String email;
@@ -17,6 +19,7 @@ public class Customer {
     private LocalDate registrationDate;
     private boolean isVIP;
     private double loyaltyPoints;
+    private long version;
 
     /**
      * Constructor đầy đủ thông tin
@@ -107,6 +110,16 @@ public class Customer {
         this.loyaltyPoints = loyaltyPoints;
     }
 
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public void addLoyaltyPoints(double points) {
         this.loyaltyPoints += points;
     }
@@ -1,25 +1,31 @@
 package com.hotel.model.invoice;
 
+import com.hotel.model.LazyReference;
+import com.hotel.model.Versioned;
 import com.hotel.model.booking.Booking;
 import com.hotel.model.customer.Customer;
 
 import java.time.LocalDate;
 import java.util.Objects;
+import java.util.function.Function;
 
 /**
  * Lớp đại diện cho hóa đơn
  * Contains invoice details for a booking
  */
-public class Invoice {
+public class Invoice implements Versioned {
     private String invoiceId;
-    private Booking booking;
+    private LazyReference<Booking> booking;
     private LocalDate invoiceDate;
     private double subtotal;
     private double taxRate;
     private double taxAmount;
     private double totalAmount;
+    /** Các khoản tiền chưa được tính (hóa đơn tạo bằng tham chiếu trễ) */
+    private boolean amountsStale;
     private InvoiceStatus status;
     private String notes;
+    private long version;
 
     /**
      * Enum để đại diện cho trạng thái hóa đơn
@@ -46,7 +52,7 @@ public class Invoice {
      */
     public Invoice(String invoiceId, Booking booking, LocalDate invoiceDate, double taxRate) {
         this.invoiceId = invoiceId;
-        this.booking = booking;
+        this.booking = LazyReference.resolved(booking != null ? booking.getBookingId() : null, booking);
         this.invoiceDate = invoiceDate;
         this.taxRate = taxRate;
         this.status = InvoiceStatus.DRAFT;
@@ -54,14 +60,40 @@ public class Invoice {
         calculateAmounts();
     }
 
+    /**
+     * Constructor tham chiếu trễ: chỉ giữ ID booking, booking được tra cứu qua bookings
+     * ở lần truy cập đầu tiên; các khoản tiền cũng chỉ được tính khi cần
+     */
+    public Invoice(String invoiceId, String bookingId, Function<String, Booking> bookings,
+                   LocalDate invoiceDate, double taxRate) {
+        this.invoiceId = invoiceId;
+        this.booking = LazyReference.of(bookingId, bookings);
+        this.invoiceDate = invoiceDate;
+        this.taxRate = taxRate;
+        this.status = InvoiceStatus.DRAFT;
+        this.notes = "";
+        this.amountsStale = true;
+    }
+
     /**
      * Tính toán các khoản tiền
+     * Còn đánh dấu cần tính lại khi booking, hoặc phòng của booking, chưa tra cứu được.
      */
     private void calculateAmounts() {
-        if (booking != null) {
-            this.subtotal = booking.getTotalPrice();
+        Booking invoiced = booking.get();
+        if (invoiced != null) {
+            this.subtotal = invoiced.getTotalPrice();
             this.taxAmount = subtotal * taxRate;
             this.totalAmount = subtotal + taxAmount;
+            this.amountsStale = !invoiced.isPriceResolved();
+        } else {
+            this.amountsStale = !booking.isResolved();
+        }
+    }
+
+    private void ensureAmounts() {
+        if (amountsStale) {
+            calculateAmounts();
         }
     }
 
@@ -96,14 +128,28 @@ public class Invoice {
     }
 
     public Booking getBooking() {
-        return booking;
+        return booking.get();
+    }
+
+    /**
+     * ID booking (không cần tra cứu đối tượng Booking)
+     */
+    public String getBookingId() {
+        return booking.getId();
     }
 
     public void setBooking(Booking booking) {
-        this.booking = booking;
+        this.booking = LazyReference.resolved(booking != null ? booking.getBookingId() : null, booking);
         calculateAmounts();
     }
 
+    /**
+     * Booking đã được tra cứu chưa (luôn true với hóa đơn tạo bằng đối tượng)
+     */
+    public boolean isResolved() {
+        return booking.isResolved();
+    }
+
     public LocalDate getInvoiceDate() {
         return invoiceDate;
     }
@@ -113,6 +159,7 @@ public class Invoice {
     }
 
     public double getSubtotal() {
+        ensureAmounts();
         return subtotal;
     }
 
@@ -126,15 +173,17 @@ public class Invoice {
     }
 
     public double getTaxAmount() {
+        ensureAmounts();
         return taxAmount;
     }
 
     public double getTotalAmount() {
+        ensureAmounts();
         return totalAmount;
     }
 
     public double getAmountBeforeTax() {
-        return subtotal;
+        return getSubtotal();
     }
 
     public InvoiceStatus getStatus() {
@@ -153,8 +202,19 @@ public class Invoice {
         this.notes = notes;
     }
 
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public Customer getCustomer() {
-        return booking != null ? booking.getCustomer() : null;
+        Booking invoiced = booking.get();
+        return invoiced != null ? invoiced.getCustomer() : null;
     }
 
     @Override
@@ -174,11 +234,11 @@ public class Invoice {
     public String toString() {
         return "Invoice{" +
                 "invoiceId='" + invoiceId + '\'' +
-                ", booking=" + booking.getBookingId() +
+                ", booking=" + getBookingId() +
                 ", invoiceDate=" + invoiceDate +
-                ", subtotal=" + subtotal +
-                ", taxAmount=" + taxAmount +
-                ", totalAmount=" + totalAmount +
+                ", subtotal=" + getSubtotal() +
+                ", taxAmount=" + getTaxAmount() +
+                ", totalAmount=" + getTotalAmount() +
                 ", status=" + status +
                 '}';
     }
@@ -1,7 +1,9 @@
 package com.hotel.model.room;
 
+import com.hotel.model.Versioned;
 import com.hotel.model.enums.RoomStatus;
 import com.hotel.model.enums.RoomType;
+import com.hotel.util.TextNormalizer;
 
 /**
  * Abstract class định nghĩa cấu trúc chung cho tất cả loại phòng
@@ -10,7 +12,7 @@ import com.hotel.model.enums.RoomType;
  * @author Member1
  * @version 1.0
  */
-public abstract class Room {
+public abstract class Room implements Versioned {
     
     // ==================== ATTRIBUTES (Private - Encapsulation) ====================
     
@@ -35,6 +37,12 @@ public abstract class Room {
     /** Diện tích (m2) */
     private double area;
     
+    /** Phiên bản (tăng mỗi lần RoomManager ghi nhận thay đổi) */
+    private long version;
+    
+    /** Văn bản tìm kiếm đã chuẩn hóa; null = cần tính lại (không lưu xuống file) */
+    private transient String searchText;
+    
     // ==================== CONSTRUCTORS ====================
     
     /**
@@ -119,6 +127,7 @@ public abstract class Room {
             throw new IllegalArgumentException("Mã phòng không được để trống");
         }
         this.roomId = roomId.trim().toUpperCase();
+        this.searchText = null;
     }
     
     /**
@@ -194,6 +203,7 @@ public abstract class Room {
      */
     public void setDescription(String description) {
         this.description = description != null ? description : "";
+        this.searchText = null;
     }
     
     /**
@@ -234,6 +244,30 @@ public abstract class Room {
         this.area = area;
     }
     
+    /**
+     * Văn bản tìm kiếm đã chuẩn hóa (mã phòng, tên loại phòng, mô tả), tính một lần rồi giữ lại
+     * setRoomId/setDescription bỏ bản đã giữ. Trạng thái không nằm trong đây vì đổi thường xuyên.
+     * @return Văn bản chữ thường, không dấu, các trường nối bằng TextNormalizer.FIELD_SEPARATOR
+     */
+    public String getSearchText() {
+        String text = searchText;
+        if (text == null) {
+            text = TextNormalizer.join(roomId, getRoomType().getDisplayName(), description);
+            searchText = text;
+        }
+        return text;
+    }
+    
+    @Override
+    public long getVersion() {
+        return version;
+    }
+    
+    @Override
+    public void setVersion(long version) {
+        this.version = version;
+    }
+    
     // ==================== BUSINESS METHODS ====================
     
     /**
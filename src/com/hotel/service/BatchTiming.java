@@ -0,0 +1,41 @@
+package com.hotel.service;
+
+import com.hotel.util.AppLogger;
+import com.hotel.util.Result;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Đo thời gian các thao tác hàng loạt của manager và ghi một dòng log có cấu trúc
+ * (operation, durationMs, recordCount, added); lô bị từ chối ghi ở mức WARN kèm lý do.
+ */
+final class BatchTiming {
+
+    private BatchTiming() {
+    }
+
+    static Result<Integer> run(String category, String operation, Collection<?> batch,
+                               Supplier<Result<Integer>> action) {
+        if (batch == null || batch.isEmpty()) {
+            return action.get();
+        }
+        long start = System.nanoTime();
+        Result<Integer> result = action.get();
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        AppLogger.LogEvent event = AppLogger.at(result.isSuccess() ? AppLogger.Level.INFO : AppLogger.Level.WARN,
+                        category)
+                .field("operation", operation)
+                .field("durationMs", elapsedMs)
+                .field("recordCount", batch.size())
+                .field("added", result.isSuccess() ? result.getData() : 0);
+        if (result.isSuccess()) {
+            event.log("%s: đã thêm %d bản ghi", operation, result.getData());
+        } else {
+            event.log("%s: từ chối lô %d bản ghi - %s", operation, batch.size(), result.getMessage());
+        }
+        return result;
+    }
+}
@@ -1,33 +1,62 @@
 package com.hotel.service;
 
 import com.hotel.model.booking.Booking;
+import com.hotel.model.customer.Customer;
 
 import com.hotel.model.enums.BookingStatus;
 import com.hotel.model.enums.RoomType;
 import com.hotel.model.room.Room;
+import com.hotel.service.interfaces.IBookingColumns;
+import com.hotel.service.interfaces.IChangeListener;
 import com.hotel.service.interfaces.IManageable;
 import com.hotel.service.interfaces.ISearchable;
+import com.hotel.util.Result;
 
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
-import java.util.ArrayList;
 
 /**
  * Lớp quản lý đặt phòng
  * Handles CRUD operations and availability checking for bookings
  */
 public class BookingManager implements IManageable<Booking>, ISearchable<Booking> {
-    private List<Booking> bookings;
+    private static final String LOG_CATEGORY = "booking";
+
+    /**
+     * Danh sách booking (tra cứu nhanh theo ID, giữ thứ tự thêm vào)
+     * Các chỉ mục bên dưới chỉ được sửa/đọc trong khóa của kho này.
+     */
+    private final ConcurrentStore<Booking> bookings;
     private RoomManager roomManager;
 
+    /** Chỉ mục khoảng ngày theo phòng, dùng cho kiểm tra phòng trống */
+    private final RoomAvailabilityIndex availabilityIndex = new RoomAvailabilityIndex();
+
+    /** Chỉ mục phụ: customerId / roomId / trạng thái -> bookings */
+    private final SecondaryIndex<String, Booking> customerIndex = new SecondaryIndex<>();
+    private final SecondaryIndex<String, Booking> roomIndex = new SecondaryIndex<>();
+    private final SecondaryIndex<BookingStatus, Booking> statusIndex = new SecondaryIndex<>();
+
+    private final ChangeNotifier<Booking> changeNotifier = new ChangeNotifier<>();
+
+    /** Số của booking mới nhất tạo bởi reserve (theo mili giây, luôn tăng) */
+    private final AtomicLong lastBookingNumber = new AtomicLong();
+
+    /** Cột dữ liệu chỉ đọc (chế độ báo cáo); khi có thì thống kê chạy trên cột thay vì bookings */
+    private volatile IBookingColumns columns;
+
     public BookingManager() {
-        this.bookings = new ArrayList<>();
+        this.bookings = new ConcurrentStore<>();
         this.roomManager = null; // Sẽ được set từ ngoài
     }
 
     public BookingManager(RoomManager roomManager) {
-        this.bookings = new ArrayList<>();
+        this.bookings = new ConcurrentStore<>();
         this.roomManager = roomManager;
     }
 
@@ -35,83 +64,315 @@ public class BookingManager implements IManageable<Booking>, ISearchable<Booking
         this.roomManager = roomManager;
     }
 
+    /**
+     * Đăng ký listener nhận thông báo khi dữ liệu thay đổi
+     */
+    public void addChangeListener(IChangeListener<Booking> listener) {
+        changeNotifier.addListener(listener);
+    }
+
+    /**
+     * Hủy đăng ký listener
+     */
+    public void removeChangeListener(IChangeListener<Booking> listener) {
+        changeNotifier.removeListener(listener);
+    }
+
+    /**
+     * Gắn dữ liệu dạng cột cho chế độ chỉ đọc
+     * Từ đây doanh thu và các phép đếm chạy trực tiếp trên cột; null để quay về bookings.
+     */
+    public void attachColumns(IBookingColumns columns) {
+        this.columns = columns;
+    }
+
+    public boolean hasColumns() {
+        return columns != null;
+    }
+
+    /**
+     * Thêm booking (không kiểm tra trùng lịch, dùng cho dữ liệu đã có sẵn)
+     * Đặt phòng mới từ quầy lễ tân nên dùng addIfAvailable.
+     */
     @Override
     public boolean add(Booking booking) {
-        if (booking != null && booking.isValid() && !exists(booking.getBookingId())) {
-            return bookings.add(booking);
+        if (booking == null || booking.getBookingId() == null || !booking.isValid()) {
+            return false;
+        }
+        return RoomLocks.withRoom(booking.getRoomId(), () -> bookings.write(() -> {
+            if (exists(booking.getBookingId())) {
+                return false;
+            }
+            bookings.put(booking.getBookingId(), booking);
+            index(booking);
+            changeNotifier.fireAdded(booking);
+            return true;
+        }));
+    }
+
+    /**
+     * Thêm booking nếu phòng còn trống trong khoảng ngày của nó
+     * Kiểm tra và thêm diễn ra trong khóa của phòng, nên hai quầy đặt cùng phòng
+     * cùng lúc không thể tạo ra booking trùng lịch.
+     * @return true nếu thêm thành công; false nếu không hợp lệ, trùng ID hoặc phòng đã có người đặt
+     */
+    public boolean addIfAvailable(Booking booking) {
+        if (booking == null || !booking.isValid()) {
+            return false;
+        }
+        return RoomLocks.withRoom(booking.getRoomId(), () ->
+                isRoomAvailable(booking.getRoomId(), booking.getCheckInDate(), booking.getCheckOutDate())
+                        && add(booking));
+    }
+
+    /**
+     * Thêm một lô booking (đoàn khách, phân bổ từ OTA) theo kiểu tất cả hoặc không
+     * Lô bị từ chối nếu có booking không hợp lệ, trùng ID (trong lô hoặc với dữ liệu có sẵn),
+     * hoặc trùng lịch với booking khác; khi đó không booking nào được thêm.
+     * @return Số booking đã thêm, hoặc thất bại kèm lý do
+     */
+    public Result<Integer> addAll(Collection<Booking> batch) {
+        return BatchTiming.run(LOG_CATEGORY, "addAll", batch, () -> addBatch(batch, true));
+    }
+
+    /**
+     * Nhập một lô booking có sẵn (dữ liệu lịch sử, đồng bộ từ hệ thống khác)
+     * Giống addAll nhưng không kiểm tra trùng lịch, tương tự add so với addIfAvailable.
+     */
+    public Result<Integer> importBatch(Collection<Booking> batch) {
+        return BatchTiming.run(LOG_CATEGORY, "importBatch", batch, () -> addBatch(batch, false));
+    }
+
+    private Result<Integer> addBatch(Collection<Booking> batch, boolean checkAvailability) {
+        if (batch == null || batch.isEmpty()) {
+            return Result.success(0);
+        }
+        Set<String> ids = new HashSet<>(batch.size() * 2);
+        Set<String> roomIds = new HashSet<>();
+        for (Booking booking : batch) {
+            if (booking == null || booking.getBookingId() == null || !booking.isValid()) {
+                return Result.failure("Booking không hợp lệ: " + (booking != null ? booking.getBookingId() : null));
+            }
+            if (!ids.add(booking.getBookingId())) {
+                return Result.failure("Trùng ID trong lô: " + booking.getBookingId());
+            }
+            roomIds.add(booking.getRoomId());
+        }
+
+        return RoomLocks.withRooms(roomIds, () -> bookings.write(() -> {
+            for (String bookingId : ids) {
+                if (exists(bookingId)) {
+                    return Result.failure("Booking đã tồn tại: " + bookingId);
+                }
+            }
+            if (checkAvailability) {
+                Booking conflict = availabilityIndex.findConflict(batch);
+                if (conflict != null) {
+                    return Result.failure("Phòng " + conflict.getRoomId() + " đã có đặt phòng trùng lịch với "
+                            + conflict.getBookingId());
+                }
+            }
+            for (Booking booking : batch) {
+                bookings.put(booking.getBookingId(), booking);
+                index(booking);
+                changeNotifier.fireAdded(booking);
+            }
+            return Result.success(batch.size());
+        }));
+    }
+
+    /**
+     * Đặt phòng trong một bước nguyên tử: kiểm tra phòng nhận đặt, kiểm tra trùng lịch,
+     * tạo booking (PENDING) và giữ phòng (RESERVED)
+     * Toàn bộ chạy trong khóa của phòng, nên nhiều quầy đặt cùng phòng cùng lúc thì chỉ
+     * một quầy thành công; các phòng khác nhau không chặn nhau.
+     * @return Booking vừa tạo, hoặc thất bại kèm lý do
+     */
+    public Result<Booking> reserve(String roomId, LocalDate checkInDate, LocalDate checkOutDate, Customer customer) {
+        if (customer == null) {
+            return Result.failure("Khách hàng không tồn tại");
+        }
+        if (checkInDate == null || checkOutDate == null || !checkOutDate.isAfter(checkInDate)) {
+            return Result.failure("Ngày check-out phải sau ngày check-in");
+        }
+        if (roomManager == null || roomId == null) {
+            return Result.failure("Phòng không tồn tại");
+        }
+
+        return RoomLocks.withRoom(roomId, () -> {
+            Room room = roomManager.getById(roomId);
+            if (room == null) {
+                return Result.failure("Phòng không tồn tại");
+            }
+            if (!room.getStatus().canBook()) {
+                return Result.failure("Phòng hiện không thể đặt");
+            }
+            if (!isRoomAvailable(room.getRoomId(), checkInDate, checkOutDate)) {
+                return Result.failure("Phòng đã có đặt phòng trong khoảng thời gian này");
+            }
+
+            Booking booking = new Booking(nextBookingId(), customer, room, checkInDate, checkOutDate,
+                    BookingStatus.PENDING);
+            if (!add(booking)) {
+                return Result.failure("Không thể tạo đặt phòng (dữ liệu không hợp lệ hoặc trùng ID)");
+            }
+            roomManager.reserveRoom(room.getRoomId());
+            return Result.success(booking);
+        });
+    }
+
+    /**
+     * ID dạng BK-&lt;mili giây&gt;, không trùng kể cả khi nhiều quầy đặt trong cùng một mili giây
+     */
+    private String nextBookingId() {
+        while (true) {
+            long number = lastBookingNumber.updateAndGet(last -> Math.max(last + 1, System.currentTimeMillis()));
+            String bookingId = "BK-" + number;
+            if (!exists(bookingId)) {
+                return bookingId;
+            }
         }
-        return false;
     }
 
     @Override
     public boolean update(Booking booking) {
-        if (booking != null) {
-            for (int i = 0; i < bookings.size(); i++) {
-                if (bookings.get(i).getBookingId().equals(booking.getBookingId())) {
-                    bookings.set(i, booking);
-                    return true;
-                }
+        if (booking == null || booking.getBookingId() == null) {
+            return false;
+        }
+        return RoomLocks.withRoom(booking.getRoomId(), () -> bookings.write(() -> {
+            if (!exists(booking.getBookingId())) {
+                return false;
             }
+            bookings.put(booking.getBookingId(), booking);
+            index(booking);
+            changeNotifier.fireUpdated(booking);
+            return true;
+        }));
+    }
+
+    /**
+     * Cập nhật lạc quan: thay booking nếu chưa ai lưu thay đổi khác kể từ expectedVersion
+     * @param expectedVersion Phiên bản lúc bắt đầu sửa (getVersion())
+     * @return Booking đã lưu, hoặc thất bại nếu không tìm thấy / phiên bản đã cũ
+     */
+    public Result<Booking> update(Booking booking, long expectedVersion) {
+        if (booking == null || booking.getBookingId() == null) {
+            return Result.failure("Booking không hợp lệ");
+        }
+        return compareAndSet(booking.getBookingId(), expectedVersion, current -> booking);
+    }
+
+    /**
+     * Cập nhật lạc quan bằng cách sửa trực tiếp booking đang lưu
+     * changes chỉ chạy khi phiên bản còn khớp, nên đối tượng dùng chung không bị sửa dở.
+     */
+    public Result<Booking> update(String bookingId, long expectedVersion, Consumer<Booking> changes) {
+        return compareAndSet(bookingId, expectedVersion, current -> {
+            changes.accept(current);
+            return current;
+        });
+    }
+
+    private Result<Booking> compareAndSet(String bookingId, long expectedVersion, UnaryOperator<Booking> change) {
+        Booking existing = getById(bookingId);
+        if (existing == null) {
+            return Result.failure("Không tìm thấy booking: " + bookingId);
         }
-        return false;
+        return RoomLocks.withRoom(existing.getRoomId(), () -> bookings.write(() -> {
+            Result<Booking> result = bookings.compareAndSet(bookingId, expectedVersion, change);
+            result.onSuccess(saved -> {
+                index(saved);
+                changeNotifier.fireUpdated(saved);
+            });
+            return result;
+        }));
     }
 
     @Override
     public boolean delete(String bookingId) {
-        return bookings.removeIf(b -> b.getBookingId().equals(bookingId));
+        Booking existing = getById(bookingId);
+        if (existing == null) {
+            return false;
+        }
+        return RoomLocks.withRoom(existing.getRoomId(), () -> bookings.write(() -> {
+            if (bookings.remove(bookingId) == null) {
+                return false;
+            }
+            unindex(bookingId);
+            changeNotifier.fireDeleted(bookingId);
+            return true;
+        }));
     }
 
     @Override
     public Booking getById(String bookingId) {
-        return bookings.stream()
-                .filter(b -> b.getBookingId().equals(bookingId))
-                .findFirst()
-                .orElse(null);
+        return bookings.get(bookingId);
     }
 
     @Override
     public List<Booking> getAll() {
-        return new ArrayList<>(bookings);
+        return bookings.snapshot();
     }
 
     @Override
     public List<Booking> search(String keyword) {
+        Predicate<Booking> matcher = matcher(keyword);
+        return bookings.read(values -> values.stream()
+                .filter(matcher)
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    public Predicate<Booking> matcher(String keyword) {
         String lowerKeyword = keyword.toLowerCase();
-        return bookings.stream()
-                .filter(b -> b.getBookingId().contains(keyword) ||
-                        b.getCustomer().getFullName().toLowerCase().contains(lowerKeyword) ||
-                        b.getRoom().getRoomId().contains(keyword))
-                .collect(Collectors.toList());
+        return b -> b.getBookingId().contains(keyword) ||
+                (b.getCustomer() != null && b.getCustomer().getFullName().toLowerCase().contains(lowerKeyword)) ||
+                b.getRoomId().contains(keyword);
     }
 
+    /**
+     * Lọc booking theo status / customerId / roomId
+     * Bắt đầu từ nhóm nhỏ nhất trong các chỉ mục ứng với tiêu chí, rồi kiểm tra các
+     * tiêu chí còn lại trên nhóm đó.
+     */
     @Override
     public List<Booking> filter(Map<String, Object> criteria) {
-        List<Booking> result = new ArrayList<>(bookings);
+        List<Booking> result = bookings.read(values -> {
+            Collection<Booking> candidates = values;
+            if (criteria.containsKey("status")) {
+                candidates = smaller(candidates, statusIndex.view((BookingStatus) criteria.get("status")));
+            }
+            if (criteria.containsKey("customerId")) {
+                candidates = smaller(candidates, customerIndex.view((String) criteria.get("customerId")));
+            }
+            if (criteria.containsKey("roomId")) {
+                candidates = smaller(candidates, roomIndex.view((String) criteria.get("roomId")));
+            }
+            return new ArrayList<>(candidates);
+        });
 
         if (criteria.containsKey("status")) {
             BookingStatus status = (BookingStatus) criteria.get("status");
-            result = result.stream()
-                    .filter(b -> b.getStatus() == status)
-                    .collect(Collectors.toList());
+            result.removeIf(b -> b.getStatus() != status);
         }
 
         if (criteria.containsKey("customerId")) {
             String customerId = (String) criteria.get("customerId");
-            result = result.stream()
-                    .filter(b -> b.getCustomer().getCustomerId().equals(customerId))
-                    .collect(Collectors.toList());
+            result.removeIf(b -> !Objects.equals(customerIdOf(b), customerId));
         }
 
         if (criteria.containsKey("roomId")) {
             String roomId = (String) criteria.get("roomId");
-            result = result.stream()
-                    .filter(b -> b.getRoom().getRoomId().equals(roomId))
-                    .collect(Collectors.toList());
+            result.removeIf(b -> !Objects.equals(roomIdOf(b), roomId));
         }
 
         return result;
     }
 
+    private static Collection<Booking> smaller(Collection<Booking> a, Collection<Booking> b) {
+        return b.size() < a.size() ? b : a;
+    }
+
     @Override
     public int count() {
         return bookings.size();
@@ -124,22 +385,65 @@ public class BookingManager implements IManageable<Booking>, ISearchable<Booking
 
     @Override
     public void clear() {
-        bookings.clear();
+        bookings.write(() -> {
+            bookings.clear();
+            columns = null;
+            availabilityIndex.clear();
+            customerIndex.clear();
+            roomIndex.clear();
+            statusIndex.clear();
+            changeNotifier.fireCleared();
+            return null;
+        });
+    }
+
+    /**
+     * Cập nhật trạng thái booking và đồng bộ các chỉ mục
+     * Booking được kiểm tra lại khi đã giữ khóa: nếu quầy khác vừa xóa thì không hồi sinh nó,
+     * nếu vừa thay bằng đối tượng khác (update có phiên bản) thì làm lại trên đối tượng mới.
+     * @return true nếu tìm thấy booking
+     */
+    public boolean updateStatus(String bookingId, BookingStatus status) {
+        if (status == null) {
+            return false;
+        }
+        while (true) {
+            Booking booking = getById(bookingId);
+            if (booking == null) {
+                return false;
+            }
+            Boolean updated = RoomLocks.withRoom(booking.getRoomId(), () -> bookings.write(() -> {
+                if (bookings.get(bookingId) != booking) {
+                    return null; // Đã bị xóa hoặc thay trong lúc chờ khóa
+                }
+                booking.setStatus(status);
+                bookings.put(bookingId, booking);
+                index(booking);
+                changeNotifier.fireUpdated(booking);
+                return Boolean.TRUE;
+            }));
+            if (updated != null) {
+                return updated;
+            }
+        }
     }
 
     /**
      * Kiểm tra xem 1 phòng cụ thể mà khách hàng mong muốn có sẵn trong khoảng thời
      * gian không
+     * Tra cứu qua chỉ mục khoảng ngày của phòng: O(log n + k) thay vì duyệt mọi booking, với k là
+     * số lượt ở của phòng có check-in trong [checkIn - lượt ở dài nhất hiện có, checkOut].
+     * Booking bị sửa trực tiếp phải được gọi update()/updateStatus() để chỉ mục cập nhật.
      */
     public boolean isRoomAvailable(Room room, LocalDate checkInDate, LocalDate checkOutDate) {
-        return bookings.stream()
-                .filter(b -> b.getRoom().getRoomId().equals(room.getRoomId()))
-                .filter(b -> b.getStatus() != BookingStatus.CANCELLED)
-                .noneMatch(b -> {
-                    LocalDate bCheckIn = b.getCheckInDate();
-                    LocalDate bCheckOut = b.getCheckOutDate();
-                    return !(checkOutDate.isBefore(bCheckIn) || checkInDate.isAfter(bCheckOut));
-                });
+        return isRoomAvailable(room.getRoomId(), checkInDate, checkOutDate);
+    }
+
+    /**
+     * Kiểm tra phòng trống theo ID phòng
+     */
+    public boolean isRoomAvailable(String roomId, LocalDate checkInDate, LocalDate checkOutDate) {
+        return bookings.read(values -> availabilityIndex.isAvailable(roomId, checkInDate, checkOutDate));
     }
 
     /**
@@ -173,51 +477,121 @@ public class BookingManager implements IManageable<Booking>, ISearchable<Booking
      * Lấy danh sách booking theo trạng thái
      */
     public List<Booking> getBookingsByStatus(BookingStatus status) {
-        return bookings.stream()
-                .filter(b -> b.getStatus() == status)
-                .collect(Collectors.toList());
+        return bookings.read(values -> statusIndex.get(status));
+    }
+
+    /**
+     * Đếm số booking theo trạng thái
+     */
+    public int countByStatus(BookingStatus status) {
+        IBookingColumns cols = columns;
+        if (cols == null) {
+            return bookings.read(values -> statusIndex.count(status));
+        }
+        int count = 0;
+        for (int row = 0, size = cols.size(); row < size; row++) {
+            if (cols.getStatus(row) == status) {
+                count++;
+            }
+        }
+        return count;
     }
 
     /**
      * Lấy danh sách booking của khách hàng
      */
     public List<Booking> getCustomerBookings(String customerId) {
-        return bookings.stream()
-                .filter(b -> b.getCustomer().getCustomerId().equals(customerId))
-                .collect(Collectors.toList());
+        return bookings.read(values -> customerIndex.get(customerId));
+    }
+
+    /**
+     * Lấy danh sách booking của phòng
+     */
+    public List<Booking> getRoomBookings(String roomId) {
+        return bookings.read(values -> roomIndex.get(roomId));
     }
 
     /**
      * Tính tổng doanh thu từ các booking
      */
     public double getTotalRevenue() {
-        return bookings.stream()
-                .filter(b -> b.getStatus() == BookingStatus.CHECKED_OUT)
+        IBookingColumns cols = columns;
+        if (cols != null) {
+            return columnRevenue(cols, Long.MIN_VALUE, Long.MAX_VALUE);
+        }
+        return bookings.read(values -> statusIndex.view(BookingStatus.CHECKED_OUT).stream()
                 .mapToDouble(Booking::getTotalPrice)
-                .sum();
+                .sum());
     }
 
     /**
      * Tính tổng doanh thu trong tháng
      */
     public double getMonthlyRevenue(int month, int year) {
-        return bookings.stream()
-                .filter(b -> b.getStatus() == BookingStatus.CHECKED_OUT &&
-                        b.getCheckOutDate().getMonth().getValue() == month &&
+        IBookingColumns cols = columns;
+        if (cols != null) {
+            LocalDate first = LocalDate.of(year, month, 1);
+            return columnRevenue(cols, first.toEpochDay(), first.plusMonths(1).toEpochDay());
+        }
+        return bookings.read(values -> statusIndex.view(BookingStatus.CHECKED_OUT).stream()
+                .filter(b -> b.getCheckOutDate().getMonth().getValue() == month &&
                         b.getCheckOutDate().getYear() == year)
                 .mapToDouble(Booking::getTotalPrice)
-                .sum();
+                .sum());
+    }
+
+    /**
+     * Doanh thu từ cột: booking đã trả phòng có ngày trả phòng trong [fromDay, toDay)
+     */
+    private static double columnRevenue(IBookingColumns cols, long fromDay, long toDay) {
+        double total = 0;
+        for (int row = 0, size = cols.size(); row < size; row++) {
+            if (cols.getStatus(row) == BookingStatus.CHECKED_OUT) {
+                long checkOut = cols.getCheckOutDay(row);
+                if (checkOut >= fromDay && checkOut < toDay) {
+                    total += cols.getTotalPrice(row);
+                }
+            }
+        }
+        return total;
     }
 
     private boolean exists(String bookingId) {
-        return bookings.stream().anyMatch(b -> b.getBookingId().equals(bookingId));
+        return bookings.contains(bookingId);
+    }
+
+    /**
+     * Đánh chỉ mục lại booking theo giá trị hiện tại của nó
+     */
+    private void index(Booking booking) {
+        String bookingId = booking.getBookingId();
+        availabilityIndex.put(booking);
+        customerIndex.put(bookingId, customerIdOf(booking), booking);
+        roomIndex.put(bookingId, roomIdOf(booking), booking);
+        statusIndex.put(bookingId, booking.getStatus(), booking);
+    }
+
+    private void unindex(String bookingId) {
+        availabilityIndex.remove(bookingId);
+        customerIndex.remove(bookingId);
+        roomIndex.remove(bookingId);
+        statusIndex.remove(bookingId);
+    }
+
+    private static String customerIdOf(Booking booking) {
+        return booking.getCustomerId();
+    }
+
+    private static String roomIdOf(Booking booking) {
+        return booking.getRoomId();
     }
 
     public int getTotalBookings() {
-        return bookings.size();
+        IBookingColumns cols = columns;
+        return cols != null ? cols.size() : bookings.size();
     }
 
     public int getCompletedBookings() {
-        return (int) bookings.stream().filter(b -> b.getStatus() == BookingStatus.CHECKED_OUT).count();
+        return countByStatus(BookingStatus.CHECKED_OUT);
     }
 }
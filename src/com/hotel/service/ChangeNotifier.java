@@ -0,0 +1,55 @@
+package com.hotel.service;
+
+import com.hotel.service.interfaces.IChangeListener;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Danh sách listener thay đổi dùng chung cho các manager
+ * Mỗi lần báo thay đổi cũng hẹn onCommitted() của listener khi khối ghi hiện tại kết thúc.
+ *
+ * @param <T> Kiểu đối tượng được quản lý
+ */
+final class ChangeNotifier<T> {
+
+    private final List<IChangeListener<T>> listeners = new CopyOnWriteArrayList<>();
+
+    void addListener(IChangeListener<T> listener) {
+        if (listener != null) {
+            listeners.add(listener);
+        }
+    }
+
+    void removeListener(IChangeListener<T> listener) {
+        listeners.remove(listener);
+    }
+
+    void fireAdded(T item) {
+        for (IChangeListener<T> listener : listeners) {
+            listener.onAdded(item);
+            WriteScope.afterCommit(listener);
+        }
+    }
+
+    void fireUpdated(T item) {
+        for (IChangeListener<T> listener : listeners) {
+            listener.onUpdated(item);
+            WriteScope.afterCommit(listener);
+        }
+    }
+
+    void fireDeleted(String id) {
+        for (IChangeListener<T> listener : listeners) {
+            listener.onDeleted(id);
+            WriteScope.afterCommit(listener);
+        }
+    }
+
+    void fireCleared() {
+        for (IChangeListener<T> listener : listeners) {
+            listener.onCleared();
+            WriteScope.afterCommit(listener);
+        }
+    }
+}
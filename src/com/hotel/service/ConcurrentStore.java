@@ -0,0 +1,138 @@
+package com.hotel.service;
+
+import com.hotel.model.Versioned;
+import com.hotel.util.Result;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Kho đối tượng theo ID dùng chung cho các manager, an toàn khi nhiều quầy lễ tân dùng cùng lúc
+ * Tra cứu theo ID (get/contains/size) không cần khóa nhờ ConcurrentHashMap. Mọi thao tác ghi
+ * chạy trong write(...) nên manager cập nhật chỉ mục phụ và phát thông báo trong cùng một khóa;
+ * các thao tác đọc cả tập chạy trong read(...) và luôn thấy trạng thái trọn vẹn giữa hai lần ghi.
+ *
+ * Thứ tự duyệt là thứ tự thêm vào (sửa không làm đổi vị trí). Mỗi lần ghi đè một ID đã có,
+ * phiên bản của đối tượng tăng thêm 1 (xem compareAndSet).
+ *
+ * @param <T> Kiểu đối tượng được lưu
+ */
+final class ConcurrentStore<T extends Versioned> {
+
+    private final ConcurrentHashMap<String, T> byId = new ConcurrentHashMap<>();
+    /** Cùng nội dung với byId, giữ thứ tự thêm vào; chỉ truy cập khi giữ khóa */
+    private final Map<String, T> ordered = new LinkedHashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // ==================== LOCK-FREE LOOKUPS ====================
+
+    T get(String id) {
+        return id != null ? byId.get(id) : null;
+    }
+
+    boolean contains(String id) {
+        return id != null && byId.containsKey(id);
+    }
+
+    int size() {
+        return byId.size();
+    }
+
+    boolean isEmpty() {
+        return byId.isEmpty();
+    }
+
+    // ==================== LOCKED ACCESS ====================
+
+    /**
+     * Chạy thao tác đọc trên toàn bộ đối tượng (không được giữ lại collection ra ngoài khóa)
+     */
+    <R> R read(Function<Collection<T>, R> query) {
+        lock.readLock().lock();
+        try {
+            return query.apply(Collections.unmodifiableCollection(ordered.values()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Chạy thao tác ghi; chỉ trong đó mới được gọi put/remove/clear
+     * Chạy trong một WriteScope nên onCommitted() của listener đến sau khi đã trả khóa.
+     */
+    <R> R write(Supplier<R> action) {
+        return WriteScope.run(() -> {
+            lock.writeLock().lock();
+            try {
+                return action.get();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Bản sao nhất quán của toàn bộ đối tượng
+     */
+    List<T> snapshot() {
+        return read(ArrayList::new);
+    }
+
+    /**
+     * Thêm hoặc ghi đè; khi ghi đè, item nhận phiên bản kế tiếp của đối tượng cũ
+     * @return Đối tượng cũ cùng ID, hoặc null
+     */
+    T put(String id, T item) {
+        checkWriteLocked();
+        T previous = byId.get(id);
+        if (previous != null) {
+            item.setVersion(previous.getVersion() + 1);
+        }
+        ordered.put(id, item);
+        byId.put(id, item);
+        return previous;
+    }
+
+    /**
+     * Ghi có điều kiện: chỉ áp dụng change nếu phiên bản hiện tại vẫn là expectedVersion
+     * change nhận đối tượng hiện tại và trả về đối tượng cần lưu (có thể là chính nó sau khi sửa).
+     * @return Đối tượng đã lưu; thất bại kèm ConcurrentModificationException nếu phiên bản đã cũ
+     */
+    Result<T> compareAndSet(String id, long expectedVersion, UnaryOperator<T> change) {
+        checkWriteLocked();
+        T current = get(id);
+        if (current == null) {
+            return Result.failure("Không tìm thấy: " + id);
+        }
+        if (current.getVersion() != expectedVersion) {
+            String message = "Dữ liệu " + id + " đã được cập nhật ở nơi khác (phiên bản "
+                    + current.getVersion() + ", đang sửa phiên bản " + expectedVersion + ")";
+            return Result.failure(message, new ConcurrentModificationException(message));
+        }
+        T next = change.apply(current);
+        put(id, next);
+        return Result.success(next);
+    }
+
+    T remove(String id) {
+        checkWriteLocked();
+        ordered.remove(id);
+        return byId.remove(id);
+    }
+
+    void clear() {
+        checkWriteLocked();
+        ordered.clear();
+        byId.clear();
+    }
+
+    private void checkWriteLocked() {
+        if (!lock.isWriteLockedByCurrentThread()) {
+            throw new IllegalStateException("Phải gọi trong write(...)");
+        }
+    }
+}
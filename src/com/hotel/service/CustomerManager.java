@@ -1,10 +1,16 @@
 package com.hotel.service;
 
 import com.hotel.model.customer.Customer;
+import com.hotel.service.interfaces.IChangeListener;
 import com.hotel.service.interfaces.IManageable;
 import com.hotel.service.interfaces.ISearchable;
+import com.hotel.util.Result;
+import com.hotel.util.TextNormalizer;
 
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
 /**
@@ -12,65 +18,181 @@ import java.util.stream.Collectors;
  * Handles CRUD operations for customers
  */
 public class CustomerManager implements IManageable<Customer>, ISearchable<Customer> {
-    private List<Customer> customers;
+    private static final String LOG_CATEGORY = "customer";
+
+    /** Danh sách khách hàng (tra cứu nhanh theo ID, giữ thứ tự thêm vào, an toàn đa luồng) */
+    private final ConcurrentStore<Customer> customers;
+
+    /** Chỉ mục trigram trên tên, email, số điện thoại và ID (cập nhật trong write()) */
+    private final TrigramIndex<Customer> searchIndex = new TrigramIndex<>();
+
+    private final ChangeNotifier<Customer> changeNotifier = new ChangeNotifier<>();
 
     public CustomerManager() {
-        this.customers = new ArrayList<>();
+        this.customers = new ConcurrentStore<>();
+    }
+
+    /**
+     * Đăng ký listener nhận thông báo khi dữ liệu thay đổi
+     */
+    public void addChangeListener(IChangeListener<Customer> listener) {
+        changeNotifier.addListener(listener);
+    }
+
+    /**
+     * Hủy đăng ký listener
+     */
+    public void removeChangeListener(IChangeListener<Customer> listener) {
+        changeNotifier.removeListener(listener);
     }
 
     @Override
     public boolean add(Customer customer) {
-        if (customer != null && !exists(customer.getCustomerId())) {
-            return customers.add(customer);
+        if (customer == null || customer.getCustomerId() == null) {
+            return false;
+        }
+        return customers.write(() -> {
+            if (exists(customer.getCustomerId())) {
+                return false;
+            }
+            customers.put(customer.getCustomerId(), customer);
+            index(customer);
+            changeNotifier.fireAdded(customer);
+            return true;
+        });
+    }
+
+    /**
+     * Thêm một lô khách hàng theo kiểu tất cả hoặc không
+     * Lô bị từ chối nếu có khách hàng thiếu ID hoặc trùng ID (trong lô hoặc với dữ liệu có sẵn).
+     * @return Số khách hàng đã thêm, hoặc thất bại kèm lý do
+     */
+    public Result<Integer> addAll(Collection<Customer> batch) {
+        return BatchTiming.run(LOG_CATEGORY, "addAll", batch, () -> addBatch(batch));
+    }
+
+    private Result<Integer> addBatch(Collection<Customer> batch) {
+        if (batch == null || batch.isEmpty()) {
+            return Result.success(0);
         }
-        return false;
+        Set<String> ids = new HashSet<>(batch.size() * 2);
+        for (Customer customer : batch) {
+            if (customer == null || customer.getCustomerId() == null) {
+                return Result.failure("Khách hàng không hợp lệ trong lô");
+            }
+            if (!ids.add(customer.getCustomerId())) {
+                return Result.failure("Trùng ID trong lô: " + customer.getCustomerId());
+            }
+        }
+        return customers.write(() -> {
+            for (String customerId : ids) {
+                if (exists(customerId)) {
+                    return Result.failure("Khách hàng đã tồn tại: " + customerId);
+                }
+            }
+            for (Customer customer : batch) {
+                customers.put(customer.getCustomerId(), customer);
+                index(customer);
+                changeNotifier.fireAdded(customer);
+            }
+            return Result.success(batch.size());
+        });
     }
 
     @Override
     public boolean update(Customer customer) {
-        if (customer != null) {
-            for (int i = 0; i < customers.size(); i++) {
-                if (customers.get(i).getCustomerId().equals(customer.getCustomerId())) {
-                    customers.set(i, customer);
-                    return true;
-                }
+        if (customer == null || customer.getCustomerId() == null) {
+            return false;
+        }
+        return customers.write(() -> {
+            if (!exists(customer.getCustomerId())) {
+                return false;
             }
+            customers.put(customer.getCustomerId(), customer);
+            index(customer);
+            changeNotifier.fireUpdated(customer);
+            return true;
+        });
+    }
+
+    /**
+     * Cập nhật lạc quan: thay khách hàng nếu chưa ai lưu thay đổi khác kể từ expectedVersion
+     * @param expectedVersion Phiên bản lúc bắt đầu sửa (getVersion())
+     * @return Khách hàng đã lưu, hoặc thất bại nếu không tìm thấy / phiên bản đã cũ
+     */
+    public Result<Customer> update(Customer customer, long expectedVersion) {
+        if (customer == null || customer.getCustomerId() == null) {
+            return Result.failure("Khách hàng không hợp lệ");
         }
-        return false;
+        return compareAndSet(customer.getCustomerId(), expectedVersion, current -> customer);
+    }
+
+    /**
+     * Cập nhật lạc quan bằng cách sửa trực tiếp khách hàng đang lưu
+     * changes chỉ chạy khi phiên bản còn khớp.
+     */
+    public Result<Customer> update(String customerId, long expectedVersion, Consumer<Customer> changes) {
+        return compareAndSet(customerId, expectedVersion, current -> {
+            changes.accept(current);
+            return current;
+        });
+    }
+
+    private Result<Customer> compareAndSet(String customerId, long expectedVersion, UnaryOperator<Customer> change) {
+        return customers.write(() -> {
+            Result<Customer> result = customers.compareAndSet(customerId, expectedVersion, change);
+            result.onSuccess(updated -> {
+                index(updated);
+                changeNotifier.fireUpdated(updated);
+            });
+            return result;
+        });
     }
 
     @Override
     public boolean delete(String customerId) {
-        return customers.removeIf(c -> c.getCustomerId().equals(customerId));
+        if (customerId == null) {
+            return false;
+        }
+        return customers.write(() -> {
+            if (customers.remove(customerId) == null) {
+                return false;
+            }
+            searchIndex.remove(customerId);
+            changeNotifier.fireDeleted(customerId);
+            return true;
+        });
     }
 
     @Override
     public Customer getById(String customerId) {
-        return customers.stream()
-                .filter(c -> c.getCustomerId().equals(customerId))
-                .findFirst()
-                .orElse(null);
+        return customers.get(customerId);
     }
 
     @Override
     public List<Customer> getAll() {
-        return new ArrayList<>(customers);
+        return customers.snapshot();
     }
 
+    /**
+     * Tìm theo chuỗi con của tên, email, số điện thoại hoặc ID
+     * Không phân biệt hoa thường và dấu ("nguyen" khớp "Nguyễn"); dùng chỉ mục trigram thay vì quét.
+     */
     @Override
     public List<Customer> search(String keyword) {
-        String lowerKeyword = keyword.toLowerCase();
-        return customers.stream()
-                .filter(c -> c.getFullName().toLowerCase().contains(lowerKeyword) ||
-                        c.getEmail().toLowerCase().contains(lowerKeyword) ||
-                        c.getPhoneNumber().contains(keyword) ||
-                        c.getCustomerId().contains(keyword))
-                .collect(Collectors.toList());
+        String normalized = TextNormalizer.normalize(keyword);
+        return customers.read(values -> searchIndex.search(normalized));
+    }
+
+    @Override
+    public Predicate<Customer> matcher(String keyword) {
+        String normalized = TextNormalizer.normalize(keyword);
+        return c -> searchText(c).contains(normalized);
     }
 
     @Override
     public List<Customer> filter(Map<String, Object> criteria) {
-        List<Customer> result = new ArrayList<>(customers);
+        List<Customer> result = getAll();
         
         if (criteria.containsKey("vip")) {
             boolean isVip = (boolean) criteria.get("vip");
@@ -101,11 +223,25 @@ public class CustomerManager implements IManageable<Customer>, ISearchable<Custo
     
     @Override
     public void clear() {
-        customers.clear();
+        customers.write(() -> {
+            customers.clear();
+            searchIndex.clear();
+            changeNotifier.fireCleared();
+            return null;
+        });
+    }
+
+    private void index(Customer customer) {
+        searchIndex.put(customer.getCustomerId(), searchText(customer), customer);
+    }
+
+    private static String searchText(Customer customer) {
+        return TextNormalizer.join(customer.getFullName(), customer.getEmail(),
+                customer.getPhoneNumber(), customer.getCustomerId());
     }
 
     private boolean exists(String customerId) {
-        return customers.stream().anyMatch(c -> c.getCustomerId().equals(customerId));
+        return customers.contains(customerId);
     }
 
     public int getTotalCustomers() {
@@ -113,6 +249,6 @@ public class CustomerManager implements IManageable<Customer>, ISearchable<Custo
     }
 
     public int getVIPCustomers() {
-        return (int) customers.stream().filter(Customer::isVIP).count();
+        return customers.read(values -> (int) values.stream().filter(Customer::isVIP).count());
     }
 }
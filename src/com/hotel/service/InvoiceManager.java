@@ -3,10 +3,14 @@ package com.hotel.service;
 import com.hotel.model.booking.Booking;
 import com.hotel.model.invoice.Invoice;
 import com.hotel.model.invoice.Invoice.InvoiceStatus;
+import com.hotel.service.interfaces.IChangeListener;
 import com.hotel.service.interfaces.IManageable;
+import com.hotel.util.Result;
 
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
 /**
@@ -14,58 +18,170 @@ import java.util.stream.Collectors;
  * Handles CRUD operations for invoices
  */
 public class InvoiceManager implements IManageable<Invoice> {
-    private List<Invoice> invoices;
+    /** Danh sách hóa đơn (tra cứu nhanh theo ID, giữ thứ tự thêm vào, an toàn đa luồng) */
+    private final ConcurrentStore<Invoice> invoices;
     private static final double DEFAULT_TAX_RATE = 0.1; // 10%
+    private static final String LOG_CATEGORY = "invoice";
+
+    /** Chỉ mục phụ: bookingId / customerId -> hóa đơn */
+    private final SecondaryIndex<String, Invoice> bookingIndex = new SecondaryIndex<>();
+    private final SecondaryIndex<String, Invoice> customerIndex = new SecondaryIndex<>();
+    /** Hóa đơn chưa tra cứu booking nên chưa có trong customerIndex; đánh chỉ mục khi tìm theo khách hàng */
+    private final Map<String, Invoice> unindexedCustomers = new LinkedHashMap<>();
+
+    private final ChangeNotifier<Invoice> changeNotifier = new ChangeNotifier<>();
 
     public InvoiceManager() {
-        this.invoices = new ArrayList<>();
+        this.invoices = new ConcurrentStore<>();
     }
 
     public InvoiceManager(BookingManager bookingManager) {
-        this.invoices = new ArrayList<>();
+        this.invoices = new ConcurrentStore<>();
+    }
+
+    /**
+     * Đăng ký listener nhận thông báo khi dữ liệu thay đổi
+     */
+    public void addChangeListener(IChangeListener<Invoice> listener) {
+        changeNotifier.addListener(listener);
+    }
+
+    /**
+     * Hủy đăng ký listener
+     */
+    public void removeChangeListener(IChangeListener<Invoice> listener) {
+        changeNotifier.removeListener(listener);
     }
 
     @Override
     public boolean add(Invoice invoice) {
-        if (invoice != null) {
+        if (invoice == null || invoice.getInvoiceId() == null) {
+            return false;
+        }
+        return invoices.write(() -> {
             // Check if invoice with same ID doesn't exist
-            boolean exists = invoices.stream().anyMatch(inv -> inv.getInvoiceId().equals(invoice.getInvoiceId()));
-            if (!exists) {
-                return invoices.add(invoice);
+            if (invoices.contains(invoice.getInvoiceId())) {
+                return false;
+            }
+            invoices.put(invoice.getInvoiceId(), invoice);
+            index(invoice);
+            changeNotifier.fireAdded(invoice);
+            return true;
+        });
+    }
+
+    /**
+     * Thêm một lô hóa đơn theo kiểu tất cả hoặc không
+     * Lô bị từ chối nếu có hóa đơn thiếu ID hoặc trùng ID (trong lô hoặc với dữ liệu có sẵn).
+     * @return Số hóa đơn đã thêm, hoặc thất bại kèm lý do
+     */
+    public Result<Integer> addAll(Collection<Invoice> batch) {
+        return BatchTiming.run(LOG_CATEGORY, "addAll", batch, () -> addBatch(batch));
+    }
+
+    private Result<Integer> addBatch(Collection<Invoice> batch) {
+        if (batch == null || batch.isEmpty()) {
+            return Result.success(0);
+        }
+        Set<String> ids = new HashSet<>(batch.size() * 2);
+        for (Invoice invoice : batch) {
+            if (invoice == null || invoice.getInvoiceId() == null) {
+                return Result.failure("Hóa đơn không hợp lệ trong lô");
+            }
+            if (!ids.add(invoice.getInvoiceId())) {
+                return Result.failure("Trùng ID trong lô: " + invoice.getInvoiceId());
             }
         }
-        return false;
+        return invoices.write(() -> {
+            for (String invoiceId : ids) {
+                if (invoices.contains(invoiceId)) {
+                    return Result.failure("Hóa đơn đã tồn tại: " + invoiceId);
+                }
+            }
+            for (Invoice invoice : batch) {
+                invoices.put(invoice.getInvoiceId(), invoice);
+                index(invoice);
+                changeNotifier.fireAdded(invoice);
+            }
+            return Result.success(batch.size());
+        });
     }
 
     @Override
     public boolean update(Invoice invoice) {
-        if (invoice != null) {
-            for (int i = 0; i < invoices.size(); i++) {
-                if (invoices.get(i).getInvoiceId().equals(invoice.getInvoiceId())) {
-                    invoices.set(i, invoice);
-                    return true;
-                }
+        if (invoice == null || invoice.getInvoiceId() == null) {
+            return false;
+        }
+        return invoices.write(() -> {
+            if (!invoices.contains(invoice.getInvoiceId())) {
+                return false;
             }
+            invoices.put(invoice.getInvoiceId(), invoice);
+            index(invoice);
+            changeNotifier.fireUpdated(invoice);
+            return true;
+        });
+    }
+
+    /**
+     * Cập nhật lạc quan: thay hóa đơn nếu chưa ai lưu thay đổi khác kể từ expectedVersion
+     * @param expectedVersion Phiên bản lúc bắt đầu sửa (getVersion())
+     * @return Hóa đơn đã lưu, hoặc thất bại nếu không tìm thấy / phiên bản đã cũ
+     */
+    public Result<Invoice> update(Invoice invoice, long expectedVersion) {
+        if (invoice == null || invoice.getInvoiceId() == null) {
+            return Result.failure("Hóa đơn không hợp lệ");
         }
-        return false;
+        return compareAndSet(invoice.getInvoiceId(), expectedVersion, current -> invoice);
+    }
+
+    /**
+     * Cập nhật lạc quan bằng cách sửa trực tiếp hóa đơn đang lưu
+     * changes chỉ chạy khi phiên bản còn khớp.
+     */
+    public Result<Invoice> update(String invoiceId, long expectedVersion, Consumer<Invoice> changes) {
+        return compareAndSet(invoiceId, expectedVersion, current -> {
+            changes.accept(current);
+            return current;
+        });
+    }
+
+    private Result<Invoice> compareAndSet(String invoiceId, long expectedVersion, UnaryOperator<Invoice> change) {
+        return invoices.write(() -> {
+            Result<Invoice> result = invoices.compareAndSet(invoiceId, expectedVersion, change);
+            result.onSuccess(saved -> {
+                index(saved);
+                changeNotifier.fireUpdated(saved);
+            });
+            return result;
+        });
     }
 
     @Override
     public boolean delete(String invoiceId) {
-        return invoices.removeIf(i -> i.getInvoiceId().equals(invoiceId));
+        if (invoiceId == null) {
+            return false;
+        }
+        return invoices.write(() -> {
+            if (invoices.remove(invoiceId) == null) {
+                return false;
+            }
+            bookingIndex.remove(invoiceId);
+            customerIndex.remove(invoiceId);
+            unindexedCustomers.remove(invoiceId);
+            changeNotifier.fireDeleted(invoiceId);
+            return true;
+        });
     }
 
     @Override
     public Invoice getById(String invoiceId) {
-        return invoices.stream()
-                .filter(i -> i.getInvoiceId().equals(invoiceId))
-                .findFirst()
-                .orElse(null);
+        return invoices.get(invoiceId);
     }
 
     @Override
     public List<Invoice> getAll() {
-        return new ArrayList<>(invoices);
+        return invoices.snapshot();
     }
 
     /**
@@ -81,68 +197,72 @@ public class InvoiceManager implements IManageable<Invoice> {
      * Lấy hóa đơn theo booking
      */
     public Invoice getInvoiceByBooking(String bookingId) {
-        return invoices.stream()
-                .filter(i -> i.getBooking().getBookingId().equals(bookingId))
-                .findFirst()
-                .orElse(null);
+        return invoices.read(values -> bookingIndex.first(bookingId));
     }
 
     /**
      * Lấy hóa đơn theo khách hàng
+     * Hóa đơn tải bằng tham chiếu trễ chỉ được đưa vào chỉ mục khách hàng ở lần gọi đầu tiên.
      */
     public List<Invoice> getInvoicesByCustomer(String customerId) {
-        return invoices.stream()
-                .filter(i -> i.getCustomer() != null && i.getCustomer().getCustomerId().equals(customerId))
-                .collect(Collectors.toList());
+        List<Invoice> found = invoices.read(values ->
+                unindexedCustomers.isEmpty() ? customerIndex.get(customerId) : null);
+        if (found != null) {
+            return found;
+        }
+        return invoices.write(() -> {
+            indexPendingCustomers();
+            return customerIndex.get(customerId);
+        });
     }
 
     /**
      * Lấy hóa đơn theo trạng thái
      */
     public List<Invoice> getInvoicesByStatus(InvoiceStatus status) {
-        return invoices.stream()
+        return invoices.read(values -> values.stream()
                 .filter(i -> i.getStatus() == status)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     /**
      * Lấy hóa đơn trong khoảng thời gian
      */
     public List<Invoice> getInvoicesByDateRange(LocalDate startDate, LocalDate endDate) {
-        return invoices.stream()
+        return invoices.read(values -> values.stream()
                 .filter(i -> !i.getInvoiceDate().isBefore(startDate) &&
                         !i.getInvoiceDate().isAfter(endDate))
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     /**
      * Tính tổng doanh thu theo tất cả hóa đơn
      */
     public double getTotalRevenue() {
-        return invoices.stream()
+        return invoices.read(values -> values.stream()
                 .filter(i -> i.getStatus() == InvoiceStatus.PAID)
                 .mapToDouble(Invoice::getTotalAmount)
-                .sum();
+                .sum());
     }
 
     /**
      * Tính tổng thuế đã thu
      */
     public double getTotalTax() {
-        return invoices.stream()
+        return invoices.read(values -> values.stream()
                 .filter(i -> i.getStatus() == InvoiceStatus.PAID)
                 .mapToDouble(Invoice::getTaxAmount)
-                .sum();
+                .sum());
     }
 
     /**
      * Tính tổng doanh thu chưa thanh toán
      */
     public double getUnpaidRevenue() {
-        return invoices.stream()
+        return invoices.read(values -> values.stream()
                 .filter(i -> i.getStatus() != InvoiceStatus.PAID)
                 .mapToDouble(Invoice::getTotalAmount)
-                .sum();
+                .sum());
     }
 
     /**
@@ -151,8 +271,10 @@ public class InvoiceManager implements IManageable<Invoice> {
     public void markInvoiceAsPaid(String invoiceId) {
         Invoice invoice = getById(invoiceId);
         if (invoice != null) {
-            invoice.markAsPaid();
-            update(invoice);
+            invoices.write(() -> {
+                invoice.markAsPaid();
+                return update(invoice);
+            });
         }
     }
 
@@ -162,8 +284,10 @@ public class InvoiceManager implements IManageable<Invoice> {
     public void cancelInvoice(String invoiceId) {
         Invoice invoice = getById(invoiceId);
         if (invoice != null) {
-            invoice.cancel();
-            update(invoice);
+            invoices.write(() -> {
+                invoice.cancel();
+                return update(invoice);
+            });
         }
     }
 
@@ -171,12 +295,12 @@ public class InvoiceManager implements IManageable<Invoice> {
      * Tính tổng doanh thu trong tháng
      */
     public double getMonthlyRevenue(int month, int year) {
-        return invoices.stream()
+        return invoices.read(values -> values.stream()
                 .filter(i -> i.getStatus() == InvoiceStatus.PAID &&
                         i.getInvoiceDate().getMonth().getValue() == month &&
                         i.getInvoiceDate().getYear() == year)
                 .mapToDouble(Invoice::getTotalAmount)
-                .sum();
+                .sum());
     }
 
     @Override
@@ -191,7 +315,48 @@ public class InvoiceManager implements IManageable<Invoice> {
     
     @Override
     public void clear() {
-        invoices.clear();
+        invoices.write(() -> {
+            invoices.clear();
+            bookingIndex.clear();
+            customerIndex.clear();
+            unindexedCustomers.clear();
+            changeNotifier.fireCleared();
+            return null;
+        });
+    }
+
+    /**
+     * Đánh chỉ mục lại hóa đơn theo booking/khách hàng hiện tại của nó
+     * Không tra cứu booking của hóa đơn tải bằng tham chiếu trễ (giữ cho việc tải dữ liệu nhanh);
+     * hóa đơn đó chờ trong unindexedCustomers đến lần tìm theo khách hàng đầu tiên.
+     */
+    private void index(Invoice invoice) {
+        bookingIndex.put(invoice.getInvoiceId(), invoice.getBookingId(), invoice);
+        if (invoice.isResolved()) {
+            indexCustomer(invoice);
+        } else {
+            customerIndex.remove(invoice.getInvoiceId());
+            unindexedCustomers.put(invoice.getInvoiceId(), invoice);
+        }
+    }
+
+    /**
+     * Đưa vào chỉ mục khách hàng nếu tra cứu được booking; booking treo được thử lại lần sau
+     */
+    private boolean indexCustomer(Invoice invoice) {
+        Booking booking = invoice.getBooking();
+        if (booking == null && !invoice.isResolved()) {
+            return false;
+        }
+        customerIndex.put(invoice.getInvoiceId(), booking != null ? booking.getCustomerId() : null, invoice);
+        unindexedCustomers.remove(invoice.getInvoiceId());
+        return true;
+    }
+
+    private void indexPendingCustomers() {
+        for (Invoice invoice : new ArrayList<>(unindexedCustomers.values())) {
+            indexCustomer(invoice);
+        }
     }
 
     public int getTotalInvoices() {
@@ -199,10 +364,10 @@ public class InvoiceManager implements IManageable<Invoice> {
     }
 
     public int getPaidInvoices() {
-        return (int) invoices.stream().filter(i -> i.getStatus() == InvoiceStatus.PAID).count();
+        return invoices.read(values -> (int) values.stream().filter(i -> i.getStatus() == InvoiceStatus.PAID).count());
     }
 
     public int getUnpaidInvoices() {
-        return (int) invoices.stream().filter(i -> i.getStatus() != InvoiceStatus.PAID).count();
+        return invoices.read(values -> (int) values.stream().filter(i -> i.getStatus() != InvoiceStatus.PAID).count());
     }
 }
@@ -0,0 +1,224 @@
+package com.hotel.service;
+
+import com.hotel.model.booking.Booking;
+import com.hotel.model.enums.BookingStatus;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Chỉ mục khoảng thời gian đặt phòng theo từng phòng
+ * Mỗi phòng giữ một TreeMap check-in -> các lượt ở, nên việc kiểm tra phòng trống
+ * chỉ cần duyệt cửa sổ ngày quanh khoảng truy vấn thay vì toàn bộ danh sách booking.
+ * Cửa sổ lùi về trước check-in đúng bằng số đêm của lượt ở dài nhất hiện có trong phòng
+ * (tính lại khi lượt ở đó bị gỡ), nên chi phí là O(log n + k) với k là số lượt ở trong cửa sổ.
+ *
+ * Chỉ mục lưu bản sao ngày check-in/check-out tại thời điểm đánh chỉ mục, vì Booking
+ * bị sửa trực tiếp (setCheckInDate, setStatus...) trước khi gọi update().
+ */
+final class RoomAvailabilityIndex {
+
+    /** Lượt ở đã đánh chỉ mục (bản sao ngày tại thời điểm put) */
+    private static final class Stay {
+        final String bookingId;
+        final String roomId;
+        final LocalDate checkIn;
+        final LocalDate checkOut;
+
+        Stay(String bookingId, String roomId, LocalDate checkIn, LocalDate checkOut) {
+            this.bookingId = bookingId;
+            this.roomId = roomId;
+            this.checkIn = checkIn;
+            this.checkOut = checkOut;
+        }
+    }
+
+    /** Dòng thời gian của một phòng, sắp xếp theo ngày check-in */
+    private static final class RoomTimeline {
+        final TreeMap<LocalDate, List<Stay>> byCheckIn = new TreeMap<>();
+        /** Số đêm -> số lượt ở có số đêm đó; khóa lớn nhất là cận dưới cửa sổ tìm kiếm */
+        final TreeMap<Long, Integer> stayLengths = new TreeMap<>();
+
+        void add(Stay stay) {
+            byCheckIn.computeIfAbsent(stay.checkIn, d -> new ArrayList<>(1)).add(stay);
+            stayLengths.merge(lengthOf(stay), 1, Integer::sum);
+        }
+
+        void remove(Stay stay) {
+            List<Stay> stays = byCheckIn.get(stay.checkIn);
+            if (stays != null && stays.remove(stay)) {
+                if (stays.isEmpty()) {
+                    byCheckIn.remove(stay.checkIn);
+                }
+                stayLengths.computeIfPresent(lengthOf(stay), (days, count) -> count == 1 ? null : count - 1);
+            }
+        }
+
+        /**
+         * Số đêm của lượt ở dài nhất hiện có
+         */
+        long longestStayDays() {
+            return stayLengths.isEmpty() ? 0 : stayLengths.lastKey();
+        }
+
+        private static long lengthOf(Stay stay) {
+            return Math.max(0, ChronoUnit.DAYS.between(stay.checkIn, stay.checkOut));
+        }
+
+        /**
+         * Có lượt ở nào giao với [checkIn, checkOut] không (tính cả hai đầu mút)
+         * Lượt ở [bIn, bOut] giao khi bIn <= checkOut và bOut >= checkIn; vì bOut - bIn
+         * không vượt quá longestStayDays() nên chỉ cần xét bIn >= checkIn - longestStayDays().
+         */
+        boolean overlaps(LocalDate checkIn, LocalDate checkOut) {
+            LocalDate from = checkIn.minusDays(longestStayDays());
+            if (checkOut.isBefore(from)) {
+                return false;
+            }
+            NavigableMap<LocalDate, List<Stay>> window = byCheckIn.subMap(from, true, checkOut, true);
+            for (List<Stay> stays : window.values()) {
+                for (Stay stay : stays) {
+                    if (!stay.checkOut.isBefore(checkIn)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        boolean isEmpty() {
+            return byCheckIn.isEmpty();
+        }
+    }
+
+    private final Map<String, Stay> staysByBookingId = new HashMap<>();
+    private final Map<String, RoomTimeline> timelines = new HashMap<>();
+
+    /**
+     * Đánh chỉ mục (hoặc đánh lại) một booking
+     * Booking đã hủy hoặc thiếu phòng/ngày sẽ bị gỡ khỏi chỉ mục.
+     */
+    void put(Booking booking) {
+        remove(booking.getBookingId());
+        if (booking.getStatus() == BookingStatus.CANCELLED || booking.getRoomId() == null
+                || booking.getCheckInDate() == null || booking.getCheckOutDate() == null) {
+            return;
+        }
+
+        Stay stay = new Stay(booking.getBookingId(), booking.getRoomId(),
+                booking.getCheckInDate(), booking.getCheckOutDate());
+        staysByBookingId.put(stay.bookingId, stay);
+        timelines.computeIfAbsent(stay.roomId, id -> new RoomTimeline()).add(stay);
+    }
+
+    /**
+     * Gỡ booking khỏi chỉ mục theo ID
+     */
+    void remove(String bookingId) {
+        Stay stay = staysByBookingId.remove(bookingId);
+        if (stay == null) {
+            return;
+        }
+        RoomTimeline timeline = timelines.get(stay.roomId);
+        if (timeline != null) {
+            timeline.remove(stay);
+            if (timeline.isEmpty()) {
+                timelines.remove(stay.roomId);
+            }
+        }
+    }
+
+    /**
+     * Phòng có trống trong khoảng [checkIn, checkOut] không
+     */
+    boolean isAvailable(String roomId, LocalDate checkIn, LocalDate checkOut) {
+        RoomTimeline timeline = timelines.get(roomId);
+        return timeline == null || !timeline.overlaps(checkIn, checkOut);
+    }
+
+    /**
+     * Số ngày cửa sổ tìm kiếm của phòng lùi về trước check-in (0 nếu phòng chưa có lượt ở)
+     */
+    long lookbackDays(String roomId) {
+        RoomTimeline timeline = timelines.get(roomId);
+        return timeline != null ? timeline.longestStayDays() : 0;
+    }
+
+    /**
+     * Tìm booking đầu tiên trong lô bị trùng lịch, với booking đã có hoặc với booking khác trong lô
+     * Booking của mỗi phòng được sắp theo check-in rồi quét song song với dòng thời gian của
+     * phòng trong một lượt, thay vì tra cứu riêng từng booking. Booking đã hủy được bỏ qua.
+     * @return Booking bị trùng, hoặc null nếu cả lô hợp lệ
+     */
+    Booking findConflict(Collection<Booking> batch) {
+        Map<String, List<Booking>> byRoom = new HashMap<>();
+        for (Booking booking : batch) {
+            if (booking.getStatus() != BookingStatus.CANCELLED && booking.getRoomId() != null
+                    && booking.getCheckInDate() != null && booking.getCheckOutDate() != null) {
+                byRoom.computeIfAbsent(booking.getRoomId(), id -> new ArrayList<>()).add(booking);
+            }
+        }
+        for (Map.Entry<String, List<Booking>> entry : byRoom.entrySet()) {
+            List<Booking> incoming = entry.getValue();
+            incoming.sort(Comparator.comparing(Booking::getCheckInDate));
+            Booking conflict = sweep(timelines.get(entry.getKey()), incoming);
+            if (conflict != null) {
+                return conflict;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Trộn lượt ở hiện có và lượt ở mới theo thứ tự check-in; một lượt ở giao với lượt
+     * đứng trước nó khi check-in của nó không sau check-out lớn nhất đã gặp
+     */
+    private static Booking sweep(RoomTimeline timeline, List<Booking> incoming) {
+        Iterator<Stay> existing = Collections.emptyIterator();
+        if (timeline != null) {
+            LocalDate from = incoming.get(0).getCheckInDate().minusDays(timeline.longestStayDays());
+            LocalDate to = incoming.stream().map(Booking::getCheckOutDate).max(Comparator.naturalOrder()).get();
+            if (!to.isBefore(from)) {
+                existing = timeline.byCheckIn.subMap(from, true, to, true).values().stream()
+                        .flatMap(List::stream).iterator();
+            }
+        }
+
+        LocalDate existingMaxOut = LocalDate.MIN;
+        LocalDate incomingMaxOut = LocalDate.MIN;
+        Booking latestIncoming = null;
+        Stay nextExisting = existing.hasNext() ? existing.next() : null;
+        for (Booking booking : incoming) {
+            while (nextExisting != null && !nextExisting.checkIn.isAfter(booking.getCheckInDate())) {
+                if (!incomingMaxOut.isBefore(nextExisting.checkIn)) {
+                    return latestIncoming;
+                }
+                existingMaxOut = max(existingMaxOut, nextExisting.checkOut);
+                nextExisting = existing.hasNext() ? existing.next() : null;
+            }
+            if (!existingMaxOut.isBefore(booking.getCheckInDate())
+                    || !incomingMaxOut.isBefore(booking.getCheckInDate())) {
+                return booking;
+            }
+            if (booking.getCheckOutDate().isAfter(incomingMaxOut)) {
+                incomingMaxOut = booking.getCheckOutDate();
+                latestIncoming = booking;
+            }
+        }
+        // Lượt ở hiện có bắt đầu sau check-in của booking mới cuối cùng
+        if (nextExisting != null && !incomingMaxOut.isBefore(nextExisting.checkIn)) {
+            return latestIncoming;
+        }
+        return null;
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    void clear() {
+        staysByBookingId.clear();
+        timelines.clear();
+    }
+}
@@ -0,0 +1,76 @@
+package com.hotel.service;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Khóa phân dải theo phòng, dùng chung cho RoomManager và BookingManager
+ * Các chuyển trạng thái của cùng một phòng (đặt phòng, nhận/trả phòng) chạy tuần tự,
+ * còn các phòng khác nhau chạy song song. Luôn lấy khóa phòng trước khóa của manager.
+ * Khóa được giữ trong một WriteScope, nên onCommitted() của listener đến sau khi đã trả khóa phòng.
+ */
+final class RoomLocks {
+
+    private static final int STRIPES = 64;
+    private static final ReentrantLock[] LOCKS = new ReentrantLock[STRIPES];
+
+    static {
+        for (int i = 0; i < STRIPES; i++) {
+            LOCKS[i] = new ReentrantLock();
+        }
+    }
+
+    private RoomLocks() {
+    }
+
+    /**
+     * Chạy action khi giữ khóa của phòng (ID không phân biệt hoa thường, null dùng chung một khóa)
+     */
+    static <R> R withRoom(String roomId, Supplier<R> action) {
+        ReentrantLock lock = forRoom(roomId);
+        return WriteScope.run(() -> {
+            lock.lock();
+            try {
+                return action.get();
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Chạy action khi giữ khóa của tất cả các phòng (dùng cho thao tác theo lô)
+     * Các dải được khóa theo thứ tự chỉ số tăng dần nên hai lô chồng nhau không thể deadlock.
+     */
+    static <R> R withRooms(Collection<String> roomIds, Supplier<R> action) {
+        BitSet stripes = new BitSet(STRIPES);
+        for (String roomId : roomIds) {
+            stripes.set(stripeOf(roomId));
+        }
+        return WriteScope.run(() -> {
+            int locked = -1;
+            try {
+                for (int i = stripes.nextSetBit(0); i >= 0; i = stripes.nextSetBit(i + 1)) {
+                    LOCKS[i].lock();
+                    locked = i;
+                }
+                return action.get();
+            } finally {
+                for (int i = locked; i >= 0; i = stripes.previousSetBit(i - 1)) {
+                    LOCKS[i].unlock();
+                }
+            }
+        });
+    }
+
+    private static ReentrantLock forRoom(String roomId) {
+        return LOCKS[stripeOf(roomId)];
+    }
+
+    private static int stripeOf(String roomId) {
+        int hash = roomId != null ? roomId.toUpperCase().hashCode() : 0;
+        return Math.floorMod(hash ^ (hash >>> 16), STRIPES);
+    }
+}
@@ -3,10 +3,17 @@ package com.hotel.service;
 import com.hotel.model.enums.RoomStatus;
 import com.hotel.model.enums.RoomType;
 import com.hotel.model.room.Room;
+import com.hotel.service.interfaces.IChangeListener;
 import com.hotel.service.interfaces.IManageable;
+import com.hotel.service.interfaces.IRoomColumns;
 import com.hotel.service.interfaces.ISearchable;
+import com.hotel.util.Result;
+import com.hotel.util.TextNormalizer;
 
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
@@ -20,11 +27,29 @@ public class RoomManager implements IManageable<Room>, ISearchable<Room> {
     
     // ==================== ATTRIBUTES ====================
     
-    /** Danh sách phòng (sử dụng HashMap để tìm kiếm nhanh theo ID) */
-    private final Map<String, Room> roomMap;
+    /** Danh sách phòng theo ID viết hoa (tra cứu không khóa, an toàn đa luồng) */
+    private final ConcurrentStore<Room> rooms;
+    
+    /** Chỉ mục trigram trên văn bản tìm kiếm của phòng (Room.getSearchText, cập nhật trong write()) */
+    private final TrigramIndex<Room> searchIndex = new TrigramIndex<>();
+    
+    /** Tên trạng thái đã chuẩn hóa; trạng thái đổi trực tiếp trên Room nên được so khi tìm, không đánh chỉ mục */
+    private static final Map<RoomStatus, String> STATUS_SEARCH_TEXT = new EnumMap<>(RoomStatus.class);
+    
+    static {
+        for (RoomStatus status : RoomStatus.values()) {
+            STATUS_SEARCH_TEXT.put(status, TextNormalizer.normalize(status.getDisplayName()));
+        }
+    }
     
     /** Instance duy nhất (Singleton Pattern) */
-    private static RoomManager instance;
+    private static volatile RoomManager instance;
+    
+    /** Listener nhận thông báo thay đổi (dùng cho lưu trữ tăng dần) */
+    private final ChangeNotifier<Room> changeNotifier = new ChangeNotifier<>();
+    
+    /** Cột dữ liệu chỉ đọc (chế độ báo cáo); khi có thì các phép thống kê chạy trên cột */
+    private volatile IRoomColumns columns;
     
     // ==================== CONSTRUCTOR ====================
     
@@ -32,18 +57,25 @@ public class RoomManager implements IManageable<Room>, ISearchable<Room> {
      * Private constructor (Singleton Pattern)
      */
     private RoomManager() {
-        this.roomMap = new HashMap<>();
+        this.rooms = new ConcurrentStore<>();
     }
     
     /**
      * Lấy instance duy nhất của RoomManager
      * @return RoomManager instance
      */
-    public static synchronized RoomManager getInstance() {
-        if (instance == null) {
-            instance = new RoomManager();
+    public static RoomManager getInstance() {
+        RoomManager current = instance;
+        if (current == null) {
+            synchronized (RoomManager.class) {
+                current = instance;
+                if (current == null) {
+                    current = new RoomManager();
+                    instance = current;
+                }
+            }
         }
-        return instance;
+        return current;
     }
     
     /**
@@ -53,6 +85,30 @@ public class RoomManager implements IManageable<Room>, ISearchable<Room> {
         instance = null;
     }
     
+    /**
+     * Đăng ký listener nhận thông báo khi dữ liệu phòng thay đổi
+     * @param listener Listener cần đăng ký
+     */
+    public void addChangeListener(IChangeListener<Room> listener) {
+        changeNotifier.addListener(listener);
+    }
+    
+    /**
+     * Hủy đăng ký listener
+     * @param listener Listener cần hủy
+     */
+    public void removeChangeListener(IChangeListener<Room> listener) {
+        changeNotifier.removeListener(listener);
+    }
+    
+    /**
+     * Gắn dữ liệu dạng cột cho chế độ chỉ đọc (null để bỏ)
+     * @param columns Cột dữ liệu phòng
+     */
+    public void attachColumns(IRoomColumns columns) {
+        this.columns = columns;
+    }
+    
     // ==================== IManageable IMPLEMENTATION ====================
     
     /**
@@ -72,12 +128,15 @@ public class RoomManager implements IManageable<Room>, ISearchable<Room> {
         }
 
         String normalizedId = roomId.toUpperCase();
-        if (roomMap.containsKey(normalizedId)) {
-            return false; // ID null hoặc đã tồn tại
-        }
-
-        roomMap.put(normalizedId, room);
-        return true;
+        return rooms.write(() -> {
+            if (rooms.contains(normalizedId)) {
+                return false; // ID đã tồn tại
+            }
+            rooms.put(normalizedId, room);
+            searchIndex.put(normalizedId, room.getSearchText(), room);
+            changeNotifier.fireAdded(room);
+            return true;
+        });
     }
     
     /**
@@ -97,12 +156,35 @@ public class RoomManager implements IManageable<Room>, ISearchable<Room> {
         }
 
         String normalizedId = roomId.toUpperCase();
-        if (!roomMap.containsKey(normalizedId)) {
-            return false; // Không tìm thấy phòng
+        return RoomLocks.withRoom(normalizedId, () -> rooms.write(() -> {
+            if (!rooms.contains(normalizedId)) {
+                return false; // Không tìm thấy phòng
+            }
+            rooms.put(normalizedId, room);
+            searchIndex.put(normalizedId, room.getSearchText(), room);
+            changeNotifier.fireUpdated(room);
+            return true;
+        }));
+    }
+    
+    /**
+     * Cập nhật lạc quan: thay phòng nếu chưa ai lưu thay đổi khác kể từ expectedVersion
+     * @param expectedVersion Phiên bản lúc bắt đầu sửa (getVersion())
+     * @return Phòng đã lưu, hoặc thất bại nếu không tìm thấy / phiên bản đã cũ
+     */
+    public Result<Room> update(Room room, long expectedVersion) {
+        if (room == null || room.getRoomId() == null) {
+            return Result.failure("Phòng không hợp lệ");
         }
-
-        roomMap.put(normalizedId, room);
-        return true;
+        String normalizedId = room.getRoomId().toUpperCase();
+        return RoomLocks.withRoom(normalizedId, () -> rooms.write(() -> {
+            Result<Room> result = rooms.compareAndSet(normalizedId, expectedVersion, current -> room);
+            result.onSuccess(updated -> {
+                searchIndex.put(normalizedId, updated.getSearchText(), updated);
+                changeNotifier.fireUpdated(updated);
+            });
+            return result;
+        }));
     }
     
     /**
@@ -117,12 +199,14 @@ public class RoomManager implements IManageable<Room>, ISearchable<Room> {
         }
 
         String normalizedId = roomId.toUpperCase();
-        if (!roomMap.containsKey(normalizedId)) {
-            return false;
-        }
-
-        roomMap.remove(normalizedId);
-        return true;
+        return RoomLocks.withRoom(normalizedId, () -> rooms.write(() -> {
+            if (rooms.remove(normalizedId) == null) {
+                return false;
+            }
+            searchIndex.remove(normalizedId);
+            changeNotifier.fireDeleted(normalizedId);
+            return true;
+        }));
     }
     
     /**
@@ -135,16 +219,16 @@ public class RoomManager implements IManageable<Room>, ISearchable<Room> {
         if (roomId == null) {
             return null;
         }
-        return roomMap.get(roomId.toUpperCase());
+        return rooms.get(roomId.toUpperCase());
     }
     
     /**
-     * Lấy tất cả phòng
+     * Lấy tất cả phòng (bản chụp nhất quán, không lẫn thao tác ghi đang chạy)
      * @return Danh sách tất cả phòng
      */
     @Override
     public List<Room> getAll() {
-        return new ArrayList<>(roomMap.values());
+        return rooms.snapshot();
     }
     
     /**
@@ -153,7 +237,7 @@ public class RoomManager implements IManageable<Room>, ISearchable<Room> {
      */
     @Override
     public int count() {
-        return roomMap.size();
+        return rooms.size();
     }
     
     /**
@@ -162,7 +246,7 @@ public class RoomManager implements IManageable<Room>, ISearchable<Room> {
      */
     @Override
     public boolean isEmpty() {
-        return roomMap.isEmpty();
+        return rooms.isEmpty();
     }
     
     /**
@@ -170,13 +254,21 @@ public class RoomManager implements IManageable<Room>, ISearchable<Room> {
      */
     @Override
     public void clear() {
-        roomMap.clear();
+        rooms.write(() -> {
+            rooms.clear();
+            searchIndex.clear();
+            columns = null;
+            changeNotifier.fireCleared();
+            return null;
+        });
     }
     
     // ==================== ISearchable IMPLEMENTATION ====================
     
     /**
-     * Tìm kiếm phòng theo keyword
+     * Tìm kiếm phòng theo keyword (chuỗi con của mã phòng, loại phòng, trạng thái hoặc mô tả;
+     * không phân biệt hoa thường và dấu)
+     * Từ khóa không khớp tên trạng thái nào thì tra chỉ mục trigram, không duyệt từng phòng.
      * @param keyword Từ khóa tìm kiếm
      * @return Danh sách phòng tìm được
      */
@@ -186,20 +278,44 @@ public class RoomManager implements IManageable<Room>, ISearchable<Room> {
             return getAll();
         }
         
-        String searchKey = keyword.toLowerCase().trim();
-        return roomMap.values().stream()
-                .filter(room -> matchesKeyword(room, searchKey))
-                .collect(Collectors.toList());
+        String searchKey = TextNormalizer.normalize(keyword.trim());
+        Set<RoomStatus> statuses = matchingStatuses(searchKey);
+        if (statuses.isEmpty()) {
+            return rooms.read(values -> searchIndex.search(searchKey));
+        }
+        Predicate<Room> matcher = room -> matchesKeyword(room, searchKey, statuses);
+        return rooms.read(values -> values.stream()
+                .filter(matcher)
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    public Predicate<Room> matcher(String keyword) {
+        if (keyword == null || keyword.trim().isEmpty()) {
+            return room -> true;
+        }
+        String searchKey = TextNormalizer.normalize(keyword.trim());
+        Set<RoomStatus> statuses = matchingStatuses(searchKey);
+        return room -> matchesKeyword(room, searchKey, statuses);
     }
     
     /**
-     * Kiểm tra phòng có khớp từ khóa không
+     * Kiểm tra phòng có khớp từ khóa không (không tạo chuỗi mới)
+     * @param keyword  Từ khóa đã chuẩn hóa
+     * @param statuses Các trạng thái có tên chứa từ khóa
      */
-    private boolean matchesKeyword(Room room, String keyword) {
-        return room.getRoomId().toLowerCase().contains(keyword) ||
-               room.getRoomType().getDisplayName().toLowerCase().contains(keyword) ||
-               room.getStatus().getDisplayName().toLowerCase().contains(keyword) ||
-               room.getDescription().toLowerCase().contains(keyword);
+    private static boolean matchesKeyword(Room room, String keyword, Set<RoomStatus> statuses) {
+        return statuses.contains(room.getStatus()) || room.getSearchText().contains(keyword);
+    }
+    
+    private static Set<RoomStatus> matchingStatuses(String keyword) {
+        Set<RoomStatus> statuses = EnumSet.noneOf(RoomStatus.class);
+        STATUS_SEARCH_TEXT.forEach((status, text) -> {
+            if (text.contains(keyword)) {
+                statuses.add(status);
+            }
+        });
+        return statuses;
     }
     
     /**
@@ -213,9 +329,9 @@ public class RoomManager implements IManageable<Room>, ISearchable<Room> {
             return getAll();
         }
         
-        return roomMap.values().stream()
+        return rooms.read(values -> values.stream()
                 .filter(room -> matchesCriteria(room, criteria))
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
     
     /**
@@ -273,9 +389,9 @@ public class RoomManager implements IManageable<Room>, ISearchable<Room> {
         if (type == null) {
             return new ArrayList<>();
         }
-        return roomMap.values().stream()
+        return rooms.read(values -> values.stream()
                 .filter(room -> room.getRoomType() == type)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
     
     /**
@@ -287,9 +403,9 @@ public class RoomManager implements IManageable<Room>, ISearchable<Room> {
         if (status == null) {
             return new ArrayList<>();
         }
-        return roomMap.values().stream()
+        return rooms.read(values -> values.stream()
                 .filter(room -> room.getStatus() == status)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
     
     /**
@@ -298,9 +414,9 @@ public class RoomManager implements IManageable<Room>, ISearchable<Room> {
      * @return Danh sách phòng trên tầng
      */
     public List<Room> findByFloor(int floor) {
-        return roomMap.values().stream()
+        return rooms.read(values -> values.stream()
                 .filter(room -> room.getFloor() == floor)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
     
     /**
@@ -317,9 +433,9 @@ public class RoomManager implements IManageable<Room>, ISearchable<Room> {
      * @return Danh sách phòng trống theo loại
      */
     public List<Room> findAvailableRoomsByType(RoomType type) {
-        return roomMap.values().stream()
+        return rooms.read(values -> values.stream()
                 .filter(room -> room.getRoomType() == type && room.isAvailable())
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
     
     /**
@@ -329,9 +445,9 @@ public class RoomManager implements IManageable<Room>, ISearchable<Room> {
      * @return Danh sách phòng trong khoảng giá
      */
     public List<Room> findByPriceRange(double minPrice, double maxPrice) {
-        return roomMap.values().stream()
+        return rooms.read(values -> values.stream()
                 .filter(room -> room.getBasePrice() >= minPrice && room.getBasePrice() <= maxPrice)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
     
     // ==================== SORTING METHODS ====================
@@ -341,9 +457,9 @@ public class RoomManager implements IManageable<Room>, ISearchable<Room> {
      * @return Danh sách phòng đã sắp xếp
      */
     public List<Room> sortByPriceAscending() {
-        return roomMap.values().stream()
+        return rooms.read(values -> values.stream()
                 .sorted(Comparator.comparingDouble(Room::getBasePrice))
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
     
     /**
@@ -351,9 +467,9 @@ public class RoomManager implements IManageable<Room>, ISearchable<Room> {
      * @return Danh sách phòng đã sắp xếp
      */
     public List<Room> sortByPriceDescending() {
-        return roomMap.values().stream()
+        return rooms.read(values -> values.stream()
                 .sorted(Comparator.comparingDouble(Room::getBasePrice).reversed())
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
     
     /**
@@ -361,9 +477,9 @@ public class RoomManager implements IManageable<Room>, ISearchable<Room> {
      * @return Danh sách phòng đã sắp xếp
      */
     public List<Room> sortById() {
-        return roomMap.values().stream()
+        return rooms.read(values -> values.stream()
                 .sorted(Comparator.comparing(Room::getRoomId))
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
     
     /**
@@ -371,9 +487,9 @@ public class RoomManager implements IManageable<Room>, ISearchable<Room> {
      * @return Danh sách phòng đã sắp xếp
      */
     public List<Room> sortByFloor() {
-        return roomMap.values().stream()
+        return rooms.read(values -> values.stream()
                 .sorted(Comparator.comparingInt(Room::getFloor))
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
     
     /**
@@ -381,9 +497,9 @@ public class RoomManager implements IManageable<Room>, ISearchable<Room> {
      * @return Danh sách phòng đã sắp xếp
      */
     public List<Room> sortByType() {
-        return roomMap.values().stream()
+        return rooms.read(values -> values.stream()
                 .sorted(Comparator.comparing(Room::getRoomType))
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
     
     // ==================== STATISTICS METHODS ====================
@@ -393,8 +509,12 @@ public class RoomManager implements IManageable<Room>, ISearchable<Room> {
      * @return Map loại phòng -> số lượng
      */
     public Map<RoomType, Long> countByType() {
-        return roomMap.values().stream()
-                .collect(Collectors.groupingBy(Room::getRoomType, Collectors.counting()));
+        IRoomColumns cols = columns;
+        if (cols != null) {
+            return countColumn(cols, cols::getRoomType);
+        }
+        return rooms.read(values -> values.stream()
+                .collect(Collectors.groupingBy(Room::getRoomType, Collectors.counting())));
     }
     
     /**
@@ -402,8 +522,12 @@ public class RoomManager implements IManageable<Room>, ISearchable<Room> {
      * @return Map trạng thái -> số lượng
      */
     public Map<RoomStatus, Long> countByStatus() {
-        return roomMap.values().stream()
-                .collect(Collectors.groupingBy(Room::getStatus, Collectors.counting()));
+        IRoomColumns cols = columns;
+        if (cols != null) {
+            return countColumn(cols, cols::getStatus);
+        }
+        return rooms.read(values -> values.stream()
+                .collect(Collectors.groupingBy(Room::getStatus, Collectors.counting())));
     }
     
     /**
@@ -411,8 +535,12 @@ public class RoomManager implements IManageable<Room>, ISearchable<Room> {
      * @return Map tầng -> số lượng
      */
     public Map<Integer, Long> countByFloor() {
-        return roomMap.values().stream()
-                .collect(Collectors.groupingBy(Room::getFloor, Collectors.counting()));
+        IRoomColumns cols = columns;
+        if (cols != null) {
+            return countColumn(cols, cols::getFloor);
+        }
+        return rooms.read(values -> values.stream()
+                .collect(Collectors.groupingBy(Room::getFloor, Collectors.counting())));
     }
     
     /**
@@ -420,9 +548,28 @@ public class RoomManager implements IManageable<Room>, ISearchable<Room> {
      * @return Tổng doanh thu tiềm năng
      */
     public double calculateTotalPotentialRevenue() {
-        return roomMap.values().stream()
+        IRoomColumns cols = columns;
+        if (cols != null) {
+            double total = 0;
+            for (int row = 0; row < cols.size(); row++) {
+                total += cols.getPricePerNight(row);
+            }
+            return total;
+        }
+        return rooms.read(values -> values.stream()
                 .mapToDouble(room -> room.calculatePrice(1))
-                .sum();
+                .sum());
+    }
+    
+    /**
+     * Đếm số dòng theo giá trị của một cột
+     */
+    private static <K> Map<K, Long> countColumn(IRoomColumns cols, IntFunction<K> column) {
+        Map<K, Long> counts = new HashMap<>();
+        for (int row = 0; row < cols.size(); row++) {
+            counts.merge(column.apply(row), 1L, Long::sum);
+        }
+        return counts;
     }
     
     /**
@@ -430,9 +577,9 @@ public class RoomManager implements IManageable<Room>, ISearchable<Room> {
      * @return Phòng đắt nhất hoặc null
      */
     public Room getMostExpensiveRoom() {
-        return roomMap.values().stream()
+        return rooms.read(values -> values.stream()
                 .max(Comparator.comparingDouble(Room::getBasePrice))
-                .orElse(null);
+                .orElse(null));
     }
     
     /**
@@ -440,9 +587,9 @@ public class RoomManager implements IManageable<Room>, ISearchable<Room> {
      * @return Phòng rẻ nhất hoặc null
      */
     public Room getCheapestRoom() {
-        return roomMap.values().stream()
+        return rooms.read(values -> values.stream()
                 .min(Comparator.comparingDouble(Room::getBasePrice))
-                .orElse(null);
+                .orElse(null));
     }
     
     // ==================== BUSINESS METHODS ====================
@@ -453,21 +600,26 @@ public class RoomManager implements IManageable<Room>, ISearchable<Room> {
      * @return true nếu đã tồn tại
      */
     public boolean exists(String roomId) {
-        return roomId != null && roomMap.containsKey(roomId.toUpperCase());
+        return roomId != null && rooms.contains(roomId.toUpperCase());
     }
     
     /**
-     * Đặt phòng (chuyển trạng thái sang OCCUPIED)
+     * Đặt phòng (chuyển trạng thái sang OCCUPIED), từ phòng trống hoặc phòng đã giữ trước khi check-in
      * @param roomId ID phòng
      * @return true nếu đặt thành công
      */
     public boolean occupyRoom(String roomId) {
-        Room room = getById(roomId);
-        if (room == null || !room.isAvailable()) {
-            return false;
-        }
-        room.occupy();
-        return true;
+        return transition(roomId, room -> room.isAvailable() || room.getStatus() == RoomStatus.RESERVED,
+                Room::occupy);
+    }
+    
+    /**
+     * Giữ phòng cho booking mới (chuyển trạng thái sang RESERVED)
+     * @param roomId ID phòng
+     * @return true nếu phòng đang nhận đặt và đã được giữ
+     */
+    public boolean reserveRoom(String roomId) {
+        return transition(roomId, room -> room.getStatus().canBook(), room -> room.setStatus(RoomStatus.RESERVED));
     }
     
     /**
@@ -476,12 +628,7 @@ public class RoomManager implements IManageable<Room>, ISearchable<Room> {
      * @return true nếu trả thành công
      */
     public boolean releaseRoom(String roomId) {
-        Room room = getById(roomId);
-        if (room == null || room.getStatus() != RoomStatus.OCCUPIED) {
-            return false;
-        }
-        room.release();
-        return true;
+        return transition(roomId, room -> room.getStatus() == RoomStatus.OCCUPIED, Room::release);
     }
     
     /**
@@ -490,12 +637,7 @@ public class RoomManager implements IManageable<Room>, ISearchable<Room> {
      * @return true nếu thành công
      */
     public boolean markRoomAvailable(String roomId) {
-        Room room = getById(roomId);
-        if (room == null) {
-            return false;
-        }
-        room.markAvailable();
-        return true;
+        return transition(roomId, room -> true, Room::markAvailable);
     }
     
     /**
@@ -504,28 +646,55 @@ public class RoomManager implements IManageable<Room>, ISearchable<Room> {
      * @return true nếu thành công
      */
     public boolean markRoomMaintenance(String roomId) {
-        Room room = getById(roomId);
-        if (room == null) {
+        return transition(roomId, room -> true, Room::markMaintenance);
+    }
+    
+    /**
+     * Kiểm tra rồi đổi trạng thái phòng khi giữ khóa của phòng đó,
+     * nên hai quầy không thể cùng nhận một phòng trống
+     */
+    private boolean transition(String roomId, Predicate<Room> allowed, Consumer<Room> change) {
+        if (roomId == null) {
             return false;
         }
-        room.markMaintenance();
-        return true;
+        return RoomLocks.withRoom(roomId, () -> {
+            Room room = getById(roomId);
+            if (room == null || !allowed.test(room)) {
+                return false;
+            }
+            rooms.write(() -> {
+                change.accept(room);
+                String normalizedId = room.getRoomId().toUpperCase();
+                rooms.put(normalizedId, room);
+                searchIndex.put(normalizedId, room.getSearchText(), room);
+                changeNotifier.fireUpdated(room);
+                return null;
+            });
+            return true;
+        });
     }
     
     // ==================== DATA LOADING ====================
     
     /**
      * Load danh sách phòng từ bên ngoài
+     * Không phát thông báo thay đổi: dữ liệu đến từ storage nên không cần ghi lại
      * @param rooms Danh sách phòng cần load
      */
     public void loadRooms(List<Room> rooms) {
         if (rooms != null) {
-            roomMap.clear();
-            for (Room room : rooms) {
-                if (room != null && room.getRoomId() != null) {
-                    roomMap.put(room.getRoomId().toUpperCase(), room);
+            this.rooms.write(() -> {
+                this.rooms.clear();
+                searchIndex.clear();
+                for (Room room : rooms) {
+                    if (room != null && room.getRoomId() != null) {
+                        String normalizedId = room.getRoomId().toUpperCase();
+                        this.rooms.put(normalizedId, room);
+                        searchIndex.put(normalizedId, room.getSearchText(), room);
+                    }
                 }
-            }
+                return null;
+            });
         }
     }
 }
@@ -0,0 +1,91 @@
+package com.hotel.service;
+
+import java.util.*;
+
+/**
+ * Chỉ mục phụ: khóa -> các đối tượng có khóa đó (ví dụ customerId -> bookings)
+ * Ghi nhớ khóa đã dùng cho từng ID, vì đối tượng thường bị sửa trực tiếp trước khi
+ * manager gọi put() lại; khi đó bản ghi cũ được gỡ khỏi nhóm cũ một cách chính xác.
+ *
+ * Trong mỗi nhóm, thứ tự là thứ tự đối tượng được đưa vào nhóm đó.
+ *
+ * @param <K> Kiểu khóa chỉ mục
+ * @param <T> Kiểu đối tượng được đánh chỉ mục
+ */
+final class SecondaryIndex<K, T> {
+
+    private final Map<K, Map<String, T>> buckets = new HashMap<>();
+    private final Map<String, K> keyById = new HashMap<>();
+
+    /**
+     * Đánh chỉ mục (hoặc đánh lại) đối tượng theo khóa hiện tại của nó
+     * @param id  ID của đối tượng
+     * @param key Khóa chỉ mục (null = không đánh chỉ mục)
+     */
+    void put(String id, K key, T item) {
+        if (keyById.containsKey(id) && Objects.equals(keyById.get(id), key)) {
+            // Khóa không đổi: thay tại chỗ, giữ nguyên vị trí trong nhóm
+            buckets.get(key).put(id, item);
+            return;
+        }
+        remove(id);
+        if (key != null) {
+            buckets.computeIfAbsent(key, k -> new LinkedHashMap<>()).put(id, item);
+            keyById.put(id, key);
+        }
+    }
+
+    /**
+     * Gỡ đối tượng khỏi chỉ mục
+     */
+    void remove(String id) {
+        if (!keyById.containsKey(id)) {
+            return;
+        }
+        K key = keyById.remove(id);
+        Map<String, T> bucket = buckets.get(key);
+        if (bucket != null) {
+            bucket.remove(id);
+            if (bucket.isEmpty()) {
+                buckets.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Lấy các đối tượng có khóa cho trước (bản sao)
+     */
+    List<T> get(K key) {
+        Map<String, T> bucket = buckets.get(key);
+        return bucket != null ? new ArrayList<>(bucket.values()) : new ArrayList<>();
+    }
+
+    /**
+     * Lấy đối tượng đầu tiên có khóa cho trước
+     */
+    T first(K key) {
+        Map<String, T> bucket = buckets.get(key);
+        return bucket != null && !bucket.isEmpty() ? bucket.values().iterator().next() : null;
+    }
+
+    /**
+     * Duyệt các đối tượng có khóa cho trước mà không sao chép
+     */
+    Collection<T> view(K key) {
+        Map<String, T> bucket = buckets.get(key);
+        return bucket != null ? Collections.unmodifiableCollection(bucket.values()) : Collections.emptyList();
+    }
+
+    /**
+     * Số đối tượng có khóa cho trước
+     */
+    int count(K key) {
+        Map<String, T> bucket = buckets.get(key);
+        return bucket != null ? bucket.size() : 0;
+    }
+
+    void clear() {
+        buckets.clear();
+        keyById.clear();
+    }
+}
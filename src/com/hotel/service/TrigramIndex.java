@@ -0,0 +1,219 @@
+package com.hotel.service;
+
+import com.hotel.util.TextNormalizer;
+
+import java.util.*;
+
+/**
+ * Chỉ mục đảo theo trigram (3 ký tự liên tiếp) để tìm chuỗi con mà không quét toàn bộ
+ * Mỗi đối tượng được gán một số thứ tự (doc) theo lần đầu được đưa vào; mỗi trigram giữ danh sách
+ * doc đã sắp xếp. Tìm chuỗi con = giao các danh sách của các trigram trong từ khóa (bắt đầu từ
+ * danh sách ngắn nhất), rồi kiểm tra lại bằng contains trên văn bản đã chuẩn hóa của từng ứng viên.
+ * Từ khóa ngắn hơn 3 ký tự không có trigram nên quét văn bản đã chuẩn hóa (không tạo chuỗi mới).
+ *
+ * Kết quả theo thứ tự đưa vào, giống ConcurrentStore: đánh chỉ mục lại giữ nguyên số thứ tự,
+ * gỡ rồi thêm lại thì xếp cuối.
+ *
+ * Không tự đồng bộ: manager gọi put/remove/clear trong write() và search trong read().
+ *
+ * @param <T> Kiểu đối tượng được đánh chỉ mục
+ */
+final class TrigramIndex<T> {
+
+    private static final int GRAM = 3;
+    /** Số doc đã gỡ tối thiểu trước khi đánh số lại */
+    private static final int COMPACT_MIN = 1024;
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final Map<String, Integer> docById = new HashMap<>();
+    /** doc -> đối tượng và văn bản đã chuẩn hóa (null = đã gỡ) */
+    private final List<T> items = new ArrayList<>();
+    private final List<String> texts = new ArrayList<>();
+
+    /**
+     * Đánh chỉ mục (hoặc đánh lại) đối tượng theo văn bản hiện tại của nó
+     * @param text Văn bản đã chuẩn hóa (TextNormalizer.join); trigram chứa FIELD_SEPARATOR bị bỏ qua
+     */
+    void put(String id, String text, T item) {
+        Integer existing = docById.get(id);
+        if (existing == null) {
+            int doc = items.size();
+            docById.put(id, doc);
+            items.add(item);
+            texts.add(text);
+            addGrams(doc, text);
+            return;
+        }
+        int doc = existing;
+        items.set(doc, item);
+        String old = texts.get(doc);
+        if (!old.equals(text)) {
+            removeGrams(doc, old);
+            texts.set(doc, text);
+            addGrams(doc, text);
+        }
+    }
+
+    /**
+     * Gỡ đối tượng khỏi chỉ mục
+     */
+    void remove(String id) {
+        Integer doc = docById.remove(id);
+        if (doc == null) {
+            return;
+        }
+        removeGrams(doc, texts.get(doc));
+        items.set(doc, null);
+        texts.set(doc, null);
+        int removed = items.size() - docById.size();
+        if (removed >= COMPACT_MIN && removed > docById.size()) {
+            compact();
+        }
+    }
+
+    void clear() {
+        postings.clear();
+        docById.clear();
+        items.clear();
+        texts.clear();
+    }
+
+    /**
+     * Các đối tượng có văn bản chứa từ khóa
+     * @param keyword Từ khóa đã chuẩn hóa (TextNormalizer.normalize); rỗng = tất cả
+     */
+    List<T> search(String keyword) {
+        List<T> results = new ArrayList<>();
+        if (keyword.length() < GRAM) {
+            for (int doc = 0; doc < texts.size(); doc++) {
+                String text = texts.get(doc);
+                if (text != null && text.contains(keyword)) {
+                    results.add(items.get(doc));
+                }
+            }
+            return results;
+        }
+
+        Postings[] lists = new Postings[keyword.length() - GRAM + 1];
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = postings.get(gram(keyword, i));
+            if (lists[i] == null) {
+                return results;
+            }
+        }
+        Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+
+        int[] candidates = Arrays.copyOf(lists[0].docs, lists[0].size);
+        int count = candidates.length;
+        for (int i = 1; i < lists.length && count > 0; i++) {
+            if (lists[i] == lists[i - 1]) {
+                continue; // Trigram lặp lại trong từ khóa
+            }
+            int kept = 0;
+            for (int j = 0; j < count; j++) {
+                if (lists[i].contains(candidates[j])) {
+                    candidates[kept++] = candidates[j];
+                }
+            }
+            count = kept;
+        }
+
+        // Giao các trigram mới là điều kiện cần; kiểm tra lại thứ tự ký tự
+        for (int j = 0; j < count; j++) {
+            int doc = candidates[j];
+            if (texts.get(doc).contains(keyword)) {
+                results.add(items.get(doc));
+            }
+        }
+        return results;
+    }
+
+    // ==================== PRIVATE METHODS ====================
+
+    private static long gram(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+
+    private static boolean indexable(String text, int start) {
+        char separator = TextNormalizer.FIELD_SEPARATOR;
+        return text.charAt(start) != separator
+                && text.charAt(start + 1) != separator
+                && text.charAt(start + 2) != separator;
+    }
+
+    private void addGrams(int doc, String text) {
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            if (indexable(text, i)) {
+                postings.computeIfAbsent(gram(text, i), g -> new Postings()).add(doc);
+            }
+        }
+    }
+
+    private void removeGrams(int doc, String text) {
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            if (!indexable(text, i)) {
+                continue;
+            }
+            long gram = gram(text, i);
+            Postings list = postings.get(gram);
+            if (list != null && list.remove(doc) && list.size == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    /**
+     * Đánh số lại các doc còn lại (giữ thứ tự) khi phần lớn số thứ tự đã bị gỡ
+     */
+    private void compact() {
+        List<T> oldItems = new ArrayList<>(items);
+        List<String> oldTexts = new ArrayList<>(texts);
+        Map<Integer, String> idByDoc = new HashMap<>();
+        docById.forEach((id, doc) -> idByDoc.put(doc, id));
+        clear();
+        for (int doc = 0; doc < oldItems.size(); doc++) {
+            if (oldTexts.get(doc) != null) {
+                put(idByDoc.get(doc), oldTexts.get(doc), oldItems.get(doc));
+            }
+        }
+    }
+
+    /**
+     * Danh sách doc đã sắp xếp tăng dần; doc mới luôn lớn nhất nên thêm vào cuối
+     */
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private int size;
+
+        void add(int doc) {
+            if (size > 0 && docs[size - 1] == doc) {
+                return; // Trigram lặp lại trong cùng văn bản
+            }
+            int at = size == 0 || docs[size - 1] < doc ? -(size + 1) : Arrays.binarySearch(docs, 0, size, doc);
+            if (at >= 0) {
+                return;
+            }
+            int insert = -(at + 1);
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            System.arraycopy(docs, insert, docs, insert + 1, size - insert);
+            docs[insert] = doc;
+            size++;
+        }
+
+        boolean remove(int doc) {
+            int at = Arrays.binarySearch(docs, 0, size, doc);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(docs, at + 1, docs, at, size - at - 1);
+            size--;
+            return true;
+        }
+
+        boolean contains(int doc) {
+            return Arrays.binarySearch(docs, 0, size, doc) >= 0;
+        }
+    }
+}
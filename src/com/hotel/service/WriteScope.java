@@ -0,0 +1,62 @@
+package com.hotel.service;
+
+import com.hotel.service.interfaces.IChangeListener;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Khối ghi trên luồng hiện tại, bao quanh khóa phòng và khóa manager (có thể lồng nhau)
+ * Listener nhận thông báo thay đổi trong khi khóa còn được giữ; onCommitted() của chúng chỉ
+ * được gọi khi khối ngoài cùng kết thúc, sau khi mọi khóa đã được trả. Nhờ vậy việc chậm như
+ * chờ nhật ký fsync không giữ khóa, và một thao tác theo lô chỉ phải chờ một lần.
+ *
+ * Manager tự mở khối cho mỗi thao tác ghi; nơi gọi nhiều thao tác liên tiếp (ví dụ nhập từng
+ * bản ghi) có thể bọc chúng trong run() để gộp thành một khối.
+ */
+public final class WriteScope {
+
+    private static final ThreadLocal<WriteScope> CURRENT = new ThreadLocal<>();
+
+    private int depth;
+    private final Set<IChangeListener<?>> committed = new LinkedHashSet<>();
+
+    private WriteScope() {
+    }
+
+    /**
+     * Chạy action trong một khối ghi (lồng vào khối đang mở của luồng này nếu có)
+     */
+    public static <R> R run(Supplier<R> action) {
+        WriteScope scope = CURRENT.get();
+        if (scope == null) {
+            scope = new WriteScope();
+            CURRENT.set(scope);
+        }
+        scope.depth++;
+        try {
+            return action.get();
+        } finally {
+            if (--scope.depth == 0) {
+                CURRENT.remove();
+                for (IChangeListener<?> listener : scope.committed) {
+                    listener.onCommitted();
+                }
+            }
+        }
+    }
+
+    /**
+     * Gọi listener.onCommitted() khi khối ngoài cùng kết thúc (ngay lập tức nếu không ở trong khối)
+     * Mỗi listener chỉ được gọi một lần cho một khối.
+     */
+    static void afterCommit(IChangeListener<?> listener) {
+        WriteScope scope = CURRENT.get();
+        if (scope == null) {
+            listener.onCommitted();
+        } else {
+            scope.committed.add(listener);
+        }
+    }
+}
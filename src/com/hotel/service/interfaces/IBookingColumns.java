@@ -0,0 +1,36 @@
+package com.hotel.service.interfaces;
+
+import com.hotel.model.enums.BookingStatus;
+
+/**
+ * Dữ liệu booking dạng cột (chỉ đọc), truy cập theo số thứ tự dòng
+ * Dùng cho thống kê/báo cáo: quét ngày, trạng thái và tiền mà không cần tạo
+ * đối tượng Booking cho từng bản ghi.
+ * 
+ * @author Member2
+ * @version 1.0
+ */
+public interface IBookingColumns {
+
+    /**
+     * @return Số dòng (số booking)
+     */
+    int size();
+
+    BookingStatus getStatus(int row);
+
+    /**
+     * @return Ngày nhận phòng dưới dạng epoch day (LocalDate.toEpochDay)
+     */
+    long getCheckInDay(int row);
+
+    /**
+     * @return Ngày trả phòng dưới dạng epoch day (LocalDate.toEpochDay)
+     */
+    long getCheckOutDay(int row);
+
+    /**
+     * @return Tổng tiền của booking tại thời điểm ghi file
+     */
+    double getTotalPrice(int row);
+}
@@ -0,0 +1,44 @@
+package com.hotel.service.interfaces;
+
+/**
+ * Interface lắng nghe thay đổi dữ liệu của một manager
+ * Được gọi sau mỗi thao tác add/update/delete/clear thành công,
+ * dùng cho lưu trữ tăng dần (chỉ ghi những gì đã thay đổi)
+ * 
+ * @param <T> Kiểu đối tượng được quản lý
+ * @author Member2
+ * @version 1.0
+ */
+public interface IChangeListener<T> {
+
+    /**
+     * Đối tượng mới được thêm
+     * @param item Đối tượng vừa thêm
+     */
+    void onAdded(T item);
+
+    /**
+     * Đối tượng được cập nhật (kể cả đổi trạng thái)
+     * @param item Đối tượng sau khi cập nhật
+     */
+    void onUpdated(T item);
+
+    /**
+     * Đối tượng bị xóa
+     * @param id ID của đối tượng đã xóa
+     */
+    void onDeleted(String id);
+
+    /**
+     * Toàn bộ dữ liệu bị xóa
+     */
+    void onCleared();
+
+    /**
+     * Thao tác ghi chứa các thay đổi vừa báo đã kết thúc và mọi khóa đã được trả
+     * Gọi trên luồng đã ghi, một lần cho mỗi thao tác (kể cả thao tác theo lô), ngay trước khi
+     * thao tác đó trả về. Dùng cho việc chậm không nên làm khi đang giữ khóa, ví dụ chờ fsync.
+     */
+    default void onCommitted() {
+    }
+}
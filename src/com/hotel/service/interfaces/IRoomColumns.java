@@ -0,0 +1,30 @@
+package com.hotel.service.interfaces;
+
+import com.hotel.model.enums.RoomStatus;
+import com.hotel.model.enums.RoomType;
+
+/**
+ * Dữ liệu phòng dạng cột (chỉ đọc), truy cập theo số thứ tự dòng
+ * Dùng cho thống kê phòng mà không cần duyệt các đối tượng Room.
+ * 
+ * @author Member1
+ * @version 1.0
+ */
+public interface IRoomColumns {
+
+    /**
+     * @return Số dòng (số phòng)
+     */
+    int size();
+
+    RoomType getRoomType(int row);
+
+    RoomStatus getStatus(int row);
+
+    int getFloor(int row);
+
+    /**
+     * @return Giá một đêm (Room.calculatePrice(1)) tại thời điểm ghi file
+     */
+    double getPricePerNight(int row);
+}
@@ -2,6 +2,7 @@ package com.hotel.service.interfaces;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 
 /**
  * Interface định nghĩa khả năng tìm kiếm
@@ -18,6 +19,14 @@ public interface ISearchable<T> {
      * @return Danh sách kết quả
      */
     List<T> search(String keyword);
+
+    /**
+     * Điều kiện khớp từ khóa giống hệt search(keyword), để lọc lại một tập con
+     * (VD: kết quả của từ khóa trước khi người dùng gõ thêm) mà không quét lại toàn bộ
+     * @param keyword Từ khóa tìm kiếm
+     * @return Điều kiện khớp; từ khóa được chuẩn hóa một lần khi tạo
+     */
+    Predicate<T> matcher(String keyword);
     
     /**
      * Lọc theo nhiều tiêu chí
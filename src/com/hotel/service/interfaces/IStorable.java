@@ -6,25 +6,24 @@ import java.util.List;
  * Interface định nghĩa khả năng lưu trữ dữ liệu
  * Áp dụng Generic để tái sử dụng cho nhiều loại đối tượng
  * 
+ * @param <T> Kiểu dữ liệu được lưu trữ
  * @author Member1
- * @version 1.0
+ * @version 1.1
  */
-public interface IStorable {
+public interface IStorable<T> {
     
     /**
      * Lưu danh sách dữ liệu vào storage (file/database)
      * @param data Danh sách dữ liệu cần lưu
-     * @param <T> Kiểu dữ liệu
      * @return true nếu lưu thành công
      */
-    <T> boolean save(List<T> data);
+    boolean save(List<T> data);
     
     /**
      * Tải dữ liệu từ storage
-     * @param <T> Kiểu dữ liệu
      * @return Danh sách dữ liệu hoặc danh sách rỗng nếu lỗi
      */
-    <T> List<T> load();
+    List<T> load();
     
     /**
      * Lấy đường dẫn/tên file lưu trữ
@@ -0,0 +1,59 @@
+package com.hotel.storage;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Ghi file an toàn: ghi vào file tạm, fsync, rồi đổi tên đè lên file thật
+ * Nếu chương trình dừng giữa chừng thì file thật vẫn là bản cũ còn nguyên vẹn.
+ */
+final class AtomicFiles {
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * Nội dung ghi vào FileChannel; phải tự flush bộ đệm của mình trước khi trả về
+     */
+    @FunctionalInterface
+    interface Content {
+        void writeTo(FileChannel channel) throws IOException;
+    }
+
+    private AtomicFiles() {
+    }
+
+    static void write(Path filePath, Content content) throws IOException {
+        Path tempPath = filePath.resolveSibling(filePath.getFileName() + TEMP_SUFFIX);
+        try {
+            try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                content.writeTo(channel);
+                channel.force(true);
+            }
+            moveIntoPlace(tempPath, filePath);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempPath);
+            throw e;
+        }
+    }
+
+    private static void moveIntoPlace(Path tempPath, Path filePath) throws IOException {
+        try {
+            Files.move(tempPath, filePath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempPath, filePath, StandardCopyOption.REPLACE_EXISTING);
+        }
+        // fsync thư mục để phép đổi tên cũng bền vững; không phải hệ điều hành nào cũng cho mở thư mục
+        Path directory = filePath.toAbsolutePath().getParent();
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // Bỏ qua: dữ liệu của file đã được fsync
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.hotel.storage;
+
+import java.io.IOException;
+
+/**
+ * Mã hóa/giải mã một bản ghi ở định dạng nhị phân
+ *
+ * @param <T> Kiểu bản ghi
+ */
+interface BinaryCodec<T> {
+
+    void write(BinaryEncoder out, T item) throws IOException;
+
+    /**
+     * @return Bản ghi, hoặc null nếu bản ghi hợp lệ nhưng không dùng được (ví dụ thiếu tham chiếu)
+     */
+    T read(BinaryDecoder in) throws IOException;
+}
@@ -0,0 +1,244 @@
+package com.hotel.storage;
+
+import com.hotel.model.booking.Booking;
+import com.hotel.model.customer.Customer;
+import com.hotel.model.enums.BookingStatus;
+import com.hotel.model.enums.RoomStatus;
+import com.hotel.model.enums.RoomType;
+import com.hotel.model.invoice.Invoice;
+import com.hotel.model.invoice.Invoice.InvoiceStatus;
+import com.hotel.model.room.DeluxeRoom;
+import com.hotel.model.room.Room;
+import com.hotel.model.room.StandardRoom;
+import com.hotel.model.room.VIPRoom;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.function.Function;
+
+/**
+ * Codec nhị phân cho các model, cùng trường dữ liệu với định dạng JSON của DataStorage
+ * Giá trị suy ra được (tổng tiền booking, tiền thuế hóa đơn) không được lưu mà tính lại
+ * khi tải, giống như khi đọc JSON.
+ *
+ * Thứ tự hằng số của các enum là một phần của định dạng: chỉ được thêm hằng mới vào cuối.
+ */
+final class BinaryCodecs {
+
+    private static final int FLAG_VIEW = 1;
+    private static final int FLAG_PRIVATE_BATHROOM = 1 << 1;
+    private static final int FLAG_JACUZZI = 1 << 2;
+    private static final int FLAG_MINIBAR = 1 << 3;
+    private static final int FLAG_LIVING_ROOM = 1 << 4;
+
+    private BinaryCodecs() {
+    }
+
+    // ==================== ROOMS ====================
+
+    static BinaryCodec<Room> rooms() {
+        return new BinaryCodec<>() {
+            @Override
+            public void write(BinaryEncoder out, Room room) throws IOException {
+                out.writeEnum(room.getRoomType());
+                out.writeDictString(room.getRoomId());
+                out.writeSignedVarLong(room.getFloor());
+                out.writeDouble(room.getBasePrice());
+                out.writeEnum(room.getStatus());
+                out.writeDictString(room.getDescription());
+                out.writeVarInt(room.getBedCount());
+                out.writeDouble(room.getArea());
+                out.writeVarInt(amenityFlags(room));
+            }
+
+            @Override
+            public Room read(BinaryDecoder in) throws IOException {
+                RoomType roomType = in.readEnum(RoomType.values());
+                String roomId = in.readDictString();
+                int floor = (int) in.readSignedVarLong();
+                double basePrice = in.readDouble();
+                RoomStatus status = in.readEnum(RoomStatus.values());
+                String description = in.readDictString();
+                int bedCount = in.readVarInt();
+                double area = in.readDouble();
+                int flags = in.readVarInt();
+
+                Room room;
+                switch (roomType) {
+                    case VIP:
+                        VIPRoom vip = new VIPRoom(roomId, floor, basePrice, description, bedCount, area);
+                        vip.setHasView((flags & FLAG_VIEW) != 0);
+                        vip.setHasPrivateBathroom((flags & FLAG_PRIVATE_BATHROOM) != 0);
+                        room = vip;
+                        break;
+                    case DELUXE:
+                        DeluxeRoom deluxe = new DeluxeRoom(roomId, floor, basePrice, description, bedCount, area);
+                        deluxe.setHasView((flags & FLAG_VIEW) != 0);
+                        deluxe.setHasPrivateBathroom((flags & FLAG_PRIVATE_BATHROOM) != 0);
+                        deluxe.setHasJacuzzi((flags & FLAG_JACUZZI) != 0);
+                        deluxe.setHasMinibar((flags & FLAG_MINIBAR) != 0);
+                        deluxe.setHasLivingRoom((flags & FLAG_LIVING_ROOM) != 0);
+                        room = deluxe;
+                        break;
+                    default:
+                        room = new StandardRoom(roomId, floor, basePrice, description, bedCount, area);
+                        break;
+                }
+                room.setStatus(status);
+                return room;
+            }
+        };
+    }
+
+    private static int amenityFlags(Room room) {
+        int flags = 0;
+        if (room instanceof VIPRoom vip) {
+            flags |= vip.hasView() ? FLAG_VIEW : 0;
+            flags |= vip.hasPrivateBathroom() ? FLAG_PRIVATE_BATHROOM : 0;
+        } else if (room instanceof DeluxeRoom deluxe) {
+            flags |= deluxe.hasView() ? FLAG_VIEW : 0;
+            flags |= deluxe.hasPrivateBathroom() ? FLAG_PRIVATE_BATHROOM : 0;
+            flags |= deluxe.hasJacuzzi() ? FLAG_JACUZZI : 0;
+            flags |= deluxe.hasMinibar() ? FLAG_MINIBAR : 0;
+            flags |= deluxe.hasLivingRoom() ? FLAG_LIVING_ROOM : 0;
+        }
+        return flags;
+    }
+
+    // ==================== CUSTOMERS ====================
+
+    static BinaryCodec<Customer> customers() {
+        return new BinaryCodec<>() {
+            @Override
+            public void write(BinaryEncoder out, Customer customer) throws IOException {
+                out.writeId(customer.getCustomerId());
+                out.writeString(customer.getFullName());
+                out.writeString(customer.getEmail());
+                out.writeString(customer.getPhoneNumber());
+                out.writeString(customer.getIdCard());
+                out.writeDictString(customer.getAddress());
+                out.writeDate(customer.getRegistrationDate());
+                out.writeBoolean(customer.isVIP());
+                out.writeDouble(customer.getLoyaltyPoints());
+            }
+
+            @Override
+            public Customer read(BinaryDecoder in) throws IOException {
+                String customerId = in.readId();
+                String fullName = in.readString();
+                String email = in.readString();
+                String phoneNumber = in.readString();
+                String idCard = in.readString();
+                String address = in.readDictString();
+                LocalDate registrationDate = in.readDate();
+                boolean isVIP = in.readBoolean();
+                double loyaltyPoints = in.readDouble();
+
+                Customer customer = new Customer(customerId, fullName, email, phoneNumber,
+                        idCard, address, registrationDate, isVIP);
+                customer.setLoyaltyPoints(loyaltyPoints);
+                return customer;
+            }
+        };
+    }
+
+    // ==================== BOOKINGS ====================
+
+    /**
+     * Booking chưa liên kết (dùng khi tải song song, xem DataStorage.loadAllData)
+     */
+    static BinaryCodec<BookingRecord> bookingRecords() {
+        return new BinaryCodec<>() {
+            @Override
+            public void write(BinaryEncoder out, BookingRecord booking) throws IOException {
+                out.writeId(booking.bookingId());
+                out.writeId(booking.customerId());
+                out.writeDictString(booking.roomId());
+                out.writeDate(booking.checkInDate());
+                // Ngày trả phòng lưu dưới dạng số đêm kể từ ngày nhận phòng (thường 1 byte)
+                out.writeSignedVarLong(booking.checkOutDate().toEpochDay() - booking.checkInDate().toEpochDay());
+                out.writeEnum(booking.status());
+                out.writeString(booking.notes());
+            }
+
+            @Override
+            public BookingRecord read(BinaryDecoder in) throws IOException {
+                String bookingId = in.readId();
+                String customerId = in.readId();
+                String roomId = in.readDictString();
+                LocalDate checkInDate = in.readDate();
+                LocalDate checkOutDate = checkInDate.plusDays(in.readSignedVarLong());
+                BookingStatus status = in.readEnum(BookingStatus.values());
+                String notes = in.readString();
+                return new BookingRecord(bookingId, customerId, roomId, checkInDate, checkOutDate, status, notes);
+            }
+        };
+    }
+
+    /**
+     * @param customers Tra cứu khách hàng theo ID
+     * @param rooms     Tra cứu phòng theo ID
+     */
+    static BinaryCodec<Booking> bookings(Function<String, Customer> customers, Function<String, Room> rooms) {
+        BinaryCodec<BookingRecord> records = bookingRecords();
+        return new BinaryCodec<>() {
+            @Override
+            public void write(BinaryEncoder out, Booking booking) throws IOException {
+                records.write(out, BookingRecord.of(booking));
+            }
+
+            @Override
+            public Booking read(BinaryDecoder in) throws IOException {
+                return records.read(in).resolve(customers, rooms);
+            }
+        };
+    }
+
+    // ==================== INVOICES ====================
+
+    /**
+     * Hóa đơn chưa liên kết (dùng khi tải song song)
+     */
+    static BinaryCodec<InvoiceRecord> invoiceRecords() {
+        return new BinaryCodec<>() {
+            @Override
+            public void write(BinaryEncoder out, InvoiceRecord invoice) throws IOException {
+                out.writeId(invoice.invoiceId());
+                out.writeId(invoice.bookingId());
+                out.writeDate(invoice.invoiceDate());
+                out.writeDouble(invoice.taxRate());
+                out.writeEnum(invoice.status());
+                out.writeString(invoice.notes());
+            }
+
+            @Override
+            public InvoiceRecord read(BinaryDecoder in) throws IOException {
+                String invoiceId = in.readId();
+                String bookingId = in.readId();
+                LocalDate invoiceDate = in.readDate();
+                double taxRate = in.readDouble();
+                InvoiceStatus status = in.readEnum(InvoiceStatus.values());
+                String notes = in.readString();
+                return new InvoiceRecord(invoiceId, bookingId, invoiceDate, taxRate, status, notes);
+            }
+        };
+    }
+
+    /**
+     * @param bookings Tra cứu booking theo ID
+     */
+    static BinaryCodec<Invoice> invoices(Function<String, Booking> bookings) {
+        BinaryCodec<InvoiceRecord> records = invoiceRecords();
+        return new BinaryCodec<>() {
+            @Override
+            public void write(BinaryEncoder out, Invoice invoice) throws IOException {
+                records.write(out, InvoiceRecord.of(invoice));
+            }
+
+            @Override
+            public Invoice read(BinaryDecoder in) throws IOException {
+                return records.read(in).resolve(bookings);
+            }
+        };
+    }
+}
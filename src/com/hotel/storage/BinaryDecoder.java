@@ -0,0 +1,136 @@
+package com.hotel.storage;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Đọc dữ liệu do BinaryEncoder ghi (xem mô tả định dạng ở BinaryEncoder)
+ */
+final class BinaryDecoder {
+
+    private static final int MAX_STRING_BYTES = 16 * 1024 * 1024;
+
+    private final InputStream in;
+    private final List<String> dictionary = new ArrayList<>();
+
+    BinaryDecoder(InputStream in) {
+        this.in = in;
+    }
+
+    int readByte() throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException("File nhị phân bị cắt cụt");
+        }
+        return b;
+    }
+
+    long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Varint không hợp lệ");
+    }
+
+    int readVarInt() throws IOException {
+        long value = readVarLong();
+        if (value > 0xFFFFFFFFL) {
+            throw new IOException("Varint vượt quá 32 bit: " + value);
+        }
+        return (int) value;
+    }
+
+    long readSignedVarLong() throws IOException {
+        long zigzag = readVarLong();
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    boolean readBoolean() throws IOException {
+        return readByte() != 0;
+    }
+
+    double readDouble() throws IOException {
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits = (bits << 8) | readByte();
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    String readString() throws IOException {
+        int length = readVarInt();
+        if (length == 0) {
+            return null;
+        }
+        length--;
+        if (length < 0 || length > MAX_STRING_BYTES) {
+            throw new IOException("Độ dài chuỗi không hợp lệ: " + length);
+        }
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length < length) {
+            throw new EOFException("File nhị phân bị cắt cụt");
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    String readDictString() throws IOException {
+        int code = readVarInt();
+        if (code == 0) {
+            return null;
+        }
+        if (code == 1) {
+            String value = readString();
+            dictionary.add(value);
+            return value;
+        }
+        int index = code - 2;
+        if (index >= dictionary.size()) {
+            throw new IOException("Mục từ điển không tồn tại: " + index);
+        }
+        return dictionary.get(index);
+    }
+
+    String readId() throws IOException {
+        int width = readVarInt();
+        if (width == 0) {
+            return readDictString();
+        }
+        String prefix = readDictString();
+        String digits = Long.toString(readVarLong());
+        StringBuilder id = new StringBuilder(prefix.length() + width).append(prefix);
+        for (int i = digits.length(); i < width; i++) {
+            id.append('0');
+        }
+        return id.append(digits).toString();
+    }
+
+    LocalDate readDate() throws IOException {
+        long value = readVarLong();
+        if (value == 0) {
+            return null;
+        }
+        long zigzag = value - 1;
+        return LocalDate.ofEpochDay((zigzag >>> 1) ^ -(zigzag & 1));
+    }
+
+    <E extends Enum<E>> E readEnum(E[] values) throws IOException {
+        int code = readVarInt();
+        if (code == 0) {
+            return null;
+        }
+        if (code > values.length) {
+            throw new IOException("Ordinal enum không hợp lệ: " + (code - 1));
+        }
+        return values[code - 1];
+    }
+}
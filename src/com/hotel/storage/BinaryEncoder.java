@@ -0,0 +1,125 @@
+package com.hotel.storage;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Ghi các kiểu cơ bản ở dạng nhị phân gọn cho định dạng .bin
+ * - Số nguyên: varint (7 bit mỗi byte), số có dấu dùng zigzag
+ * - Ngày: số ngày kể từ 1970-01-01 (epoch-day)
+ * - Enum: ordinal
+ * - Chuỗi lặp lại (mã phòng, địa chỉ...): từ điển, lần đầu ghi cả chuỗi, sau đó chỉ ghi số thứ tự
+ * - ID dạng tiền tố + số (B0001, C042): tiền tố qua từ điển, phần số ghi varint
+ *
+ * Giá trị 0 của varint đánh dấu null ở mọi kiểu có thể null.
+ */
+final class BinaryEncoder {
+
+    static final Pattern NUMBERED_ID = Pattern.compile("([^0-9]*)([0-9]{1,18})");
+
+    private final OutputStream out;
+    private final Map<String, Integer> dictionary = new HashMap<>();
+
+    BinaryEncoder(OutputStream out) {
+        this.out = out;
+    }
+
+    void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    void writeVarInt(int value) throws IOException {
+        writeVarLong(value & 0xFFFFFFFFL);
+    }
+
+    void writeSignedVarLong(long value) throws IOException {
+        writeVarLong(zigzag(value));
+    }
+
+    void writeBoolean(boolean value) throws IOException {
+        out.write(value ? 1 : 0);
+    }
+
+    void writeDouble(double value) throws IOException {
+        long bits = Double.doubleToLongBits(value);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out.write((int) (bits >>> shift));
+        }
+    }
+
+    /**
+     * Chuỗi ghi nguyên văn: độ dài UTF-8 + 1 (0 = null), rồi các byte
+     */
+    void writeString(String value) throws IOException {
+        if (value == null) {
+            writeVarInt(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length + 1);
+        out.write(bytes);
+    }
+
+    /**
+     * Chuỗi qua từ điển: 0 = null, 1 = chuỗi mới (ghi nguyên văn ngay sau), n = mục thứ n - 2
+     */
+    void writeDictString(String value) throws IOException {
+        if (value == null) {
+            writeVarInt(0);
+            return;
+        }
+        Integer index = dictionary.get(value);
+        if (index != null) {
+            writeVarInt(index + 2);
+            return;
+        }
+        dictionary.put(value, dictionary.size());
+        writeVarInt(1);
+        writeString(value);
+    }
+
+    /**
+     * ID dạng tiền tố + số: độ rộng phần số (0 = không theo mẫu), tiền tố, giá trị số
+     */
+    void writeId(String id) throws IOException {
+        Matcher matcher = id != null ? NUMBERED_ID.matcher(id) : null;
+        if (matcher == null || !matcher.matches()) {
+            writeVarInt(0);
+            writeDictString(id);
+            return;
+        }
+        String digits = matcher.group(2);
+        writeVarInt(digits.length());
+        writeDictString(matcher.group(1));
+        writeVarLong(Long.parseLong(digits));
+    }
+
+    void writeDate(LocalDate date) throws IOException {
+        if (date == null) {
+            writeVarLong(0);
+            return;
+        }
+        writeVarLong(zigzag(date.toEpochDay()) + 1);
+    }
+
+    void writeEnum(Enum<?> value) throws IOException {
+        writeVarInt(value == null ? 0 : value.ordinal() + 1);
+    }
+
+    /**
+     * Zigzag: số âm nhỏ cũng thành varint ngắn (0, -1, 1, -2... -> 0, 1, 2, 3...)
+     */
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+}
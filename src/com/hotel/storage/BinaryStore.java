@@ -0,0 +1,149 @@
+package com.hotel.storage;
+
+import com.hotel.service.interfaces.IStorable;
+import com.hotel.util.AppLogger;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Lưu một collection ở định dạng nhị phân gọn (file .bin)
+ * Cấu trúc file: "HMB" + phiên bản + loại bản ghi, số bản ghi (varint), các bản ghi,
+ * CRC32 của toàn bộ phần trước đó. Chuỗi lặp lại dùng chung một từ điển cho cả file.
+ *
+ * @param <T> Kiểu bản ghi
+ */
+final class BinaryStore<T> implements IStorable<T> {
+
+    private static final byte[] MAGIC = { 'H', 'M', 'B' };
+    private static final int VERSION = 1;
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+
+    private final Path filePath;
+    private final char kind;
+    private final BinaryCodec<T> codec;
+
+    /**
+     * @param kind Ký tự đánh dấu loại bản ghi (R/C/B/I), tránh đọc nhầm file của collection khác
+     */
+    BinaryStore(Path filePath, char kind, BinaryCodec<T> codec) {
+        this.filePath = filePath;
+        this.kind = kind;
+        this.codec = codec;
+    }
+
+    // ==================== IStorable ====================
+
+    @Override
+    public boolean save(List<T> data) {
+        try {
+            write(data);
+            return true;
+        } catch (IOException e) {
+            AppLogger.error("Lỗi khi ghi file nhị phân: " + filePath, e);
+            return false;
+        }
+    }
+
+    @Override
+    public List<T> load() {
+        List<T> items = new ArrayList<>();
+        if (!exists()) {
+            return items;
+        }
+        try {
+            read(items::add);
+        } catch (IOException e) {
+            AppLogger.error("Lỗi khi đọc file nhị phân: " + filePath, e);
+            items.clear();
+        }
+        return items;
+    }
+
+    @Override
+    public String getFilePath() {
+        return filePath.toString();
+    }
+
+    @Override
+    public boolean exists() {
+        return Files.exists(filePath);
+    }
+
+    @Override
+    public boolean delete() {
+        try {
+            return Files.deleteIfExists(filePath);
+        } catch (IOException e) {
+            AppLogger.error("Không thể xóa file: " + filePath, e);
+            return false;
+        }
+    }
+
+    // ==================== STREAMING ====================
+
+    /**
+     * Ghi toàn bộ collection (an toàn qua file tạm)
+     * @return Số bản ghi đã ghi
+     */
+    int write(Collection<T> items) throws IOException {
+        AtomicFiles.write(filePath, channel -> {
+            OutputStream buffered = new BufferedOutputStream(Channels.newOutputStream(channel), IO_BUFFER_SIZE);
+            CheckedOutputStream checked = new CheckedOutputStream(buffered, new CRC32());
+            BinaryEncoder out = new BinaryEncoder(checked);
+            checked.write(MAGIC);
+            checked.write(VERSION);
+            checked.write(kind);
+            out.writeVarInt(items.size());
+            for (T item : items) {
+                codec.write(out, item);
+            }
+            new DataOutputStream(buffered).writeInt((int) checked.getChecksum().getValue());
+            buffered.flush();
+        });
+        return items.size();
+    }
+
+    /**
+     * Đọc từng bản ghi và đưa vào sink, không giữ cả file trong bộ nhớ
+     * @return Số bản ghi được sink chấp nhận
+     */
+    int read(Predicate<T> sink) throws IOException {
+        try (InputStream buffered = new BufferedInputStream(Files.newInputStream(filePath), IO_BUFFER_SIZE)) {
+            CheckedInputStream checked = new CheckedInputStream(buffered, new CRC32());
+            BinaryDecoder in = new BinaryDecoder(checked);
+            byte[] header = checked.readNBytes(MAGIC.length + 2);
+            if (header.length < MAGIC.length + 2 || header[0] != MAGIC[0] || header[1] != MAGIC[1]
+                    || header[2] != MAGIC[2]) {
+                throw new IOException("Không phải file dữ liệu nhị phân: " + filePath);
+            }
+            if (header[3] != VERSION || header[4] != kind) {
+                throw new IOException("Sai phiên bản hoặc loại dữ liệu trong " + filePath);
+            }
+
+            int total = in.readVarInt();
+            int accepted = 0;
+            for (int i = 0; i < total; i++) {
+                T item = codec.read(in);
+                if (item != null && sink.test(item)) {
+                    accepted++;
+                }
+            }
+
+            int expected = (int) checked.getChecksum().getValue();
+            if (new DataInputStream(buffered).readInt() != expected) {
+                throw new IOException("Sai checksum, file có thể bị hỏng: " + filePath);
+            }
+            return accepted;
+        }
+    }
+}
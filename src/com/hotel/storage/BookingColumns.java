@@ -0,0 +1,81 @@
+package com.hotel.storage;
+
+import com.hotel.model.booking.Booking;
+import com.hotel.model.enums.BookingStatus;
+import com.hotel.service.interfaces.IBookingColumns;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Cột booking ánh xạ bộ nhớ (file bookings.col)
+ * Các cột: tổng tiền (double), ngày nhận phòng, ngày trả phòng (int epoch day), trạng thái (byte ordinal).
+ */
+final class BookingColumns implements IBookingColumns {
+
+    private static final char KIND = 'b';
+    private static final int ROW_WIDTH = Double.BYTES + Integer.BYTES + Integer.BYTES + Byte.BYTES;
+    private static final BookingStatus[] STATUSES = BookingStatus.values();
+
+    private final ByteBuffer buffer;
+    private final int rows;
+    private final int checkInOffset;
+    private final int checkOutOffset;
+    private final int statusOffset;
+
+    private BookingColumns(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.rows = ColumnarFile.rowCount(buffer);
+        this.checkInOffset = ColumnarFile.HEADER_SIZE + rows * Double.BYTES;
+        this.checkOutOffset = checkInOffset + rows * Integer.BYTES;
+        this.statusOffset = checkOutOffset + rows * Integer.BYTES;
+    }
+
+    static BookingColumns open(Path filePath) throws IOException {
+        return new BookingColumns(ColumnarFile.map(filePath, KIND, ROW_WIDTH));
+    }
+
+    static void write(Path filePath, List<Booking> bookings) throws IOException {
+        ColumnarFile.write(filePath, KIND, bookings.size(), ROW_WIDTH, out -> {
+            for (Booking booking : bookings) {
+                out.writeDouble(booking.getTotalPrice());
+            }
+            for (Booking booking : bookings) {
+                out.writeInt((int) booking.getCheckInDate().toEpochDay());
+            }
+            for (Booking booking : bookings) {
+                out.writeInt((int) booking.getCheckOutDate().toEpochDay());
+            }
+            for (Booking booking : bookings) {
+                out.write(booking.getStatus().ordinal());
+            }
+        });
+    }
+
+    @Override
+    public int size() {
+        return rows;
+    }
+
+    @Override
+    public BookingStatus getStatus(int row) {
+        return STATUSES[buffer.get(statusOffset + row)];
+    }
+
+    @Override
+    public long getCheckInDay(int row) {
+        return buffer.getInt(checkInOffset + row * Integer.BYTES);
+    }
+
+    @Override
+    public long getCheckOutDay(int row) {
+        return buffer.getInt(checkOutOffset + row * Integer.BYTES);
+    }
+
+    @Override
+    public double getTotalPrice(int row) {
+        return buffer.getDouble(ColumnarFile.HEADER_SIZE + row * Double.BYTES);
+    }
+}
@@ -0,0 +1,52 @@
+package com.hotel.storage;
+
+import com.hotel.model.booking.Booking;
+import com.hotel.model.customer.Customer;
+import com.hotel.model.enums.BookingStatus;
+import com.hotel.model.room.Room;
+import com.hotel.util.AppLogger;
+
+import java.time.LocalDate;
+import java.util.function.Function;
+
+/**
+ * Booking đã đọc từ file nhưng chưa liên kết với Customer/Room (chỉ giữ ID)
+ * Cho phép đọc file booking song song với file khách hàng và phòng, rồi liên kết sau.
+ */
+record BookingRecord(String bookingId, String customerId, String roomId, LocalDate checkInDate,
+                     LocalDate checkOutDate, BookingStatus status, String notes) {
+
+    static BookingRecord of(Booking booking) {
+        return new BookingRecord(booking.getBookingId(), booking.getCustomerId(), booking.getRoomId(),
+                booking.getCheckInDate(), booking.getCheckOutDate(), booking.getStatus(), booking.getNotes());
+    }
+
+    /**
+     * Booking giữ ID khách hàng/phòng, chỉ tra cứu khi được truy cập (kể cả khi tham chiếu treo)
+     */
+    Booking toLazy(Function<String, Customer> customers, Function<String, Room> rooms) {
+        Booking booking = new Booking(bookingId, customerId, roomId, customers, rooms,
+                checkInDate, checkOutDate, status);
+        if (notes != null) {
+            booking.setNotes(notes);
+        }
+        return booking;
+    }
+
+    /**
+     * @return Booking đã liên kết, hoặc null nếu không tìm thấy khách hàng hoặc phòng
+     */
+    Booking resolve(Function<String, Customer> customers, Function<String, Room> rooms) {
+        Customer customer = customers.apply(customerId);
+        Room room = rooms.apply(roomId);
+        if (customer == null || room == null) {
+            AppLogger.warn("Không tìm thấy Customer hoặc Room cho Booking: %s", bookingId);
+            return null;
+        }
+        Booking booking = new Booking(bookingId, customer, room, checkInDate, checkOutDate, status);
+        if (notes != null) {
+            booking.setNotes(notes);
+        }
+        return booking;
+    }
+}
@@ -0,0 +1,474 @@
+package com.hotel.storage;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.hotel.model.booking.Booking;
+import com.hotel.model.customer.Customer;
+import com.hotel.model.invoice.Invoice;
+import com.hotel.model.room.Room;
+import com.hotel.service.BookingManager;
+import com.hotel.service.CustomerManager;
+import com.hotel.service.InvoiceManager;
+import com.hotel.service.RoomManager;
+import com.hotel.service.WriteScope;
+import com.hotel.util.AppLogger;
+import com.hotel.util.Result;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Nhập/xuất hàng loạt phòng, khách hàng, booking và hóa đơn ở dạng CSV hoặc JSON Lines
+ * Dùng chung ánh xạ trường với file JSON của DataStorage: tên cột CSV chính là tên trường JSON.
+ *
+ * Nhập: luồng gọi đọc file tuần tự và chia thành lô, các lô được phân tích trên pool worker
+ * rồi đưa vào manager theo đúng thứ tự trong file. Dòng lỗi (sai định dạng, trùng ID, thiếu
+ * khách hàng/phòng/booking được tham chiếu) bị bỏ qua và ghi vào báo cáo.
+ * Xuất: ghi từng dòng qua bộ đệm, không dựng cả file trong bộ nhớ.
+ */
+public class BulkTransfer {
+
+    /** Định dạng file, xác định theo phần mở rộng */
+    public enum Format {
+        CSV(".csv"),
+        JSONL(".jsonl");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * @throws IllegalArgumentException nếu phần mở rộng không phải .csv/.jsonl
+         */
+        public static Format of(Path file) {
+            String name = file.getFileName().toString().toLowerCase();
+            for (Format format : values()) {
+                if (name.endsWith(format.extension)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Không hỗ trợ định dạng file: " + file.getFileName());
+        }
+    }
+
+    /** Loại dữ liệu và các cột CSV tương ứng */
+    public enum Entity {
+        ROOMS("phòng", "roomType", "roomId", "floor", "basePrice", "status", "description", "bedCount", "area",
+                "hasView", "hasPrivateBathroom", "hasJacuzzi", "hasMinibar", "hasLivingRoom"),
+        CUSTOMERS("khách hàng", "customerId", "fullName", "email", "phoneNumber", "idCard", "address",
+                "registrationDate", "isVIP", "loyaltyPoints"),
+        BOOKINGS("đặt phòng", "bookingId", "customerId", "roomId", "checkInDate", "checkOutDate", "status",
+                "totalPrice", "notes"),
+        INVOICES("hóa đơn", "invoiceId", "bookingId", "invoiceDate", "subtotal", "taxRate", "taxAmount",
+                "totalAmount", "status", "notes");
+
+        private final String label;
+        private final List<String> columns;
+
+        Entity(String label, String... columns) {
+            this.label = label;
+            this.columns = List.of(columns);
+        }
+
+        public List<String> getColumns() {
+            return columns;
+        }
+    }
+
+    /** Một dòng bị bỏ qua khi nhập */
+    public record Reject(long line, String reason) {
+    }
+
+    /**
+     * Kết quả một lần nhập/xuất
+     * @param rows     Số dòng dữ liệu đã đọc/ghi
+     * @param imported Số bản ghi đã đưa vào manager (khi xuất bằng rows)
+     * @param rejected Tổng số dòng lỗi
+     * @param rejects  Các dòng lỗi đầu tiên (tối đa MAX_REJECTS_KEPT)
+     */
+    public record Report(Entity entity, long rows, long imported, long rejected, List<Reject> rejects,
+                         long elapsedMs) {
+
+        public double rowsPerSecond() {
+            return rows * 1000.0 / Math.max(1, elapsedMs);
+        }
+    }
+
+    private static final String LOG_CATEGORY = "bulk";
+    private static final int BATCH_SIZE = 1000;
+    private static final int MAX_REJECTS_KEPT = 1000;
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+    private static final DataStorage.RoomTypeAdapter ROOM_ADAPTER = new DataStorage.RoomTypeAdapter();
+
+    private final RoomManager roomManager;
+    private final CustomerManager customerManager;
+    private final BookingManager bookingManager;
+    private final InvoiceManager invoiceManager;
+    private final int workerCount;
+
+    public BulkTransfer(RoomManager roomManager, CustomerManager customerManager,
+                        BookingManager bookingManager, InvoiceManager invoiceManager) {
+        this(roomManager, customerManager, bookingManager, invoiceManager,
+                Math.max(1, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * @param workerCount Số luồng phân tích khi nhập
+     */
+    public BulkTransfer(RoomManager roomManager, CustomerManager customerManager,
+                        BookingManager bookingManager, InvoiceManager invoiceManager, int workerCount) {
+        this.roomManager = roomManager;
+        this.customerManager = customerManager;
+        this.bookingManager = bookingManager;
+        this.invoiceManager = invoiceManager;
+        this.workerCount = Math.max(1, workerCount);
+    }
+
+    // ==================== EXPORT ====================
+
+    /**
+     * Xuất toàn bộ dữ liệu một loại ra file (định dạng theo phần mở rộng, ghi an toàn qua file tạm)
+     */
+    public Report exportFile(Entity entity, Path file) throws IOException {
+        return export(mapping(entity), Format.of(file), file);
+    }
+
+    private <T> Report export(Mapping<T> mapping, Format format, Path file) throws IOException {
+        long start = System.nanoTime();
+        List<String> columns = mapping.entity.columns;
+        // Chỉ sao chép danh sách tham chiếu; mỗi dòng được chuyển đổi và ghi ngay
+        List<T> items = mapping.snapshot.get();
+        AtomicFiles.write(file, channel -> {
+            Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8);
+            StringBuilder line = new StringBuilder(256);
+            if (format == Format.CSV) {
+                writer.write(CsvFormat.format(columns));
+                writer.write('\n');
+            }
+            List<String> values = new ArrayList<>(columns.size());
+            for (T item : items) {
+                JsonObject json = mapping.toJson.apply(item);
+                line.setLength(0);
+                if (format == Format.JSONL) {
+                    line.append(json);
+                } else {
+                    values.clear();
+                    for (String column : columns) {
+                        JsonElement value = json.get(column);
+                        values.add(value == null || value.isJsonNull() ? null : value.getAsString());
+                    }
+                    line.append(CsvFormat.format(values));
+                }
+                line.append('\n');
+                writer.append(line);
+            }
+            writer.flush();
+        });
+
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        Report report = new Report(mapping.entity, items.size(), items.size(), 0, List.of(), elapsedMs);
+        logReport("export", report, file)
+                .log("Đã xuất %d %s ra %s (%.0f dòng/giây)", items.size(), mapping.entity.label,
+                        file, report.rowsPerSecond());
+        return report;
+    }
+
+    // ==================== IMPORT ====================
+
+    /**
+     * Nhập dữ liệu một loại từ file (định dạng theo phần mở rộng)
+     * Booking cần khách hàng và phòng đã có; hóa đơn cần booking đã có, nên nhập theo thứ tự
+     * phòng, khách hàng, booking rồi hóa đơn. Bản ghi trùng ID với dữ liệu sẵn có bị bỏ qua.
+     */
+    public Report importFile(Entity entity, Path file) throws IOException {
+        return importRows(mapping(entity), Format.of(file), file);
+    }
+
+    /** Một dòng (hoặc một bản ghi CSV nhiều dòng) chưa phân tích */
+    private record Row(long line, String text) {
+    }
+
+    /** Kết quả phân tích một lô */
+    private record Parsed<T>(List<T> items, long[] lines, List<Reject> rejects) {
+    }
+
+    private <T> Report importRows(Mapping<T> mapping, Format format, Path file) throws IOException {
+        long start = System.nanoTime();
+        ImportTally tally = new ImportTally();
+        ExecutorService pool = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "bulk-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Deque<Future<Parsed<T>>> inFlight = new ArrayDeque<>();
+
+        try (BufferedReader reader = new BufferedReader(
+                Files.newBufferedReader(file, StandardCharsets.UTF_8), IO_BUFFER_SIZE)) {
+            long[] lineNumber = { 0 };
+            List<String> header = null;
+            if (format == Format.CSV) {
+                Row first = nextRow(reader, format, lineNumber);
+                if (first == null) {
+                    return tally.report(mapping.entity, start);
+                }
+                header = CsvFormat.parse(first.text());
+            }
+
+            List<String> columns = header;
+            List<Row> batch = new ArrayList<>(BATCH_SIZE);
+            Row row;
+            while ((row = nextRow(reader, format, lineNumber)) != null) {
+                batch.add(row);
+                if (batch.size() == BATCH_SIZE) {
+                    List<Row> rows = batch;
+                    inFlight.add(pool.submit(() -> parse(mapping, columns, rows)));
+                    batch = new ArrayList<>(BATCH_SIZE);
+                    // Giới hạn số lô đang chờ để bộ nhớ không tăng theo kích thước file
+                    while (inFlight.size() > 2 * workerCount) {
+                        commit(mapping, await(inFlight.poll()), tally);
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                List<Row> rows = batch;
+                inFlight.add(pool.submit(() -> parse(mapping, columns, rows)));
+            }
+            while (!inFlight.isEmpty()) {
+                commit(mapping, await(inFlight.poll()), tally);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Report report = tally.report(mapping.entity, start);
+        logReport("import", report, file)
+                .log("Đã nhập %d/%d %s từ %s, %d dòng lỗi (%.0f dòng/giây)", report.imported(), report.rows(),
+                        mapping.entity.label, file, report.rejected(), report.rowsPerSecond());
+        return report;
+    }
+
+    private static AppLogger.LogEvent logReport(String operation, Report report, Path file) {
+        return AppLogger.at(AppLogger.Level.INFO, LOG_CATEGORY)
+                .field("operation", operation)
+                .field("entity", report.entity())
+                .field("durationMs", report.elapsedMs())
+                .field("recordCount", report.imported())
+                .field("rejected", report.rejected())
+                .field("rowsPerSecond", Math.round(report.rowsPerSecond()))
+                .field("file", file);
+    }
+
+    /**
+     * Đọc bản ghi tiếp theo, bỏ qua dòng trống; bản ghi CSV có giá trị nhiều dòng được ghép lại
+     */
+    private static Row nextRow(BufferedReader reader, Format format, long[] lineNumber) throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber[0]++;
+        } while (line.isBlank());
+
+        long first = lineNumber[0];
+        if (format == Format.CSV && !CsvFormat.isComplete(line)) {
+            StringBuilder record = new StringBuilder(line);
+            String next;
+            while (!CsvFormat.isComplete(record) && (next = reader.readLine()) != null) {
+                lineNumber[0]++;
+                record.append('\n').append(next);
+            }
+            line = record.toString();
+        }
+        return new Row(first, line);
+    }
+
+    /**
+     * Phân tích một lô trên luồng worker (chỉ đọc manager để tra cứu tham chiếu)
+     */
+    private static <T> Parsed<T> parse(Mapping<T> mapping, List<String> header, List<Row> rows) {
+        List<T> items = new ArrayList<>(rows.size());
+        long[] lines = new long[rows.size()];
+        List<Reject> rejects = new ArrayList<>();
+        for (Row row : rows) {
+            try {
+                JsonObject json = header != null ? csvToJson(header, row.text())
+                        : JsonParser.parseString(row.text()).getAsJsonObject();
+                lines[items.size()] = row.line();
+                items.add(mapping.parse.apply(json));
+            } catch (RuntimeException e) {
+                rejects.add(new Reject(row.line(), describe(e)));
+            }
+        }
+        return new Parsed<>(items, Arrays.copyOf(lines, items.size()), rejects);
+    }
+
+    private static JsonObject csvToJson(List<String> header, String record) {
+        List<String> values = CsvFormat.parse(record);
+        if (values.size() != header.size()) {
+            throw new IllegalArgumentException("Có " + values.size() + " cột, cần " + header.size());
+        }
+        JsonObject json = new JsonObject();
+        for (int i = 0; i < header.size(); i++) {
+            json.addProperty(header.get(i), values.get(i));
+        }
+        return json;
+    }
+
+    /**
+     * Đưa một lô vào manager trên luồng gọi, theo thứ tự trong file
+     * Bản ghi trùng ID bị loại trước; nếu lô vẫn bị từ chối (dữ liệu vừa đổi) thì thêm từng bản ghi.
+     */
+    private static <T> void commit(Mapping<T> mapping, Parsed<T> parsed, ImportTally tally) {
+        tally.rows += parsed.items().size() + parsed.rejects().size();
+        parsed.rejects().forEach(tally::reject);
+
+        List<T> accepted = new ArrayList<>(parsed.items().size());
+        List<Long> acceptedLines = new ArrayList<>(parsed.items().size());
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < parsed.items().size(); i++) {
+            T item = parsed.items().get(i);
+            String id = mapping.idOf.apply(item);
+            if (!ids.add(id) || mapping.lookup.apply(id) != null) {
+                tally.reject(new Reject(parsed.lines()[i], "Trùng ID: " + id));
+            } else {
+                accepted.add(item);
+                acceptedLines.add(parsed.lines()[i]);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        Result<Integer> result = mapping.addAll != null ? mapping.addAll.apply(accepted) : null;
+        if (result != null && result.isSuccess()) {
+            tally.imported += accepted.size();
+            return;
+        }
+        // Thêm từng bản ghi trong một WriteScope: nhật ký chỉ chờ fsync một lần cho cả lô
+        WriteScope.run(() -> {
+            for (int i = 0; i < accepted.size(); i++) {
+                if (mapping.add.test(accepted.get(i))) {
+                    tally.imported++;
+                } else {
+                    tally.reject(new Reject(acceptedLines.get(i), "Không thêm được bản ghi "
+                            + mapping.idOf.apply(accepted.get(i))));
+                }
+            }
+            return null;
+        });
+    }
+
+    private static <T> Parsed<T> await(Future<Parsed<T>> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Bị ngắt khi đang nhập dữ liệu", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Lỗi khi phân tích dữ liệu nhập", e.getCause());
+        }
+    }
+
+    private static String describe(RuntimeException e) {
+        if (e instanceof NullPointerException) {
+            return "Thiếu trường bắt buộc";
+        }
+        return e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+    }
+
+    /** Bộ đếm của một lần nhập (chỉ dùng trên luồng gọi) */
+    private static final class ImportTally {
+        long rows;
+        long imported;
+        long rejected;
+        final List<Reject> rejects = new ArrayList<>();
+
+        void reject(Reject reject) {
+            rejected++;
+            if (rejects.size() < MAX_REJECTS_KEPT) {
+                rejects.add(reject);
+            }
+        }
+
+        Report report(Entity entity, long startNanos) {
+            rejects.sort(Comparator.comparingLong(Reject::line));
+            return new Report(entity, rows, imported, rejected, List.copyOf(rejects),
+                    (System.nanoTime() - startNanos) / 1_000_000);
+        }
+    }
+
+    // ==================== MAPPINGS ====================
+
+    /**
+     * Cách đọc/ghi và đưa vào manager một loại dữ liệu
+     * @param addAll Thêm cả lô (null nếu manager không hỗ trợ, khi đó dùng add)
+     */
+    private record Mapping<T>(Entity entity, Function<JsonObject, T> parse, Function<T, JsonObject> toJson,
+                              Function<T, String> idOf, Function<String, T> lookup,
+                              Function<List<T>, Result<Integer>> addAll, Predicate<T> add,
+                              Supplier<List<T>> snapshot) {
+    }
+
+    private Mapping<?> mapping(Entity entity) {
+        switch (entity) {
+            case ROOMS:
+                return new Mapping<Room>(entity,
+                        json -> ROOM_ADAPTER.deserialize(json, Room.class, null),
+                        room -> ROOM_ADAPTER.serialize(room, Room.class, null).getAsJsonObject(),
+                        Room::getRoomId, roomManager::getById, null, roomManager::add, roomManager::getAll);
+            case CUSTOMERS:
+                return new Mapping<Customer>(entity, DataStorage::readCustomer, DataStorage::customerToJson,
+                        Customer::getCustomerId, customerManager::getById, customerManager::addAll,
+                        customerManager::add, customerManager::getAll);
+            case BOOKINGS:
+                return new Mapping<Booking>(entity, this::readBooking, DataStorage::bookingToJson,
+                        Booking::getBookingId, bookingManager::getById, bookingManager::importBatch,
+                        bookingManager::add, bookingManager::getAll);
+            default:
+                return new Mapping<Invoice>(entity, this::readInvoice, DataStorage::invoiceToJson,
+                        Invoice::getInvoiceId, invoiceManager::getById, invoiceManager::addAll,
+                        invoiceManager::add, invoiceManager::getAll);
+        }
+    }
+
+    private Booking readBooking(JsonObject json) {
+        BookingRecord record = DataStorage.readBookingRecord(json);
+        if (customerManager.getById(record.customerId()) == null) {
+            throw new IllegalArgumentException("Không tìm thấy khách hàng " + record.customerId());
+        }
+        if (roomManager.getById(record.roomId()) == null) {
+            throw new IllegalArgumentException("Không tìm thấy phòng " + record.roomId());
+        }
+        return record.resolve(customerManager::getById, roomManager::getById);
+    }
+
+    private Invoice readInvoice(JsonObject json) {
+        InvoiceRecord record = DataStorage.readInvoiceRecord(json);
+        if (bookingManager.getById(record.bookingId()) == null) {
+            throw new IllegalArgumentException("Không tìm thấy đặt phòng " + record.bookingId());
+        }
+        return record.resolve(bookingManager::getById);
+    }
+}
@@ -0,0 +1,126 @@
+package com.hotel.storage;
+
+import com.hotel.service.interfaces.IChangeListener;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Theo dõi các bản ghi đã thay đổi của một manager kể từ lần lưu gần nhất
+ * Giữ tham chiếu tới đối tượng nên khi lưu sẽ ghi trạng thái mới nhất của nó.
+ * Tập upserts và deletes luôn rời nhau: thao tác sau cùng trên một ID thắng.
+ *
+ * @param <T> Kiểu đối tượng được theo dõi
+ */
+final class ChangeTracker<T> implements IChangeListener<T> {
+
+    private final Function<T, String> idOf;
+    private final Map<String, T> upserts = new LinkedHashMap<>();
+    private final Set<String> deletes = new LinkedHashSet<>();
+    private boolean cleared;
+
+    ChangeTracker(Function<T, String> idOf) {
+        this.idOf = idOf;
+    }
+
+    @Override
+    public synchronized void onAdded(T item) {
+        upsert(item);
+    }
+
+    @Override
+    public synchronized void onUpdated(T item) {
+        upsert(item);
+    }
+
+    @Override
+    public synchronized void onDeleted(String id) {
+        upserts.remove(id);
+        deletes.add(id);
+    }
+
+    @Override
+    public synchronized void onCleared() {
+        upserts.clear();
+        deletes.clear();
+        cleared = true;
+    }
+
+    private void upsert(T item) {
+        String id = idOf.apply(item);
+        deletes.remove(id);
+        upserts.put(id, item);
+    }
+
+    synchronized boolean hasChanges() {
+        return cleared || !upserts.isEmpty() || !deletes.isEmpty();
+    }
+
+    /**
+     * Toàn bộ dữ liệu đã bị xóa kể từ lần lưu trước (cần ghi lại cả file)
+     */
+    synchronized boolean isCleared() {
+        return cleared;
+    }
+
+    synchronized List<T> getUpserts() {
+        return new ArrayList<>(upserts.values());
+    }
+
+    synchronized List<String> getDeletes() {
+        return new ArrayList<>(deletes);
+    }
+
+    synchronized int size() {
+        return upserts.size() + deletes.size();
+    }
+
+    /**
+     * Lấy ra toàn bộ thay đổi hiện có và bắt đầu theo dõi lại từ đầu
+     * Dùng khi chụp snapshot; nếu ghi thất bại thì trả lại bằng restore().
+     */
+    synchronized Changes<T> drain() {
+        Changes<T> changes = new Changes<>(new LinkedHashMap<>(upserts), new LinkedHashSet<>(deletes), cleared);
+        reset();
+        return changes;
+    }
+
+    /**
+     * Trả lại các thay đổi đã drain() khi ghi thất bại
+     * Thay đổi mới hơn (phát sinh sau drain) trên cùng một ID được giữ nguyên.
+     */
+    synchronized void restore(Changes<T> changes) {
+        if (cleared) {
+            return; // Đằng nào cũng phải ghi lại toàn bộ
+        }
+        changes.upserts().forEach((id, item) -> {
+            if (!upserts.containsKey(id) && !deletes.contains(id)) {
+                upserts.put(id, item);
+            }
+        });
+        for (String id : changes.deletes()) {
+            if (!upserts.containsKey(id)) {
+                deletes.add(id);
+            }
+        }
+        cleared |= changes.cleared();
+    }
+
+    /**
+     * Các thay đổi đã lấy ra khỏi tracker
+     */
+    record Changes<T>(Map<String, T> upserts, Set<String> deletes, boolean cleared) {
+        boolean isEmpty() {
+            return !cleared && upserts.isEmpty() && deletes.isEmpty();
+        }
+    }
+
+    /**
+     * Đánh dấu mọi thay đổi đã được ghi xuống đĩa
+     */
+    synchronized void reset() {
+        upserts.clear();
+        deletes.clear();
+        cleared = false;
+    }
+}
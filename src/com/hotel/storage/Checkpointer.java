@@ -0,0 +1,164 @@
+package com.hotel.storage;
+
+import com.hotel.util.AppLogger;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Ghi snapshot dữ liệu định kỳ ở luồng nền (checkpoint)
+ * Checkpoint chạy khi đã đủ số thay đổi chưa lưu, hoặc khi có thay đổi và đã quá
+ * khoảng thời gian cấu hình kể từ lần trước. Snapshot được chụp trên luồng sửa dữ liệu
+ * (captureExecutor, ví dụ EDT) rồi ghi ra file ở luồng nền, nên UI không bị treo khi
+ * ghi file lớn. Nếu lúc chụp đang có lần lưu khác chạy thì checkpoint được hoãn tới lần
+ * kiểm tra sau, không chờ trên EDT.
+ *
+ * Cấu hình mặc định qua system property:
+ * hotel.checkpoint.intervalSeconds (300) và hotel.checkpoint.changes (200).
+ *
+ * @author Member2
+ * @version 1.0
+ */
+public class Checkpointer implements AutoCloseable {
+
+    // ==================== CONSTANTS ====================
+
+    public static final long DEFAULT_INTERVAL_SECONDS = Long.getLong("hotel.checkpoint.intervalSeconds", 300L);
+    public static final int DEFAULT_CHANGE_THRESHOLD = Integer.getInteger("hotel.checkpoint.changes", 200);
+    private static final long POLL_INTERVAL_MS = 1000;
+
+    // ==================== ATTRIBUTES ====================
+
+    private final DataStorage storage;
+    private final long intervalMillis;
+    private final int changeThreshold;
+    private final Executor captureExecutor;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicBoolean requested = new AtomicBoolean();
+    private volatile long lastCheckpointMillis = System.currentTimeMillis();
+
+    // ==================== CONSTRUCTOR ====================
+
+    public Checkpointer(DataStorage storage, Executor captureExecutor) {
+        this(storage, Duration.ofSeconds(DEFAULT_INTERVAL_SECONDS), DEFAULT_CHANGE_THRESHOLD, captureExecutor);
+    }
+
+    /**
+     * @param storage         DataStorage cần checkpoint
+     * @param interval        Khoảng thời gian tối đa giữ thay đổi chưa lưu
+     * @param changeThreshold Số thay đổi chưa lưu kích hoạt checkpoint ngay
+     * @param captureExecutor Nơi chụp snapshot, phải là luồng sửa dữ liệu (ví dụ SwingUtilities::invokeLater)
+     */
+    public Checkpointer(DataStorage storage, Duration interval, int changeThreshold, Executor captureExecutor) {
+        this.storage = storage;
+        this.intervalMillis = interval.toMillis();
+        this.changeThreshold = changeThreshold;
+        this.captureExecutor = captureExecutor;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // ==================== PUBLIC METHODS ====================
+
+    /**
+     * Bắt đầu theo dõi và checkpoint định kỳ
+     */
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::poll, POLL_INTERVAL_MS, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        AppLogger.info("Checkpoint nền: mỗi %d giây hoặc %d thay đổi", intervalMillis / 1000, changeThreshold);
+    }
+
+    /**
+     * Yêu cầu checkpoint sớm nhất có thể (không chờ)
+     */
+    public void requestCheckpoint() {
+        requested.set(true);
+        submit(this::poll);
+    }
+
+    /**
+     * Chạy một checkpoint ở luồng nền
+     * @return Future cho biết checkpoint có thành công không
+     */
+    public Future<Boolean> checkpointNow() {
+        return scheduler.submit(this::runCheckpoint);
+    }
+
+    /**
+     * Dừng checkpoint nền. Không chờ checkpoint đang chạy: lần ghi tiếp theo của
+     * DataStorage sẽ tự chờ nó ghi xong.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    // ==================== PRIVATE METHODS ====================
+
+    private void submit(Runnable task) {
+        try {
+            scheduler.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Đã dừng
+        }
+    }
+
+    private void poll() {
+        int pending = storage.getPendingChangeCount();
+        boolean due = requested.getAndSet(false)
+                || pending >= changeThreshold
+                || (pending > 0 && System.currentTimeMillis() - lastCheckpointMillis >= intervalMillis);
+        if (due) {
+            runCheckpoint();
+        }
+    }
+
+    private boolean runCheckpoint() {
+        CompletableFuture<DataStorage.Snapshot> capture =
+                CompletableFuture.supplyAsync(storage::captureSnapshot, captureExecutor);
+        DataStorage.Snapshot snapshot;
+        try {
+            snapshot = capture.get();
+        } catch (InterruptedException e) {
+            // Đang dừng: snapshot chụp muộn phải được trả lại để không giữ quyền ghi
+            capture.thenAccept(late -> {
+                if (late != null && late != DataStorage.Snapshot.BUSY) {
+                    storage.releaseSnapshot(late);
+                }
+            });
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            AppLogger.error("Lỗi khi chụp snapshot", e.getCause());
+            return false;
+        }
+
+        if (snapshot == DataStorage.Snapshot.BUSY) {
+            requested.set(true);
+            AppLogger.debug("Đang có lần lưu khác, hoãn checkpoint");
+            return false;
+        }
+        lastCheckpointMillis = System.currentTimeMillis();
+        if (snapshot == null) {
+            return true;
+        }
+
+        long start = System.nanoTime();
+        boolean ok = storage.writeSnapshot(snapshot);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        AppLogger.LogEvent event = AppLogger.at(ok ? AppLogger.Level.INFO : AppLogger.Level.WARN, "storage")
+                .field("operation", "checkpoint")
+                .field("durationMs", elapsedMs)
+                .field("recordCount", snapshot.size());
+        if (ok) {
+            event.log("Checkpoint xong: %d bản ghi trong %d ms", snapshot.size(), elapsedMs);
+        } else {
+            event.log("Checkpoint thất bại sau %d ms, sẽ thử lại", elapsedMs);
+        }
+        return ok;
+    }
+}
@@ -0,0 +1,87 @@
+package com.hotel.storage;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * File dạng cột, độ rộng cố định, đọc bằng ánh xạ bộ nhớ (FileChannel.map)
+ * Cấu trúc: header 16 byte ("HMC" + phiên bản + loại, 3 byte đệm, số dòng, 4 byte dự trữ),
+ * rồi lần lượt từng cột, mỗi cột là một mảng liên tục các giá trị cùng độ rộng. Cột rộng
+ * hơn đặt trước để mọi giá trị đều nằm đúng biên (double 8 byte, int 4 byte).
+ */
+final class ColumnarFile {
+
+    static final int HEADER_SIZE = 16;
+    private static final byte[] MAGIC = { 'H', 'M', 'C' };
+    private static final int VERSION = 1;
+    private static final int ROW_COUNT_OFFSET = 8;
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Ghi phần dữ liệu các cột (sau header)
+     */
+    @FunctionalInterface
+    interface Columns {
+        void writeTo(DataOutputStream out) throws IOException;
+    }
+
+    private ColumnarFile() {
+    }
+
+    /**
+     * Ghi file an toàn qua file tạm
+     * @param rowWidth Tổng độ rộng các cột của một dòng, dùng để kiểm tra kích thước
+     */
+    static void write(Path filePath, char kind, int rows, int rowWidth, Columns columns) throws IOException {
+        AtomicFiles.write(filePath, channel -> {
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), IO_BUFFER_SIZE));
+            out.write(MAGIC);
+            out.write(VERSION);
+            out.write(kind);
+            out.write(new byte[3]);
+            out.writeInt(rows);
+            out.writeInt(0);
+            columns.writeTo(out);
+            out.flush();
+            if (out.size() != HEADER_SIZE + (long) rows * rowWidth) {
+                throw new IOException("Sai kích thước dữ liệu cột: " + filePath);
+            }
+        });
+    }
+
+    /**
+     * Ánh xạ cả file vào bộ nhớ (chỉ đọc). Vùng ánh xạ vẫn dùng được sau khi đóng channel
+     * và vẫn trỏ tới nội dung cũ nếu file bị ghi đè (ghi đè luôn là đổi tên file tạm).
+     */
+    static ByteBuffer map(Path filePath, char kind, int rowWidth) throws IOException {
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("File dữ liệu cột quá ngắn: " + filePath);
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.get(0) != MAGIC[0] || buffer.get(1) != MAGIC[1] || buffer.get(2) != MAGIC[2]) {
+                throw new IOException("Không phải file dữ liệu cột: " + filePath);
+            }
+            if (buffer.get(3) != VERSION || buffer.get(4) != kind) {
+                throw new IOException("Sai phiên bản hoặc loại dữ liệu trong " + filePath);
+            }
+            int rows = buffer.getInt(ROW_COUNT_OFFSET);
+            if (rows < 0 || size != HEADER_SIZE + (long) rows * rowWidth) {
+                throw new IOException("Kích thước file dữ liệu cột không khớp số dòng: " + filePath);
+            }
+            return buffer;
+        }
+    }
+
+    static int rowCount(ByteBuffer buffer) {
+        return buffer.getInt(ROW_COUNT_OFFSET);
+    }
+}
@@ -0,0 +1,114 @@
+package com.hotel.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Đọc/ghi một bản ghi CSV (RFC 4180): phân cách bằng dấu phẩy, giá trị chứa dấu phẩy,
+ * dấu nháy kép hoặc xuống dòng được đặt trong nháy kép và nháy kép bên trong được nhân đôi
+ */
+final class CsvFormat {
+
+    private CsvFormat() {
+    }
+
+    /**
+     * Bản ghi đã đủ chưa: false nếu đang mở nháy kép (giá trị kéo sang dòng sau)
+     */
+    static boolean isComplete(CharSequence record) {
+        int quotes = 0;
+        for (int i = 0; i < record.length(); i++) {
+            if (record.charAt(i) == '"') {
+                quotes++;
+            }
+        }
+        return quotes % 2 == 0;
+    }
+
+    /**
+     * Tách bản ghi thành các giá trị
+     * @throws IllegalArgumentException nếu nháy kép đặt sai chỗ
+     */
+    static List<String> parse(String record) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        int i = 0;
+        int length = record.length();
+        while (true) {
+            value.setLength(0);
+            if (i < length && record.charAt(i) == '"') {
+                i++;
+                while (true) {
+                    if (i >= length) {
+                        throw new IllegalArgumentException("Thiếu dấu nháy đóng");
+                    }
+                    char c = record.charAt(i++);
+                    if (c == '"') {
+                        if (i < length && record.charAt(i) == '"') {
+                            value.append('"');
+                            i++;
+                        } else {
+                            break;
+                        }
+                    } else {
+                        value.append(c);
+                    }
+                }
+                if (i < length && record.charAt(i) != ',') {
+                    throw new IllegalArgumentException("Ký tự thừa sau dấu nháy đóng ở vị trí " + i);
+                }
+            } else {
+                while (i < length && record.charAt(i) != ',') {
+                    char c = record.charAt(i++);
+                    if (c == '"') {
+                        throw new IllegalArgumentException("Dấu nháy trong giá trị không được bao nháy");
+                    }
+                    value.append(c);
+                }
+            }
+            values.add(value.toString());
+            if (i >= length) {
+                return values;
+            }
+            i++; // bỏ dấu phẩy
+        }
+    }
+
+    /**
+     * Ghép các giá trị thành một bản ghi (null ghi thành rỗng)
+     */
+    static String format(List<String> values) {
+        StringBuilder record = new StringBuilder();
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                record.append(',');
+            }
+            appendValue(record, values.get(i));
+        }
+        return record.toString();
+    }
+
+    private static void appendValue(StringBuilder record, String value) {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            record.append(value);
+            return;
+        }
+        record.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                record.append('"');
+            }
+            record.append(c);
+        }
+        record.append('"');
+    }
+}
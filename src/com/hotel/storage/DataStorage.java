@@ -1,7 +1,9 @@
 package com.hotel.storage;
 
 import com.google.gson.*;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import com.hotel.model.booking.Booking;
 import com.hotel.model.customer.Customer;
 import com.hotel.model.enums.BookingStatus;
@@ -17,18 +19,38 @@ import com.hotel.service.BookingManager;
 import com.hotel.service.CustomerManager;
 import com.hotel.service.InvoiceManager;
 import com.hotel.service.RoomManager;
+import com.hotel.service.interfaces.IChangeListener;
+import com.hotel.service.interfaces.IManageable;
 import com.hotel.util.AppLogger;
 
 import java.io.*;
 import java.lang.reflect.Type;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
  * Lớp quản lý lưu trữ dữ liệu cho Booking, Customer, và Invoice
@@ -43,21 +65,60 @@ public class DataStorage {
     // ==================== CONSTANTS ====================
     
     private static final String DEFAULT_DATA_DIR = getDefaultDataDir();
-    private static final String ROOMS_FILE = "rooms.json";
-    private static final String CUSTOMERS_FILE = "customers.json";
-    private static final String BOOKINGS_FILE = "bookings.json";
-    private static final String INVOICES_FILE = "invoices.json";
+    private static final String ROOMS_FILE = "rooms";
+    private static final String CUSTOMERS_FILE = "customers";
+    private static final String BOOKINGS_FILE = "bookings";
+    private static final String INVOICES_FILE = "invoices";
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+    private static final String DELTA_SUFFIX = ".delta.jsonl";
+    private static final String DELTA_UPSERT = "UPSERT";
+    private static final String DELTA_DELETE = "DELETE";
+    private static final String JOURNAL_FILE = "journal.log";
+    private static final String JOURNAL_CLEAR = "CLEAR";
+    private static final String COLUMNS_EXTENSION = ".col";
+    /** Số luồng đọc file khi tải song song (mỗi collection một luồng) */
+    private static final int LOAD_THREADS = 4;
+    private static final String LOG_CATEGORY = "storage";
     
     // ==================== ATTRIBUTES ====================
     
     private final String dataDirectory;
     private final Gson gson;
+    /** Định dạng file chính (JSON hoặc nhị phân), tự nhận biết theo file có sẵn */
+    private volatile StorageFormat format;
+    /**
+     * Chế độ tham chiếu trễ: booking/hóa đơn được tải chỉ với ID tham chiếu, không bị bỏ
+     * khi tham chiếu treo (xem findDanglingReferences)
+     */
+    private volatile boolean lazyReferences = Boolean.getBoolean("hotel.storage.lazyReferences");
+    /** Chế độ chỉ đọc (openReadOnly): mọi thao tác ghi file bị từ chối */
+    private volatile boolean readOnly;
 
     private CustomerManager customerManager;
     private BookingManager bookingManager;
     private InvoiceManager invoiceManager;
     private RoomManager roomManager;
 
+    /** Theo dõi thay đổi từng collection cho saveChanges() (null nếu không có manager) */
+    private final ChangeTracker<Room> roomTracker;
+    private final ChangeTracker<Customer> customerTracker;
+    private final ChangeTracker<Booking> bookingTracker;
+    private final ChangeTracker<Invoice> invoiceTracker;
+
+    /** Nhật ký ghi trước, null khi chưa gọi openJournal() */
+    private Journal journal;
+    private final List<Runnable> journalDetachers = new ArrayList<>();
+    /** Được báo một lần khi nhật ký hỏng (từ đó thay đổi không còn được ghi nhật ký) */
+    private volatile Consumer<IOException> journalFailureHandler = e -> { };
+    private final AtomicBoolean journalFailureReported = new AtomicBoolean();
+
+    /**
+     * Chỉ một thao tác ghi file tại một thời điểm. Dùng Semaphore thay vì lock vì
+     * checkpoint giữ quyền ghi từ lúc chụp snapshot (luồng sửa dữ liệu) tới khi luồng
+     * nền ghi xong, nên việc trả quyền xảy ra ở một luồng khác.
+     */
+    private final Semaphore writeLock = new Semaphore(1);
+
     // ==================== CONSTRUCTOR ====================
 
     public DataStorage(CustomerManager customerManager, BookingManager bookingManager, 
@@ -69,13 +130,26 @@ public class DataStorage {
                        InvoiceManager invoiceManager, RoomManager roomManager) {
         this.dataDirectory = dataDirectory;
         this.gson = createGson();
+        this.format = StorageFormat.detect(dataDirectory, ROOMS_FILE, CUSTOMERS_FILE, BOOKINGS_FILE, INVOICES_FILE);
         this.customerManager = customerManager;
         this.bookingManager = bookingManager;
         this.invoiceManager = invoiceManager;
         this.roomManager = roomManager;
+        this.roomTracker = roomManager != null ? new ChangeTracker<>(Room::getRoomId) : null;
+        this.customerTracker = customerManager != null ? new ChangeTracker<>(Customer::getCustomerId) : null;
+        this.bookingTracker = bookingManager != null ? new ChangeTracker<>(Booking::getBookingId) : null;
+        this.invoiceTracker = invoiceManager != null ? new ChangeTracker<>(Invoice::getInvoiceId) : null;
+        registerChangeTrackers();
         ensureDataDirectoryExists();
     }
 
+    private void registerChangeTrackers() {
+        if (roomManager != null) roomManager.addChangeListener(roomTracker);
+        if (customerManager != null) customerManager.addChangeListener(customerTracker);
+        if (bookingManager != null) bookingManager.addChangeListener(bookingTracker);
+        if (invoiceManager != null) invoiceManager.addChangeListener(invoiceTracker);
+    }
+
     /**
      * Tạo Gson instance với custom adapters cho LocalDate và Room polymorphism
      */
@@ -102,19 +176,39 @@ public class DataStorage {
     // ==================== HELPER METHODS ====================
 
     private String getRoomsFilePath() {
-        return Paths.get(dataDirectory, ROOMS_FILE).toString();
+        return getRoomsFilePath(format);
+    }
+
+    private String getRoomsFilePath(StorageFormat fileFormat) {
+        return Paths.get(dataDirectory, ROOMS_FILE + fileFormat.getExtension()).toString();
     }
 
     private String getCustomersFilePath() {
-        return Paths.get(dataDirectory, CUSTOMERS_FILE).toString();
+        return getCustomersFilePath(format);
+    }
+
+    private String getCustomersFilePath(StorageFormat fileFormat) {
+        return Paths.get(dataDirectory, CUSTOMERS_FILE + fileFormat.getExtension()).toString();
     }
 
     private String getBookingsFilePath() {
-        return Paths.get(dataDirectory, BOOKINGS_FILE).toString();
+        return getBookingsFilePath(format);
+    }
+
+    private String getBookingsFilePath(StorageFormat fileFormat) {
+        return Paths.get(dataDirectory, BOOKINGS_FILE + fileFormat.getExtension()).toString();
     }
 
     private String getInvoicesFilePath() {
-        return Paths.get(dataDirectory, INVOICES_FILE).toString();
+        return getInvoicesFilePath(format);
+    }
+
+    private String getInvoicesFilePath(StorageFormat fileFormat) {
+        return Paths.get(dataDirectory, INVOICES_FILE + fileFormat.getExtension()).toString();
+    }
+
+    private static boolean isBinary(Path filePath) {
+        return filePath.getFileName().toString().endsWith(StorageFormat.BINARY.getExtension());
     }
 
     private static String getDefaultDataDir() {
@@ -129,91 +223,414 @@ public class DataStorage {
     // ==================== LOAD/SAVE ALL ====================
 
     /**
-     * Tải tất cả dữ liệu từ file JSON
+     * Theo dõi tiến trình loadAllData
+     */
+    @FunctionalInterface
+    public interface LoadListener {
+        /**
+         * Được gọi trên luồng tải ngay sau khi một collection đã vào manager, theo thứ tự
+         * phòng, khách hàng, đặt phòng, hóa đơn
+         * @param entity Collection vừa tải xong
+         * @param count  Số bản ghi đã tải
+         * @return false để dừng, không tải các collection còn lại
+         */
+        boolean loaded(BulkTransfer.Entity entity, int count);
+    }
+
+    /**
+     * Tải tất cả dữ liệu từ file JSON (kèm các thay đổi trong file delta)
+     * Bốn file được đọc và parse đồng thời trên một nhóm luồng giới hạn; booking và hóa đơn
+     * lúc này chỉ giữ ID tham chiếu. Sau đó pha liên kết (trên luồng gọi) nối booking với
+     * khách hàng/phòng và hóa đơn với booking theo ID, rồi đưa vào manager theo thứ tự
+     * phụ thuộc. Thời gian tải vì thế xấp xỉ thời gian đọc file lớn nhất.
      */
     public void loadAllData() {
-        loadRooms();  // Load rooms first (needed for bookings)
-        loadCustomers();
-        loadBookings();
-        loadInvoices();
-        AppLogger.info("Đã tải tất cả dữ liệu từ thư mục: %s", dataDirectory);
+        loadAllData((entity, count) -> true);
+    }
+
+    /**
+     * Tải tất cả dữ liệu như loadAllData(), báo từng collection ngay khi nó vào manager
+     * để giao diện hiển thị dần trong lúc các file còn lại đang được đọc.
+     * Nếu listener dừng giữa chừng, dữ liệu trong manager chỉ là một phần nên DataStorage
+     * chuyển sang chế độ chỉ đọc để không ghi đè file bằng dữ liệu thiếu.
+     * Không được sửa manager trong lúc tải: mỗi collection vừa tải sẽ ghi đè và bỏ theo dõi
+     * mọi thay đổi trước đó, và nhật ký chỉ mở sau khi tải xong (openJournal()).
+     * @return true nếu đã tải hết, false nếu bị dừng
+     */
+    public boolean loadAllData(LoadListener listener) {
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(LOAD_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "data-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        boolean completed;
+        try {
+            CompletableFuture<Staged<Room>> rooms = stageAsync(roomManager, this::stageRooms, executor);
+            CompletableFuture<Staged<Customer>> customers = stageAsync(customerManager, this::stageCustomers, executor);
+            CompletableFuture<Staged<BookingRecord>> bookings = stageAsync(bookingManager, this::stageBookings, executor);
+            CompletableFuture<Staged<InvoiceRecord>> invoices = stageAsync(invoiceManager, this::stageInvoices, executor);
+
+            completed = listener.loaded(BulkTransfer.Entity.ROOMS, resolveRooms(rooms.join()))
+                    && listener.loaded(BulkTransfer.Entity.CUSTOMERS, resolveCustomers(customers.join()))
+                    && listener.loaded(BulkTransfer.Entity.BOOKINGS, resolveBookings(bookings.join()))
+                    && listener.loaded(BulkTransfer.Entity.INVOICES, resolveInvoices(invoices.join()));
+        } finally {
+            // Khi bị dừng, các luồng đọc còn lại tự kết thúc; kết quả của chúng bị bỏ
+            executor.shutdown();
+        }
+        if (!completed) {
+            readOnly = true;
+            logTiming("loadAll", start, totalRecords(), Paths.get(dataDirectory)).field("cancelled", true)
+                    .log("Đã dừng tải dữ liệu giữa chừng, chuyển sang chế độ chỉ đọc: %s", dataDirectory);
+            return false;
+        }
+        logTiming("loadAll", start, totalRecords(), Paths.get(dataDirectory))
+                .log("Đã tải tất cả dữ liệu từ thư mục: %s", dataDirectory);
+        return true;
     }
 
     /**
      * Lưu tất cả dữ liệu vào file JSON
+     * Ghi lại toàn bộ từng file và gộp (xóa) các file delta
      */
     public void saveAllData() {
-        saveRooms();
-        saveCustomers();
-        saveBookings();
-        saveInvoices();
-        AppLogger.info("Đã lưu tất cả dữ liệu vào thư mục: %s", dataDirectory);
+        if (!ensureWritable()) {
+            return;
+        }
+        long start = System.nanoTime();
+        withWriteLock(() -> {
+            long journalSegment = rotateJournal();
+            boolean ok = roomManager == null || rewriteRooms();
+            ok &= customerManager == null || rewriteCustomers();
+            ok &= bookingManager == null || rewriteBookings();
+            ok &= invoiceManager == null || rewriteInvoices();
+            if (ok) {
+                deleteJournalSegments(journal, journalSegment);
+            }
+            return ok;
+        });
+        logTiming("saveAll", start, totalRecords(), Paths.get(dataDirectory))
+                .log("Đã lưu tất cả dữ liệu vào thư mục: %s", dataDirectory);
     }
 
-    // ==================== ROOMS ====================
+    /**
+     * Chỉ lưu những gì đã thay đổi kể từ lần lưu trước
+     * Collection không có thay đổi thì không bị động tới; collection có thay đổi được
+     * nối thêm các bản ghi đã đổi vào file delta của nó. Khi file delta lớn hơn một nửa
+     * file chính (hoặc collection bị clear), collection đó được ghi lại toàn bộ.
+     * Thay đổi đến trong lúc đang lưu vẫn nằm trong tracker và nhật ký cho lần lưu sau.
+     * @return Số collection đã được ghi
+     */
+    public int saveChanges() {
+        if (!ensureWritable()) {
+            return 0;
+        }
+        writeLock.acquireUninterruptibly();
+        try {
+            return saveChangesLocked();
+        } finally {
+            writeLock.release();
+        }
+    }
+
+    private int saveChangesLocked() {
+        long start = System.nanoTime();
+        // Niêm phong nhật ký trước khi lấy thay đổi khỏi tracker: mọi bản ghi trong các đoạn
+        // đã niêm phong đều thuộc về thay đổi sắp được ghi
+        long journalSegment = rotateJournal();
+        SaveResult[] results = {
+                saveChanges(roomManager, roomTracker, getRoomsFilePath(), this::writeRooms,
+                        r -> gson.toJsonTree(r, Room.class)),
+                saveChanges(customerManager, customerTracker, getCustomersFilePath(), this::writeCustomers,
+                        DataStorage::customerToJson),
+                saveChanges(bookingManager, bookingTracker, getBookingsFilePath(), this::writeBookings,
+                        DataStorage::bookingToJson),
+                saveChanges(invoiceManager, invoiceTracker, getInvoicesFilePath(), this::writeInvoices,
+                        DataStorage::invoiceToJson)
+        };
+        int saved = 0;
+        boolean failed = false;
+        for (SaveResult result : results) {
+            saved += result == SaveResult.SAVED ? 1 : 0;
+            failed |= result == SaveResult.FAILED;
+        }
+        if (!failed) {
+            deleteJournalSegments(journal, journalSegment);
+        }
+        timing("saveChanges", start).field("collections", saved).field("file", dataDirectory)
+                .log("Đã lưu thay đổi của %d collection vào thư mục: %s", saved, dataDirectory);
+        return saved;
+    }
 
     /**
-     * Wrapper class cho JSON structure của Room
+     * Có thay đổi nào chưa được lưu không
      */
-    private static class RoomDataWrapper {
-        List<Room> rooms;
+    public boolean hasUnsavedChanges() {
+        return hasChanges(roomTracker) || hasChanges(customerTracker)
+                || hasChanges(bookingTracker) || hasChanges(invoiceTracker);
+    }
 
-        RoomDataWrapper(List<Room> rooms) {
-            this.rooms = rooms;
+    /**
+     * Số bản ghi đã thay đổi nhưng chưa được lưu (dùng cho checkpoint theo số thay đổi)
+     */
+    public int getPendingChangeCount() {
+        return sizeOf(roomTracker) + sizeOf(customerTracker) + sizeOf(bookingTracker) + sizeOf(invoiceTracker);
+    }
+
+    private boolean withWriteLock(BooleanSupplier operation) {
+        if (!ensureWritable()) {
+            return false;
         }
+        writeLock.acquireUninterruptibly();
+        try {
+            return operation.getAsBoolean();
+        } finally {
+            writeLock.release();
+        }
+    }
+
+    // ==================== FORMAT ====================
+
+    public StorageFormat getFormat() {
+        return format;
     }
 
     /**
-     * Tải danh sách phòng từ file JSON
+     * Đổi định dạng dùng cho các lần tải/lưu sau (không chuyển đổi file có sẵn, xem convertTo)
      */
-    public void loadRooms() {
-        Path filePath = Paths.get(getRoomsFilePath());
-        if (!Files.exists(filePath)) {
-            AppLogger.info("File phòng không tồn tại: %s", filePath);
-            return;
+    public void setFormat(StorageFormat format) {
+        this.format = format;
+    }
+
+    /**
+     * Xuất toàn bộ dữ liệu đang có sang định dạng khác (ví dụ JSON -> nhị phân)
+     * Chỉ tạo bản sao: định dạng đang dùng, file delta và trạng thái "chưa lưu" giữ nguyên.
+     * @return true nếu mọi collection đều ghi thành công
+     */
+    public boolean exportAllData(StorageFormat target) {
+        if (target == format) {
+            saveAllData();
+            return !hasUnsavedChanges();
         }
+        return withWriteLock(() -> exportTo(target));
+    }
 
-        try {
-            String json = Files.readString(filePath, StandardCharsets.UTF_8);
-            RoomDataWrapper wrapper = gson.fromJson(json, RoomDataWrapper.class);
-            if (wrapper != null && wrapper.rooms != null) {
-                roomManager.loadRooms(wrapper.rooms);
-                AppLogger.info("Đã tải %d phòng từ %s", wrapper.rooms.size(), filePath);
+    /**
+     * Chuyển kho dữ liệu sang định dạng khác: ghi toàn bộ ở định dạng mới, dùng nó từ đây,
+     * rồi xóa file chính và file delta của định dạng cũ
+     * @return true nếu chuyển thành công (thất bại thì vẫn giữ định dạng cũ)
+     */
+    public boolean convertTo(StorageFormat target) {
+        if (target == format) {
+            return true;
+        }
+        return withWriteLock(() -> {
+            long journalSegment = rotateJournal();
+            Part<Room> rooms = drain(roomManager, roomTracker);
+            Part<Customer> customers = drain(customerManager, customerTracker);
+            Part<Booking> bookings = drain(bookingManager, bookingTracker);
+            Part<Invoice> invoices = drain(invoiceManager, invoiceTracker);
+            boolean ok = rooms == null || writeRooms(rooms.items(), target);
+            ok &= customers == null || writeCustomers(customers.items(), target);
+            ok &= bookings == null || writeBookings(bookings.items(), target);
+            ok &= invoices == null || writeInvoices(invoices.items(), target);
+            if (!ok) {
+                restore(rooms, roomTracker);
+                restore(customers, customerTracker);
+                restore(bookings, bookingTracker);
+                restore(invoices, invoiceTracker);
+                return false;
             }
-        } catch (IOException | JsonSyntaxException e) {
-            AppLogger.error("Lỗi khi tải phòng từ file: " + filePath, e);
+            StorageFormat previous = format;
+            format = target;
+            for (String oldFile : new String[] { getRoomsFilePath(previous), getCustomersFilePath(previous),
+                    getBookingsFilePath(previous), getInvoicesFilePath(previous) }) {
+                deleteDelta(Paths.get(oldFile));
+                try {
+                    Files.deleteIfExists(Paths.get(oldFile));
+                } catch (IOException e) {
+                    AppLogger.warn("Không thể xóa file cũ: " + oldFile, e);
+                }
+            }
+            deleteJournalSegments(journal, journalSegment);
+            AppLogger.info("Đã chuyển dữ liệu từ %s sang %s", previous, target);
+            return true;
+        });
+    }
+
+    private boolean exportTo(StorageFormat target) {
+        boolean ok = roomManager == null || writeRooms(roomManager.getAll(), target);
+        ok &= customerManager == null || writeCustomers(customerManager.getAll(), target);
+        ok &= bookingManager == null || writeBookings(bookingManager.getAll(), target);
+        ok &= invoiceManager == null || writeInvoices(invoiceManager.getAll(), target);
+        return ok;
+    }
+
+    // ==================== READ-ONLY COLUMNS ====================
+
+    /**
+     * Ghi file dạng cột (rooms.col, bookings.col) cho instance báo cáo
+     * Sau lần xuất đầu tiên, mỗi lần ghi lại toàn bộ phòng/booking cũng cập nhật file cột;
+     * thay đổi chỉ nằm trong file delta thì chưa có trong file cột.
+     * @return true nếu ghi thành công
+     */
+    public boolean exportColumns() {
+        return withWriteLock(() -> {
+            try {
+                if (roomManager != null) {
+                    RoomColumns.write(getColumnsPath(ROOMS_FILE), roomManager.getAll());
+                }
+                if (bookingManager != null) {
+                    BookingColumns.write(getColumnsPath(BOOKINGS_FILE), bookingManager.getAll());
+                }
+                AppLogger.info("Đã xuất dữ liệu dạng cột vào thư mục: %s", dataDirectory);
+                return true;
+            } catch (IOException e) {
+                AppLogger.error("Lỗi khi xuất dữ liệu dạng cột vào thư mục: " + dataDirectory, e);
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Mở kho dữ liệu ở chế độ chỉ đọc cho báo cáo
+     * Booking và thống kê phòng được đọc qua file cột ánh xạ bộ nhớ, không tạo đối tượng
+     * Booking nào; phòng và khách hàng vẫn được tải bình thường vì giao diện cần chúng.
+     * Hóa đơn cần đối tượng Booking nên không được tải. Nếu thiếu file cột thì tải đầy đủ
+     * như loadAllData(). Từ đây mọi thao tác lưu đều bị từ chối.
+     */
+    public void openReadOnly() {
+        readOnly = true;
+        if (roomManager != null) {
+            loadRooms();
+            try {
+                roomManager.attachColumns(RoomColumns.open(getColumnsPath(ROOMS_FILE)));
+            } catch (IOException e) {
+                AppLogger.warn("Không mở được file cột phòng, thống kê dùng dữ liệu đã tải", e);
+            }
+        }
+        if (customerManager != null) {
+            loadCustomers();
         }
+        if (bookingManager != null) {
+            Path columnsPath = getColumnsPath(BOOKINGS_FILE);
+            try {
+                BookingColumns columns = BookingColumns.open(columnsPath);
+                bookingManager.attachColumns(columns);
+                AppLogger.info("Đã ánh xạ %d đặt phòng từ %s", columns.size(), columnsPath);
+            } catch (IOException e) {
+                AppLogger.warn("Không mở được file cột đặt phòng, tải đầy đủ: " + columnsPath, e);
+                loadBookings();
+                if (invoiceManager != null) {
+                    loadInvoices();
+                }
+            }
+        }
+        AppLogger.info("Đã mở dữ liệu ở chế độ chỉ đọc: %s", dataDirectory);
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    private boolean ensureWritable() {
+        if (readOnly) {
+            AppLogger.warn("Dữ liệu đang mở ở chế độ chỉ đọc, bỏ qua thao tác lưu");
+            return false;
+        }
+        return true;
+    }
+
+    private Path getColumnsPath(String baseName) {
+        return Paths.get(dataDirectory, baseName + COLUMNS_EXTENSION);
     }
 
     /**
-     * Lưu danh sách phòng vào file JSON
+     * Ghi lại file cột nếu đã từng xuất (lỗi chỉ được ghi log, không làm hỏng lần lưu)
      */
-    public void saveRooms() {
+    private <T> void refreshColumns(String baseName, List<T> items, ColumnWriter<T> writer) {
+        Path columnsPath = getColumnsPath(baseName);
+        if (!Files.exists(columnsPath)) {
+            return;
+        }
         try {
-            RoomDataWrapper wrapper = new RoomDataWrapper(roomManager.getAll());
-            String json = gson.toJson(wrapper);
-            Files.writeString(Paths.get(getRoomsFilePath()), json, StandardCharsets.UTF_8);
-            AppLogger.info("Đã lưu %d phòng vào %s", roomManager.getAll().size(), getRoomsFilePath());
+            writer.write(columnsPath, items);
         } catch (IOException e) {
-            AppLogger.error("Lỗi khi lưu phòng vào file: " + getRoomsFilePath(), e);
+            AppLogger.warn("Không thể cập nhật file cột: " + columnsPath, e);
         }
     }
 
+    @FunctionalInterface
+    private interface ColumnWriter<T> {
+        void write(Path filePath, List<T> items) throws IOException;
+    }
+
+    // ==================== ROOMS ====================
+
+    /**
+     * Tải danh sách phòng từ file JSON
+     */
+    public void loadRooms() {
+        resolveRooms(stageRooms());
+    }
+
+    /**
+     * Lưu danh sách phòng vào file JSON
+     */
+    public boolean saveRooms() {
+        return withWriteLock(this::rewriteRooms);
+    }
+
     /**
      * Lưu danh sách phòng (public method cho RoomPanel)
      */
     public boolean saveRooms(List<Room> rooms) {
         if (rooms == null) return false;
+        return withWriteLock(() -> {
+            ChangeTracker.Changes<Room> changes = roomTracker != null ? roomTracker.drain() : null;
+            return writePart(new Part<>(rooms, changes), this::writeRooms, roomTracker);
+        });
+    }
+
+    private boolean rewriteRooms() {
+        return roomManager != null && rewrite(roomManager, roomTracker, this::writeRooms);
+    }
+
+    private boolean writeRooms(List<Room> rooms) {
+        return writeRooms(rooms, format);
+    }
+
+    private boolean writeRooms(List<Room> rooms, StorageFormat fileFormat) {
+        long start = System.nanoTime();
+        Path filePath = Paths.get(getRoomsFilePath(fileFormat));
         try {
-            RoomDataWrapper wrapper = new RoomDataWrapper(rooms);
-            String json = gson.toJson(wrapper);
-            Files.writeString(Paths.get(getRoomsFilePath()), json, StandardCharsets.UTF_8);
-            AppLogger.info("Đã lưu %d phòng vào %s", rooms.size(), getRoomsFilePath());
-            return true;
-        } catch (IOException e) {
-            AppLogger.error("Lỗi khi lưu phòng vào file: " + getRoomsFilePath(), e);
+            if (fileFormat == StorageFormat.BINARY) {
+                roomStore(filePath).write(rooms);
+            } else {
+                writeAtomically(filePath, writer -> {
+                    // Cấu trúc file: { "rooms": [ ... ] }
+                    writer.beginObject();
+                    writer.name("rooms");
+                    writer.beginArray();
+                    for (Room room : rooms) {
+                        gson.toJson(room, Room.class, writer);
+                    }
+                    writer.endArray();
+                    writer.endObject();
+                });
+            }
+        } catch (IOException | JsonIOException e) {
+            AppLogger.error("Lỗi khi lưu phòng vào file: " + filePath, e);
             return false;
         }
+        if (fileFormat == format) {
+            deleteDelta(filePath);
+            refreshColumns(ROOMS_FILE, rooms, RoomColumns::write);
+        }
+        logTiming("saveRooms", start, rooms.size(), filePath)
+                .log("Đã lưu %d phòng vào %s", rooms.size(), filePath);
+        return true;
     }
 
     /**
@@ -221,72 +638,97 @@ public class DataStorage {
      */
     public List<Room> loadRoomsList() {
         Path filePath = Paths.get(getRoomsFilePath());
-        if (!Files.exists(filePath)) {
+        if (!Files.exists(filePath) && !Files.exists(deltaPathOf(filePath))) {
             AppLogger.debug("File phòng không tồn tại: %s", filePath);
             return new ArrayList<>();
         }
 
         try {
-            String json = Files.readString(filePath, StandardCharsets.UTF_8);
-            RoomDataWrapper wrapper = gson.fromJson(json, RoomDataWrapper.class);
-            List<Room> result = wrapper != null && wrapper.rooms != null ? wrapper.rooms : new ArrayList<>();
-            AppLogger.info("Đã tải %d phòng từ %s", result.size(), filePath);
+            long start = System.nanoTime();
+            List<Room> result = readRooms(filePath);
+            logTiming("loadRooms", start, result.size(), filePath)
+                    .log("Đã tải %d phòng từ %s", result.size(), filePath);
             return result;
-        } catch (IOException | JsonSyntaxException e) {
+        } catch (IOException | IllegalStateException | JsonParseException e) {
             AppLogger.error("Lỗi khi tải phòng từ file: " + filePath, e);
             return new ArrayList<>();
         }
     }
 
+    /**
+     * Đọc từng phòng trong file chính (mảng "rooms" của JSON, hoặc file nhị phân),
+     * rồi áp dụng file delta (nếu có)
+     */
+    private List<Room> readRooms(Path filePath) throws IOException {
+        Map<String, Room> rooms = new LinkedHashMap<>();
+        if (Files.exists(filePath) && isBinary(filePath)) {
+            roomStore(filePath).read(room -> rooms.put(room.getRoomId(), room) == null);
+        } else if (Files.exists(filePath)) {
+            try (JsonReader reader = openReader(filePath)) {
+                if (!isEmptyDocument(reader)) {
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        if (!"rooms".equals(reader.nextName()) || reader.peek() == JsonToken.NULL) {
+                            reader.skipValue();
+                            continue;
+                        }
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            Room room = gson.fromJson(reader, Room.class);
+                            if (room != null) {
+                                rooms.put(room.getRoomId(), room);
+                            }
+                        }
+                        reader.endArray();
+                    }
+                    reader.endObject();
+                }
+            }
+        }
+        applyDelta(filePath, json -> gson.fromJson(json, Room.class),
+                room -> rooms.put(room.getRoomId(), room),
+                rooms::remove);
+        return new ArrayList<>(rooms.values());
+    }
+
     // ==================== CUSTOMERS ====================
 
     /**
      * Tải danh sách khách hàng từ file JSON
      */
     public void loadCustomers() {
-        Path filePath = Paths.get(getCustomersFilePath());
-        if (!Files.exists(filePath)) {
-            AppLogger.info("File khách hàng không tồn tại: %s", filePath);
-            return;
-        }
-
-        try {
-            String content = Files.readString(filePath, StandardCharsets.UTF_8);
-            if (content.isEmpty() || content.isBlank()) {
-                return;
-            }
-
-            JsonArray jsonArray = JsonParser.parseString(content).getAsJsonArray();
-            int count = 0;
-            for (JsonElement element : jsonArray) {
-                Customer customer = parseCustomer(element.getAsJsonObject());
-                if (customer != null) {
-                    customerManager.add(customer);
-                    count++;
-                }
-            }
-            AppLogger.info("Đã tải %d khách hàng từ %s", count, filePath);
-        } catch (IOException e) {
-            AppLogger.error("Lỗi khi tải khách hàng từ file: " + filePath, e);
-        } catch (JsonSyntaxException e) {
-            AppLogger.error("Lỗi cú pháp JSON khi tải khách hàng: " + filePath, e);
-        }
+        resolveCustomers(stageCustomers());
     }
 
     /**
      * Lưu danh sách khách hàng vào file JSON
      */
-    public void saveCustomers() {
+    public boolean saveCustomers() {
+        return withWriteLock(this::rewriteCustomers);
+    }
+
+    private boolean rewriteCustomers() {
+        return customerManager != null && rewrite(customerManager, customerTracker, this::writeCustomers);
+    }
+
+    private boolean writeCustomers(List<Customer> customers) {
+        return writeCustomers(customers, format);
+    }
+
+    private boolean writeCustomers(List<Customer> customers, StorageFormat fileFormat) {
+        long start = System.nanoTime();
+        Path filePath = Paths.get(getCustomersFilePath(fileFormat));
         try {
-            JsonArray jsonArray = new JsonArray();
-            for (Customer customer : customerManager.getAll()) {
-                jsonArray.add(customerToJson(customer));
+            int count = writeBase(filePath, customers, DataStorage::customerToJson, customerStore(filePath));
+            if (fileFormat == format) {
+                deleteDelta(filePath);
             }
-            String json = gson.toJson(jsonArray);
-            Files.writeString(Paths.get(getCustomersFilePath()), json, StandardCharsets.UTF_8);
-            AppLogger.info("Đã lưu %d khách hàng vào %s", customerManager.getAll().size(), getCustomersFilePath());
-        } catch (IOException e) {
-            AppLogger.error("Lỗi khi lưu khách hàng vào file: " + getCustomersFilePath(), e);
+            logTiming("saveCustomers", start, count, filePath)
+                    .log("Đã lưu %d khách hàng vào %s", count, filePath);
+            return true;
+        } catch (IOException | JsonIOException e) {
+            AppLogger.error("Lỗi khi lưu khách hàng vào file: " + filePath, e);
+            return false;
         }
     }
 
@@ -296,49 +738,39 @@ public class DataStorage {
      * Tải danh sách đặt phòng từ file JSON
      */
     public void loadBookings() {
-        Path filePath = Paths.get(getBookingsFilePath());
-        if (!Files.exists(filePath)) {
-            AppLogger.info("File đặt phòng không tồn tại: %s", filePath);
-            return;
-        }
-
-        try {
-            String content = Files.readString(filePath, StandardCharsets.UTF_8);
-            if (content.isEmpty() || content.isBlank()) {
-                return;
-            }
-
-            JsonArray jsonArray = JsonParser.parseString(content).getAsJsonArray();
-            int count = 0;
-            for (JsonElement element : jsonArray) {
-                Booking booking = parseBooking(element.getAsJsonObject());
-                if (booking != null) {
-                    bookingManager.add(booking);
-                    count++;
-                }
-            }
-            AppLogger.info("Đã tải %d đặt phòng từ %s", count, filePath);
-        } catch (IOException e) {
-            AppLogger.error("Lỗi khi tải đặt phòng từ file: " + filePath, e);
-        } catch (JsonSyntaxException e) {
-            AppLogger.error("Lỗi cú pháp JSON khi tải đặt phòng: " + filePath, e);
-        }
+        resolveBookings(stageBookings());
     }
 
     /**
      * Lưu danh sách đặt phòng vào file JSON
      */
-    public void saveBookings() {
+    public boolean saveBookings() {
+        return withWriteLock(this::rewriteBookings);
+    }
+
+    private boolean rewriteBookings() {
+        return bookingManager != null && rewrite(bookingManager, bookingTracker, this::writeBookings);
+    }
+
+    private boolean writeBookings(List<Booking> bookings) {
+        return writeBookings(bookings, format);
+    }
+
+    private boolean writeBookings(List<Booking> bookings, StorageFormat fileFormat) {
+        long start = System.nanoTime();
+        Path filePath = Paths.get(getBookingsFilePath(fileFormat));
         try {
-            JsonArray jsonArray = new JsonArray();
-            for (Booking booking : bookingManager.getAll()) {
-                jsonArray.add(bookingToJson(booking));
+            int count = writeBase(filePath, bookings, DataStorage::bookingToJson, bookingStore(filePath));
+            if (fileFormat == format) {
+                deleteDelta(filePath);
+                refreshColumns(BOOKINGS_FILE, bookings, BookingColumns::write);
             }
-            String json = gson.toJson(jsonArray);
-            Files.writeString(Paths.get(getBookingsFilePath()), json, StandardCharsets.UTF_8);
-            AppLogger.info("Đã lưu %d đặt phòng vào %s", bookingManager.getAll().size(), getBookingsFilePath());
-        } catch (IOException e) {
-            AppLogger.error("Lỗi khi lưu đặt phòng vào file: " + getBookingsFilePath(), e);
+            logTiming("saveBookings", start, count, filePath)
+                    .log("Đã lưu %d đặt phòng vào %s", count, filePath);
+            return true;
+        } catch (IOException | JsonIOException e) {
+            AppLogger.error("Lỗi khi lưu đặt phòng vào file: " + filePath, e);
+            return false;
         }
     }
 
@@ -348,133 +780,1061 @@ public class DataStorage {
      * Tải danh sách hóa đơn từ file JSON
      */
     public void loadInvoices() {
-        Path filePath = Paths.get(getInvoicesFilePath());
-        if (!Files.exists(filePath)) {
-            AppLogger.info("File hóa đơn không tồn tại: %s", filePath);
-            return;
-        }
-
-        try {
-            String content = Files.readString(filePath, StandardCharsets.UTF_8);
-            if (content.isEmpty() || content.isBlank()) {
-                return;
-            }
-
-            JsonArray jsonArray = JsonParser.parseString(content).getAsJsonArray();
-            int count = 0;
-            for (JsonElement element : jsonArray) {
-                Invoice invoice = parseInvoice(element.getAsJsonObject());
-                if (invoice != null) {
-                    invoiceManager.add(invoice);
-                    count++;
-                }
-            }
-            AppLogger.info("Đã tải %d hóa đơn từ %s", count, filePath);
-        } catch (IOException e) {
-            AppLogger.error("Lỗi khi tải hóa đơn từ file: " + filePath, e);
-        } catch (JsonSyntaxException e) {
-            AppLogger.error("Lỗi cú pháp JSON khi tải hóa đơn: " + filePath, e);
-        }
+        resolveInvoices(stageInvoices());
     }
 
     /**
      * Lưu danh sách hóa đơn vào file JSON
      */
-    public void saveInvoices() {
+    public boolean saveInvoices() {
+        return withWriteLock(this::rewriteInvoices);
+    }
+
+    private boolean rewriteInvoices() {
+        return invoiceManager != null && rewrite(invoiceManager, invoiceTracker, this::writeInvoices);
+    }
+
+    private boolean writeInvoices(List<Invoice> invoices) {
+        return writeInvoices(invoices, format);
+    }
+
+    private boolean writeInvoices(List<Invoice> invoices, StorageFormat fileFormat) {
+        long start = System.nanoTime();
+        Path filePath = Paths.get(getInvoicesFilePath(fileFormat));
         try {
-            JsonArray jsonArray = new JsonArray();
-            for (Invoice invoice : invoiceManager.getAll()) {
-                jsonArray.add(invoiceToJson(invoice));
+            int count = writeBase(filePath, invoices, DataStorage::invoiceToJson, invoiceStore(filePath));
+            if (fileFormat == format) {
+                deleteDelta(filePath);
             }
-            String json = gson.toJson(jsonArray);
-            Files.writeString(Paths.get(getInvoicesFilePath()), json, StandardCharsets.UTF_8);
-            AppLogger.info("Đã lưu %d hóa đơn vào %s", invoiceManager.getAll().size(), getInvoicesFilePath());
-        } catch (IOException e) {
-            AppLogger.error("Lỗi khi lưu hóa đơn vào file: " + getInvoicesFilePath(), e);
+            logTiming("saveInvoices", start, count, filePath)
+                    .log("Đã lưu %d hóa đơn vào %s", count, filePath);
+            return true;
+        } catch (IOException | JsonIOException e) {
+            AppLogger.error("Lỗi khi lưu hóa đơn vào file: " + filePath, e);
+            return false;
         }
     }
 
-    // ==================== JSON PARSERS ====================
+    // ==================== STAGED LOAD ====================
 
-    private Customer parseCustomer(JsonObject json) {
+    /**
+     * Một collection đã đọc xong (file chính + delta) nhưng chưa đưa vào manager
+     * Pha đọc chỉ dùng dữ liệu của riêng nó nên chạy song song được; pha liên kết
+     * (resolveX) động tới manager nên chạy trên luồng gọi.
+     */
+    private record Staged<T>(Path filePath, Collection<T> items, long startNanos) {
+    }
+
+    private static <T> CompletableFuture<Staged<T>> stageAsync(Object manager, Supplier<Staged<T>> stage,
+                                                              Executor executor) {
+        return manager != null ? CompletableFuture.supplyAsync(stage, executor)
+                : CompletableFuture.completedFuture(null);
+    }
+
+    private Staged<Room> stageRooms() {
+        long start = System.nanoTime();
+        Path filePath = Paths.get(getRoomsFilePath());
+        if (!Files.exists(filePath) && !Files.exists(deltaPathOf(filePath))) {
+            AppLogger.info("File phòng không tồn tại: %s", filePath);
+            return null;
+        }
         try {
-            String customerId = json.get("customerId").getAsString();
-            String fullName = json.get("fullName").getAsString();
-            String email = json.get("email").getAsString();
-            String phoneNumber = json.get("phoneNumber").getAsString();
-            String idCard = json.get("idCard").getAsString();
-            String address = json.get("address").getAsString();
-            LocalDate registrationDate = LocalDate.parse(json.get("registrationDate").getAsString());
-            boolean isVIP = json.get("isVIP").getAsBoolean();
-
-            Customer customer = new Customer(customerId, fullName, email, phoneNumber, 
-                                           idCard, address, registrationDate, isVIP);
-            if (json.has("loyaltyPoints")) {
-                customer.setLoyaltyPoints(json.get("loyaltyPoints").getAsDouble());
-            }
-            return customer;
-        } catch (Exception e) {
-            AppLogger.error("Lỗi parse Customer: " + e.getMessage(), e);
+            return new Staged<>(filePath, readRooms(filePath), start);
+        } catch (IOException | IllegalStateException | JsonParseException e) {
+            AppLogger.error("Lỗi khi tải phòng từ file: " + filePath, e);
             return null;
         }
     }
 
-    private Booking parseBooking(JsonObject json) {
-        try {
-            String bookingId = json.get("bookingId").getAsString();
-            String customerId = json.get("customerId").getAsString();
-            String roomId = json.get("roomId").getAsString();
-            LocalDate checkInDate = LocalDate.parse(json.get("checkInDate").getAsString());
-            LocalDate checkOutDate = LocalDate.parse(json.get("checkOutDate").getAsString());
-            BookingStatus status = BookingStatus.valueOf(json.get("status").getAsString());
+    private Staged<Customer> stageCustomers() {
+        Path filePath = Paths.get(getCustomersFilePath());
+        return stage(filePath, "khách hàng", this::parseCustomer, customerStore(filePath), Customer::getCustomerId);
+    }
 
-            Customer customer = customerManager.getById(customerId);
-            Room room = roomManager.getById(roomId);
+    private Staged<BookingRecord> stageBookings() {
+        Path filePath = Paths.get(getBookingsFilePath());
+        return stage(filePath, "đặt phòng", this::parseBookingRecord,
+                new BinaryStore<>(filePath, 'B', BinaryCodecs.bookingRecords()), BookingRecord::bookingId);
+    }
 
-            if (customer != null && room != null) {
-                Booking booking = new Booking(bookingId, customer, room, checkInDate, checkOutDate, status);
-                if (json.has("notes")) {
-                    booking.setNotes(json.get("notes").getAsString());
-                }
-                return booking;
-            } else {
-                AppLogger.warn("Không tìm thấy Customer hoặc Room cho Booking: %s", bookingId);
+    private Staged<InvoiceRecord> stageInvoices() {
+        Path filePath = Paths.get(getInvoicesFilePath());
+        return stage(filePath, "hóa đơn", this::parseInvoiceRecord,
+                new BinaryStore<>(filePath, 'I', BinaryCodecs.invoiceRecords()), InvoiceRecord::invoiceId);
+    }
+
+    /**
+     * Đọc file chính rồi áp dụng file delta vào một map theo ID (bản ghi trùng ID trong
+     * file chính: giữ bản đầu tiên, giống manager.add)
+     * @return Dữ liệu đã đọc, null nếu không có file hoặc đọc lỗi
+     */
+    private <T> Staged<T> stage(Path filePath, String label, Function<JsonObject, T> parser,
+                                BinaryStore<T> store, Function<T, String> idOf) {
+        long start = System.nanoTime();
+        if (!Files.exists(filePath) && !Files.exists(deltaPathOf(filePath))) {
+            AppLogger.info("File %s không tồn tại: %s", label, filePath);
+            return null;
+        }
+        try {
+            Map<String, T> items = new LinkedHashMap<>();
+            if (Files.exists(filePath)) {
+                readBase(filePath, parser, store, item -> items.putIfAbsent(idOf.apply(item), item) == null);
             }
-        } catch (Exception e) {
-            AppLogger.error("Lỗi parse Booking: " + e.getMessage(), e);
+            applyDelta(filePath, parser, item -> items.put(idOf.apply(item), item), items::remove);
+            return new Staged<>(filePath, items.values(), start);
+        } catch (IOException e) {
+            AppLogger.error("Lỗi khi tải " + label + " từ file: " + filePath, e);
+        } catch (IllegalStateException | JsonParseException e) {
+            AppLogger.error("Lỗi cú pháp JSON khi tải " + label + ": " + filePath, e);
         }
         return null;
     }
 
-    private Invoice parseInvoice(JsonObject json) {
-        try {
-            String invoiceId = json.get("invoiceId").getAsString();
-            String bookingId = json.get("bookingId").getAsString();
-            LocalDate invoiceDate = LocalDate.parse(json.get("invoiceDate").getAsString());
-            double taxRate = json.get("taxRate").getAsDouble();
+    private int resolveRooms(Staged<Room> staged) {
+        if (staged == null) {
+            return 0;
+        }
+        roomManager.loadRooms(new ArrayList<>(staged.items()));
+        markSaved(roomTracker);
+        logTiming("loadRooms", staged.startNanos(), staged.items().size(), staged.filePath())
+                .log("Đã tải %d phòng từ %s", staged.items().size(), staged.filePath());
+        return staged.items().size();
+    }
 
-            Booking booking = bookingManager.getById(bookingId);
+    private int resolveCustomers(Staged<Customer> staged) {
+        if (staged == null) {
+            return 0;
+        }
+        staged.items().forEach(upsertInto(customerManager, Customer::getCustomerId));
+        markSaved(customerTracker);
+        logTiming("loadCustomers", staged.startNanos(), staged.items().size(), staged.filePath())
+                .log("Đã tải %d khách hàng từ %s", staged.items().size(), staged.filePath());
+        return staged.items().size();
+    }
+
+    private int resolveBookings(Staged<BookingRecord> staged) {
+        if (staged == null) {
+            return 0;
+        }
+        Consumer<Booking> upsert = upsertInto(bookingManager, Booking::getBookingId);
+        int count = 0;
+        for (BookingRecord record : staged.items()) {
+            Booking booking = link(record);
             if (booking != null) {
-                Invoice invoice = new Invoice(invoiceId, booking, invoiceDate, taxRate);
-                if (json.has("status")) {
-                    invoice.setStatus(InvoiceStatus.valueOf(json.get("status").getAsString()));
-                }
-                if (json.has("notes")) {
-                    invoice.setNotes(json.get("notes").getAsString());
-                }
-                return invoice;
-            } else {
-                AppLogger.warn("Không tìm thấy Booking cho Invoice: %s", invoiceId);
+                upsert.accept(booking);
+                count++;
             }
-        } catch (Exception e) {
+        }
+        markSaved(bookingTracker);
+        logTiming("loadBookings", staged.startNanos(), count, staged.filePath())
+                .log("Đã tải %d đặt phòng từ %s", count, staged.filePath());
+        return count;
+    }
+
+    private int resolveInvoices(Staged<InvoiceRecord> staged) {
+        if (staged == null) {
+            return 0;
+        }
+        Consumer<Invoice> upsert = upsertInto(invoiceManager, Invoice::getInvoiceId);
+        int count = 0;
+        for (InvoiceRecord record : staged.items()) {
+            Invoice invoice = link(record);
+            if (invoice != null) {
+                upsert.accept(invoice);
+                count++;
+            }
+        }
+        markSaved(invoiceTracker);
+        logTiming("loadInvoices", staged.startNanos(), count, staged.filePath())
+                .log("Đã tải %d hóa đơn từ %s", count, staged.filePath());
+        return count;
+    }
+
+    // ==================== REFERENCES ====================
+
+    /**
+     * Tham chiếu tới bản ghi không tồn tại
+     * @param type          Loại bản ghi chứa tham chiếu (BOOKING/INVOICE)
+     * @param id            ID bản ghi đó
+     * @param referenceType Loại bản ghi được tham chiếu (CUSTOMER/ROOM/BOOKING)
+     * @param referenceId   ID không tìm thấy
+     */
+    public record DanglingReference(String type, String id, String referenceType, String referenceId) {
+    }
+
+    public boolean isLazyReferences() {
+        return lazyReferences;
+    }
+
+    /**
+     * Bật/tắt chế độ tham chiếu trễ cho các lần tải sau
+     * Tắt (mặc định): booking/hóa đơn được liên kết ngay khi tải, bản ghi tham chiếu treo
+     * bị bỏ qua. Bật: chỉ giữ ID, liên kết ở lần truy cập đầu tiên, nên thời gian tải chỉ
+     * còn là thời gian parse file; bản ghi tham chiếu treo được giữ lại và lưu lại nguyên vẹn.
+     */
+    public void setLazyReferences(boolean lazyReferences) {
+        this.lazyReferences = lazyReferences;
+    }
+
+    /**
+     * Liệt kê các tham chiếu treo của booking (khách hàng, phòng) và hóa đơn (booking)
+     * Chỉ tra cứu ID trong manager, không liên kết các tham chiếu trễ.
+     */
+    public List<DanglingReference> findDanglingReferences() {
+        List<DanglingReference> dangling = new ArrayList<>();
+        if (bookingManager != null) {
+            for (Booking booking : bookingManager.getAll()) {
+                if (customerManager != null && customerManager.getById(booking.getCustomerId()) == null) {
+                    dangling.add(new DanglingReference("BOOKING", booking.getBookingId(), "CUSTOMER", booking.getCustomerId()));
+                }
+                if (roomManager != null && roomManager.getById(booking.getRoomId()) == null) {
+                    dangling.add(new DanglingReference("BOOKING", booking.getBookingId(), "ROOM", booking.getRoomId()));
+                }
+            }
+            if (invoiceManager != null) {
+                for (Invoice invoice : invoiceManager.getAll()) {
+                    if (bookingManager.getById(invoice.getBookingId()) == null) {
+                        dangling.add(new DanglingReference("INVOICE", invoice.getInvoiceId(), "BOOKING", invoice.getBookingId()));
+                    }
+                }
+            }
+        }
+        if (!dangling.isEmpty()) {
+            AppLogger.warn("Tìm thấy %d tham chiếu treo trong dữ liệu", dangling.size());
+        }
+        return dangling;
+    }
+
+    /**
+     * Tạo booking từ bản ghi theo chế độ tham chiếu hiện tại
+     * @return Booking, hoặc null nếu tham chiếu treo ở chế độ liên kết ngay
+     */
+    private Booking link(BookingRecord record) {
+        return lazyReferences ? record.toLazy(customerManager::getById, roomManager::getById)
+                : record.resolve(customerManager::getById, roomManager::getById);
+    }
+
+    private Invoice link(InvoiceRecord record) {
+        return lazyReferences ? record.toLazy(bookingManager::getById)
+                : record.resolve(bookingManager::getById);
+    }
+
+    // ==================== TIMING LOG ====================
+
+    /**
+     * Dòng log INFO có cấu trúc cho một lần đọc/ghi: operation, durationMs, recordCount, file
+     */
+    private static AppLogger.LogEvent logTiming(String operation, long startNanos, long recordCount, Path file) {
+        return timing(operation, startNanos).field("recordCount", recordCount).field("file", file);
+    }
+
+    private static AppLogger.LogEvent timing(String operation, long startNanos) {
+        return AppLogger.at(AppLogger.Level.INFO, LOG_CATEGORY)
+                .field("operation", operation)
+                .field("durationMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+
+    /** Tổng số bản ghi đang có trong các manager */
+    private long totalRecords() {
+        long total = 0;
+        total += roomManager != null ? roomManager.count() : 0;
+        total += customerManager != null ? customerManager.count() : 0;
+        total += bookingManager != null ? bookingManager.count() : 0;
+        total += invoiceManager != null ? invoiceManager.count() : 0;
+        return total;
+    }
+
+    // ==================== DELTA FILES ====================
+
+    /**
+     * File delta đi kèm file chính, ví dụ bookings.json (hoặc .bin) -> bookings.delta.jsonl
+     * Mỗi dòng là một thay đổi: {"op":"UPSERT","data":{...}} hoặc {"op":"DELETE","id":"..."}
+     */
+    private static Path deltaPathOf(Path filePath) {
+        String name = filePath.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String baseName = dot > 0 ? name.substring(0, dot) : name;
+        return filePath.resolveSibling(baseName + DELTA_SUFFIX);
+    }
+
+    /**
+     * Kết quả lưu một collection
+     */
+    private enum SaveResult {
+        UNCHANGED, SAVED, FAILED
+    }
+
+    /**
+     * Lưu thay đổi của một collection: nối vào file delta, hoặc ghi lại toàn bộ nếu cần gộp
+     * Thay đổi được lấy khỏi tracker trước khi đọc dữ liệu và trả lại nếu ghi thất bại,
+     * nên thao tác sửa đến trong lúc đang ghi không bị đánh dấu là đã lưu.
+     */
+    private <T> SaveResult saveChanges(IManageable<T> manager, ChangeTracker<T> tracker, String filePathStr,
+                                       Predicate<List<T>> writer, Function<T, JsonElement> converter) {
+        if (manager == null || !hasChanges(tracker)) {
+            return SaveResult.UNCHANGED;
+        }
+        Path filePath = Paths.get(filePathStr);
+        Path deltaPath = deltaPathOf(filePath);
+        if (tracker.isCleared() || needsCompaction(filePath, deltaPath)) {
+            return rewrite(manager, tracker, writer) ? SaveResult.SAVED : SaveResult.FAILED;
+        }
+        ChangeTracker.Changes<T> changes = tracker.drain();
+        if (changes.cleared()) {
+            // Bị clear giữa hai lần kiểm tra: file delta không biểu diễn được clear
+            return writePart(new Part<>(manager.getAll(), changes), writer, tracker)
+                    ? SaveResult.SAVED : SaveResult.FAILED;
+        }
+
+        long start = System.nanoTime();
+        List<String> deletes = new ArrayList<>(changes.deletes());
+        List<T> upserts = new ArrayList<>(changes.upserts().values());
+        try {
+            appendDelta(deltaPath, deletes, upserts, converter);
+            int count = deletes.size() + upserts.size();
+            logTiming("saveDelta", start, count, deltaPath)
+                    .log("Đã ghi %d thay đổi vào %s", count, deltaPath);
+            return SaveResult.SAVED;
+        } catch (IOException | JsonIOException e) {
+            AppLogger.error("Lỗi khi ghi file delta: " + deltaPath, e);
+            tracker.restore(changes);
+            return SaveResult.FAILED;
+        }
+    }
+
+    /**
+     * Ghi lại toàn bộ một collection; thay đổi được trả lại cho tracker nếu ghi thất bại
+     */
+    private static <T> boolean rewrite(IManageable<T> manager, ChangeTracker<T> tracker, Predicate<List<T>> writer) {
+        return writePart(drain(manager, tracker), writer, tracker);
+    }
+
+    /**
+     * Lấy thay đổi khỏi tracker rồi mới đọc dữ liệu: thao tác sửa đến sau đó vẫn còn trong tracker
+     */
+    private static <T> Part<T> drain(IManageable<T> manager, ChangeTracker<T> tracker) {
+        if (manager == null) {
+            return null;
+        }
+        ChangeTracker.Changes<T> changes = tracker.drain();
+        return new Part<>(manager.getAll(), changes);
+    }
+
+    /**
+     * Cần gộp khi chưa có file chính, hoặc file delta đã lớn hơn một nửa file chính
+     */
+    private static boolean needsCompaction(Path filePath, Path deltaPath) {
+        try {
+            if (!Files.exists(filePath)) {
+                return true;
+            }
+            return Files.exists(deltaPath) && Files.size(deltaPath) > Files.size(filePath) / 2;
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Nối các thay đổi vào cuối file delta rồi fsync
+     */
+    private <T> void appendDelta(Path deltaPath, List<String> deletes, List<T> upserts,
+                                 Function<T, JsonElement> converter) throws IOException {
+        try (FileChannel channel = FileChannel.open(deltaPath, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            Writer writer = new BufferedWriter(
+                    Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), IO_BUFFER_SIZE), IO_BUFFER_SIZE);
+            for (String id : deletes) {
+                JsonObject entry = new JsonObject();
+                entry.addProperty("op", DELTA_DELETE);
+                entry.addProperty("id", id);
+                writer.write(entry.toString());
+                writer.write('\n');
+            }
+            for (T item : upserts) {
+                JsonObject entry = new JsonObject();
+                entry.addProperty("op", DELTA_UPSERT);
+                entry.add("data", converter.apply(item));
+                writer.write(entry.toString());
+                writer.write('\n');
+            }
+            writer.flush();
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Áp dụng file delta (nếu có) theo thứ tự ghi
+     * Dòng hỏng (ví dụ ghi dở khi mất điện) được bỏ qua kèm cảnh báo.
+     * @return Số thay đổi đã áp dụng
+     */
+    private <T> int applyDelta(Path filePath, Function<JsonObject, T> parser,
+                               Consumer<T> upsert, Consumer<String> delete) throws IOException {
+        Path deltaPath = deltaPathOf(filePath);
+        if (!Files.exists(deltaPath)) {
+            return 0;
+        }
+
+        long start = System.nanoTime();
+        int applied = 0;
+        int lineNumber = 0;
+        try (BufferedReader reader = Files.newBufferedReader(deltaPath, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    JsonObject entry = JsonParser.parseString(line).getAsJsonObject();
+                    if (DELTA_DELETE.equals(entry.get("op").getAsString())) {
+                        delete.accept(entry.get("id").getAsString());
+                    } else {
+                        T item = parser.apply(entry.getAsJsonObject("data"));
+                        if (item == null) {
+                            continue;
+                        }
+                        upsert.accept(item);
+                    }
+                    applied++;
+                } catch (JsonParseException | IllegalStateException | NullPointerException e) {
+                    AppLogger.warn("Bỏ qua dòng delta không hợp lệ %d trong %s", lineNumber, deltaPath);
+                }
+            }
+        }
+        logTiming("loadDelta", start, applied, deltaPath)
+                .log("Đã áp dụng %d thay đổi từ %s", applied, deltaPath);
+        return applied;
+    }
+
+    /**
+     * Thêm mới hoặc cập nhật vào manager tùy theo ID đã tồn tại chưa
+     */
+    private static <T> Consumer<T> upsertInto(IManageable<T> manager, Function<T, String> idOf) {
+        return item -> {
+            if (manager.getById(idOf.apply(item)) != null) {
+                manager.update(item);
+            } else {
+                manager.add(item);
+            }
+        };
+    }
+
+    /**
+     * Sau khi ghi lại toàn bộ file chính: xóa delta cũ (nội dung đã nằm trong file chính)
+     */
+    private static void deleteDelta(Path filePath) {
+        try {
+            Files.deleteIfExists(deltaPathOf(filePath));
+        } catch (IOException e) {
+            AppLogger.warn("Không thể xóa file delta: " + deltaPathOf(filePath), e);
+        }
+    }
+
+    private static boolean markSaved(ChangeTracker<?> tracker) {
+        if (tracker != null) {
+            tracker.reset();
+        }
+        return true;
+    }
+
+    private static boolean hasChanges(ChangeTracker<?> tracker) {
+        return tracker != null && tracker.hasChanges();
+    }
+
+    private static int sizeOf(ChangeTracker<?> tracker) {
+        return tracker != null ? tracker.size() : 0;
+    }
+
+    // ==================== CHECKPOINT ====================
+
+    /**
+     * Snapshot của các collection có thay đổi, chụp bằng captureSnapshot() trên luồng
+     * sửa dữ liệu rồi ghi ra file bằng writeSnapshot() ở luồng nền (xem Checkpointer)
+     */
+    static final class Snapshot {
+        /** Quyền ghi đang bị lần lưu khác giữ; thử lại sau */
+        static final Snapshot BUSY = new Snapshot(null, null, null, null, null, 0);
+
+        private final Part<Room> rooms;
+        private final Part<Customer> customers;
+        private final Part<Booking> bookings;
+        private final Part<Invoice> invoices;
+        private final Journal journal;
+        private final long journalSegment;
+
+        private Snapshot(Part<Room> rooms, Part<Customer> customers, Part<Booking> bookings,
+                         Part<Invoice> invoices, Journal journal, long journalSegment) {
+            this.rooms = rooms;
+            this.customers = customers;
+            this.bookings = bookings;
+            this.invoices = invoices;
+            this.journal = journal;
+            this.journalSegment = journalSegment;
+        }
+
+        int size() {
+            return sizeOf(rooms) + sizeOf(customers) + sizeOf(bookings) + sizeOf(invoices);
+        }
+
+        private static int sizeOf(Part<?> part) {
+            return part != null ? part.items().size() : 0;
+        }
+
+        private boolean isEmpty() {
+            return rooms == null && customers == null && bookings == null && invoices == null;
+        }
+    }
+
+    /**
+     * Danh sách bản ghi của một collection cùng các thay đổi đã lấy khỏi tracker
+     */
+    private record Part<T>(List<T> items, ChangeTracker.Changes<T> changes) {
+    }
+
+    /**
+     * Chụp snapshot các collection có thay đổi (hoặc còn file delta)
+     * Phải gọi trên luồng sửa dữ liệu (EDT). Giữ quyền ghi cho tới khi writeSnapshot()
+     * hoặc releaseSnapshot() được gọi. Không chờ quyền ghi: nếu đang có lần lưu khác chạy
+     * thì trả về Snapshot.BUSY để EDT không bị treo.
+     * @return Snapshot, Snapshot.BUSY nếu đang bận, hoặc null nếu không có gì cần ghi
+     */
+    Snapshot captureSnapshot() {
+        if (readOnly) {
+            return null;
+        }
+        if (!writeLock.tryAcquire()) {
+            return Snapshot.BUSY;
+        }
+        try {
+            Snapshot snapshot = new Snapshot(
+                    capture(roomManager, roomTracker, getRoomsFilePath()),
+                    capture(customerManager, customerTracker, getCustomersFilePath()),
+                    capture(bookingManager, bookingTracker, getBookingsFilePath()),
+                    capture(invoiceManager, invoiceTracker, getInvoicesFilePath()),
+                    journal, rotateJournal());
+            if (snapshot.isEmpty()) {
+                writeLock.release();
+                return null;
+            }
+            return snapshot;
+        } catch (RuntimeException e) {
+            writeLock.release();
+            throw e;
+        }
+    }
+
+    private <T> Part<T> capture(IManageable<T> manager, ChangeTracker<T> tracker, String filePath) {
+        if (manager == null || (!tracker.hasChanges() && !Files.exists(deltaPathOf(Paths.get(filePath))))) {
+            return null;
+        }
+        return drain(manager, tracker);
+    }
+
+    /**
+     * Niêm phong nhật ký hiện tại: các đoạn đã niêm phong sẽ được xóa khi snapshot ghi xong
+     */
+    private long rotateJournal() {
+        if (journal == null) {
+            return 0;
+        }
+        try {
+            return journal.rotate();
+        } catch (IOException e) {
+            AppLogger.warn("Không thể niêm phong nhật ký: " + journal.getFile(), e);
+            return 0;
+        }
+    }
+
+    /**
+     * Ghi snapshot ra file (an toàn khi chạy ở luồng nền) rồi trả quyền ghi
+     * Collection nào ghi thất bại thì các thay đổi của nó được trả lại cho tracker.
+     * @return true nếu mọi collection đều ghi thành công
+     */
+    boolean writeSnapshot(Snapshot snapshot) {
+        try {
+            boolean ok = writePart(snapshot.rooms, this::writeRooms, roomTracker);
+            ok &= writePart(snapshot.customers, this::writeCustomers, customerTracker);
+            ok &= writePart(snapshot.bookings, this::writeBookings, bookingTracker);
+            ok &= writePart(snapshot.invoices, this::writeInvoices, invoiceTracker);
+            if (ok) {
+                deleteJournalSegments(snapshot.journal, snapshot.journalSegment);
+            }
+            return ok;
+        } finally {
+            writeLock.release();
+        }
+    }
+
+    /**
+     * Bỏ snapshot không ghi nữa: trả lại thay đổi cho tracker và trả quyền ghi
+     */
+    void releaseSnapshot(Snapshot snapshot) {
+        restore(snapshot.rooms, roomTracker);
+        restore(snapshot.customers, customerTracker);
+        restore(snapshot.bookings, bookingTracker);
+        restore(snapshot.invoices, invoiceTracker);
+        writeLock.release();
+    }
+
+    private static <T> boolean writePart(Part<T> part, Predicate<List<T>> writer, ChangeTracker<T> tracker) {
+        if (part == null || writer.test(part.items())) {
+            return true;
+        }
+        restore(part, tracker);
+        return false;
+    }
+
+    private static <T> void restore(Part<T> part, ChangeTracker<T> tracker) {
+        if (part != null && part.changes() != null && tracker != null) {
+            tracker.restore(part.changes());
+        }
+    }
+
+    /**
+     * Xóa các đoạn nhật ký đã niêm phong khi mọi thay đổi trong chúng đã nằm trong file
+     * Nhật ký đang ghi không bao giờ bị xóa: nó có thể chứa thay đổi chưa lưu.
+     */
+    private static void deleteJournalSegments(Journal target, long journalSegment) {
+        if (target == null || journalSegment <= 0) {
+            return;
+        }
+        try {
+            target.deleteSegments(journalSegment);
+        } catch (IOException e) {
+            AppLogger.warn("Không thể xóa nhật ký đã niêm phong: " + target.getFile(), e);
+        }
+    }
+
+    // ==================== JOURNAL ====================
+
+    /**
+     * Đọc lại nhật ký lên trên dữ liệu vừa tải, rồi bắt đầu ghi nhật ký mọi thay đổi
+     * Gọi sau loadAllData(). Từ đây mỗi add/update/delete được ghi xuống đĩa ngay, nên
+     * nếu chương trình bị tắt đột ngột thì lần khởi động sau vẫn khôi phục được.
+     * Các thay đổi đọc lại được tính là chưa lưu; lần saveChanges() kế tiếp sẽ ghi chúng
+     * vào file chính và xóa nhật ký.
+     * @return Số bản ghi nhật ký đã áp dụng, -1 nếu không mở được nhật ký
+     */
+    public int openJournal() {
+        if (journal != null || readOnly) {
+            return 0;
+        }
+        Journal opened = new Journal(Paths.get(dataDirectory, JOURNAL_FILE));
+        try {
+            int replayed = opened.replay(this::applyJournalRecord);
+            opened.open();
+            journal = opened;
+            journalFailureReported.set(false);
+            if (roomManager != null) {
+                attachJournal(roomManager::addChangeListener, roomManager::removeChangeListener,
+                        "ROOM", r -> gson.toJsonTree(r, Room.class));
+            }
+            if (customerManager != null) {
+                attachJournal(customerManager::addChangeListener, customerManager::removeChangeListener,
+                        "CUSTOMER", DataStorage::customerToJson);
+            }
+            if (bookingManager != null) {
+                attachJournal(bookingManager::addChangeListener, bookingManager::removeChangeListener,
+                        "BOOKING", DataStorage::bookingToJson);
+            }
+            if (invoiceManager != null) {
+                attachJournal(invoiceManager::addChangeListener, invoiceManager::removeChangeListener,
+                        "INVOICE", DataStorage::invoiceToJson);
+            }
+            if (replayed > 0) {
+                AppLogger.info("Đã khôi phục %d thay đổi từ nhật ký %s", replayed, opened.getFile());
+            }
+            return replayed;
+        } catch (IOException e) {
+            AppLogger.error("Không thể mở nhật ký: " + opened.getFile(), e);
+            return -1;
+        }
+    }
+
+    /**
+     * Ngừng ghi nhật ký; các thay đổi chưa lưu vẫn nằm trong nhật ký cho lần khởi động sau
+     */
+    public void closeJournal() {
+        if (journal == null) {
+            return;
+        }
+        journalDetachers.forEach(Runnable::run);
+        journalDetachers.clear();
+        try {
+            journal.close();
+        } catch (IOException e) {
+            AppLogger.warn("Lỗi khi đóng nhật ký: " + journal.getFile(), e);
+        }
+        journal = null;
+    }
+
+    /**
+     * Bỏ các thay đổi chưa lưu (người dùng chọn thoát mà không lưu) rồi đóng nhật ký
+     */
+    public void discardJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.reset();
+        } catch (IOException e) {
+            AppLogger.warn("Không thể xóa nhật ký: " + journal.getFile(), e);
+        }
+        closeJournal();
+    }
+
+    /**
+     * Ghi nhật ký mọi thay đổi của một manager
+     */
+    private <T> void attachJournal(Consumer<IChangeListener<T>> addListener,
+                                   Consumer<IChangeListener<T>> removeListener,
+                                   String type, Function<T, JsonElement> converter) {
+        IChangeListener<T> listener = new IChangeListener<>() {
+            @Override
+            public void onAdded(T item) {
+                onUpdated(item);
+            }
+
+            @Override
+            public void onUpdated(T item) {
+                JsonObject record = journalRecord(type, DELTA_UPSERT);
+                record.add("data", converter.apply(item));
+                enqueueJournal(record);
+            }
+
+            @Override
+            public void onDeleted(String id) {
+                JsonObject record = journalRecord(type, DELTA_DELETE);
+                record.addProperty("id", id);
+                enqueueJournal(record);
+            }
+
+            @Override
+            public void onCleared() {
+                enqueueJournal(journalRecord(type, JOURNAL_CLEAR));
+            }
+
+            @Override
+            public void onCommitted() {
+                commitJournal();
+            }
+        };
+        addListener.accept(listener);
+        journalDetachers.add(() -> removeListener.accept(listener));
+    }
+
+    private static JsonObject journalRecord(String type, String op) {
+        JsonObject record = new JsonObject();
+        record.addProperty("type", type);
+        record.addProperty("op", op);
+        return record;
+    }
+
+    /**
+     * Đưa bản ghi vào bộ đệm nhật ký (đang giữ khóa của manager, không chờ đĩa)
+     */
+    private void enqueueJournal(JsonObject record) {
+        Journal current = journal;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.enqueue(record.toString());
+        } catch (IOException e) {
+            journalFailed(current, e);
+        }
+    }
+
+    /**
+     * Chờ các bản ghi của thao tác vừa xong nằm trên đĩa (đã trả khóa; cả lô chỉ chờ một lần)
+     */
+    private void commitJournal() {
+        Journal current = journal;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.commit();
+        } catch (IOException e) {
+            journalFailed(current, e);
+        }
+    }
+
+    private void journalFailed(Journal current, IOException e) {
+        if (journalFailureReported.compareAndSet(false, true)) {
+            AppLogger.error("Lỗi khi ghi nhật ký, thay đổi từ giờ không được bảo vệ: " + current.getFile(), e);
+            journalFailureHandler.accept(e);
+        } else {
+            AppLogger.debug("Bỏ qua bản ghi nhật ký vì nhật ký đã hỏng: %s", e.getMessage());
+        }
+    }
+
+    /**
+     * Đặt nơi nhận thông báo khi nhật ký hỏng (gọi một lần, trên luồng đang sửa dữ liệu)
+     * Từ lúc đó thay đổi chỉ còn trong bộ nhớ cho tới lần lưu kế tiếp, nên UI cần báo người dùng.
+     */
+    public void setJournalFailureHandler(Consumer<IOException> handler) {
+        this.journalFailureHandler = handler != null ? handler : e -> { };
+    }
+
+    /**
+     * Áp dụng một bản ghi nhật ký; bản ghi không hiểu được thì bỏ qua kèm cảnh báo
+     * Đọc lại nhiều lần cũng cho cùng kết quả (upsert/delete/clear đều lũy đẳng).
+     */
+    private void applyJournalRecord(String line) {
+        try {
+            JsonObject record = JsonParser.parseString(line).getAsJsonObject();
+            String type = record.get("type").getAsString();
+            switch (type) {
+                case "ROOM" -> applyJournalRecord(record, roomManager, Room::getRoomId,
+                        json -> gson.fromJson(json, Room.class));
+                case "CUSTOMER" -> applyJournalRecord(record, customerManager, Customer::getCustomerId,
+                        this::parseCustomer);
+                case "BOOKING" -> applyJournalRecord(record, bookingManager, Booking::getBookingId,
+                        this::parseBooking);
+                case "INVOICE" -> applyJournalRecord(record, invoiceManager, Invoice::getInvoiceId,
+                        this::parseInvoice);
+                default -> AppLogger.warn("Bỏ qua bản ghi nhật ký không rõ loại: %s", type);
+            }
+        } catch (JsonParseException | IllegalStateException | NullPointerException e) {
+            AppLogger.warn("Bỏ qua bản ghi nhật ký không hợp lệ: %s", line);
+        }
+    }
+
+    private <T> void applyJournalRecord(JsonObject record, IManageable<T> manager, Function<T, String> idOf,
+                                        Function<JsonObject, T> parser) {
+        if (manager == null) {
+            return;
+        }
+        switch (record.get("op").getAsString()) {
+            case DELTA_DELETE -> manager.delete(record.get("id").getAsString());
+            case JOURNAL_CLEAR -> manager.clear();
+            default -> {
+                T item = parser.apply(record.getAsJsonObject("data"));
+                if (item != null) {
+                    upsertInto(manager, idOf).accept(item);
+                }
+            }
+        }
+    }
+
+    // ==================== STREAMING I/O ====================
+
+    /**
+     * Mở JsonReader đọc file qua FileChannel có bộ đệm
+     */
+    private static JsonReader openReader(Path filePath) throws IOException {
+        FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ);
+        Reader reader = Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), IO_BUFFER_SIZE);
+        return new JsonReader(new BufferedReader(reader, IO_BUFFER_SIZE));
+    }
+
+    /**
+     * Nội dung ghi bằng JsonWriter
+     */
+    @FunctionalInterface
+    private interface JsonContent {
+        void writeTo(JsonWriter writer) throws IOException;
+    }
+
+    /**
+     * Ghi file JSON an toàn qua file tạm (xem AtomicFiles)
+     */
+    private static void writeAtomically(Path filePath, JsonContent content) throws IOException {
+        AtomicFiles.write(filePath, channel -> {
+            JsonWriter writer = newJsonWriter(channel);
+            content.writeTo(writer);
+            writer.flush();
+        });
+    }
+
+    /**
+     * JsonWriter ghi qua FileChannel có bộ đệm (giữ định dạng pretty-print)
+     */
+    private static JsonWriter newJsonWriter(FileChannel channel) {
+        Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), IO_BUFFER_SIZE);
+        JsonWriter jsonWriter = new JsonWriter(new BufferedWriter(writer, IO_BUFFER_SIZE));
+        jsonWriter.setIndent("  ");
+        return jsonWriter;
+    }
+
+    /**
+     * File rỗng hoặc chỉ chứa khoảng trắng
+     */
+    private static boolean isEmptyDocument(JsonReader reader) throws IOException {
+        try {
+            reader.peek();
+            return false;
+        } catch (EOFException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Đọc mảng JSON từng bản ghi một: chỉ một JsonObject nằm trong bộ nhớ tại mỗi thời điểm
+     * @return Số bản ghi được sink chấp nhận
+     */
+    private <T> int readRecords(Path filePath, Function<JsonObject, T> parser, Predicate<T> sink) throws IOException {
+        int count = 0;
+        try (JsonReader reader = openReader(filePath)) {
+            if (isEmptyDocument(reader)) {
+                return 0;
+            }
+            reader.beginArray();
+            while (reader.hasNext()) {
+                T item = parser.apply(JsonParser.parseReader(reader).getAsJsonObject());
+                if (item != null && sink.test(item)) {
+                    count++;
+                }
+            }
+            reader.endArray();
+        }
+        return count;
+    }
+
+    /**
+     * Đọc file chính theo định dạng của nó (JSON hoặc nhị phân)
+     */
+    private <T> int readBase(Path filePath, Function<JsonObject, T> parser, BinaryStore<T> store,
+                             Predicate<T> sink) throws IOException {
+        return isBinary(filePath) ? store.read(sink) : readRecords(filePath, parser, sink);
+    }
+
+    /**
+     * Ghi file chính theo định dạng của nó (JSON hoặc nhị phân)
+     */
+    private <T> int writeBase(Path filePath, List<T> items, Function<T, JsonObject> converter,
+                              BinaryStore<T> store) throws IOException {
+        return isBinary(filePath) ? store.write(items) : writeRecords(filePath, items, converter);
+    }
+
+    private BinaryStore<Room> roomStore(Path filePath) {
+        return new BinaryStore<>(filePath, 'R', BinaryCodecs.rooms());
+    }
+
+    private BinaryStore<Customer> customerStore(Path filePath) {
+        return new BinaryStore<>(filePath, 'C', BinaryCodecs.customers());
+    }
+
+    private BinaryStore<Booking> bookingStore(Path filePath) {
+        return new BinaryStore<>(filePath, 'B', BinaryCodecs.bookings(
+                id -> customerManager.getById(id), id -> roomManager.getById(id)));
+    }
+
+    private BinaryStore<Invoice> invoiceStore(Path filePath) {
+        return new BinaryStore<>(filePath, 'I', BinaryCodecs.invoices(id -> bookingManager.getById(id)));
+    }
+
+    /**
+     * Ghi mảng JSON từng bản ghi một, không dựng toàn bộ mảng/chuỗi trong bộ nhớ
+     * @return Số bản ghi đã ghi
+     */
+    private <T> int writeRecords(Path filePath, Iterable<T> items, Function<T, JsonObject> converter) throws IOException {
+        int[] count = { 0 };
+        writeAtomically(filePath, writer -> {
+            writer.beginArray();
+            for (T item : items) {
+                gson.toJson(converter.apply(item), writer);
+                count[0]++;
+            }
+            writer.endArray();
+        });
+        return count[0];
+    }
+
+    // ==================== JSON PARSERS ====================
+
+    private Customer parseCustomer(JsonObject json) {
+        try {
+            return readCustomer(json);
+        } catch (Exception e) {
+            AppLogger.error("Lỗi parse Customer: " + e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Đọc khách hàng từ JSON (dùng chung với BulkTransfer)
+     * @throws RuntimeException nếu thiếu trường hoặc sai định dạng
+     */
+    static Customer readCustomer(JsonObject json) {
+        String customerId = json.get("customerId").getAsString();
+        String fullName = json.get("fullName").getAsString();
+        String email = json.get("email").getAsString();
+        String phoneNumber = json.get("phoneNumber").getAsString();
+        String idCard = json.get("idCard").getAsString();
+        String address = json.get("address").getAsString();
+        LocalDate registrationDate = LocalDate.parse(json.get("registrationDate").getAsString());
+        boolean isVIP = json.get("isVIP").getAsBoolean();
+
+        Customer customer = new Customer(customerId, fullName, email, phoneNumber, 
+                                       idCard, address, registrationDate, isVIP);
+        if (json.has("loyaltyPoints")) {
+            customer.setLoyaltyPoints(json.get("loyaltyPoints").getAsDouble());
+        }
+        return customer;
+    }
+
+    private Booking parseBooking(JsonObject json) {
+        BookingRecord record = parseBookingRecord(json);
+        return record != null ? link(record) : null;
+    }
+
+    private BookingRecord parseBookingRecord(JsonObject json) {
+        try {
+            return readBookingRecord(json);
+        } catch (Exception e) {
+            AppLogger.error("Lỗi parse Booking: " + e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Đọc booking chưa liên kết từ JSON (dùng chung với BulkTransfer)
+     * @throws RuntimeException nếu thiếu trường hoặc sai định dạng
+     */
+    static BookingRecord readBookingRecord(JsonObject json) {
+        String bookingId = json.get("bookingId").getAsString();
+        String customerId = json.get("customerId").getAsString();
+        String roomId = json.get("roomId").getAsString();
+        LocalDate checkInDate = LocalDate.parse(json.get("checkInDate").getAsString());
+        LocalDate checkOutDate = LocalDate.parse(json.get("checkOutDate").getAsString());
+        BookingStatus status = BookingStatus.valueOf(json.get("status").getAsString());
+        String notes = json.has("notes") ? json.get("notes").getAsString() : null;
+        return new BookingRecord(bookingId, customerId, roomId, checkInDate, checkOutDate, status, notes);
+    }
+
+    private Invoice parseInvoice(JsonObject json) {
+        InvoiceRecord record = parseInvoiceRecord(json);
+        return record != null ? link(record) : null;
+    }
+
+    private InvoiceRecord parseInvoiceRecord(JsonObject json) {
+        try {
+            return readInvoiceRecord(json);
+        } catch (Exception e) {
             AppLogger.error("Lỗi parse Invoice: " + e.getMessage(), e);
+            return null;
         }
-        return null;
+    }
+
+    /**
+     * Đọc hóa đơn chưa liên kết từ JSON (dùng chung với BulkTransfer)
+     * @throws RuntimeException nếu thiếu trường hoặc sai định dạng
+     */
+    static InvoiceRecord readInvoiceRecord(JsonObject json) {
+        String invoiceId = json.get("invoiceId").getAsString();
+        String bookingId = json.get("bookingId").getAsString();
+        LocalDate invoiceDate = LocalDate.parse(json.get("invoiceDate").getAsString());
+        double taxRate = json.get("taxRate").getAsDouble();
+        InvoiceStatus status = json.has("status") ? InvoiceStatus.valueOf(json.get("status").getAsString()) : null;
+        String notes = json.has("notes") ? json.get("notes").getAsString() : null;
+        return new InvoiceRecord(invoiceId, bookingId, invoiceDate, taxRate, status, notes);
     }
 
     // ==================== JSON CONVERTERS ====================
 
-    private JsonObject customerToJson(Customer customer) {
+    static JsonObject customerToJson(Customer customer) {
         JsonObject json = new JsonObject();
         json.addProperty("customerId", customer.getCustomerId());
         json.addProperty("fullName", customer.getFullName());
@@ -488,11 +1848,11 @@ public class DataStorage {
         return json;
     }
 
-    private JsonObject bookingToJson(Booking booking) {
+    static JsonObject bookingToJson(Booking booking) {
         JsonObject json = new JsonObject();
         json.addProperty("bookingId", booking.getBookingId());
-        json.addProperty("customerId", booking.getCustomer().getCustomerId());
-        json.addProperty("roomId", booking.getRoom().getRoomId());
+        json.addProperty("customerId", booking.getCustomerId());
+        json.addProperty("roomId", booking.getRoomId());
         json.addProperty("checkInDate", booking.getCheckInDate().toString());
         json.addProperty("checkOutDate", booking.getCheckOutDate().toString());
         json.addProperty("status", booking.getStatus().name());
@@ -501,10 +1861,10 @@ public class DataStorage {
         return json;
     }
 
-    private JsonObject invoiceToJson(Invoice invoice) {
+    static JsonObject invoiceToJson(Invoice invoice) {
         JsonObject json = new JsonObject();
         json.addProperty("invoiceId", invoice.getInvoiceId());
-        json.addProperty("bookingId", invoice.getBooking().getBookingId());
+        json.addProperty("bookingId", invoice.getBookingId());
         json.addProperty("invoiceDate", invoice.getInvoiceDate().toString());
         json.addProperty("subtotal", invoice.getSubtotal());
         json.addProperty("taxRate", invoice.getTaxRate());
@@ -541,7 +1901,7 @@ public class DataStorage {
      * Custom TypeAdapter để xử lý polymorphism của Room
      * Gson cần biết cách serialize/deserialize các subclass của Room
      */
-    private static class RoomTypeAdapter implements JsonSerializer<Room>, JsonDeserializer<Room> {
+    static final class RoomTypeAdapter implements JsonSerializer<Room>, JsonDeserializer<Room> {
 
         @Override
         public JsonElement serialize(Room room, Type typeOfSrc, JsonSerializationContext context) {
@@ -0,0 +1,54 @@
+package com.hotel.storage;
+
+import com.hotel.model.booking.Booking;
+import com.hotel.model.invoice.Invoice;
+import com.hotel.model.invoice.Invoice.InvoiceStatus;
+import com.hotel.util.AppLogger;
+
+import java.time.LocalDate;
+import java.util.function.Function;
+
+/**
+ * Hóa đơn đã đọc từ file nhưng chưa liên kết với Booking (chỉ giữ ID)
+ */
+record InvoiceRecord(String invoiceId, String bookingId, LocalDate invoiceDate, double taxRate,
+                     InvoiceStatus status, String notes) {
+
+    static InvoiceRecord of(Invoice invoice) {
+        return new InvoiceRecord(invoice.getInvoiceId(), invoice.getBookingId(),
+                invoice.getInvoiceDate(), invoice.getTaxRate(), invoice.getStatus(), invoice.getNotes());
+    }
+
+    /**
+     * Hóa đơn giữ ID booking, chỉ tra cứu khi được truy cập (kể cả khi tham chiếu treo)
+     */
+    Invoice toLazy(Function<String, Booking> bookings) {
+        Invoice invoice = new Invoice(invoiceId, bookingId, bookings, invoiceDate, taxRate);
+        if (status != null) {
+            invoice.setStatus(status);
+        }
+        if (notes != null) {
+            invoice.setNotes(notes);
+        }
+        return invoice;
+    }
+
+    /**
+     * @return Hóa đơn đã liên kết, hoặc null nếu không tìm thấy booking
+     */
+    Invoice resolve(Function<String, Booking> bookings) {
+        Booking booking = bookings.apply(bookingId);
+        if (booking == null) {
+            AppLogger.warn("Không tìm thấy Booking cho Invoice: %s", invoiceId);
+            return null;
+        }
+        Invoice invoice = new Invoice(invoiceId, booking, invoiceDate, taxRate);
+        if (status != null) {
+            invoice.setStatus(status);
+        }
+        if (notes != null) {
+            invoice.setNotes(notes);
+        }
+        return invoice;
+    }
+}
@@ -0,0 +1,327 @@
+package com.hotel.storage;
+
+import com.hotel.util.AppLogger;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Nhật ký ghi trước (write-ahead journal) dạng chỉ nối thêm
+ * Mỗi bản ghi: [độ dài 4 byte][CRC32 4 byte][nội dung UTF-8].
+ *
+ * append() chỉ trả về khi bản ghi đã được fsync. Các luồng ghi đồng thời được gom
+ * nhóm (group commit): luồng đầu tiên vào được sẽ ghi và fsync luôn cả những bản ghi
+ * của luồng khác đang chờ, nên nhiều thao tác chỉ tốn một lần fsync.
+ *
+ * append() = enqueue() + commit(): enqueue() chỉ đưa bản ghi vào bộ đệm (gọi được khi
+ * đang giữ khóa của manager), commit() chờ tới khi mọi bản ghi luồng này đã enqueue
+ * nằm trên đĩa (gọi sau khi trả khóa, một lần cho cả lô).
+ *
+ * Sau lỗi ghi đầu tiên nhật ký không nhận thêm bản ghi nào (mọi lời gọi đều ném lỗi).
+ *
+ * Khi đọc lại, bản ghi cuối bị ghi dở (sai độ dài hoặc sai checksum) được cắt bỏ.
+ *
+ * Checkpoint chạy nền dùng rotate() để niêm phong phần nhật ký hiện tại thành một
+ * đoạn (journal.log -> journal.1.log, journal.2.log...); các đoạn chỉ bị xóa sau khi
+ * snapshot chứa chúng đã ghi xong. Khi đọc lại, các đoạn được đọc trước file hiện tại.
+ */
+final class Journal implements Closeable {
+
+    private static final int HEADER_SIZE = 8;
+    private static final int MAX_RECORD_SIZE = 16 * 1024 * 1024;
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+
+    private final Path file;
+    private final Object bufferLock = new Object();
+    private final Object syncLock = new Object();
+
+    private FileChannel channel;
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private long appendedSeq;
+    private long durableSeq;
+    private volatile IOException failure;
+    /** Số thứ tự bản ghi cuối cùng mà luồng hiện tại đã enqueue nhưng chưa commit */
+    private final ThreadLocal<Long> uncommittedSeq = new ThreadLocal<>();
+    private long lastSegment;
+
+    Journal(Path file) {
+        this.file = file;
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    // ==================== REPLAY ====================
+
+    /**
+     * Đọc lại mọi bản ghi hợp lệ theo thứ tự ghi, rồi cắt bỏ phần đuôi hỏng (nếu có)
+     * Phải gọi trước open().
+     * @return Số bản ghi đã đọc
+     */
+    int replay(Consumer<String> handler) throws IOException {
+        int count = 0;
+        for (Path segment : listSegments()) {
+            count += replayFile(segment, handler);
+            lastSegment = Math.max(lastSegment, segmentNumber(segment));
+        }
+        if (Files.exists(file)) {
+            count += replayFile(file, handler);
+        }
+        return count;
+    }
+
+    private int replayFile(Path file, Consumer<String> handler) throws IOException {
+        int count = 0;
+        long validLength = 0;
+        long fileLength = Files.size(file);
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file), IO_BUFFER_SIZE))) {
+            while (validLength + HEADER_SIZE <= fileLength) {
+                int length = in.readInt();
+                long checksum = in.readInt() & 0xFFFFFFFFL;
+                if (length <= 0 || length > MAX_RECORD_SIZE || validLength + HEADER_SIZE + length > fileLength) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                if (checksumOf(payload) != checksum) {
+                    break;
+                }
+                handler.accept(new String(payload, StandardCharsets.UTF_8));
+                validLength += HEADER_SIZE + length;
+                count++;
+            }
+        }
+
+        if (validLength < fileLength) {
+            AppLogger.warn("Cắt bỏ %d byte hỏng ở cuối nhật ký %s", fileLength - validLength, file);
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                ch.truncate(validLength);
+                ch.force(true);
+            }
+        }
+        return count;
+    }
+
+    // ==================== WRITE ====================
+
+    /**
+     * Mở nhật ký để nối thêm bản ghi
+     */
+    void open() throws IOException {
+        for (Path segment : listSegments()) {
+            lastSegment = Math.max(lastSegment, segmentNumber(segment));
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    boolean isOpen() {
+        return channel != null && channel.isOpen();
+    }
+
+    /**
+     * Ghi một bản ghi và chờ tới khi nó đã nằm trên đĩa
+     */
+    void append(String record) throws IOException {
+        enqueue(record);
+        commit();
+    }
+
+    /**
+     * Đưa một bản ghi vào bộ đệm, không chờ ghi xuống đĩa
+     */
+    void enqueue(String record) throws IOException {
+        checkFailure();
+        byte[] payload = record.getBytes(StandardCharsets.UTF_8);
+        if (payload.length > MAX_RECORD_SIZE) {
+            throw new IOException("Bản ghi nhật ký quá lớn: " + payload.length + " byte");
+        }
+
+        long seq;
+        synchronized (bufferLock) {
+            DataOutputStream out = new DataOutputStream(pending);
+            out.writeInt(payload.length);
+            out.writeInt((int) checksumOf(payload));
+            out.write(payload);
+            seq = ++appendedSeq;
+        }
+        uncommittedSeq.set(seq);
+    }
+
+    /**
+     * Chờ tới khi mọi bản ghi luồng này đã enqueue nằm trên đĩa (không có gì thì trả về ngay)
+     */
+    void commit() throws IOException {
+        Long seq = uncommittedSeq.get();
+        if (seq == null) {
+            return;
+        }
+        uncommittedSeq.remove();
+        sync(seq);
+    }
+
+    private void checkFailure() throws IOException {
+        IOException cause = failure;
+        if (cause != null) {
+            throw new IOException("Nhật ký đã hỏng sau lỗi ghi trước đó", cause);
+        }
+    }
+
+    /**
+     * Group commit: ghi và fsync mọi bản ghi đang chờ, trừ khi luồng khác đã làm thay
+     */
+    private void sync(long seq) throws IOException {
+        synchronized (syncLock) {
+            checkFailure();
+            if (durableSeq >= seq) {
+                return;
+            }
+            flushPending();
+        }
+    }
+
+    /**
+     * Ghi và fsync mọi bản ghi đang chờ (gọi khi đang giữ syncLock)
+     */
+    private void flushPending() throws IOException {
+        if (!isOpen()) {
+            throw new IOException("Nhật ký chưa được mở: " + file);
+        }
+
+        byte[] batch;
+        long batchSeq;
+        synchronized (bufferLock) {
+            batch = pending.toByteArray();
+            pending = new ByteArrayOutputStream();
+            batchSeq = appendedSeq;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(batch);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            failure = e;
+            throw e;
+        }
+        durableSeq = batchSeq;
+    }
+
+    // ==================== SEGMENTS ====================
+
+    /**
+     * Niêm phong phần nhật ký hiện tại thành một đoạn mới và tiếp tục ghi vào file trống
+     * @return Số thứ tự đoạn lớn nhất hiện có (0 nếu chưa có đoạn nào)
+     */
+    long rotate() throws IOException {
+        synchronized (syncLock) {
+            checkFailure();
+            flushPending();
+            if (channel.size() == 0) {
+                return lastSegment;
+            }
+            channel.close();
+            Path segment = segmentPath(lastSegment + 1);
+            Files.move(file, segment, StandardCopyOption.ATOMIC_MOVE);
+            lastSegment++;
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            return lastSegment;
+        }
+    }
+
+    /**
+     * Xóa các đoạn có số thứ tự không lớn hơn upTo (đã nằm trong snapshot)
+     */
+    void deleteSegments(long upTo) throws IOException {
+        synchronized (syncLock) {
+            for (Path segment : listSegments()) {
+                if (segmentNumber(segment) <= upTo) {
+                    Files.deleteIfExists(segment);
+                }
+            }
+        }
+    }
+
+    private Path segmentPath(long number) {
+        return file.resolveSibling(segmentPrefix() + "." + number + ".log");
+    }
+
+    private String segmentPrefix() {
+        String name = file.getFileName().toString();
+        return name.endsWith(".log") ? name.substring(0, name.length() - 4) : name;
+    }
+
+    /**
+     * Các đoạn đã niêm phong, theo thứ tự tăng dần
+     */
+    private List<Path> listSegments() throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        List<Path> segments = new ArrayList<>();
+        if (dir == null || !Files.isDirectory(dir)) {
+            return segments;
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(p -> segmentNumber(p) > 0).forEach(segments::add);
+        }
+        segments.sort((a, b) -> Long.compare(segmentNumber(a), segmentNumber(b)));
+        return segments;
+    }
+
+    private long segmentNumber(Path path) {
+        Matcher matcher = Pattern.compile(Pattern.quote(segmentPrefix()) + "\\.(\\d+)\\.log")
+                .matcher(path.getFileName().toString());
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) : -1;
+    }
+
+    /**
+     * Xóa toàn bộ nhật ký sau khi dữ liệu đã được lưu vào file chính (checkpoint)
+     */
+    void reset() throws IOException {
+        synchronized (syncLock) {
+            synchronized (bufferLock) {
+                pending = new ByteArrayOutputStream();
+                durableSeq = appendedSeq;
+            }
+            if (isOpen()) {
+                channel.truncate(0);
+                channel.force(true);
+            } else {
+                Files.deleteIfExists(file);
+            }
+        }
+        deleteSegments(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (syncLock) {
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+        }
+    }
+
+    private static long checksumOf(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return crc.getValue();
+    }
+}
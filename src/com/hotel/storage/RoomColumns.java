@@ -0,0 +1,83 @@
+package com.hotel.storage;
+
+import com.hotel.model.enums.RoomStatus;
+import com.hotel.model.enums.RoomType;
+import com.hotel.model.room.Room;
+import com.hotel.service.interfaces.IRoomColumns;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Cột phòng ánh xạ bộ nhớ (file rooms.col)
+ * Các cột: giá một đêm (double), tầng (int), loại phòng, trạng thái (byte ordinal).
+ */
+final class RoomColumns implements IRoomColumns {
+
+    private static final char KIND = 'r';
+    private static final int ROW_WIDTH = Double.BYTES + Integer.BYTES + Byte.BYTES + Byte.BYTES;
+    private static final RoomType[] TYPES = RoomType.values();
+    private static final RoomStatus[] STATUSES = RoomStatus.values();
+
+    private final ByteBuffer buffer;
+    private final int rows;
+    private final int floorOffset;
+    private final int typeOffset;
+    private final int statusOffset;
+
+    private RoomColumns(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.rows = ColumnarFile.rowCount(buffer);
+        this.floorOffset = ColumnarFile.HEADER_SIZE + rows * Double.BYTES;
+        this.typeOffset = floorOffset + rows * Integer.BYTES;
+        this.statusOffset = typeOffset + rows;
+    }
+
+    static RoomColumns open(Path filePath) throws IOException {
+        return new RoomColumns(ColumnarFile.map(filePath, KIND, ROW_WIDTH));
+    }
+
+    static void write(Path filePath, List<Room> rooms) throws IOException {
+        ColumnarFile.write(filePath, KIND, rooms.size(), ROW_WIDTH, out -> {
+            for (Room room : rooms) {
+                out.writeDouble(room.calculatePrice(1));
+            }
+            for (Room room : rooms) {
+                out.writeInt(room.getFloor());
+            }
+            for (Room room : rooms) {
+                out.write(room.getRoomType().ordinal());
+            }
+            for (Room room : rooms) {
+                out.write(room.getStatus().ordinal());
+            }
+        });
+    }
+
+    @Override
+    public int size() {
+        return rows;
+    }
+
+    @Override
+    public RoomType getRoomType(int row) {
+        return TYPES[buffer.get(typeOffset + row)];
+    }
+
+    @Override
+    public RoomStatus getStatus(int row) {
+        return STATUSES[buffer.get(statusOffset + row)];
+    }
+
+    @Override
+    public int getFloor(int row) {
+        return buffer.getInt(floorOffset + row * Integer.BYTES);
+    }
+
+    @Override
+    public double getPricePerNight(int row) {
+        return buffer.getDouble(ColumnarFile.HEADER_SIZE + row * Double.BYTES);
+    }
+}
@@ -0,0 +1,39 @@
+package com.hotel.storage;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Định dạng file chính của DataStorage
+ * File delta và nhật ký luôn là JSON, dùng chung cho cả hai định dạng.
+ */
+public enum StorageFormat {
+    /** JSON pretty-print, dễ đọc và sửa tay */
+    JSON(".json"),
+    /** Nhị phân gọn (varint, epoch-day, ordinal, từ điển chuỗi), nhỏ và tải nhanh hơn nhiều lần */
+    BINARY(".bin");
+
+    private final String extension;
+
+    StorageFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Đoán định dạng đang dùng trong thư mục dữ liệu: BINARY nếu có file .bin, ngược lại JSON
+     */
+    public static StorageFormat detect(String dataDirectory, String... baseNames) {
+        for (String baseName : baseNames) {
+            Path binary = Paths.get(dataDirectory, baseName + BINARY.extension);
+            if (Files.exists(binary)) {
+                return BINARY;
+            }
+        }
+        return JSON;
+    }
+}
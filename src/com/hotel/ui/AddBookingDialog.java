@@ -2,13 +2,12 @@ package com.hotel.ui;
 
 import com.hotel.model.booking.Booking;
 import com.hotel.model.customer.Customer;
-import com.hotel.model.enums.BookingStatus;
-import com.hotel.model.enums.RoomStatus;
 import com.hotel.model.enums.RoomType;
 import com.hotel.model.room.Room;
 import com.hotel.service.BookingManager;
 import com.hotel.service.CustomerManager;
 import com.hotel.service.RoomManager;
+import com.hotel.util.Result;
 
 import javax.swing.*;
 import javax.swing.event.ChangeListener;
@@ -168,7 +167,6 @@ public class AddBookingDialog extends JDialog {
             Customer customer = customerManager.getById(customerId);
 
             String roomId = ((String) roomCombo.getSelectedItem()).split(" - ")[0];
-            Room room = roomManager.getById(roomId);
 
             LocalDate checkIn = toLocalDate((Date) checkInSpinner.getValue());
             LocalDate checkOut = toLocalDate((Date) checkOutSpinner.getValue());
@@ -177,33 +175,12 @@ public class AddBookingDialog extends JDialog {
                 throw new Exception("Ngày check-out phải sau ngày check-in");
             }
 
-            if (customer == null) {
-                throw new Exception("Khách hàng không tồn tại");
+            // Kiểm tra và đặt phòng trong một bước: quầy khác có thể đang đặt cùng phòng
+            Result<Booking> result = bookingManager.reserve(roomId, checkIn, checkOut, customer);
+            if (result.isFailure()) {
+                throw new Exception(result.getMessage());
             }
 
-            if (room == null) {
-                throw new Exception("Phòng không tồn tại");
-            }
-
-            if (!room.getStatus().canBook()) {
-                throw new Exception("Phòng hiện không thể đặt");
-            }
-
-            if (!bookingManager.isRoomAvailable(room, checkIn, checkOut)) {
-                throw new Exception("Phòng đã có đặt phòng trong khoảng thời gian này");
-            }
-
-            String bookingId = "BK-" + System.currentTimeMillis();
-            Booking booking = new Booking(bookingId, customer, room, checkIn, checkOut, BookingStatus.PENDING);
-            boolean added = bookingManager.add(booking);
-            if (!added) {
-                throw new Exception("Không thể tạo đặt phòng (dữ liệu không hợp lệ hoặc trùng ID)");
-            }
-
-            // Mark room as reserved (visual status)
-            room.setStatus(RoomStatus.RESERVED);
-            roomManager.update(room);
-
             JOptionPane.showMessageDialog(this, "Tạo đặt phòng thành công!");
             parentPanel.refreshData();
             dispose();
@@ -3,16 +3,18 @@ package com.hotel.ui;
 import com.hotel.auth.PermissionManager.Permission;
 import com.hotel.auth.UserSession;
 import com.hotel.model.booking.Booking;
+import com.hotel.model.customer.Customer;
 import com.hotel.model.enums.BookingStatus;
-import com.hotel.model.enums.RoomStatus;
-import com.hotel.model.room.Room;
 import com.hotel.service.BookingManager;
 import com.hotel.service.CustomerManager;
 import com.hotel.service.RoomManager;
+import com.hotel.ui.base.EntityTableModel;
+import com.hotel.ui.util.EditActions;
+import com.hotel.ui.util.IncrementalSearch;
+import com.hotel.util.Result;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.util.HashMap;
 import java.util.List;
@@ -35,10 +37,12 @@ public class BookingPanel extends JPanel {
     // ==================== COMPONENTS ====================
 
     private JTable bookingTable;
-    private DefaultTableModel tableModel;
+    private EntityTableModel<Booking> tableModel;
     private JTextField searchField;
     private JComboBox<String> statusFilter;
     private JLabel statusLabel;
+    private transient IncrementalSearch<Booking> incrementalSearch;
+    private final transient EditActions editActions = new EditActions();
 
     // ==================== SERVICES ====================
 
@@ -88,6 +92,12 @@ public class BookingPanel extends JPanel {
         searchField.addActionListener(e -> performSearch());
         searchPanel.add(searchField);
 
+        incrementalSearch = new IncrementalSearch<>(
+                keyword -> keyword.isEmpty() ? bookingManager.getAll() : bookingManager.search(keyword),
+                bookingManager::matcher,
+                this::showSearchResults);
+        incrementalSearch.attach(searchField);
+
         JButton searchBtn = new JButton("Tìm");
         searchBtn.addActionListener(e -> performSearch());
         searchPanel.add(searchBtn);
@@ -107,12 +117,7 @@ public class BookingPanel extends JPanel {
     private JPanel createTablePanel() {
         JPanel tablePanel = new JPanel(new BorderLayout());
 
-        tableModel = new DefaultTableModel(COLUMN_NAMES, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        tableModel = new EntityTableModel<>(COLUMN_NAMES, this::getCellValue);
 
         bookingTable = new JTable(tableModel);
         bookingTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
@@ -134,28 +139,28 @@ public class BookingPanel extends JPanel {
 
         JButton addBtn = new JButton("[+] Thêm");
         addBtn.addActionListener(e -> openAddDialog());
-        addBtn.setEnabled(canCreate);
+        editActions.add(addBtn, canCreate);
         if (!canCreate)
             addBtn.setToolTipText("Bạn không có quyền đặt phòng");
         buttonPanel.add(addBtn);
 
         JButton editBtn = new JButton("[S] Sửa");
         editBtn.addActionListener(e -> openEditDialog());
-        editBtn.setEnabled(canManage);
+        editActions.add(editBtn, canManage);
         if (!canManage)
             editBtn.setToolTipText("Bạn không có quyền sửa đặt phòng");
         buttonPanel.add(editBtn);
 
         JButton deleteBtn = new JButton("[X] Xóa");
         deleteBtn.addActionListener(e -> deleteBooking());
-        deleteBtn.setEnabled(canManage);
+        editActions.add(deleteBtn, canManage);
         if (!canManage)
             deleteBtn.setToolTipText("Bạn không có quyền xóa đặt phòng");
         buttonPanel.add(deleteBtn);
 
         JButton confirmBtn = new JButton("[OK] Xác nhận");
         confirmBtn.addActionListener(e -> confirmBooking());
-        confirmBtn.setEnabled(canCreate); // Staff có thể xác nhận
+        editActions.add(confirmBtn, canCreate); // Staff có thể xác nhận
         buttonPanel.add(confirmBtn);
 
         JButton reportBtn = new JButton("Báo cáo");
@@ -180,49 +185,23 @@ public class BookingPanel extends JPanel {
     // ==================== DATA OPERATIONS ====================
 
     private void loadData() {
-        tableModel.setRowCount(0);
-        List<Booking> bookings = bookingManager.getAll();
-
-        for (Booking booking : bookings) {
-            Object[] row = {
-                    booking.getBookingId(),
-                    booking.getCustomer().getFullName(),
-                    booking.getRoom().getRoomId(),
-                    booking.getCheckInDate(),
-                    booking.getCheckOutDate(),
-                    getStatusText(booking.getStatus()),
-                    String.format("%,d", (long) booking.getTotalPrice())
-            };
-            tableModel.addRow(row);
-        }
+        incrementalSearch.reset();
+        tableModel.setRows(bookingManager.getAll());
 
         updateStatus();
     }
 
     private void performSearch() {
-        String keyword = searchField.getText().trim();
-        if (keyword.isEmpty()) {
-            loadData();
-            return;
-        }
+        incrementalSearch.searchNow();
+    }
 
-        tableModel.setRowCount(0);
-        List<Booking> results = bookingManager.search(keyword);
-
-        for (Booking booking : results) {
-            Object[] row = {
-                    booking.getBookingId(),
-                    booking.getCustomer().getFullName(),
-                    booking.getRoom().getRoomId(),
-                    booking.getCheckInDate(),
-                    booking.getCheckOutDate(),
-                    getStatusText(booking.getStatus()),
-                    String.format("%,d", (long) booking.getTotalPrice())
-            };
-            tableModel.addRow(row);
+    private void showSearchResults(String keyword, List<Booking> results) {
+        tableModel.setRows(results);
+        if (keyword.isEmpty()) {
+            updateStatus();
+        } else {
+            statusLabel.setText("Tìm được: " + results.size() + " đặt phòng");
         }
-
-        statusLabel.setText("Tìm được: " + results.size() + " đặt phòng");
     }
 
     private void filterByStatus() {
@@ -233,24 +212,11 @@ public class BookingPanel extends JPanel {
         }
 
         BookingStatus status = BookingStatus.values()[selectedIndex - 1];
-        tableModel.setRowCount(0);
         Map<String, Object> filter = new HashMap<>();
         filter.put("status", status);
 
         List<Booking> filtered = bookingManager.filter(filter);
-
-        for (Booking booking : filtered) {
-            Object[] row = {
-                    booking.getBookingId(),
-                    booking.getCustomer().getFullName(),
-                    booking.getRoom().getRoomId(),
-                    booking.getCheckInDate(),
-                    booking.getCheckOutDate(),
-                    getStatusText(booking.getStatus()),
-                    String.format("%,d", (long) booking.getTotalPrice())
-            };
-            tableModel.addRow(row);
-        }
+        tableModel.setRows(filtered);
 
         statusLabel.setText("Trạng thái: " + filtered.size() + " đặt phòng");
     }
@@ -260,6 +226,28 @@ public class BookingPanel extends JPanel {
         statusLabel.setText("Tổng: " + total + " đặt phòng");
     }
 
+    /** Giá trị ô được tính khi bảng vẽ dòng đó, không dựng sẵn cho mọi booking */
+    private Object getCellValue(Booking booking, int column) {
+        return switch (column) {
+            case 0 -> booking.getBookingId();
+            case 1 -> customerName(booking);
+            case 2 -> booking.getRoomId();
+            case 3 -> booking.getCheckInDate();
+            case 4 -> booking.getCheckOutDate();
+            case 5 -> getStatusText(booking.getStatus());
+            case 6 -> String.format("%,d", (long) booking.getTotalPrice());
+            default -> null;
+        };
+    }
+
+    /**
+     * Tên khách của booking; khách không còn tồn tại (tham chiếu treo khi tải lười) thì hiện ID
+     */
+    private static String customerName(Booking booking) {
+        Customer customer = booking.getCustomer();
+        return customer != null ? customer.getFullName() : booking.getCustomerId();
+    }
+
     private String getStatusText(BookingStatus status) {
         return switch (status) {
             case PENDING -> "Chờ xác nhận";
@@ -288,7 +276,7 @@ public class BookingPanel extends JPanel {
             return;
         }
 
-        String bookingId = (String) tableModel.getValueAt(selectedRow, 0);
+        String bookingId = tableModel.getRow(selectedRow).getBookingId();
         Booking booking = bookingManager.getById(bookingId);
 
         if (booking != null) {
@@ -304,7 +292,7 @@ public class BookingPanel extends JPanel {
             return;
         }
 
-        String bookingId = (String) tableModel.getValueAt(selectedRow, 0);
+        String bookingId = tableModel.getRow(selectedRow).getBookingId();
         Booking booking = bookingManager.getById(bookingId);
 
         int option = JOptionPane.showConfirmDialog(this,
@@ -314,8 +302,9 @@ public class BookingPanel extends JPanel {
         if (option == JOptionPane.YES_OPTION) {
             if (bookingManager.delete(bookingId)) {
                 syncRoomStatusAfterDelete(booking);
+                tableModel.removeRow(selectedRow);
+                updateStatus();
                 JOptionPane.showMessageDialog(this, "Xóa thành công!");
-                loadData();
             } else {
                 JOptionPane.showMessageDialog(this, "Xóa thất bại!", "Lỗi",
                         JOptionPane.ERROR_MESSAGE);
@@ -331,14 +320,25 @@ public class BookingPanel extends JPanel {
             return;
         }
 
-        String bookingId = (String) tableModel.getValueAt(selectedRow, 0);
+        String bookingId = tableModel.getRow(selectedRow).getBookingId();
         Booking booking = bookingManager.getById(bookingId);
 
-        if (booking != null && booking.getStatus() == BookingStatus.PENDING) {
-            booking.setStatus(BookingStatus.CONFIRMED);
-            syncRoomStatusForBooking(booking);
-            if (bookingManager.update(booking)) {
+        if (booking == null) {
+            return;
+        }
+        // Lấy phiên bản trước khi kiểm tra trạng thái: nếu quầy khác đổi booking sau đó thì update thất bại
+        long expectedVersion = booking.getVersion();
+        if (booking.getStatus() == BookingStatus.PENDING) {
+            Result<Booking> result = bookingManager.update(bookingId, expectedVersion,
+                    b -> b.setStatus(BookingStatus.CONFIRMED));
+            if (result.isSuccess()) {
+                syncRoomStatusForBooking(result.getData());
+                tableModel.updateRow(selectedRow, result.getData());
+                updateStatus();
                 JOptionPane.showMessageDialog(this, "Xác nhận thành công!");
+            } else {
+                JOptionPane.showMessageDialog(this, "Xác nhận thất bại: " + result.getMessage(), "Lỗi",
+                        JOptionPane.ERROR_MESSAGE);
                 loadData();
             }
         } else {
@@ -352,11 +352,11 @@ public class BookingPanel extends JPanel {
         int totalBookings = bookingManager.getTotalBookings();
         int completedBookings = bookingManager.getCompletedBookings();
 
-        int pending = bookingManager.getBookingsByStatus(BookingStatus.PENDING).size();
-        int confirmed = bookingManager.getBookingsByStatus(BookingStatus.CONFIRMED).size();
-        int checkedIn = bookingManager.getBookingsByStatus(BookingStatus.CHECKED_IN).size();
-        int checkedOut = bookingManager.getBookingsByStatus(BookingStatus.CHECKED_OUT).size();
-        int cancelled = bookingManager.getBookingsByStatus(BookingStatus.CANCELLED).size();
+        int pending = bookingManager.countByStatus(BookingStatus.PENDING);
+        int confirmed = bookingManager.countByStatus(BookingStatus.CONFIRMED);
+        int checkedIn = bookingManager.countByStatus(BookingStatus.CHECKED_IN);
+        int checkedOut = bookingManager.countByStatus(BookingStatus.CHECKED_OUT);
+        int cancelled = bookingManager.countByStatus(BookingStatus.CANCELLED);
 
         java.time.LocalDate now = java.time.LocalDate.now();
         int month = now.getMonthValue();
@@ -398,40 +398,42 @@ public class BookingPanel extends JPanel {
         loadData();
     }
 
+    /**
+     * Bật/tắt các thao tác sửa dữ liệu (MainFrame chỉ bật khi dữ liệu đã tải xong)
+     */
+    public void setEditingEnabled(boolean enabled) {
+        editActions.setEnabled(enabled);
+    }
+
+    /**
+     * Đồng bộ trạng thái phòng theo booking qua các chuyển trạng thái của RoomManager
+     * (chạy dưới khóa phòng), không sửa trực tiếp đối tượng Room dùng chung
+     */
     private void syncRoomStatusForBooking(Booking booking) {
-        if (booking == null || booking.getRoom() == null)
-            return;
-        Room room = roomManager.getById(booking.getRoom().getRoomId());
-        if (room == null)
+        if (booking == null || booking.getRoomId() == null)
             return;
+        String roomId = booking.getRoomId();
 
         BookingStatus status = booking.getStatus();
         if (status == BookingStatus.CANCELLED || status == BookingStatus.CHECKED_OUT) {
-            room.setStatus(RoomStatus.AVAILABLE);
+            roomManager.markRoomAvailable(roomId);
         } else if (status == BookingStatus.CHECKED_IN) {
-            room.setStatus(RoomStatus.OCCUPIED);
+            roomManager.occupyRoom(roomId);
         } else {
-            room.setStatus(RoomStatus.RESERVED);
+            roomManager.reserveRoom(roomId);
         }
-        roomManager.update(room);
     }
 
     private void syncRoomStatusAfterDelete(Booking deletedBooking) {
-        if (deletedBooking == null || deletedBooking.getRoom() == null)
+        if (deletedBooking == null || deletedBooking.getRoomId() == null)
             return;
-        String roomId = deletedBooking.getRoom().getRoomId();
+        String roomId = deletedBooking.getRoomId();
 
-        boolean hasActiveBooking = bookingManager.getAll().stream()
-                .filter(b -> b.getRoom() != null && roomId.equals(b.getRoom().getRoomId()))
+        boolean hasActiveBooking = bookingManager.getRoomBookings(roomId).stream()
                 .anyMatch(b -> b.getStatus() != BookingStatus.CANCELLED && b.getStatus() != BookingStatus.CHECKED_OUT);
 
-        Room room = roomManager.getById(roomId);
-        if (room == null)
-            return;
-
         if (!hasActiveBooking) {
-            room.setStatus(RoomStatus.AVAILABLE);
-            roomManager.update(room);
+            roomManager.markRoomAvailable(roomId);
         }
     }
 }
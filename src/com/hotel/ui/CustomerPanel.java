@@ -4,10 +4,12 @@ import com.hotel.auth.PermissionManager.Permission;
 import com.hotel.auth.UserSession;
 import com.hotel.model.customer.Customer;
 import com.hotel.service.CustomerManager;
+import com.hotel.ui.base.EntityTableModel;
+import com.hotel.ui.util.EditActions;
+import com.hotel.ui.util.IncrementalSearch;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 
 import java.util.HashMap;
@@ -31,9 +33,11 @@ public class CustomerPanel extends JPanel {
     // ==================== COMPONENTS ====================
 
     private JTable customerTable;
-    private DefaultTableModel tableModel;
+    private EntityTableModel<Customer> tableModel;
     private JTextField searchField;
     private JLabel statusLabel;
+    private transient IncrementalSearch<Customer> incrementalSearch;
+    private final transient EditActions editActions = new EditActions();
 
     // ==================== SERVICES ====================
 
@@ -78,6 +82,12 @@ public class CustomerPanel extends JPanel {
         searchField.addActionListener(e -> performSearch());
         searchPanel.add(searchField);
 
+        incrementalSearch = new IncrementalSearch<>(
+                keyword -> keyword.isEmpty() ? customerManager.getAll() : customerManager.search(keyword),
+                customerManager::matcher,
+                this::showSearchResults);
+        incrementalSearch.attach(searchField);
+
         JButton searchBtn = new JButton("Tìm");
         searchBtn.addActionListener(e -> performSearch());
         searchPanel.add(searchBtn);
@@ -101,12 +111,7 @@ public class CustomerPanel extends JPanel {
     private JPanel createTablePanel() {
         JPanel tablePanel = new JPanel(new BorderLayout());
 
-        tableModel = new DefaultTableModel(COLUMN_NAMES, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        tableModel = new EntityTableModel<>(COLUMN_NAMES, this::getCellValue);
 
         customerTable = new JTable(tableModel);
         customerTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
@@ -127,21 +132,21 @@ public class CustomerPanel extends JPanel {
 
         JButton addBtn = new JButton("[+] Thêm");
         addBtn.addActionListener(e -> openAddDialog());
-        addBtn.setEnabled(canManage);
+        editActions.add(addBtn, canManage);
         if (!canManage)
             addBtn.setToolTipText("Bạn không có quyền thêm khách hàng");
         buttonPanel.add(addBtn);
 
         JButton editBtn = new JButton("[S] Sửa");
         editBtn.addActionListener(e -> openEditDialog());
-        editBtn.setEnabled(canManage);
+        editActions.add(editBtn, canManage);
         if (!canManage)
             editBtn.setToolTipText("Bạn không có quyền sửa khách hàng");
         buttonPanel.add(editBtn);
 
         JButton deleteBtn = new JButton("[X] Xóa");
         deleteBtn.addActionListener(e -> deleteCustomer());
-        deleteBtn.setEnabled(canManage);
+        editActions.add(deleteBtn, canManage);
         if (!canManage)
             deleteBtn.setToolTipText("Bạn không có quyền xóa khách hàng");
         buttonPanel.add(deleteBtn);
@@ -167,73 +172,31 @@ public class CustomerPanel extends JPanel {
     // ==================== DATA OPERATIONS ====================
 
     private void loadData() {
-        tableModel.setRowCount(0);
-        List<Customer> customers = customerManager.getAll();
-
-        for (Customer customer : customers) {
-            Object[] row = {
-                    customer.getCustomerId(),
-                    customer.getFullName(),
-                    customer.getEmail(),
-                    customer.getPhoneNumber(),
-                    customer.getIdCard(),
-                    customer.getAddress(),
-                    customer.isVIP() ? "✓" : "✗",
-                    String.format("%.0f", customer.getLoyaltyPoints())
-            };
-            tableModel.addRow(row);
-        }
+        incrementalSearch.reset();
+        tableModel.setRows(customerManager.getAll());
 
         updateStatus();
     }
 
     private void performSearch() {
-        String keyword = searchField.getText().trim();
-        if (keyword.isEmpty()) {
-            loadData();
-            return;
-        }
+        incrementalSearch.searchNow();
+    }
 
-        tableModel.setRowCount(0);
-        List<Customer> results = customerManager.search(keyword);
-
-        for (Customer customer : results) {
-            Object[] row = {
-                    customer.getCustomerId(),
-                    customer.getFullName(),
-                    customer.getEmail(),
-                    customer.getPhoneNumber(),
-                    customer.getIdCard(),
-                    customer.getAddress(),
-                    customer.isVIP() ? "✓" : "✗",
-                    String.format("%.0f", customer.getLoyaltyPoints())
-            };
-            tableModel.addRow(row);
+    private void showSearchResults(String keyword, List<Customer> results) {
+        tableModel.setRows(results);
+        if (keyword.isEmpty()) {
+            updateStatus();
+        } else {
+            statusLabel.setText("Tìm được: " + results.size() + " khách hàng");
         }
-
-        statusLabel.setText("Tìm được: " + results.size() + " khách hàng");
     }
 
     private void filterVIPCustomers() {
-        tableModel.setRowCount(0);
         Map<String, Object> filter = new HashMap<>();
         filter.put("vip", true);
 
         List<Customer> vipCustomers = customerManager.filter(filter);
-
-        for (Customer customer : vipCustomers) {
-            Object[] row = {
-                    customer.getCustomerId(),
-                    customer.getFullName(),
-                    customer.getEmail(),
-                    customer.getPhoneNumber(),
-                    customer.getIdCard(),
-                    customer.getAddress(),
-                    "✓",
-                    String.format("%.0f", customer.getLoyaltyPoints())
-            };
-            tableModel.addRow(row);
-        }
+        tableModel.setRows(vipCustomers);
 
         statusLabel.setText("VIP: " + vipCustomers.size() + " khách hàng");
     }
@@ -244,6 +207,21 @@ public class CustomerPanel extends JPanel {
         statusLabel.setText(String.format("Tổng: %d khách hàng (VIP: %d)", total, vip));
     }
 
+    /** Giá trị ô được tính khi bảng vẽ dòng đó, không dựng sẵn cho mọi khách hàng */
+    private Object getCellValue(Customer customer, int column) {
+        return switch (column) {
+            case 0 -> customer.getCustomerId();
+            case 1 -> customer.getFullName();
+            case 2 -> customer.getEmail();
+            case 3 -> customer.getPhoneNumber();
+            case 4 -> customer.getIdCard();
+            case 5 -> customer.getAddress();
+            case 6 -> customer.isVIP() ? "✓" : "✗";
+            case 7 -> String.format("%.0f", customer.getLoyaltyPoints());
+            default -> null;
+        };
+    }
+
     // ==================== DIALOG OPERATIONS ====================
 
     private void openAddDialog() {
@@ -258,7 +236,7 @@ public class CustomerPanel extends JPanel {
             return;
         }
 
-        String customerId = (String) tableModel.getValueAt(selectedRow, 0);
+        String customerId = tableModel.getRow(selectedRow).getCustomerId();
         Customer customer = customerManager.getById(customerId);
 
         if (customer != null) {
@@ -274,8 +252,9 @@ public class CustomerPanel extends JPanel {
             return;
         }
 
-        String customerId = (String) tableModel.getValueAt(selectedRow, 0);
-        String customerName = (String) tableModel.getValueAt(selectedRow, 1);
+        Customer selected = tableModel.getRow(selectedRow);
+        String customerId = selected.getCustomerId();
+        String customerName = selected.getFullName();
 
         int option = JOptionPane.showConfirmDialog(this,
                 "Bạn có chắc muốn xóa khách hàng '" + customerName + "'?",
@@ -283,8 +262,10 @@ public class CustomerPanel extends JPanel {
 
         if (option == JOptionPane.YES_OPTION) {
             if (customerManager.delete(customerId)) {
+                tableModel.removeRow(selectedRow);
+                incrementalSearch.reset();
+                updateStatus();
                 JOptionPane.showMessageDialog(this, "Xóa thành công!");
-                loadData();
             } else {
                 JOptionPane.showMessageDialog(this, "Xóa thất bại!", "Lỗi",
                         JOptionPane.ERROR_MESSAGE);
@@ -300,7 +281,7 @@ public class CustomerPanel extends JPanel {
             return;
         }
 
-        String customerId = (String) tableModel.getValueAt(selectedRow, 0);
+        String customerId = tableModel.getRow(selectedRow).getCustomerId();
         Customer customer = customerManager.getById(customerId);
 
         if (customer != null) {
@@ -313,4 +294,11 @@ public class CustomerPanel extends JPanel {
     public void refreshData() {
         loadData();
     }
+
+    /**
+     * Bật/tắt các thao tác sửa dữ liệu (MainFrame chỉ bật khi dữ liệu đã tải xong)
+     */
+    public void setEditingEnabled(boolean enabled) {
+        editActions.setEnabled(enabled);
+    }
 }
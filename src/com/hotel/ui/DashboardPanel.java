@@ -385,7 +385,7 @@ public class DashboardPanel extends JPanel {
         // Booking stats
         if (bookingManager != null) {
             int totalBookings = bookingManager.getTotalBookings();
-            int pendingBookings = bookingManager.getBookingsByStatus(BookingStatus.PENDING).size();
+            int pendingBookings = bookingManager.countByStatus(BookingStatus.PENDING);
             totalBookingsLabel.setText(String.valueOf(totalBookings));
             pendingBookingsLabel.setText(pendingBookings + " chờ xác nhận");
         }
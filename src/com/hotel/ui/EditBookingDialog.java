@@ -2,15 +2,15 @@ package com.hotel.ui;
 
 import com.hotel.model.booking.Booking;
 import com.hotel.model.enums.BookingStatus;
-import com.hotel.model.enums.RoomStatus;
-import com.hotel.model.room.Room;
 import com.hotel.service.BookingManager;
 import com.hotel.service.RoomManager;
+import com.hotel.util.Result;
 
 import javax.swing.*;
 import java.awt.*;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.ConcurrentModificationException;
 import java.util.Date;
 
 /**
@@ -23,6 +23,8 @@ public class EditBookingDialog extends JDialog {
     private RoomManager roomManager;
     private BookingPanel parentPanel;
     private Booking booking;
+    /** Phiên bản lúc mở dialog, dùng để phát hiện quầy khác đã sửa trước */
+    private final long expectedVersion;
     
     public EditBookingDialog(BookingPanel parentPanel, BookingManager bookingManager, RoomManager roomManager, Booking booking) {
         super((Frame) SwingUtilities.getWindowAncestor(parentPanel), "Sửa đặt phòng", true);
@@ -30,6 +32,7 @@ public class EditBookingDialog extends JDialog {
         this.bookingManager = bookingManager;
         this.roomManager = roomManager;
         this.booking = booking;
+        this.expectedVersion = booking.getVersion();
         
         initializeUI();
         setSize(500, 300);
@@ -93,36 +96,40 @@ public class EditBookingDialog extends JDialog {
             return;
         }
 
-        booking.setCheckInDate(checkIn);
-        booking.setCheckOutDate(checkOut);
-        booking.setStatus(BookingStatus.values()[statusCombo.getSelectedIndex()]);
-
-        syncRoomStatus(booking);
+        BookingStatus status = BookingStatus.values()[statusCombo.getSelectedIndex()];
+        Result<Booking> result = bookingManager.update(booking.getBookingId(), expectedVersion, b -> {
+            b.setCheckInDate(checkIn);
+            b.setCheckOutDate(checkOut);
+            b.setStatus(status);
+        });
         
-        if (bookingManager.update(booking)) {
+        if (result.isSuccess()) {
+            syncRoomStatus(result.getData());
             JOptionPane.showMessageDialog(this, "Cập nhật đặt phòng thành công!");
             parentPanel.refreshData();
             dispose();
         } else {
-            JOptionPane.showMessageDialog(this, "Cập nhật đặt phòng thất bại!", "Lỗi", 
+            JOptionPane.showMessageDialog(this, "Cập nhật đặt phòng thất bại: " + result.getMessage(), "Lỗi", 
                     JOptionPane.ERROR_MESSAGE);
+            if (result.getException() instanceof ConcurrentModificationException) {
+                parentPanel.refreshData();
+                dispose();
+            }
         }
     }
 
     private void syncRoomStatus(Booking booking) {
-        if (booking == null || booking.getRoom() == null || roomManager == null) return;
-        Room room = roomManager.getById(booking.getRoom().getRoomId());
-        if (room == null) return;
+        if (booking == null || booking.getRoomId() == null || roomManager == null) return;
+        String roomId = booking.getRoomId();
 
         BookingStatus status = booking.getStatus();
         if (status == BookingStatus.CANCELLED || status == BookingStatus.CHECKED_OUT) {
-            room.setStatus(RoomStatus.AVAILABLE);
+            roomManager.markRoomAvailable(roomId);
         } else if (status == BookingStatus.CHECKED_IN) {
-            room.setStatus(RoomStatus.OCCUPIED);
+            roomManager.occupyRoom(roomId);
         } else {
-            room.setStatus(RoomStatus.RESERVED);
+            roomManager.reserveRoom(roomId);
         }
-        roomManager.update(room);
     }
 
     private Date toDate(LocalDate date) {
@@ -2,9 +2,11 @@ package com.hotel.ui;
 
 import com.hotel.model.customer.Customer;
 import com.hotel.service.CustomerManager;
+import com.hotel.util.Result;
 
 import javax.swing.*;
 import java.awt.*;
+import java.util.ConcurrentModificationException;
 
 /**
  * Dialog để sửa thông tin khách hàng
@@ -15,12 +17,15 @@ public class EditCustomerDialog extends JDialog {
     private CustomerManager customerManager;
     private CustomerPanel parentPanel;
     private Customer customer;
+    /** Phiên bản lúc mở dialog, dùng để phát hiện quầy khác đã sửa trước */
+    private final long expectedVersion;
     
     public EditCustomerDialog(CustomerPanel parentPanel, CustomerManager customerManager, Customer customer) {
         super((Frame) SwingUtilities.getWindowAncestor(parentPanel), "Sửa khách hàng", true);
         this.parentPanel = parentPanel;
         this.customerManager = customerManager;
         this.customer = customer;
+        this.expectedVersion = customer.getVersion();
         
         initializeUI();
         setSize(500, 350);
@@ -84,20 +89,32 @@ public class EditCustomerDialog extends JDialog {
     }
     
     private void updateCustomer() {
-        customer.setFullName(nameField.getText().trim());
-        customer.setEmail(emailField.getText().trim());
-        customer.setPhoneNumber(phoneField.getText().trim());
-        customer.setIdCard(idCardField.getText().trim());
-        customer.setAddress(addressField.getText().trim());
-        customer.setVIP(vipCheckBox.isSelected());
+        String fullName = nameField.getText().trim();
+        String email = emailField.getText().trim();
+        String phoneNumber = phoneField.getText().trim();
+        String idCard = idCardField.getText().trim();
+        String address = addressField.getText().trim();
+        boolean vip = vipCheckBox.isSelected();
         
-        if (customerManager.update(customer)) {
+        Result<Customer> result = customerManager.update(customer.getCustomerId(), expectedVersion, c -> {
+            c.setFullName(fullName);
+            c.setEmail(email);
+            c.setPhoneNumber(phoneNumber);
+            c.setIdCard(idCard);
+            c.setAddress(address);
+            c.setVIP(vip);
+        });
+        if (result.isSuccess()) {
             JOptionPane.showMessageDialog(this, "Cập nhật khách hàng thành công!");
             parentPanel.refreshData();
             dispose();
         } else {
-            JOptionPane.showMessageDialog(this, "Cập nhật khách hàng thất bại!", "Lỗi", 
+            JOptionPane.showMessageDialog(this, "Cập nhật khách hàng thất bại: " + result.getMessage(), "Lỗi", 
                     JOptionPane.ERROR_MESSAGE);
+            if (result.getException() instanceof ConcurrentModificationException) {
+                parentPanel.refreshData();
+                dispose();
+            }
         }
     }
 }
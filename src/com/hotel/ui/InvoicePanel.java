@@ -1,14 +1,17 @@
 package com.hotel.ui;
 
+import com.hotel.model.booking.Booking;
+import com.hotel.model.customer.Customer;
 import com.hotel.model.invoice.Invoice;
 import com.hotel.model.invoice.Invoice.InvoiceStatus;
 import com.hotel.service.BookingManager;
 import com.hotel.service.InvoiceManager;
+import com.hotel.ui.base.EntityTableModel;
+import com.hotel.ui.util.EditActions;
 
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.util.HashMap;
 import java.util.List;
@@ -31,10 +34,11 @@ public class InvoicePanel extends JPanel {
     // ==================== COMPONENTS ====================
     
     private JTable invoiceTable;
-    private DefaultTableModel tableModel;
+    private EntityTableModel<Invoice> tableModel;
     private JTextField searchField;
     private JComboBox<String> statusFilter;
     private JLabel statusLabel;
+    private final transient EditActions editActions = new EditActions();
     
     // ==================== SERVICES ====================
     
@@ -99,12 +103,7 @@ public class InvoicePanel extends JPanel {
     private JPanel createTablePanel() {
         JPanel tablePanel = new JPanel(new BorderLayout());
         
-        tableModel = new DefaultTableModel(COLUMN_NAMES, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        tableModel = new EntityTableModel<>(COLUMN_NAMES, this::getCellValue);
         
         invoiceTable = new JTable(tableModel);
         invoiceTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
@@ -121,19 +120,19 @@ public class InvoicePanel extends JPanel {
         
         JButton createBtn = new JButton("[+] Tao tu dat phong");
         createBtn.addActionListener(e -> createFromBooking());
-        buttonPanel.add(createBtn);
+        buttonPanel.add(editActions.add(createBtn, true));
         
         JButton markIssuedBtn = new JButton("Phat hanh");
         markIssuedBtn.addActionListener(e -> markAsIssued());
-        buttonPanel.add(markIssuedBtn);
+        buttonPanel.add(editActions.add(markIssuedBtn, true));
         
         JButton markPaidBtn = new JButton("✓ Thanh toán");
         markPaidBtn.addActionListener(e -> markAsPaid());
-        buttonPanel.add(markPaidBtn);
+        buttonPanel.add(editActions.add(markPaidBtn, true));
         
         JButton cancelBtn = new JButton("Huy");
         cancelBtn.addActionListener(e -> cancelInvoice());
-        buttonPanel.add(cancelBtn);
+        buttonPanel.add(editActions.add(cancelBtn, true));
         
         JButton reportBtn = new JButton("Bao cao");
         reportBtn.addActionListener(e -> showReports());
@@ -156,20 +155,7 @@ public class InvoicePanel extends JPanel {
     // ==================== DATA OPERATIONS ====================
     
     private void loadData() {
-        tableModel.setRowCount(0);
-        List<Invoice> invoices = invoiceManager.getAll();
-        
-        for (Invoice invoice : invoices) {
-            Object[] row = {
-                    invoice.getInvoiceId(),
-                    invoice.getBooking().getCustomer().getFullName(),
-                    invoice.getInvoiceDate(),
-                    String.format("%,d", (long) invoice.getAmountBeforeTax()),
-                    String.format("%,d", (long) invoice.getTaxAmount()),
-                    getStatusText(invoice.getStatus())
-            };
-            tableModel.addRow(row);
-        }
+        tableModel.setRows(invoiceManager.getAll());
         
         updateStatus();
     }
@@ -181,25 +167,12 @@ public class InvoicePanel extends JPanel {
             return;
         }
         
-        tableModel.setRowCount(0);
-        
         // Search by invoice ID hoặc customer name
         List<Invoice> results = invoiceManager.getAll().stream()
                 .filter(inv -> inv.getInvoiceId().contains(keyword) ||
-                        inv.getBooking().getCustomer().getFullName().contains(keyword))
+                        customerName(inv).contains(keyword))
                 .toList();
-        
-        for (Invoice invoice : results) {
-            Object[] row = {
-                    invoice.getInvoiceId(),
-                    invoice.getBooking().getCustomer().getFullName(),
-                    invoice.getInvoiceDate(),
-                    String.format("%,d", (long) invoice.getAmountBeforeTax()),
-                    String.format("%,d", (long) invoice.getTaxAmount()),
-                    getStatusText(invoice.getStatus())
-            };
-            tableModel.addRow(row);
-        }
+        tableModel.setRows(results);
         
         statusLabel.setText("Tìm được: " + results.size() + " hóa đơn");
     }
@@ -212,25 +185,13 @@ public class InvoicePanel extends JPanel {
         }
         
         InvoiceStatus status = InvoiceStatus.values()[selectedIndex];
-        tableModel.setRowCount(0);
         Map<String, Object> filter = new HashMap<>();
         filter.put("status", status);
         
         List<Invoice> filtered = invoiceManager.getAll().stream()
                 .filter(inv -> inv.getStatus() == status)
                 .toList();
-        
-        for (Invoice invoice : filtered) {
-            Object[] row = {
-                    invoice.getInvoiceId(),
-                    invoice.getBooking().getCustomer().getFullName(),
-                    invoice.getInvoiceDate(),
-                    String.format("%,d", (long) invoice.getAmountBeforeTax()),
-                    String.format("%,d", (long) invoice.getTaxAmount()),
-                    getStatusText(invoice.getStatus())
-            };
-            tableModel.addRow(row);
-        }
+        tableModel.setRows(filtered);
         
         statusLabel.setText("Trạng thái: " + filtered.size() + " hóa đơn");
     }
@@ -240,6 +201,32 @@ public class InvoicePanel extends JPanel {
         statusLabel.setText("Tổng: " + total + " hóa đơn");
     }
     
+    /** Giá trị ô được tính khi bảng vẽ dòng đó, không dựng sẵn cho mọi hóa đơn */
+    private Object getCellValue(Invoice invoice, int column) {
+        return switch (column) {
+            case 0 -> invoice.getInvoiceId();
+            case 1 -> customerName(invoice);
+            case 2 -> invoice.getInvoiceDate();
+            case 3 -> String.format("%,d", (long) invoice.getAmountBeforeTax());
+            case 4 -> String.format("%,d", (long) invoice.getTaxAmount());
+            case 5 -> getStatusText(invoice.getStatus());
+            default -> null;
+        };
+    }
+
+    /**
+     * Tên khách của hóa đơn; booking/khách không còn tồn tại (tham chiếu treo khi tải lười)
+     * thì hiện ID của chúng
+     */
+    private static String customerName(Invoice invoice) {
+        Booking booking = invoice.getBooking();
+        if (booking == null) {
+            return invoice.getBookingId();
+        }
+        Customer customer = booking.getCustomer();
+        return customer != null ? customer.getFullName() : booking.getCustomerId();
+    }
+    
     private String getStatusText(InvoiceStatus status) {
         return switch (status) {
             case DRAFT -> "Nháp";
@@ -256,7 +243,8 @@ public class InvoicePanel extends JPanel {
         JComboBox<String> bookingCombo = new JComboBox<>();
         
         List<String> bookingIds = bookingManager.getAll().stream()
-                .map(b -> b.getBookingId() + " - " + b.getCustomer().getFullName())
+                .map(b -> b.getBookingId() + " - "
+                        + (b.getCustomer() != null ? b.getCustomer().getFullName() : b.getCustomerId()))
                 .toList();
         
         for (String item : bookingIds) {
@@ -274,8 +262,9 @@ public class InvoicePanel extends JPanel {
             );
             
             if (invoiceManager.add(invoice)) {
+                tableModel.addRow(invoice);
+                updateStatus();
                 JOptionPane.showMessageDialog(this, "Tạo hóa đơn thành công!");
-                loadData();
             }
         }
     }
@@ -288,14 +277,14 @@ public class InvoicePanel extends JPanel {
             return;
         }
         
-        String invoiceId = (String) tableModel.getValueAt(selectedRow, 0);
+        String invoiceId = tableModel.getRow(selectedRow).getInvoiceId();
         Invoice invoice = invoiceManager.getById(invoiceId);
         
         if (invoice != null && invoice.getStatus() == InvoiceStatus.DRAFT) {
             invoice.markAsIssued();
             if (invoiceManager.update(invoice)) {
+                tableModel.updateRow(selectedRow, invoice);
                 JOptionPane.showMessageDialog(this, "Phát hành thành công!");
-                loadData();
             }
         } else {
             JOptionPane.showMessageDialog(this, "Chỉ có thể phát hành hóa đơn nháp!", "Lỗi", 
@@ -311,14 +300,14 @@ public class InvoicePanel extends JPanel {
             return;
         }
         
-        String invoiceId = (String) tableModel.getValueAt(selectedRow, 0);
+        String invoiceId = tableModel.getRow(selectedRow).getInvoiceId();
         Invoice invoice = invoiceManager.getById(invoiceId);
         
         if (invoice != null && invoice.getStatus() == InvoiceStatus.ISSUED) {
             invoice.markAsPaid();
             if (invoiceManager.update(invoice)) {
+                tableModel.updateRow(selectedRow, invoice);
                 JOptionPane.showMessageDialog(this, "Thanh toán thành công!");
-                loadData();
             }
         } else {
             JOptionPane.showMessageDialog(this, "Chỉ có thể thanh toán hóa đơn đã phát hành!", "Lỗi", 
@@ -334,7 +323,7 @@ public class InvoicePanel extends JPanel {
             return;
         }
         
-        String invoiceId = (String) tableModel.getValueAt(selectedRow, 0);
+        String invoiceId = tableModel.getRow(selectedRow).getInvoiceId();
         Invoice invoice = invoiceManager.getById(invoiceId);
         
         if (invoice != null && invoice.getStatus() != InvoiceStatus.CANCELLED) {
@@ -344,8 +333,8 @@ public class InvoicePanel extends JPanel {
             if (option == JOptionPane.YES_OPTION) {
                 invoice.cancel();
                 if (invoiceManager.update(invoice)) {
+                    tableModel.updateRow(selectedRow, invoice);
                     JOptionPane.showMessageDialog(this, "Hủy thành công!");
-                    loadData();
                 }
             }
         }
@@ -395,6 +384,13 @@ public class InvoicePanel extends JPanel {
         loadData();
     }
 
+    /**
+     * Bật/tắt các thao tác sửa dữ liệu (MainFrame chỉ bật khi dữ liệu đã tải xong)
+     */
+    public void setEditingEnabled(boolean enabled) {
+        editActions.setEnabled(enabled);
+    }
+
     public void showReportDialogFromMenu() {
         showReports();
     }
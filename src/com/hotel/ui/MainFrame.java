@@ -4,6 +4,8 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 import com.hotel.auth.PermissionManager.Permission;
 import com.hotel.auth.UserSession;
@@ -11,9 +13,13 @@ import com.hotel.service.BookingManager;
 import com.hotel.service.CustomerManager;
 import com.hotel.service.InvoiceManager;
 import com.hotel.service.RoomManager;
+import com.hotel.storage.BulkTransfer;
+import com.hotel.storage.Checkpointer;
 import com.hotel.storage.DataStorage;
 import com.hotel.ui.theme.AppTheme;
 import com.hotel.ui.theme.UIConstants;
+import com.hotel.ui.util.UIEffects;
+import com.hotel.util.AppLogger;
 
 /**
  * Main application frame with themed UI
@@ -26,12 +32,15 @@ public class MainFrame extends JFrame {
     // ==================== COMPONENTS ====================
 
     private JTabbedPane tabbedPane;
+    private DashboardPanel dashboardPanel;
     private RoomPanel roomPanel;
     private BookingPanel bookingPanel;
     private CustomerPanel customerPanel;
     private InvoicePanel invoicePanel;
     private JLabel statusBar;
     private JPanel statusPanel;
+    private JProgressBar progressBar;
+    private JButton cancelButton;
 
     // ==================== SERVICES ====================
 
@@ -39,6 +48,11 @@ public class MainFrame extends JFrame {
     private BookingManager bookingManager;
     private InvoiceManager invoiceManager;
     private DataStorage dataStorage;
+    private transient Checkpointer checkpointer;
+    /** Tác vụ đọc/ghi dữ liệu đang chạy nền, null khi rảnh (chỉ truy cập trên EDT) */
+    private transient StorageTask<?> activeTask;
+    /** Việc chờ tác vụ nền kết thúc mới làm (thoát/đăng xuất trong lúc đang tải/lưu) */
+    private transient Runnable afterTask;
 
     // ==================== CONSTRUCTOR ====================
 
@@ -55,6 +69,8 @@ public class MainFrame extends JFrame {
                 onExit();
             }
         });
+
+        loadDataInBackground();
     }
 
     // ==================== UI INITIALIZATION ====================
@@ -201,15 +217,22 @@ public class MainFrame extends JFrame {
         customerManager = new CustomerManager();
         bookingManager = new BookingManager(roomManager);
         invoiceManager = new InvoiceManager(bookingManager);
+        // Dữ liệu được tải ở luồng nền sau khi cửa sổ dựng xong (loadDataInBackground)
         dataStorage = new DataStorage(customerManager, bookingManager, invoiceManager, roomManager);
-        dataStorage.loadAllData();
+        // Nhật ký hỏng thì thay đổi mới chỉ còn trong bộ nhớ: báo ngay để người dùng lưu
+        dataStorage.setJournalFailureHandler(error -> SwingUtilities.invokeLater(() -> {
+            setStatus(UIConstants.Messages.JOURNAL_ERROR, AppTheme.Status.ERROR);
+            JOptionPane.showMessageDialog(MainFrame.this,
+                    UIConstants.Messages.JOURNAL_ERROR + "\n" + error.getMessage(),
+                    "Lỗi", JOptionPane.ERROR_MESSAGE);
+        }));
 
         // Tab 0: Dashboard (Overview)
-        DashboardPanel dashboardPanel = new DashboardPanel(customerManager, bookingManager, invoiceManager);
+        dashboardPanel = new DashboardPanel(customerManager, bookingManager, invoiceManager);
         tabbedPane.addTab("  " + UIConstants.Tabs.DASHBOARD + "  ", dashboardPanel);
 
         // Tab 1: Room Management
-        roomPanel = new RoomPanel();
+        roomPanel = new RoomPanel(dataStorage);
         tabbedPane.addTab("  " + UIConstants.Tabs.ROOMS + "  ", roomPanel);
 
         // Tab 2: Booking Management
@@ -261,6 +284,23 @@ public class MainFrame extends JFrame {
         statusBar.setForeground(AppTheme.Text.SECONDARY);
         statusIndicator.add(statusBar);
 
+        // Tiến trình và nút hủy của tác vụ đọc/ghi nền, chỉ hiện khi có tác vụ
+        progressBar = new JProgressBar(0, 100);
+        progressBar.setPreferredSize(new Dimension(140, 12));
+        progressBar.setVisible(false);
+        statusIndicator.add(progressBar);
+
+        cancelButton = new JButton(UIConstants.Buttons.CANCEL);
+        cancelButton.setFont(AppTheme.Fonts.SMALL);
+        cancelButton.setFocusable(false);
+        cancelButton.setVisible(false);
+        cancelButton.addActionListener(e -> {
+            if (activeTask != null) {
+                activeTask.requestCancel();
+            }
+        });
+        statusIndicator.add(cancelButton);
+
         statusPanel.add(statusIndicator, BorderLayout.WEST);
 
         // User info and version on right
@@ -328,22 +368,142 @@ public class MainFrame extends JFrame {
 
     // ==================== ACTIONS ====================
 
+    /**
+     * Tải dữ liệu ở luồng nền; collection nào vào manager xong thì bảng của nó được làm mới
+     * ngay. Tải hết mới mở nhật ký, bật checkpoint và cho sửa dữ liệu; hủy giữa chừng (hoặc
+     * lỗi) thì dữ liệu chỉ đọc và các thao tác sửa vẫn tắt, vì thay đổi lúc đó không lưu được.
+     */
+    private void loadDataInBackground() {
+        new StorageTask<Boolean>(UIConstants.Messages.STATUS_LOADING, UIConstants.Messages.LOAD_ERROR, true) {
+            @Override
+            protected Boolean doInBackground() {
+                int total = BulkTransfer.Entity.values().length;
+                boolean completed = dataStorage.loadAllData((entity, count) -> {
+                    publish(entity);
+                    setProgress((entity.ordinal() + 1) * 100 / total);
+                    return !isCancelRequested();
+                });
+                if (completed) {
+                    // Khôi phục thay đổi chưa lưu của phiên trước và ghi nhật ký từ đây
+                    dataStorage.openJournal();
+                }
+                return completed;
+            }
+
+            @Override
+            protected void process(List<BulkTransfer.Entity> loaded) {
+                loaded.forEach(MainFrame.this::refreshPanel);
+                dashboardPanel.refreshData();
+            }
+
+            @Override
+            protected void succeeded(Boolean completed) {
+                if (!completed) {
+                    setStatus(UIConstants.Messages.STATUS_LOAD_CANCELLED, AppTheme.Status.WARNING);
+                    return;
+                }
+                // Nhật ký có thể đã khôi phục thay đổi vào bất kỳ collection nào
+                for (BulkTransfer.Entity entity : BulkTransfer.Entity.values()) {
+                    refreshPanel(entity);
+                }
+                dashboardPanel.refreshData();
+                // Ghi snapshot định kỳ ở luồng nền; snapshot được chụp trên EDT
+                checkpointer = new Checkpointer(dataStorage, SwingUtilities::invokeLater);
+                checkpointer.start();
+                setEditingEnabled(true);
+                setStatus(UIConstants.Messages.STATUS_READY);
+            }
+        }.start();
+    }
+
+    /**
+     * Bật/tắt các thao tác sửa dữ liệu trên mọi panel
+     */
+    private void setEditingEnabled(boolean enabled) {
+        roomPanel.setEditingEnabled(enabled);
+        bookingPanel.setEditingEnabled(enabled);
+        customerPanel.setEditingEnabled(enabled);
+        invoicePanel.setEditingEnabled(enabled);
+    }
+
+    private void refreshPanel(BulkTransfer.Entity entity) {
+        switch (entity) {
+            case ROOMS -> roomPanel.refreshTable();
+            case CUSTOMERS -> customerPanel.refreshData();
+            case BOOKINGS -> bookingPanel.refreshData();
+            case INVOICES -> invoicePanel.refreshData();
+        }
+    }
+
     private void saveAllData() {
-        setStatus(UIConstants.Messages.STATUS_SAVING, AppTheme.Status.INFO);
-        try {
-            if (roomPanel != null) {
-                roomPanel.saveRoomsData();
+        if (activeTask != null) {
+            UIEffects.showToast(this, UIConstants.Messages.STATUS_BUSY, UIEffects.ToastType.WARNING);
+            return;
+        }
+        new StorageTask<Integer>(UIConstants.Messages.STATUS_SAVING, UIConstants.Messages.SAVE_ERROR, false) {
+            @Override
+            protected Integer doInBackground() {
+                // Chỉ ghi các collection đã thay đổi (kể cả phòng)
+                return dataStorage.saveChanges();
             }
-            if (dataStorage != null) {
-                dataStorage.saveAllData();
+
+            @Override
+            protected void succeeded(Integer saved) {
+                if (dataStorage.isReadOnly()) {
+                    setStatus(UIConstants.Messages.STATUS_LOAD_CANCELLED, AppTheme.Status.WARNING);
+                } else {
+                    setStatus(UIConstants.Messages.SAVE_SUCCESS, AppTheme.Status.SUCCESS);
+                }
             }
-            setStatus(UIConstants.Messages.SAVE_SUCCESS, AppTheme.Status.SUCCESS);
-        } catch (Exception ex) {
-            setStatus(UIConstants.Messages.SAVE_ERROR, AppTheme.Status.ERROR);
-            JOptionPane.showMessageDialog(this,
-                    UIConstants.Messages.SAVE_ERROR + ": " + ex.getMessage(),
-                    "Lỗi", JOptionPane.ERROR_MESSAGE);
+        }.start();
+    }
+
+    /**
+     * Dừng checkpoint nền, lưu (hoặc bỏ) thay đổi và đóng nhật ký ở luồng nền, xong thì chạy then
+     * Nếu đang có tác vụ nền thì hủy nó (nếu được) và chờ nó kết thúc trước.
+     * @param save true: lưu tất cả trước khi đóng; false: bỏ các thay đổi chưa lưu
+     * @param then Chạy trên EDT sau khi đóng xong, kể cả khi lưu lỗi
+     */
+    private void closeStorage(boolean save, Runnable then) {
+        if (activeTask != null) {
+            activeTask.requestCancel();
+            afterTask = () -> closeStorage(save, then);
+            return;
+        }
+        if (checkpointer != null) {
+            checkpointer.close();
+            checkpointer = null;
+        }
+        if (dataStorage == null) {
+            then.run();
+            return;
         }
+        new StorageTask<Void>(UIConstants.Messages.STATUS_SAVING, UIConstants.Messages.SAVE_ERROR, false) {
+            @Override
+            protected Void doInBackground() {
+                if (!save) {
+                    dataStorage.discardJournal();
+                    return null;
+                }
+                try {
+                    dataStorage.saveChanges();
+                } finally {
+                    dataStorage.closeJournal();
+                }
+                return null;
+            }
+
+            @Override
+            protected void succeeded(Void result) {
+                then.run();
+            }
+
+            @Override
+            protected void failed(Throwable error) {
+                super.failed(error);
+                then.run();
+            }
+        }.start();
     }
 
     private void onExit() {
@@ -354,13 +514,11 @@ public class MainFrame extends JFrame {
                 JOptionPane.YES_NO_CANCEL_OPTION,
                 JOptionPane.QUESTION_MESSAGE);
 
-        if (confirm == JOptionPane.YES_OPTION) {
-            saveAllData();
-            dispose();
-            System.exit(0);
-        } else if (confirm == JOptionPane.NO_OPTION) {
-            dispose();
-            System.exit(0);
+        if (confirm == JOptionPane.YES_OPTION || confirm == JOptionPane.NO_OPTION) {
+            closeStorage(confirm == JOptionPane.YES_OPTION, () -> {
+                dispose();
+                System.exit(0);
+            });
         }
     }
 
@@ -375,19 +533,15 @@ public class MainFrame extends JFrame {
                 JOptionPane.YES_NO_CANCEL_OPTION,
                 JOptionPane.QUESTION_MESSAGE);
 
-        if (confirm == JOptionPane.CANCEL_OPTION) {
+        if (confirm == JOptionPane.CANCEL_OPTION || confirm == JOptionPane.CLOSED_OPTION) {
             return; // Hủy đăng xuất
         }
 
-        if (confirm == JOptionPane.YES_OPTION) {
-            saveAllData();
-        }
-
-        // Xóa session
-        UserSession.getInstance().logout();
+        closeStorage(confirm == JOptionPane.YES_OPTION, () -> {
+            // Xóa session
+            UserSession.getInstance().logout();
 
-        // Quay về màn hình đăng nhập
-        SwingUtilities.invokeLater(() -> {
+            // Quay về màn hình đăng nhập
             LoginFrame loginFrame = new LoginFrame();
             loginFrame.setVisible(true);
             dispose();
@@ -493,4 +647,93 @@ public class MainFrame extends JFrame {
             }
         }
     }
+
+    private void showProgress(String message, boolean cancellable) {
+        setStatus(message, AppTheme.Status.INFO);
+        progressBar.setIndeterminate(true);
+        progressBar.setValue(0);
+        progressBar.setVisible(true);
+        cancelButton.setEnabled(true);
+        cancelButton.setVisible(cancellable);
+    }
+
+    private void hideProgress() {
+        progressBar.setVisible(false);
+        cancelButton.setVisible(false);
+    }
+
+    // ==================== BACKGROUND TASKS ====================
+
+    /**
+     * Tác vụ đọc/ghi dữ liệu chạy trên luồng nền của SwingWorker, mỗi lúc chỉ một tác vụ
+     * Trong lúc chạy, thanh trạng thái hiện tiến trình (và nút hủy nếu tác vụ cho phép).
+     * Hủy chỉ đặt cờ để doInBackground tự dừng ở điểm an toàn, nên done() luôn chạy sau
+     * khi luồng nền đã thật sự xong việc.
+     */
+    private abstract class StorageTask<T> extends SwingWorker<T, BulkTransfer.Entity> {
+
+        private final String message;
+        private final String errorMessage;
+        private final boolean cancellable;
+        private volatile boolean cancelRequested;
+
+        StorageTask(String message, String errorMessage, boolean cancellable) {
+            this.message = message;
+            this.errorMessage = errorMessage;
+            this.cancellable = cancellable;
+        }
+
+        void start() {
+            activeTask = this;
+            showProgress(message, cancellable);
+            addPropertyChangeListener(e -> {
+                if ("progress".equals(e.getPropertyName())) {
+                    progressBar.setIndeterminate(false);
+                    progressBar.setValue((Integer) e.getNewValue());
+                }
+            });
+            execute();
+        }
+
+        void requestCancel() {
+            if (cancellable && !cancelRequested) {
+                cancelRequested = true;
+                cancelButton.setEnabled(false);
+            }
+        }
+
+        boolean isCancelRequested() {
+            return cancelRequested;
+        }
+
+        @Override
+        protected final void done() {
+            activeTask = null;
+            hideProgress();
+            try {
+                succeeded(get());
+            } catch (ExecutionException e) {
+                failed(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            Runnable next = afterTask;
+            afterTask = null;
+            if (next != null) {
+                next.run();
+            }
+        }
+
+        /** Chạy trên EDT khi doInBackground kết thúc bình thường */
+        protected abstract void succeeded(T result);
+
+        /** Chạy trên EDT khi doInBackground ném lỗi */
+        protected void failed(Throwable error) {
+            AppLogger.error(errorMessage, error);
+            setStatus(errorMessage, AppTheme.Status.ERROR);
+            JOptionPane.showMessageDialog(MainFrame.this,
+                    errorMessage + ": " + error.getMessage(),
+                    "Lỗi", JOptionPane.ERROR_MESSAGE);
+        }
+    }
 }
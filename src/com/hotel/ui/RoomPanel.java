@@ -7,6 +7,10 @@ import com.hotel.service.RoomManager;
 import com.hotel.storage.DataStorage;
 import com.hotel.ui.theme.AppTheme;
 import com.hotel.ui.theme.UIConstants;
+import com.hotel.ui.util.EditActions;
+import com.hotel.ui.util.IncrementalSearch;
+import com.hotel.ui.util.UIEffects;
+import com.hotel.util.AppLogger;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableCellRenderer;
@@ -16,6 +20,7 @@ import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Panel quản lý phòng với đầy đủ chức năng CRUD và themed UI
@@ -33,6 +38,8 @@ public class RoomPanel extends JPanel {
     private JComboBox<String> filterTypeCombo;
     private JComboBox<String> filterStatusCombo;
     private JLabel statusLabel;
+    private transient IncrementalSearch<Room> incrementalSearch;
+    private final transient EditActions editActions = new EditActions();
 
     // ==================== SERVICES ====================
 
@@ -41,12 +48,16 @@ public class RoomPanel extends JPanel {
 
     // ==================== CONSTRUCTOR ====================
 
-    public RoomPanel() {
+    /**
+     * @param dataStorage Kho dữ liệu dùng chung của MainFrame; phòng được tải ở luồng nền
+     *                    rồi MainFrame gọi refreshTable()
+     */
+    public RoomPanel(DataStorage dataStorage) {
         this.roomManager = RoomManager.getInstance();
-        this.dataStorage = new DataStorage(null, null, null, roomManager);
+        this.dataStorage = dataStorage;
 
         initializeUI();
-        loadData();
+        refreshTable();
     }
 
     // ==================== UI INITIALIZATION ====================
@@ -79,6 +90,10 @@ public class RoomPanel extends JPanel {
         searchField.addActionListener(e -> performSearch());
         searchPanel.add(searchField);
 
+        incrementalSearch = new IncrementalSearch<>(roomManager::search, roomManager::matcher,
+                (keyword, rooms) -> showRooms(rooms));
+        incrementalSearch.attach(searchField);
+
         JButton searchBtn = new JButton(UIConstants.Buttons.SEARCH);
         AppTheme.applyPrimaryButtonStyle(searchBtn);
         searchBtn.setPreferredSize(new Dimension(90, 32));
@@ -139,7 +154,7 @@ public class RoomPanel extends JPanel {
         roomTable.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                if (e.getClickCount() == 2) {
+                if (e.getClickCount() == 2 && editActions.isEnabled()) {
                     editSelectedRoom();
                 }
             }
@@ -183,7 +198,7 @@ public class RoomPanel extends JPanel {
         AppTheme.applySuccessButtonStyle(addBtn);
         addBtn.setPreferredSize(new Dimension(120, 36));
         addBtn.addActionListener(e -> showAddDialog());
-        addBtn.setEnabled(canManage);
+        editActions.add(addBtn, canManage);
         if (!canManage)
             addBtn.setToolTipText("Bạn không có quyền thêm phòng");
         actionPanel.add(addBtn);
@@ -192,7 +207,7 @@ public class RoomPanel extends JPanel {
         AppTheme.applyPrimaryButtonStyle(editBtn);
         editBtn.setPreferredSize(new Dimension(90, 36));
         editBtn.addActionListener(e -> editSelectedRoom());
-        editBtn.setEnabled(canManage);
+        editActions.add(editBtn, canManage);
         if (!canManage)
             editBtn.setToolTipText("Bạn không có quyền sửa phòng");
         actionPanel.add(editBtn);
@@ -201,7 +216,7 @@ public class RoomPanel extends JPanel {
         AppTheme.applyDangerButtonStyle(deleteBtn);
         deleteBtn.setPreferredSize(new Dimension(90, 36));
         deleteBtn.addActionListener(e -> deleteSelectedRoom());
-        deleteBtn.setEnabled(canManage);
+        editActions.add(deleteBtn, canManage);
         if (!canManage)
             deleteBtn.setToolTipText("Bạn không có quyền xóa phòng");
         actionPanel.add(deleteBtn);
@@ -215,8 +230,8 @@ public class RoomPanel extends JPanel {
         JButton saveBtn = new JButton("✓ Lưu");
         AppTheme.applyPrimaryButtonStyle(saveBtn);
         saveBtn.setPreferredSize(new Dimension(90, 36));
-        saveBtn.addActionListener(e -> saveData());
-        saveBtn.setEnabled(canManage);
+        saveBtn.addActionListener(e -> saveData(saveBtn));
+        editActions.add(saveBtn, canManage);
         if (!canManage)
             saveBtn.setToolTipText("Bạn không có quyền lưu thay đổi");
         actionPanel.add(saveBtn);
@@ -270,36 +285,58 @@ public class RoomPanel extends JPanel {
 
     // ==================== DATA OPERATIONS ====================
 
-    private void loadData() {
-        List<Room> rooms = dataStorage.loadRoomsList();
-        roomManager.loadRooms(rooms);
-        refreshTable();
+    /**
+     * Ghi file phòng ở luồng nền; nút Lưu bị khóa cho tới khi ghi xong
+     */
+    private void saveData(JButton saveBtn) {
+        String label = saveBtn.getText();
+        UIEffects.showLoading(saveBtn, "Đang lưu");
+        new SwingWorker<Boolean, Void>() {
+            @Override
+            protected Boolean doInBackground() {
+                return dataStorage.saveRooms();
+            }
+
+            @Override
+            protected void done() {
+                UIEffects.hideLoading(saveBtn, label);
+                boolean saved;
+                try {
+                    saved = get();
+                } catch (InterruptedException | ExecutionException e) {
+                    AppLogger.error(UIConstants.Messages.SAVE_ERROR, e);
+                    saved = false;
+                }
+                if (saved) {
+                    JOptionPane.showMessageDialog(RoomPanel.this,
+                            UIConstants.Messages.SAVE_SUCCESS,
+                            "Thông báo",
+                            JOptionPane.INFORMATION_MESSAGE);
+                } else {
+                    JOptionPane.showMessageDialog(RoomPanel.this,
+                            UIConstants.Messages.SAVE_ERROR,
+                            "Lỗi",
+                            JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
     }
 
-    private void saveData() {
-        List<Room> rooms = roomManager.getAll();
-        if (dataStorage.saveRooms(rooms)) {
-            JOptionPane.showMessageDialog(this,
-                    UIConstants.Messages.SAVE_SUCCESS,
-                    "Thông báo",
-                    JOptionPane.INFORMATION_MESSAGE);
-        } else {
-            JOptionPane.showMessageDialog(this,
-                    UIConstants.Messages.SAVE_ERROR,
-                    "Lỗi",
-                    JOptionPane.ERROR_MESSAGE);
-        }
+    public void refreshTable() {
+        incrementalSearch.reset();
+        showRooms(roomManager.getAll());
+        updateStatusLabel();
     }
 
-    public void saveRoomsData() {
-        List<Room> rooms = roomManager.getAll();
-        dataStorage.saveRooms(rooms);
+    /**
+     * Bật/tắt các thao tác sửa dữ liệu (MainFrame chỉ bật khi dữ liệu đã tải xong)
+     */
+    public void setEditingEnabled(boolean enabled) {
+        editActions.setEnabled(enabled);
     }
 
-    public void refreshTable() {
+    private void showRooms(List<Room> rooms) {
         tableModel.setRowCount(0);
-        List<Room> rooms = roomManager.getAll();
-
         for (Room room : rooms) {
             tableModel.addRow(new Object[] {
                     room.getRoomId(),
@@ -311,8 +348,6 @@ public class RoomPanel extends JPanel {
                     String.format("%.1f", room.getArea())
             });
         }
-
-        updateStatusLabel();
     }
 
     private void updateStatusLabel() {
@@ -324,22 +359,7 @@ public class RoomPanel extends JPanel {
     // ==================== SEARCH & FILTER ====================
 
     private void performSearch() {
-        String keyword = searchField.getText().trim();
-
-        tableModel.setRowCount(0);
-        List<Room> rooms = roomManager.search(keyword);
-
-        for (Room room : rooms) {
-            tableModel.addRow(new Object[] {
-                    room.getRoomId(),
-                    room.getRoomType().getDisplayName(),
-                    room.getFloor(),
-                    room.getStatus().getDisplayName(),
-                    String.format("%,.0f", room.getBasePrice()),
-                    room.getBedCount(),
-                    String.format("%.1f", room.getArea())
-            });
-        }
+        incrementalSearch.searchNow();
     }
 
     private void applyFilters() {
@@ -2,15 +2,16 @@ package com.hotel.ui.base;
 
 import com.hotel.ui.theme.AppTheme;
 import com.hotel.ui.theme.UIConstants;
+import com.hotel.ui.util.IncrementalSearch;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableCellRenderer;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableRowSorter;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.util.List;
+import java.util.function.Predicate;
 
 /**
  * Lớp trừu tượng cơ sở cho các panel hiển thị bảng với chức năng CRUD.
@@ -26,10 +27,11 @@ public abstract class BaseTablePanel<T> extends JPanel {
     // ==================== CÁC THÀNH PHẦN UI ====================
 
     protected JTable table; // Bảng hiển thị dữ liệu
-    protected DefaultTableModel tableModel; // Model của bảng
+    protected EntityTableModel<T> tableModel; // Model của bảng (giữ entity, tính ô khi vẽ)
     protected JTextField searchField; // Ô tìm kiếm
     protected JLabel statusLabel; // Label hiển thị trạng thái
-    protected TableRowSorter<DefaultTableModel> sorter; // Bộ sắp xếp bảng
+    protected TableRowSorter<EntityTableModel<T>> sorter; // Bộ sắp xếp bảng
+    protected transient IncrementalSearch<T> incrementalSearch; // Tìm khi đang gõ (luồng nền)
 
     // ==================== CONSTRUCTOR ====================
 
@@ -48,12 +50,13 @@ public abstract class BaseTablePanel<T> extends JPanel {
     protected abstract String[] getColumnNames();
 
     /**
-     * Chuyển đổi entity thành dữ liệu dòng trong bảng
+     * Lấy giá trị một ô của bảng; chỉ được gọi cho các ô đang hiển thị (hoặc khi sắp xếp)
      * 
-     * @param item Entity cần chuyển đổi
-     * @return Mảng dữ liệu cho dòng
+     * @param item   Entity của dòng
+     * @param column Index cột
+     * @return Giá trị hiển thị của ô
      */
-    protected abstract Object[] toRowData(T item);
+    protected abstract Object getCellValue(T item, int column);
 
     /**
      * Tải tất cả dữ liệu từ storage/service
@@ -63,19 +66,33 @@ public abstract class BaseTablePanel<T> extends JPanel {
     protected abstract List<T> loadAllData();
 
     /**
-     * Tìm kiếm dữ liệu theo từ khóa
+     * Tìm kiếm dữ liệu theo từ khóa; được gọi trên luồng nền khi người dùng gõ
      * 
-     * @param keyword Từ khóa tìm kiếm
+     * @param keyword Từ khóa tìm kiếm (không rỗng)
      * @return Danh sách kết quả
      */
     protected abstract List<T> searchData(String keyword);
 
+    /**
+     * Override để trả về điều kiện khớp giống searchData (VD: ISearchable.matcher);
+     * khi có, gõ thêm ký tự chỉ lọc lại kết quả trước thay vì tìm lại từ đầu
+     * 
+     * @param keyword Từ khóa tìm kiếm
+     * @return Điều kiện khớp hoặc null
+     */
+    protected Predicate<T> getSearchMatcher(String keyword) {
+        return null;
+    }
+
     /**
      * Lấy entity từ dòng được chọn
      * 
      * @return Entity được chọn hoặc null
      */
-    protected abstract T getSelectedEntity();
+    protected T getSelectedEntity() {
+        int row = getSelectedRow();
+        return row < 0 ? null : tableModel.getRow(row);
+    }
 
     /**
      * Xử lý khi nhấn nút Thêm
@@ -151,6 +168,12 @@ public abstract class BaseTablePanel<T> extends JPanel {
         searchField.addActionListener(e -> performSearch());
         searchPanel.add(searchField);
 
+        incrementalSearch = new IncrementalSearch<>(
+                keyword -> keyword.isEmpty() ? loadAllData() : searchData(keyword),
+                this::getSearchMatcher,
+                (keyword, results) -> populateTable(results));
+        incrementalSearch.attach(searchField);
+
         JButton searchBtn = new JButton(UIConstants.Buttons.SEARCH);
         AppTheme.applyPrimaryButtonStyle(searchBtn);
         searchBtn.setPreferredSize(new Dimension(90, 32));
@@ -181,12 +204,7 @@ public abstract class BaseTablePanel<T> extends JPanel {
      * Tạo panel chứa bảng
      */
     protected JScrollPane createTablePanel() {
-        tableModel = new DefaultTableModel(getColumnNames(), 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // Không cho phép sửa trực tiếp trong bảng
-            }
-        };
+        tableModel = new EntityTableModel<>(getColumnNames(), this::getCellValue);
 
         table = new JTable(tableModel);
         table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
@@ -332,6 +350,7 @@ public abstract class BaseTablePanel<T> extends JPanel {
      */
     protected void loadData() {
         List<T> data = loadAllData();
+        incrementalSearch.reset();
         populateTable(data);
     }
 
@@ -341,10 +360,7 @@ public abstract class BaseTablePanel<T> extends JPanel {
      * @param data Danh sách dữ liệu
      */
     protected void populateTable(List<T> data) {
-        tableModel.setRowCount(0);
-        for (T item : data) {
-            tableModel.addRow(toRowData(item));
-        }
+        tableModel.setRows(data);
         updateStatus();
     }
 
@@ -366,9 +382,7 @@ public abstract class BaseTablePanel<T> extends JPanel {
      * Thực hiện tìm kiếm
      */
     protected void performSearch() {
-        String keyword = searchField.getText().trim();
-        List<T> results = searchData(keyword);
-        populateTable(results);
+        incrementalSearch.searchNow();
     }
 
     // ==================== CÁC PHƯƠNG THỨC HỖ TRỢ ====================
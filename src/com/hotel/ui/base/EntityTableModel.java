@@ -0,0 +1,105 @@
+package com.hotel.ui.base;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * TableModel chỉ giữ danh sách entity; giá trị từng ô được tính khi bảng cần vẽ ô đó.
+ * Đổ cả danh sách chỉ phát một sự kiện fireTableDataChanged, và không tạo mảng dữ liệu
+ * cho các dòng không hiển thị. Thêm/sửa/xóa một dòng phát sự kiện cho riêng dòng đó.
+ *
+ * Chỉ dùng trên EDT, như mọi TableModel của Swing.
+ *
+ * @param <T> Kiểu entity của mỗi dòng
+ */
+public class EntityTableModel<T> extends AbstractTableModel {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Tính giá trị của một ô từ entity của dòng
+     */
+    @FunctionalInterface
+    public interface CellValue<T> {
+        Object get(T item, int column);
+    }
+
+    private final String[] columnNames;
+    private final transient CellValue<? super T> cellValue;
+    private transient List<T> rows = new ArrayList<>();
+
+    public EntityTableModel(String[] columnNames, CellValue<? super T> cellValue) {
+        this.columnNames = columnNames.clone();
+        this.cellValue = cellValue;
+    }
+
+    // ==================== TABLE MODEL ====================
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        return cellValue.get(rows.get(row), column);
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false; // Không cho phép sửa trực tiếp trong bảng
+    }
+
+    // ==================== ROWS ====================
+
+    /**
+     * Thay toàn bộ danh sách dòng (một sự kiện cho cả bảng)
+     */
+    public void setRows(List<? extends T> items) {
+        rows = new ArrayList<>(items);
+        fireTableDataChanged();
+    }
+
+    /**
+     * Entity của một dòng (chỉ số theo model, không theo view đã sắp xếp)
+     */
+    public T getRow(int row) {
+        return rows.get(row);
+    }
+
+    /**
+     * Chỉ số dòng của entity (so sánh bằng equals), -1 nếu không có
+     */
+    public int indexOf(T item) {
+        return rows.indexOf(item);
+    }
+
+    public void addRow(T item) {
+        rows.add(item);
+        fireTableRowsInserted(rows.size() - 1, rows.size() - 1);
+    }
+
+    /**
+     * Thay entity của một dòng (hoặc chỉ báo dòng đã đổi khi entity được sửa tại chỗ)
+     */
+    public void updateRow(int row, T item) {
+        rows.set(row, item);
+        fireTableRowsUpdated(row, row);
+    }
+
+    public void removeRow(int row) {
+        rows.remove(row);
+        fireTableRowsDeleted(row, row);
+    }
+}
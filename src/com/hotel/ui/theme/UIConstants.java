@@ -169,6 +169,7 @@ public final class UIConstants {
         // Error
         public static final String SAVE_ERROR = "Lỗi khi lưu dữ liệu!";
         public static final String LOAD_ERROR = "Lỗi khi tải dữ liệu!";
+        public static final String JOURNAL_ERROR = "Không ghi được nhật ký: các thay đổi từ giờ sẽ mất nếu chương trình bị tắt đột ngột. Hãy lưu dữ liệu ngay!";
         public static final String DUPLICATE_ID = "Mã đã tồn tại!";
         public static final String INVALID_INPUT = "Dữ liệu không hợp lệ!";
         public static final String LOGIN_ERROR = "Sai tên đăng nhập hoặc mật khẩu!";
@@ -183,6 +184,8 @@ public final class UIConstants {
         public static final String STATUS_READY = "Sẵn sàng";
         public static final String STATUS_SAVING = "Đang lưu...";
         public static final String STATUS_LOADING = "Đang tải...";
+        public static final String STATUS_LOAD_CANCELLED = "Đã hủy tải dữ liệu - chế độ chỉ đọc";
+        public static final String STATUS_BUSY = "Đang đọc/ghi dữ liệu, vui lòng chờ...";
     }
 
     // ==================== CREDENTIALS (Demo) ====================
@@ -0,0 +1,42 @@
+package com.hotel.ui.util;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Các nút sửa dữ liệu của một panel, bật/tắt cùng nhau
+ * Ban đầu tắt: MainFrame chỉ bật khi dữ liệu đã tải xong và nhật ký đã mở, vì thay đổi
+ * làm trong lúc đang tải sẽ bị dữ liệu vừa tải ghi đè, còn khi tải bị hủy (chỉ đọc) thì
+ * không lưu được.
+ *
+ * Chỉ gọi trên EDT.
+ */
+public final class EditActions {
+
+    private final List<JButton> buttons = new ArrayList<>();
+    private boolean enabled;
+
+    /**
+     * Đăng ký một nút sửa dữ liệu
+     * @param permitted Người dùng có quyền dùng nút không; không có quyền thì nút luôn tắt
+     */
+    public JButton add(JButton button, boolean permitted) {
+        if (permitted) {
+            buttons.add(button);
+        }
+        button.setEnabled(permitted && enabled);
+        return button;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        for (JButton button : buttons) {
+            button.setEnabled(enabled);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+}
@@ -0,0 +1,166 @@
+package com.hotel.ui.util;
+
+import com.hotel.util.AppLogger;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Tìm kiếm khi đang gõ cho một ô tìm kiếm
+ * Chờ người dùng ngừng gõ DEBOUNCE_MS rồi mới tìm, trên luồng nền; truy vấn cũ còn đang
+ * chạy bị hủy và kết quả của nó bị bỏ. Khi từ khóa mới chứa từ khóa của kết quả trước
+ * (thường là gõ thêm ký tự), chỉ lọc lại trên kết quả trước thay vì tìm trên toàn bộ dữ liệu.
+ *
+ * Mọi phương thức public chỉ gọi trên EDT; kết quả cũng được trả về trên EDT.
+ *
+ * @param <T> Kiểu đối tượng được tìm
+ */
+public final class IncrementalSearch<T> {
+
+    /** Thời gian chờ sau lần gõ phím cuối trước khi tìm (ms) */
+    public static final int DEBOUNCE_MS = 250;
+    /** Số phần tử lọc giữa hai lần kiểm tra truy vấn đã bị hủy chưa */
+    private static final int CANCEL_CHECK_INTERVAL = 4096;
+
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "search-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Function<String, List<T>> search;
+    private final Function<String, ? extends Predicate<? super T>> matcher;
+    private final BiConsumer<String, List<T>> onResult;
+    private final Timer debounce;
+
+    private JTextField field;
+    private Future<?> running;
+    /** Tăng mỗi lần gửi truy vấn; kết quả mang số cũ hơn bị bỏ */
+    private long generation;
+    /** Từ khóa của truy vấn gửi gần nhất */
+    private String submittedKeyword;
+    /** Kết quả đã hiển thị gần nhất và từ khóa của nó, dùng để lọc tiếp */
+    private String lastKeyword;
+    private List<T> lastResults;
+
+    /**
+     * @param search   Tìm trên toàn bộ dữ liệu (chạy trên luồng nền; từ khóa rỗng = tất cả)
+     * @param matcher  Điều kiện khớp giống search, để lọc lại kết quả trước; null (hoặc trả về null)
+     *                 = luôn tìm trên toàn bộ dữ liệu
+     * @param onResult Nhận từ khóa và kết quả trên EDT
+     */
+    public IncrementalSearch(Function<String, List<T>> search,
+                             Function<String, ? extends Predicate<? super T>> matcher,
+                             BiConsumer<String, List<T>> onResult) {
+        this.search = search;
+        this.matcher = matcher;
+        this.onResult = onResult;
+        this.debounce = new Timer(DEBOUNCE_MS, e -> submit(false));
+        this.debounce.setRepeats(false);
+    }
+
+    /**
+     * Tìm lại mỗi khi nội dung ô thay đổi (sau thời gian chờ)
+     */
+    public void attach(JTextField searchField) {
+        this.field = searchField;
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                debounce.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                debounce.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                debounce.restart();
+            }
+        });
+    }
+
+    /**
+     * Tìm ngay, không chờ (Enter hoặc nút Tìm)
+     */
+    public void searchNow() {
+        debounce.stop();
+        submit(true);
+    }
+
+    /**
+     * Bỏ kết quả trước (gọi khi dữ liệu đã thay đổi, để lần tìm sau không lọc trên kết quả cũ)
+     */
+    public void reset() {
+        lastKeyword = null;
+        lastResults = null;
+        submittedKeyword = null;
+    }
+
+    // ==================== PRIVATE METHODS ====================
+
+    private void submit(boolean force) {
+        String keyword = field.getText().trim();
+        if (!force && keyword.equals(submittedKeyword)) {
+            return;
+        }
+        if (running != null) {
+            running.cancel(true);
+        }
+        long id = ++generation;
+        submittedKeyword = keyword;
+
+        Predicate<? super T> refine = canRefine(keyword) ? matcher.apply(keyword) : null;
+        List<T> base = refine != null ? lastResults : null;
+        running = EXECUTOR.submit(() -> {
+            try {
+                List<T> results = base != null ? filter(base, refine) : search.apply(keyword);
+                SwingUtilities.invokeLater(() -> publish(id, keyword, results));
+            } catch (CancellationException e) {
+                // Đã có truy vấn mới hơn
+            } catch (RuntimeException e) {
+                AppLogger.warn("Lỗi khi tìm kiếm '" + keyword + "'", e);
+            }
+        });
+    }
+
+    private boolean canRefine(String keyword) {
+        return matcher != null && lastResults != null && !lastKeyword.isEmpty() && keyword.contains(lastKeyword);
+    }
+
+    private static <T> List<T> filter(List<T> base, Predicate<? super T> refine) {
+        List<T> results = new ArrayList<>();
+        for (int i = 0; i < base.size(); i++) {
+            if (i % CANCEL_CHECK_INTERVAL == 0 && Thread.currentThread().isInterrupted()) {
+                throw new CancellationException();
+            }
+            T item = base.get(i);
+            if (refine.test(item)) {
+                results.add(item);
+            }
+        }
+        return results;
+    }
+
+    private void publish(long id, String keyword, List<T> results) {
+        if (id != generation) {
+            return;
+        }
+        running = null;
+        lastKeyword = keyword;
+        lastResults = results;
+        onResult.accept(keyword, results);
+    }
+}
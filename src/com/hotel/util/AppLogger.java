@@ -1,16 +1,16 @@
 package com.hotel.util;
 
-import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Formatter;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * Lớp tiện ích ghi log cho ứng dụng Quản lý Khách sạn.
  * Hỗ trợ các mức độ log và xuất ra file.
+ * Dòng log được dựng và ghi ra console/file trên một luồng nền (xem AsyncLogAppender),
+ * nên lời gọi log không chặn luồng gọi (kể cả EDT) vì I/O.
  * 
  * @author OOP Project Team
  * @version 2.0
@@ -27,13 +27,57 @@ public final class AppLogger {
         ERROR // Lỗi
     }
 
-    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    /**
+     * Cách xử lý khi bộ đệm log đầy
+     */
+    public enum OverflowPolicy {
+        BLOCK, // Chờ luồng ghi giải phóng chỗ, không mất log
+        DROP // Bỏ qua dòng log, chỉ đếm số dòng bị bỏ
+    }
+
+    /**
+     * Cách chuyển file log
+     * 
+     * @param maxFileBytes Kích thước tối đa của file đang ghi (0 = không giới hạn)
+     * @param daily        Chuyển sang file mới khi sang ngày mới
+     * @param maxArchives  Số file cũ được giữ lại (0 = giữ tất cả)
+     * @param compress     Nén gzip file cũ
+     */
+    public record RollingPolicy(long maxFileBytes, boolean daily, int maxArchives, boolean compress) {
+        /** 10 MB mỗi file, chuyển theo ngày, giữ 30 file nén */
+        public static final RollingPolicy DEFAULT = new RollingPolicy(10L * 1024 * 1024, true, 30, true);
+        /** Luôn ghi nối vào một file */
+        public static final RollingPolicy NONE = new RollingPolicy(0, false, 0, false);
+    }
+
+    /**
+     * Định dạng dòng log trong file (console luôn ở dạng văn bản)
+     */
+    public enum Format {
+        TEXT, // [thời gian] [MỨC ] nội dung | key=value...
+        JSON // Mỗi dòng một JSON object, để đưa vào hệ thống thu thập log
+    }
+
+    /** Nhóm log mặc định của các lời gọi không chỉ rõ nhóm */
+    public static final String DEFAULT_CATEGORY = "app";
+
     private static final String LOG_DIR = "logs";
     private static final String LOG_FILE = "hotel.log";
+    private static final int BUFFER_CAPACITY = 8192;
+    private static final long SHUTDOWN_FLUSH_SECONDS = 5;
+
+    private static final AsyncLogAppender APPENDER =
+            new AsyncLogAppender(Paths.get(LOG_DIR, LOG_FILE), BUFFER_CAPACITY, OverflowPolicy.BLOCK,
+                    RollingPolicy.DEFAULT);
 
-    private static Level currentLevel = Level.INFO;
-    private static boolean consoleLogging = true;
-    private static boolean fileLogging = true;
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(
+                () -> APPENDER.close(SHUTDOWN_FLUSH_SECONDS, TimeUnit.SECONDS), "app-logger-shutdown"));
+    }
+
+    private static volatile Level currentLevel = Level.INFO;
+    private static volatile boolean consoleLogging = true;
+    private static volatile boolean fileLogging = true;
 
     // Không cho phép tạo instance
     private AppLogger() {
@@ -68,7 +112,62 @@ public final class AppLogger {
         fileLogging = enabled;
     }
 
+    /**
+     * Thiết lập cách xử lý khi bộ đệm log đầy (mặc định BLOCK)
+     * 
+     * @param policy BLOCK để chờ, DROP để bỏ qua dòng log
+     */
+    public static void setOverflowPolicy(OverflowPolicy policy) {
+        APPENDER.setPolicy(policy);
+    }
+
+    /**
+     * Thiết lập cách chuyển file log (mặc định RollingPolicy.DEFAULT)
+     * 
+     * @param policy Kích thước/ngày chuyển file, số file giữ lại và có nén hay không
+     */
+    public static void setRollingPolicy(RollingPolicy policy) {
+        APPENDER.setRollingPolicy(policy);
+    }
+
+    /**
+     * Thiết lập định dạng dòng log trong file (mặc định TEXT)
+     * 
+     * @param format TEXT hoặc JSON
+     */
+    public static void setFormat(Format format) {
+        APPENDER.setFormat(format);
+    }
+
+    /**
+     * Chờ đến khi các dòng log đã gọi trước đó được ghi xong
+     * 
+     * @return false nếu quá thời gian chờ (5 giây)
+     */
+    public static boolean flush() {
+        return APPENDER.flush(SHUTDOWN_FLUSH_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @return Số dòng log bị bỏ qua do bộ đệm đầy (chính sách DROP)
+     */
+    public static long getDroppedCount() {
+        return APPENDER.getDroppedCount();
+    }
+
     // ==================== CÁC PHƯƠNG THỨC GHI LOG ====================
+    // Các overload một/hai tham số tránh cấp phát mảng varargs; chuỗi chỉ được định dạng
+    // sau khi đã kiểm tra mức log, nên lời gọi bị tắt không cấp phát gì.
+
+    /**
+     * Kiểm tra một mức log có đang được ghi hay không
+     * 
+     * @param level Mức độ log
+     * @return true nếu lời gọi ở mức này sẽ được ghi
+     */
+    public static boolean isEnabled(Level level) {
+        return level.ordinal() >= currentLevel.ordinal() && (consoleLogging || fileLogging);
+    }
 
     /**
      * Ghi log mức DEBUG
@@ -79,6 +178,31 @@ public final class AppLogger {
         log(Level.DEBUG, message, null);
     }
 
+    /**
+     * Ghi log mức DEBUG với định dạng
+     * 
+     * @param message Nội dung log (có thể chứa %s, %d...)
+     * @param arg     Tham số thay thế
+     */
+    public static void debug(String message, Object arg) {
+        if (isEnabled(Level.DEBUG)) {
+            log(Level.DEBUG, format(message, arg), null);
+        }
+    }
+
+    /**
+     * Ghi log mức DEBUG với định dạng
+     * 
+     * @param message Nội dung log (có thể chứa %s, %d...)
+     * @param arg1    Tham số thứ nhất
+     * @param arg2    Tham số thứ hai
+     */
+    public static void debug(String message, Object arg1, Object arg2) {
+        if (isEnabled(Level.DEBUG)) {
+            log(Level.DEBUG, format(message, arg1, arg2), null);
+        }
+    }
+
     /**
      * Ghi log mức DEBUG với định dạng
      * 
@@ -86,7 +210,20 @@ public final class AppLogger {
      * @param args    Các tham số thay thế
      */
     public static void debug(String message, Object... args) {
-        log(Level.DEBUG, String.format(message, args), null);
+        if (isEnabled(Level.DEBUG)) {
+            log(Level.DEBUG, format(message, args), null);
+        }
+    }
+
+    /**
+     * Ghi log mức DEBUG, nội dung chỉ được tạo khi mức DEBUG đang bật
+     * 
+     * @param message Hàm tạo nội dung log
+     */
+    public static void debug(Supplier<String> message) {
+        if (isEnabled(Level.DEBUG)) {
+            log(Level.DEBUG, message.get(), null);
+        }
     }
 
     /**
@@ -98,6 +235,31 @@ public final class AppLogger {
         log(Level.INFO, message, null);
     }
 
+    /**
+     * Ghi log mức INFO với định dạng
+     * 
+     * @param message Nội dung log (có thể chứa %s, %d...)
+     * @param arg     Tham số thay thế
+     */
+    public static void info(String message, Object arg) {
+        if (isEnabled(Level.INFO)) {
+            log(Level.INFO, format(message, arg), null);
+        }
+    }
+
+    /**
+     * Ghi log mức INFO với định dạng
+     * 
+     * @param message Nội dung log (có thể chứa %s, %d...)
+     * @param arg1    Tham số thứ nhất
+     * @param arg2    Tham số thứ hai
+     */
+    public static void info(String message, Object arg1, Object arg2) {
+        if (isEnabled(Level.INFO)) {
+            log(Level.INFO, format(message, arg1, arg2), null);
+        }
+    }
+
     /**
      * Ghi log mức INFO với định dạng
      * 
@@ -105,7 +267,20 @@ public final class AppLogger {
      * @param args    Các tham số thay thế
      */
     public static void info(String message, Object... args) {
-        log(Level.INFO, String.format(message, args), null);
+        if (isEnabled(Level.INFO)) {
+            log(Level.INFO, format(message, args), null);
+        }
+    }
+
+    /**
+     * Ghi log mức INFO, nội dung chỉ được tạo khi mức INFO đang bật
+     * 
+     * @param message Hàm tạo nội dung log
+     */
+    public static void info(Supplier<String> message) {
+        if (isEnabled(Level.INFO)) {
+            log(Level.INFO, message.get(), null);
+        }
     }
 
     /**
@@ -117,6 +292,31 @@ public final class AppLogger {
         log(Level.WARN, message, null);
     }
 
+    /**
+     * Ghi log mức WARN với định dạng
+     * 
+     * @param message Nội dung cảnh báo (có thể chứa %s, %d...)
+     * @param arg     Tham số thay thế
+     */
+    public static void warn(String message, Object arg) {
+        if (isEnabled(Level.WARN)) {
+            log(Level.WARN, format(message, arg), null);
+        }
+    }
+
+    /**
+     * Ghi log mức WARN với định dạng
+     * 
+     * @param message Nội dung cảnh báo (có thể chứa %s, %d...)
+     * @param arg1    Tham số thứ nhất
+     * @param arg2    Tham số thứ hai
+     */
+    public static void warn(String message, Object arg1, Object arg2) {
+        if (isEnabled(Level.WARN)) {
+            log(Level.WARN, format(message, arg1, arg2), null);
+        }
+    }
+
     /**
      * Ghi log mức WARN với định dạng
      * 
@@ -124,7 +324,20 @@ public final class AppLogger {
      * @param args    Các tham số thay thế
      */
     public static void warn(String message, Object... args) {
-        log(Level.WARN, String.format(message, args), null);
+        if (isEnabled(Level.WARN)) {
+            log(Level.WARN, format(message, args), null);
+        }
+    }
+
+    /**
+     * Ghi log mức WARN, nội dung chỉ được tạo khi mức WARN đang bật
+     * 
+     * @param message Hàm tạo nội dung log
+     */
+    public static void warn(Supplier<String> message) {
+        if (isEnabled(Level.WARN)) {
+            log(Level.WARN, message.get(), null);
+        }
     }
 
     /**
@@ -146,6 +359,31 @@ public final class AppLogger {
         log(Level.ERROR, message, null);
     }
 
+    /**
+     * Ghi log mức ERROR với định dạng
+     * 
+     * @param message Nội dung lỗi (có thể chứa %s, %d...)
+     * @param arg     Tham số thay thế
+     */
+    public static void error(String message, Object arg) {
+        if (isEnabled(Level.ERROR)) {
+            log(Level.ERROR, format(message, arg), null);
+        }
+    }
+
+    /**
+     * Ghi log mức ERROR với định dạng
+     * 
+     * @param message Nội dung lỗi (có thể chứa %s, %d...)
+     * @param arg1    Tham số thứ nhất
+     * @param arg2    Tham số thứ hai
+     */
+    public static void error(String message, Object arg1, Object arg2) {
+        if (isEnabled(Level.ERROR)) {
+            log(Level.ERROR, format(message, arg1, arg2), null);
+        }
+    }
+
     /**
      * Ghi log mức ERROR với định dạng
      * 
@@ -153,7 +391,20 @@ public final class AppLogger {
      * @param args    Các tham số thay thế
      */
     public static void error(String message, Object... args) {
-        log(Level.ERROR, String.format(message, args), null);
+        if (isEnabled(Level.ERROR)) {
+            log(Level.ERROR, format(message, args), null);
+        }
+    }
+
+    /**
+     * Ghi log mức ERROR, nội dung chỉ được tạo khi mức ERROR đang bật
+     * 
+     * @param message Hàm tạo nội dung log
+     */
+    public static void error(Supplier<String> message) {
+        if (isEnabled(Level.ERROR)) {
+            log(Level.ERROR, message.get(), null);
+        }
     }
 
     /**
@@ -166,70 +417,146 @@ public final class AppLogger {
         log(Level.ERROR, message, throwable);
     }
 
-    // ==================== XỬ LÝ LOG CHÍNH ====================
+    // ==================== LOG CÓ CẤU TRÚC ====================
 
     /**
-     * Xử lý ghi log
+     * Bắt đầu một dòng log có cấu trúc (nhóm log + các trường key/value)
+     * Khi mức log đang tắt, trả về một đối tượng dùng chung không làm gì.
+     * 
+     * <pre>
+     * AppLogger.at(Level.INFO, "storage")
+     *         .field("durationMs", elapsedMs).field("recordCount", count).field("file", path)
+     *         .log("Đã lưu %d phòng", count);
+     * </pre>
+     * 
+     * @param level    Mức độ log
+     * @param category Nhóm log (ví dụ "storage", "booking")
      */
-    private static void log(Level level, String message, Throwable throwable) {
-        if (level.ordinal() < currentLevel.ordinal()) {
-            return;
+    public static LogEvent at(Level level, String category) {
+        return isEnabled(level) ? new LogEvent(level, category) : LogEvent.DISABLED;
+    }
+
+    /**
+     * Một dòng log có cấu trúc đang được dựng (chỉ dùng một lần, trên một luồng)
+     * Các trường lưu xen kẽ key, value; phần cuối mảng có thể còn trống (key null).
+     */
+    public static final class LogEvent {
+        private static final LogEvent DISABLED = new LogEvent(null, null);
+
+        private final Level level;
+        private final String category;
+        private Object[] fields;
+        private int fieldCount;
+        private Throwable throwable;
+
+        private LogEvent(Level level, String category) {
+            this.level = level;
+            this.category = category;
         }
 
-        String timestamp = LocalDateTime.now().format(TIME_FORMAT);
-        String levelStr = String.format("%-5s", level.name());
-        String logLine = String.format("[%s] [%s] %s", timestamp, levelStr, message);
+        /**
+         * Thêm một trường; số và boolean giữ nguyên kiểu, giá trị khác được chuyển thành chuỗi ngay
+         */
+        public LogEvent field(String key, Object value) {
+            if (level == null) {
+                return this;
+            }
+            if (fields == null) {
+                fields = new Object[8];
+            } else if (fieldCount * 2 == fields.length) {
+                fields = Arrays.copyOf(fields, fields.length * 2);
+            }
+            fields[fieldCount * 2] = key;
+            fields[fieldCount * 2 + 1] = value instanceof Number || value instanceof Boolean || value == null
+                    ? value : String.valueOf(value);
+            fieldCount++;
+            return this;
+        }
 
-        // Xuất ra console
-        if (consoleLogging) {
-            if (level == Level.ERROR) {
-                System.err.println(logLine);
-            } else {
-                System.out.println(logLine);
+        /**
+         * Đính kèm exception
+         */
+        public LogEvent cause(Throwable throwable) {
+            this.throwable = throwable;
+            return this;
+        }
+
+        public void log(String message) {
+            if (level != null) {
+                AppLogger.log(level, category, message, throwable, fields);
             }
-            if (throwable != null) {
-                throwable.printStackTrace(level == Level.ERROR ? System.err : System.out);
+        }
+
+        public void log(String message, Object... args) {
+            if (level != null) {
+                AppLogger.log(level, category, format(message, args), throwable, fields);
             }
         }
+    }
+
+    // ==================== XỬ LÝ LOG CHÍNH ====================
 
-        // Xuất ra file
-        if (fileLogging) {
-            writeToFile(logLine, throwable);
+    /**
+     * Xử lý ghi log: chỉ ghi nhận thời điểm và chuyển sang luồng ghi
+     */
+    private static void log(Level level, String message, Throwable throwable) {
+        log(level, DEFAULT_CATEGORY, message, throwable, null);
+    }
+
+    private static void log(Level level, String category, String message, Throwable throwable, Object[] fields) {
+        if (level.ordinal() < currentLevel.ordinal()) {
+            return;
         }
+        boolean console = consoleLogging;
+        boolean file = fileLogging;
+        if (!console && !file) {
+            return;
+        }
+        APPENDER.append(new AsyncLogAppender.Event(System.currentTimeMillis(), level, message, throwable,
+                console, file, Thread.currentThread().getName(), category, fields));
     }
 
     /**
-     * Ghi log vào file
+     * Định dạng nội dung bằng Formatter dùng lại theo từng luồng
+     * Nếu toString() của tham số lại ghi log (gọi lồng nhau) thì dùng String.format.
      */
-    private static void writeToFile(String logLine, Throwable throwable) {
+    private static String format(String message, Object... args) {
+        MessageBuffer buffer = MESSAGE_BUFFERS.get();
+        if (buffer.inUse) {
+            return String.format(message, args);
+        }
+        buffer.inUse = true;
         try {
-            Path logDir = Paths.get(LOG_DIR);
-            if (!Files.exists(logDir)) {
-                Files.createDirectories(logDir);
-            }
+            buffer.formatter.format(message, args);
+            return buffer.text.toString();
+        } finally {
+            buffer.reset();
+            buffer.inUse = false;
+        }
+    }
 
-            Path logFile = logDir.resolve(LOG_FILE);
-            String content = logLine + System.lineSeparator();
-
-            if (throwable != null) {
-                StringBuilder sb = new StringBuilder(content);
-                sb.append("  Exception: ").append(throwable.getClass().getName())
-                        .append(": ").append(throwable.getMessage()).append(System.lineSeparator());
-                for (StackTraceElement element : throwable.getStackTrace()) {
-                    sb.append("    at ").append(element.toString()).append(System.lineSeparator());
-                }
-                content = sb.toString();
-            }
+    /** StringBuilder và Formatter dùng lại của một luồng */
+    private static final class MessageBuffer {
+        private static final int INITIAL_CAPACITY = 256;
+        private static final int MAX_RETAINED = 4096;
+
+        StringBuilder text = new StringBuilder(INITIAL_CAPACITY);
+        Formatter formatter = new Formatter(text);
+        boolean inUse;
 
-            Files.writeString(logFile, content,
-                    StandardOpenOption.CREATE,
-                    StandardOpenOption.APPEND);
-        } catch (IOException e) {
-            // Fallback ra console nếu ghi file thất bại
-            System.err.println("Không thể ghi vào file log: " + e.getMessage());
+        /** Xóa nội dung; bỏ bộ đệm đã phình to sau một dòng log quá dài */
+        void reset() {
+            if (text.capacity() > MAX_RETAINED) {
+                text = new StringBuilder(INITIAL_CAPACITY);
+                formatter = new Formatter(text);
+            } else {
+                text.setLength(0);
+            }
         }
     }
 
+    private static final ThreadLocal<MessageBuffer> MESSAGE_BUFFERS = ThreadLocal.withInitial(MessageBuffer::new);
+
     // ==================== CÁC PHƯƠNG THỨC TIỆN ÍCH ====================
 
     /**
@@ -0,0 +1,397 @@
+package com.hotel.util;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ghi log bất đồng bộ cho AppLogger
+ * Luồng gọi chỉ đặt sự kiện (chưa định dạng) vào ring buffer không khóa; một luồng ghi duy nhất
+ * lấy ra theo lô, định dạng, in ra console và ghi vào file (RollingLogFile, luôn mở).
+ */
+final class AsyncLogAppender {
+
+    /**
+     * Sự kiện log; console/file là cấu hình tại thời điểm gọi
+     * @param fields Các cặp key, value xen kẽ (có thể null, phần cuối có thể còn trống)
+     */
+    record Event(long timeMillis, AppLogger.Level level, String message, Throwable throwable,
+                 boolean console, boolean file, String thread, String category, Object[] fields) {
+    }
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter ISO_SECOND = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+    private static final DateTimeFormatter ISO_OFFSET = DateTimeFormatter.ofPattern("xxx");
+    private static final String NEW_LINE = System.lineSeparator();
+    private static final String[] LEVEL_LABELS = levelLabels();
+    private static final int MAX_BATCH = 512;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final RollingLogFile logFile;
+    private final RingBuffer<Event> ring;
+    private final Thread writer;
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile AppLogger.OverflowPolicy policy;
+    private volatile AppLogger.Format format = AppLogger.Format.TEXT;
+    private volatile long written;
+    private volatile boolean idle;
+    private volatile boolean closed;
+
+    // Chỉ luồng ghi dùng: thời gian định dạng sẵn của giây gần nhất và bộ đệm dựng dòng console
+    private long cachedSecond = Long.MIN_VALUE;
+    private String cachedTimestamp;
+    private String cachedIsoSecond;
+    private String cachedIsoOffset;
+    private final StringBuilder consoleLine = new StringBuilder(256);
+
+    /**
+     * @param capacity Số sự kiện tối đa đang chờ ghi (làm tròn lên lũy thừa của 2)
+     */
+    AsyncLogAppender(Path logFile, int capacity, AppLogger.OverflowPolicy policy,
+                     AppLogger.RollingPolicy rolling) {
+        this.logFile = new RollingLogFile(logFile, rolling);
+        this.ring = new RingBuffer<>(capacity);
+        this.policy = policy;
+        this.writer = new Thread(this::run, "app-logger");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /** Tên mức log căn trái đủ 5 ký tự */
+    private static String[] levelLabels() {
+        AppLogger.Level[] levels = AppLogger.Level.values();
+        String[] labels = new String[levels.length];
+        for (AppLogger.Level level : levels) {
+            labels[level.ordinal()] = String.format("%-5s", level.name());
+        }
+        return labels;
+    }
+
+    void setPolicy(AppLogger.OverflowPolicy policy) {
+        this.policy = policy;
+    }
+
+    void setFormat(AppLogger.Format format) {
+        this.format = format;
+    }
+
+    void setRollingPolicy(AppLogger.RollingPolicy rolling) {
+        logFile.setPolicy(rolling);
+    }
+
+    long getDroppedCount() {
+        return dropped.get();
+    }
+
+    // ==================== PRODUCER ====================
+
+    /**
+     * Đưa sự kiện vào hàng đợi; khi đầy thì bỏ qua (DROP) hoặc chờ luồng ghi giải phóng chỗ (BLOCK)
+     * @return false nếu sự kiện bị bỏ qua
+     */
+    boolean append(Event event) {
+        if (closed) {
+            return false;
+        }
+        while (!ring.offer(event)) {
+            if (policy == AppLogger.OverflowPolicy.DROP || closed) {
+                dropped.incrementAndGet();
+                return false;
+            }
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+        if (idle) {
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    /**
+     * Chờ đến khi mọi sự kiện đã đưa vào trước lời gọi này được ghi xong
+     * @return false nếu hết thời gian chờ
+     */
+    boolean flush(long timeout, TimeUnit unit) {
+        long target = ring.published();
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (written < target && writer.isAlive()) {
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+        return written >= target;
+    }
+
+    /**
+     * Ghi nốt các sự kiện còn lại rồi dừng luồng ghi
+     */
+    void close(long timeout, TimeUnit unit) {
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(unit.toMillis(timeout));
+            logFile.close(timeout, unit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ==================== WRITER THREAD ====================
+
+    private void run() {
+        StringBuilder batch = new StringBuilder(8192);
+        while (true) {
+            int drained = drain(batch);
+            long lost = dropped.getAndSet(0);
+            if (lost > 0) {
+                render(batch, System.currentTimeMillis(), AppLogger.Level.WARN,
+                        "Bộ đệm log đầy, đã bỏ qua " + lost + " dòng log").append(NEW_LINE);
+            }
+            if (batch.length() > 0) {
+                writeToFile(batch);
+            }
+            written = ring.consumed();
+
+            if (drained == 0) {
+                if (closed && ring.isEmpty()) {
+                    break;
+                }
+                idle = true;
+                if (ring.isEmpty()) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+                idle = false;
+            }
+        }
+        logFile.closeChannel();
+    }
+
+    private int drain(StringBuilder batch) {
+        boolean json = format == AppLogger.Format.JSON;
+        int count = 0;
+        Event event;
+        while (count < MAX_BATCH && (event = ring.poll()) != null) {
+            count++;
+            if (event.console()) {
+                PrintStream out = event.level() == AppLogger.Level.ERROR ? System.err : System.out;
+                consoleLine.setLength(0);
+                render(consoleLine, event.timeMillis(), event.level(), event.message());
+                out.println(appendFields(consoleLine, event.fields()));
+                if (event.throwable() != null) {
+                    event.throwable().printStackTrace(out);
+                }
+            }
+            if (event.file() && json) {
+                renderJson(batch, event).append(NEW_LINE);
+            } else if (event.file()) {
+                render(batch, event.timeMillis(), event.level(), event.message());
+                appendFields(batch, event.fields()).append(NEW_LINE);
+                appendStackTrace(batch, event.throwable());
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Nối "[thời gian] [MỨC ] nội dung" vào sb
+     */
+    private StringBuilder render(StringBuilder sb, long timeMillis, AppLogger.Level level, String message) {
+        return sb.append('[').append(timestamp(timeMillis)).append("] [")
+                .append(LEVEL_LABELS[level.ordinal()]).append("] ").append(message);
+    }
+
+    /** Nối " | key=value key=value" (dạng văn bản) */
+    private static StringBuilder appendFields(StringBuilder sb, Object[] fields) {
+        if (fields != null) {
+            for (int i = 0; i < fields.length && fields[i] != null; i += 2) {
+                sb.append(i == 0 ? " | " : " ").append(fields[i]).append('=').append(fields[i + 1]);
+            }
+        }
+        return sb;
+    }
+
+    /**
+     * Dựng một dòng JSON: time, level, thread, logger, message, các trường, exception
+     */
+    private StringBuilder renderJson(StringBuilder sb, Event event) {
+        long second = Math.floorDiv(event.timeMillis(), 1000);
+        updateTimestamps(second);
+        int millis = (int) (event.timeMillis() - second * 1000);
+        sb.append("{\"time\":\"").append(cachedIsoSecond).append('.')
+                .append((char) ('0' + millis / 100)).append((char) ('0' + millis / 10 % 10))
+                .append((char) ('0' + millis % 10)).append(cachedIsoOffset).append('"');
+        sb.append(",\"level\":\"").append(event.level().name()).append('"');
+        appendJsonString(sb.append(",\"thread\":"), event.thread());
+        appendJsonString(sb.append(",\"logger\":"), event.category());
+        appendJsonString(sb.append(",\"message\":"), event.message());
+        Object[] fields = event.fields();
+        if (fields != null) {
+            for (int i = 0; i < fields.length && fields[i] != null; i += 2) {
+                appendJsonString(sb.append(','), (String) fields[i]).append(':');
+                appendJsonValue(sb, fields[i + 1]);
+            }
+        }
+        if (event.throwable() != null) {
+            StringBuilder trace = new StringBuilder();
+            appendStackTrace(trace, event.throwable());
+            appendJsonString(sb.append(",\"exception\":"), trace.toString().strip());
+        }
+        return sb.append('}');
+    }
+
+    private static void appendJsonValue(StringBuilder sb, Object value) {
+        if (value == null) {
+            sb.append("null");
+        } else if (value instanceof Boolean
+                || (value instanceof Number number && Double.isFinite(number.doubleValue()))) {
+            sb.append(value);
+        } else {
+            appendJsonString(sb, value.toString());
+        }
+    }
+
+    private static StringBuilder appendJsonString(StringBuilder sb, String value) {
+        if (value == null) {
+            return sb.append("null");
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append('"');
+    }
+
+    /**
+     * Thời gian chỉ chính xác đến giây nên chỉ định dạng lại khi sang giây mới
+     */
+    private String timestamp(long timeMillis) {
+        updateTimestamps(Math.floorDiv(timeMillis, 1000));
+        return cachedTimestamp;
+    }
+
+    private void updateTimestamps(long second) {
+        if (second != cachedSecond) {
+            ZonedDateTime time = Instant.ofEpochSecond(second).atZone(ZoneId.systemDefault());
+            cachedTimestamp = time.format(TIME_FORMAT);
+            cachedIsoSecond = time.format(ISO_SECOND);
+            cachedIsoOffset = time.format(ISO_OFFSET);
+            cachedSecond = second;
+        }
+    }
+
+    private static void appendStackTrace(StringBuilder sb, Throwable throwable) {
+        if (throwable == null) {
+            return;
+        }
+        sb.append("  Exception: ").append(throwable.getClass().getName())
+                .append(": ").append(throwable.getMessage()).append(NEW_LINE);
+        for (StackTraceElement element : throwable.getStackTrace()) {
+            sb.append("    at ").append(element).append(NEW_LINE);
+        }
+    }
+
+    private void writeToFile(StringBuilder batch) {
+        try {
+            logFile.write(StandardCharsets.UTF_8.encode(CharBuffer.wrap(batch)));
+        } catch (IOException e) {
+            // Fallback ra console nếu ghi file thất bại; lần sau mở lại file
+            System.err.println("Không thể ghi vào file log: " + e.getMessage());
+            logFile.closeChannel();
+        } finally {
+            batch.setLength(0);
+        }
+    }
+
+    // ==================== RING BUFFER ====================
+
+    /**
+     * Ring buffer có giới hạn, nhiều luồng ghi vào - một luồng đọc ra, không dùng khóa
+     * Luồng ghi giành một ô bằng CAS trên tail rồi mới đặt phần tử; ô còn null nghĩa là
+     * chưa đặt xong nên luồng đọc dừng lại ở đó để giữ đúng thứ tự.
+     */
+    static final class RingBuffer<E> {
+        private final AtomicReferenceArray<E> slots;
+        private final int mask;
+        private final AtomicLong tail = new AtomicLong();
+        private volatile long head;
+
+        RingBuffer(int capacity) {
+            int size = 1 << (32 - Integer.numberOfLeadingZeros(Math.max(2, capacity) - 1));
+            this.slots = new AtomicReferenceArray<>(size);
+            this.mask = size - 1;
+        }
+
+        int capacity() {
+            return slots.length();
+        }
+
+        boolean offer(E element) {
+            long t;
+            do {
+                t = tail.get();
+                if (t - head >= slots.length()) {
+                    return false;
+                }
+            } while (!tail.compareAndSet(t, t + 1));
+            slots.lazySet((int) t & mask, element);
+            return true;
+        }
+
+        /**
+         * Chỉ gọi từ một luồng đọc duy nhất
+         * @return null nếu trống (hoặc phần tử kế tiếp chưa được đặt xong)
+         */
+        E poll() {
+            long h = head;
+            int index = (int) h & mask;
+            E element = slots.get(index);
+            if (element == null) {
+                return null;
+            }
+            slots.lazySet(index, null);
+            head = h + 1;
+            return element;
+        }
+
+        boolean isEmpty() {
+            return tail.get() == head;
+        }
+
+        /** Tổng số phần tử đã đưa vào */
+        long published() {
+            return tail.get();
+        }
+
+        /** Tổng số phần tử đã lấy ra */
+        long consumed() {
+            return head;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.hotel.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * File log đang ghi, tự chuyển sang file mới theo kích thước hoặc theo ngày
+ * File cũ được đổi tên thành "hotel-yyyy-MM-dd.N.log" (ngày của nội dung trong file), sau đó
+ * nén gzip và xóa bớt bản lưu cũ trên một luồng nền để luồng ghi log không phải chờ.
+ *
+ * Chỉ luồng ghi của AsyncLogAppender gọi write/close.
+ */
+final class RollingLogFile {
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private final Path file;
+    private final String baseName;
+    private final Pattern archivePattern;
+    private volatile AppLogger.RollingPolicy policy;
+    private ExecutorService background;
+
+    private FileChannel channel;
+    private long size;
+    private LocalDate day;
+
+    // Số thứ tự file lưu cuối cùng đã dùng cho indexDay; chỉ đọc thư mục khi sang ngày khác,
+    // vì luồng nền có thể đang đổi tên/xóa file trong lúc liệt kê
+    private LocalDate indexDay;
+    private int lastIndex;
+
+    RollingLogFile(Path file, AppLogger.RollingPolicy policy) {
+        this.file = file.toAbsolutePath();
+        String name = this.file.getFileName().toString();
+        this.baseName = name.endsWith(".log") ? name.substring(0, name.length() - 4) : name;
+        this.archivePattern = Pattern.compile(Pattern.quote(baseName)
+                + "-(\\d{4}-\\d{2}-\\d{2})\\.(\\d+)\\.log(\\.gz)?");
+        this.policy = policy;
+    }
+
+    void setPolicy(AppLogger.RollingPolicy policy) {
+        this.policy = policy;
+    }
+
+    // ==================== WRITE ====================
+
+    /**
+     * Ghi một lô; chuyển file trước nếu lô này làm file vượt kích thước hoặc đã sang ngày mới
+     */
+    void write(ByteBuffer bytes) throws IOException {
+        if (channel == null) {
+            open();
+        }
+        AppLogger.RollingPolicy current = policy;
+        LocalDate today = LocalDate.now();
+        boolean full = current.maxFileBytes() > 0 && size > 0 && size + bytes.remaining() > current.maxFileBytes();
+        boolean newDay = current.daily() && size > 0 && !today.equals(day);
+        if (full || newDay) {
+            roll(current);
+            open();
+        }
+        while (bytes.hasRemaining()) {
+            size += channel.write(bytes);
+        }
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(file.getParent());
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        size = channel.size();
+        day = size > 0
+                ? LocalDate.ofInstant(Files.getLastModifiedTime(file).toInstant(), ZoneId.systemDefault())
+                : LocalDate.now();
+    }
+
+    /**
+     * Đóng file; chờ các tác vụ nén đang chạy xong trong thời gian cho phép
+     */
+    void close(long timeout, TimeUnit unit) {
+        closeChannel();
+        if (background != null) {
+            background.shutdown();
+            try {
+                background.awaitTermination(timeout, unit);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Đang đóng, không còn nơi nào để báo lỗi
+            }
+            channel = null;
+        }
+    }
+
+    // ==================== ROLLING ====================
+
+    private void roll(AppLogger.RollingPolicy current) throws IOException {
+        closeChannel();
+        Path archive = file.resolveSibling(baseName + "-" + day + "." + nextIndex(day) + ".log");
+        Files.move(file, archive, StandardCopyOption.ATOMIC_MOVE);
+
+        if (background == null) {
+            background = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "app-logger-archiver");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        background.execute(() -> {
+            try {
+                if (current.compress()) {
+                    gzip(archive);
+                }
+                prune(current.maxArchives());
+            } catch (IOException e) {
+                System.err.println("Không thể nén/dọn file log cũ: " + e.getMessage());
+            }
+        });
+    }
+
+    /** Số thứ tự kế tiếp cho file lưu của một ngày (tính cả file đã nén) */
+    private int nextIndex(LocalDate archiveDay) throws IOException {
+        if (!archiveDay.equals(indexDay)) {
+            lastIndex = 0;
+            for (Archive archive : archives()) {
+                if (archive.day().equals(archiveDay)) {
+                    lastIndex = Math.max(lastIndex, archive.index());
+                }
+            }
+            indexDay = archiveDay;
+        }
+        return ++lastIndex;
+    }
+
+    private static void gzip(Path source) throws IOException {
+        Path target = source.resolveSibling(source.getFileName() + ".gz");
+        Path temp = source.resolveSibling(source.getFileName() + ".gz.tmp");
+        try (InputStream in = Files.newInputStream(source);
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp), GZIP_BUFFER_SIZE)) {
+            in.transferTo(out);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        Files.delete(source);
+    }
+
+    /**
+     * Chỉ giữ lại maxArchives file lưu mới nhất (0 = giữ tất cả)
+     */
+    private void prune(int maxArchives) throws IOException {
+        if (maxArchives <= 0) {
+            return;
+        }
+        List<Archive> archives = archives();
+        archives.sort(Comparator.comparing(Archive::day).thenComparingInt(Archive::index).reversed());
+        for (int i = maxArchives; i < archives.size(); i++) {
+            for (Path path : archives.get(i).paths()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * Một file log đã chuyển; có thể gồm cả bản .log và .gz khi đang nén dở
+     */
+    private record Archive(LocalDate day, int index, List<Path> paths) {
+    }
+
+    private List<Archive> archives() throws IOException {
+        Map<String, Archive> archives = new HashMap<>();
+        try (Stream<Path> files = Files.list(file.getParent())) {
+            files.forEach(path -> {
+                Matcher matcher = archivePattern.matcher(path.getFileName().toString());
+                if (matcher.matches()) {
+                    String key = matcher.group(1) + "." + matcher.group(2);
+                    archives.computeIfAbsent(key, k -> new Archive(LocalDate.parse(matcher.group(1)),
+                            Integer.parseInt(matcher.group(2)), new ArrayList<>())).paths().add(path);
+                }
+            });
+        }
+        return new ArrayList<>(archives.values());
+    }
+}
@@ -0,0 +1,66 @@
+package com.hotel.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * Chuẩn hóa văn bản để tìm kiếm: chữ thường, bỏ dấu tiếng Việt ("Nguyễn Đức" -> "nguyen duc")
+ * Cùng một hàm dùng cho cả dữ liệu được đánh chỉ mục và từ khóa, nên tìm "nguyen" khớp "Nguyễn".
+ */
+public final class TextNormalizer {
+
+    /** Ngăn cách các trường trong văn bản tìm kiếm, để từ khóa không khớp ngang qua hai trường */
+    public static final char FIELD_SEPARATOR = '\n';
+
+    private TextNormalizer() {
+    }
+
+    /**
+     * Văn bản tìm kiếm của một đối tượng: các trường đã chuẩn hóa, nối bằng FIELD_SEPARATOR
+     */
+    public static String join(String... fields) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                builder.append(FIELD_SEPARATOR);
+            }
+            builder.append(normalize(fields[i]));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Chuẩn hóa một chuỗi (null = chuỗi rỗng)
+     * Chuỗi chỉ gồm ký tự ASCII chữ thường được trả về nguyên bản, không tạo chuỗi mới.
+     */
+    public static String normalize(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        if (isAscii(text)) {
+            return text.toLowerCase(Locale.ROOT);
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder builder = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue; // Dấu thanh, dấu mũ, dấu móc (ư, ơ) sau khi tách
+            }
+            if (c == 'đ' || c == 'Đ') {
+                c = 'd'; // Không tách được bằng NFD
+            }
+            builder.append(Character.toLowerCase(c));
+        }
+        return builder.toString();
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0x7F) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
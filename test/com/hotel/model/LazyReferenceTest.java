@@ -0,0 +1,136 @@
+package com.hotel.model;
+
+import com.hotel.model.booking.Booking;
+import com.hotel.model.customer.Customer;
+import com.hotel.model.enums.BookingStatus;
+import com.hotel.model.invoice.Invoice;
+import com.hotel.model.room.Room;
+import com.hotel.model.room.StandardRoom;
+import com.hotel.service.InvoiceManager;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Tests for lazily resolved Booking/Invoice references
+ */
+class LazyReferenceTest {
+
+    private final Map<String, Customer> customers = new HashMap<>();
+    private final Map<String, Room> rooms = new HashMap<>();
+    private final AtomicInteger lookups = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        customers.put("C001", new Customer("C001", "Nguyễn Văn An", "an@example.com", "0901234567",
+                "012345678901", "Hà Nội", LocalDate.of(2025, 1, 1), false));
+        rooms.put("R101", new StandardRoom("R101", 1));
+    }
+
+    @Test
+    @DisplayName("Booking - references are looked up once, on first access")
+    void bookingResolvesOnFirstAccess() {
+        Booking booking = lazyBooking("B001", "C001");
+
+        assertEquals(0, lookups.get());
+        assertFalse(booking.isResolved());
+        assertEquals("C001", booking.getCustomerId());
+        assertEquals("R101", booking.getRoomId());
+        assertTrue(booking.isValid());
+        assertEquals(0, lookups.get());
+
+        assertSame(customers.get("C001"), booking.getCustomer());
+        assertSame(customers.get("C001"), booking.getCustomer());
+        assertEquals(1, lookups.get());
+        assertEquals(rooms.get("R101").calculatePrice(2), booking.getTotalPrice(), 0.001);
+        assertTrue(booking.isResolved());
+    }
+
+    @Test
+    @DisplayName("Booking - dangling reference returns null and is retried later")
+    void danglingReferenceIsRetried() {
+        Booking booking = lazyBooking("B002", "C404");
+
+        assertNull(booking.getCustomer());
+        assertFalse(booking.isResolved());
+        customers.put("C404", new Customer("C404", "Khách mới", "moi@example.com", "0900000000",
+                "012345678902", "Huế", LocalDate.of(2025, 2, 1), false));
+        assertNotNull(booking.getCustomer());
+    }
+
+    @Test
+    @DisplayName("Invoice - booking and amounts are resolved on first access")
+    void invoiceResolvesOnFirstAccess() {
+        Booking booking = lazyBooking("B001", "C001");
+        AtomicInteger bookingLookups = new AtomicInteger();
+        Invoice invoice = new Invoice("INV001", "B001", id -> {
+            bookingLookups.incrementAndGet();
+            return "B001".equals(id) ? booking : null;
+        }, LocalDate.of(2025, 3, 3), 0.1);
+
+        assertEquals("B001", invoice.getBookingId());
+        assertEquals(0, bookingLookups.get());
+        double expected = rooms.get("R101").calculatePrice(2) * 1.1;
+        assertEquals(expected, invoice.getTotalAmount(), 0.001);
+        assertEquals(1, bookingLookups.get());
+        assertSame(customers.get("C001"), invoice.getCustomer());
+    }
+
+    @Test
+    @DisplayName("Booking/Invoice - totals computed on a dangling room are recomputed once it appears")
+    void danglingRoomPriceIsRecomputed() {
+        Booking booking = new Booking("B003", "C001", "R404", customers::get, rooms::get,
+                LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 3), BookingStatus.CONFIRMED);
+        Invoice invoice = new Invoice("INV003", "B003", id -> booking, LocalDate.of(2025, 3, 3), 0.1);
+
+        assertEquals(0, booking.getTotalPrice(), 0.001);
+        assertEquals(0, invoice.getTotalAmount(), 0.001);
+        assertFalse(booking.isPriceResolved());
+
+        rooms.put("R404", new StandardRoom("R404", 4));
+        double expected = rooms.get("R404").calculatePrice(2);
+        assertEquals(expected, booking.getTotalPrice(), 0.001);
+        assertEquals(expected * 1.1, invoice.getTotalAmount(), 0.001);
+        assertTrue(booking.isPriceResolved());
+    }
+
+    @Test
+    @DisplayName("InvoiceManager - adding lazy invoices does not resolve their bookings")
+    void invoiceManagerIndexesCustomersLazily() {
+        Map<String, Booking> bookings = new HashMap<>();
+        AtomicInteger bookingLookups = new AtomicInteger();
+        Function<String, Booking> bookingLookup = id -> {
+            bookingLookups.incrementAndGet();
+            return bookings.get(id);
+        };
+        InvoiceManager manager = new InvoiceManager();
+        manager.add(new Invoice("INV001", "B001", bookingLookup, LocalDate.of(2025, 3, 3), 0.1));
+        manager.add(new Invoice("INV002", "B404", bookingLookup, LocalDate.of(2025, 3, 3), 0.1));
+
+        assertEquals(0, bookingLookups.get());
+        assertEquals("INV001", manager.getInvoiceByBooking("B001").getInvoiceId());
+        assertEquals(0, bookingLookups.get());
+
+        bookings.put("B001", lazyBooking("B001", "C001"));
+        assertEquals(1, manager.getInvoicesByCustomer("C001").size());
+        assertTrue(manager.getInvoicesByCustomer("C404").isEmpty());
+
+        // Booking treo được thử lại, không bị gắn vĩnh viễn vào khách hàng null
+        bookings.put("B404", lazyBooking("B404", "C404"));
+        assertEquals(1, manager.getInvoicesByCustomer("C404").size());
+    }
+
+    private Booking lazyBooking(String bookingId, String customerId) {
+        Function<String, Customer> customerLookup = id -> {
+            lookups.incrementAndGet();
+            return customers.get(id);
+        };
+        return new Booking(bookingId, customerId, "R101", customerLookup, rooms::get,
+                LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 3), BookingStatus.CONFIRMED);
+    }
+}
@@ -0,0 +1,98 @@
+package com.hotel.service;
+
+import com.hotel.model.booking.Booking;
+import com.hotel.model.customer.Customer;
+import com.hotel.model.enums.BookingStatus;
+import com.hotel.model.room.Room;
+import com.hotel.model.room.StandardRoom;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Throughput benchmark for BookingManager.addAll() against one-by-one addIfAvailable()
+ *
+ * Chỉ chạy khi bật: mvn test -Dbenchmark=true -Dtest=BookingBatchBenchmarkTest
+ * Có thể đổi quy mô bằng -Dbenchmark.bookings / -Dbenchmark.batchSize
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BookingBatchBenchmarkTest {
+
+    private static final int ROOMS = 200;
+    private static final LocalDate BASE_DATE = LocalDate.of(2024, 1, 1);
+
+    private RoomManager roomManager;
+    private List<Room> rooms;
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        RoomManager.resetInstance();
+        roomManager = RoomManager.getInstance();
+        rooms = new ArrayList<>();
+        for (int i = 0; i < ROOMS; i++) {
+            Room room = new StandardRoom(String.format("R%04d", i), 1 + i / 20);
+            roomManager.add(room);
+            rooms.add(room);
+        }
+        customer = new Customer("C001", "Đoàn khách", "doan@example.com", "0900000000",
+                "000000000001", "Đà Nẵng", BASE_DATE, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        roomManager.clear();
+    }
+
+    @Test
+    @DisplayName("Benchmark - addAll() batches vs one-by-one addIfAvailable()")
+    void batchThroughput() {
+        int total = Integer.getInteger("benchmark.bookings", 200_000);
+        int batchSize = Integer.getInteger("benchmark.batchSize", 500);
+        List<Booking> bookings = generate(total);
+
+        BookingManager single = new BookingManager(roomManager);
+        long start = System.nanoTime();
+        for (Booking booking : bookings) {
+            assertTrue(single.addIfAvailable(booking));
+        }
+        report("addIfAvailable", total, System.nanoTime() - start);
+
+        BookingManager batched = new BookingManager(roomManager);
+        start = System.nanoTime();
+        for (int from = 0; from < total; from += batchSize) {
+            List<Booking> batch = bookings.subList(from, Math.min(total, from + batchSize));
+            assertTrue(batched.addAll(batch).isSuccess());
+        }
+        report("addAll(" + batchSize + ")", total, System.nanoTime() - start);
+
+        assertEquals(total, batched.count());
+    }
+
+    /**
+     * Các lượt ở 1-3 đêm, cách nhau ít nhất một ngày trên mỗi phòng, nên không lượt nào trùng lịch
+     */
+    private List<Booking> generate(int total) {
+        List<Booking> bookings = new ArrayList<>(total);
+        LocalDate[] nextFree = new LocalDate[ROOMS];
+        for (int i = 0; i < total; i++) {
+            int r = (int) ((i * 2654435761L) % ROOMS);
+            LocalDate checkIn = nextFree[r] != null ? nextFree[r] : BASE_DATE;
+            LocalDate checkOut = checkIn.plusDays(1 + i % 3);
+            nextFree[r] = checkOut.plusDays(1);
+            bookings.add(new Booking(String.format("G%07d", i), customer, rooms.get(r),
+                    checkIn, checkOut, BookingStatus.CONFIRMED));
+        }
+        return bookings;
+    }
+
+    private static void report(String label, int count, long nanos) {
+        double seconds = nanos / 1e9;
+        System.out.printf("[benchmark] %s: %,d bookings in %.0f ms (%,.0f bookings/s)%n",
+                label, count, seconds * 1000, count / seconds);
+    }
+}
@@ -4,11 +4,14 @@ import com.hotel.model.booking.Booking;
 import com.hotel.model.customer.Customer;
 import com.hotel.model.enums.BookingStatus;
 import com.hotel.model.room.*;
+import com.hotel.util.Result;
 import org.junit.jupiter.api.*;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.time.LocalDate;
+import java.util.ConcurrentModificationException;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Unit tests for BookingManager service
@@ -186,6 +189,54 @@ class BookingManagerTest {
         assertEquals("B001", customerBookings.get(0).getBookingId());
     }
 
+    @Test
+    @DisplayName("BookingManager - filter() should combine status and roomId criteria")
+    void filterByStatusAndRoom() {
+        Room room2 = new VIPRoom("V201", 2);
+        roomManager.add(room2);
+
+        Booking booking1 = createTestBooking("B001", 1, 3);
+        Booking booking2 = new Booking("B002", customer, room2,
+                LocalDate.now().plusDays(1), LocalDate.now().plusDays(3), BookingStatus.CONFIRMED);
+        Booking booking3 = createTestBooking("B003", 5, 7);
+        booking3.setStatus(BookingStatus.CONFIRMED);
+
+        bookingManager.add(booking1);
+        bookingManager.add(booking2);
+        bookingManager.add(booking3);
+
+        List<Booking> result = bookingManager.filter(
+                Map.of("status", BookingStatus.CONFIRMED, "roomId", "R101"));
+
+        assertEquals(1, result.size());
+        assertEquals("B003", result.get(0).getBookingId());
+    }
+
+    @Test
+    @DisplayName("BookingManager - indexes follow update(), updateStatus() and delete()")
+    void indexesFollowChanges() {
+        Customer customer2 = new Customer(
+                "C002", "Another Customer", "other@email.com", "0987654321",
+                "987654321012", "456 Other Street", LocalDate.now(), false);
+
+        Booking booking = createTestBooking("B001", 1, 3);
+        bookingManager.add(booking);
+
+        booking.setCustomer(customer2);
+        bookingManager.update(booking);
+        assertTrue(bookingManager.getCustomerBookings("C001").isEmpty());
+        assertEquals(1, bookingManager.getCustomerBookings("C002").size());
+
+        bookingManager.updateStatus("B001", BookingStatus.CHECKED_IN);
+        assertEquals(0, bookingManager.countByStatus(BookingStatus.PENDING));
+        assertEquals(1, bookingManager.countByStatus(BookingStatus.CHECKED_IN));
+
+        bookingManager.delete("B001");
+        assertTrue(bookingManager.getCustomerBookings("C002").isEmpty());
+        assertTrue(bookingManager.getRoomBookings("R101").isEmpty());
+        assertEquals(0, bookingManager.countByStatus(BookingStatus.CHECKED_IN));
+    }
+
     // ==================== Revenue Tests ====================
 
     @Test
@@ -236,6 +287,78 @@ class BookingManagerTest {
         assertEquals(1, results.size());
     }
 
+    // ==================== Batch Tests ====================
+
+    @Test
+    @DisplayName("BookingManager - addAll() adds a valid batch")
+    void addAllAddsBatch() {
+        Room room2 = new StandardRoom("R102", 1);
+        roomManager.add(room2);
+        List<Booking> batch = List.of(createTestBooking("B001", 1, 3), createTestBooking("B002", 5, 7),
+                new Booking("B003", customer, room2, LocalDate.now().plusDays(1), LocalDate.now().plusDays(3),
+                        BookingStatus.CONFIRMED));
+
+        Result<Integer> result = bookingManager.addAll(batch);
+
+        assertTrue(result.isSuccess());
+        assertEquals(3, result.getData());
+        assertEquals(2, bookingManager.getRoomBookings("R101").size());
+        assertFalse(bookingManager.isRoomAvailable(room2, LocalDate.now().plusDays(2), LocalDate.now().plusDays(4)));
+    }
+
+    @Test
+    @DisplayName("BookingManager - addAll() is all-or-nothing")
+    void addAllIsAllOrNothing() {
+        bookingManager.add(createTestBooking("B001", 10, 12));
+
+        assertTrue(bookingManager.addAll(List.of(createTestBooking("B002", 1, 3),
+                createTestBooking("B003", 2, 4))).isFailure(), "overlap inside the batch");
+        assertTrue(bookingManager.addAll(List.of(createTestBooking("B002", 1, 3),
+                createTestBooking("B003", 11, 14))).isFailure(), "overlap with an existing booking");
+        assertTrue(bookingManager.addAll(List.of(createTestBooking("B002", 1, 3),
+                createTestBooking("B001", 20, 22))).isFailure(), "existing ID");
+        assertTrue(bookingManager.addAll(List.of(createTestBooking("B002", 1, 3),
+                createTestBooking("B002", 20, 22))).isFailure(), "duplicate ID in the batch");
+
+        assertEquals(1, bookingManager.count());
+        assertTrue(bookingManager.isRoomAvailable(room, LocalDate.now().plusDays(1), LocalDate.now().plusDays(3)));
+        assertTrue(bookingManager.importBatch(List.of(createTestBooking("B002", 1, 3),
+                createTestBooking("B003", 2, 4))).isSuccess(), "importBatch skips the availability check");
+    }
+
+    // ==================== Versioned Update Tests ====================
+
+    @Test
+    @DisplayName("BookingManager - update() with a stale version is rejected")
+    void staleVersionIsRejected() {
+        Booking booking = createTestBooking("B001", 1, 3);
+        bookingManager.add(booking);
+        long opened = booking.getVersion();
+
+        assertTrue(bookingManager.update("B001", opened, b -> b.setNotes("Quầy 1")).isSuccess());
+        Result<Booking> stale = bookingManager.update("B001", opened, b -> b.setNotes("Quầy 2"));
+
+        assertTrue(stale.isFailure());
+        assertInstanceOf(ConcurrentModificationException.class, stale.getException());
+        assertEquals("Quầy 1", bookingManager.getById("B001").getNotes());
+        assertEquals(opened + 1, bookingManager.getById("B001").getVersion());
+    }
+
+    @Test
+    @DisplayName("BookingManager - every write bumps the version")
+    void writesBumpVersion() {
+        Booking booking = createTestBooking("B001", 1, 3);
+        bookingManager.add(booking);
+        long version = booking.getVersion();
+
+        bookingManager.updateStatus("B001", BookingStatus.CONFIRMED);
+        bookingManager.update(booking);
+
+        assertEquals(version + 2, booking.getVersion());
+        assertTrue(bookingManager.update(booking, version + 2).isSuccess());
+        assertTrue(bookingManager.update("B404", 0, b -> { }).isFailure());
+    }
+
     // ==================== Helper Methods ====================
 
     private Booking createTestBooking(String bookingId, int checkInDays, int checkOutDays) {
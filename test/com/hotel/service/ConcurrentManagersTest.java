@@ -0,0 +1,291 @@
+package com.hotel.service;
+
+import com.hotel.model.booking.Booking;
+import com.hotel.model.customer.Customer;
+import com.hotel.model.enums.BookingStatus;
+import com.hotel.model.enums.RoomStatus;
+import com.hotel.model.room.*;
+import com.hotel.service.interfaces.IChangeListener;
+import com.hotel.util.Result;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stress tests for the managers under concurrent front-desk access
+ */
+class ConcurrentManagersTest {
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS = 400;
+    private static final int ROOMS = 5;
+    private static final LocalDate START = LocalDate.of(2026, 1, 1);
+
+    private RoomManager roomManager;
+    private CustomerManager customerManager;
+    private BookingManager bookingManager;
+
+    @BeforeEach
+    void setUp() {
+        RoomManager.resetInstance();
+        roomManager = RoomManager.getInstance();
+        customerManager = new CustomerManager();
+        bookingManager = new BookingManager(roomManager);
+        for (int i = 1; i <= ROOMS; i++) {
+            roomManager.add(new StandardRoom("R10" + i, 1));
+        }
+        for (int i = 1; i <= THREADS; i++) {
+            customerManager.add(new Customer("C00" + i, "Khách " + i, "khach" + i + "@email.com",
+                    "090000000" + i, "00000000000" + i, "Hà Nội", START, false));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingManager.clear();
+        roomManager.clear();
+    }
+
+    @Test
+    @DisplayName("Concurrent addIfAvailable/delete/isRoomAvailable never double-books a room")
+    void noDoubleBookings() throws Exception {
+        AtomicInteger ids = new AtomicInteger();
+        AtomicInteger accepted = new AtomicInteger();
+        List<Room> rooms = roomManager.getAll();
+
+        runConcurrently(thread -> {
+            Random random = new Random(thread);
+            Customer customer = customerManager.getById("C00" + (thread + 1));
+            List<String> mine = new ArrayList<>();
+            for (int i = 0; i < OPERATIONS; i++) {
+                Room room = rooms.get(random.nextInt(ROOMS));
+                LocalDate checkIn = START.plusDays(random.nextInt(60));
+                LocalDate checkOut = checkIn.plusDays(1 + random.nextInt(3));
+                switch (random.nextInt(4)) {
+                    case 0 -> {
+                        if (!mine.isEmpty() && bookingManager.delete(mine.remove(random.nextInt(mine.size())))) {
+                            accepted.decrementAndGet();
+                        }
+                    }
+                    case 1 -> bookingManager.isRoomAvailable(room, checkIn, checkOut);
+                    default -> {
+                        String id = "B" + ids.incrementAndGet();
+                        Booking booking = new Booking(id, customer, room, checkIn, checkOut, BookingStatus.CONFIRMED);
+                        if (bookingManager.addIfAvailable(booking)) {
+                            mine.add(id);
+                            accepted.incrementAndGet();
+                        }
+                    }
+                }
+            }
+        });
+
+        assertEquals(accepted.get(), bookingManager.count());
+        assertNoOverbooking(rooms);
+    }
+
+    @Test
+    @DisplayName("reserve() lets exactly one front desk win each contested room")
+    void reserveIsExclusive() throws Exception {
+        AtomicInteger reserved = new AtomicInteger();
+        runConcurrently(thread -> {
+            Customer customer = customerManager.getById("C00" + (thread + 1));
+            for (int i = 1; i <= ROOMS; i++) {
+                Result<Booking> result = bookingManager.reserve("r10" + i, START, START.plusDays(2), customer);
+                if (result.isSuccess()) {
+                    reserved.incrementAndGet();
+                    assertEquals(BookingStatus.PENDING, result.getData().getStatus());
+                }
+            }
+        });
+        assertEquals(ROOMS, reserved.get());
+        assertEquals(ROOMS, bookingManager.count());
+        assertEquals(ROOMS, roomManager.findByStatus(RoomStatus.RESERVED).size());
+    }
+
+    @Test
+    @DisplayName("reserve() never overbooks while housekeeping keeps reopening rooms")
+    void reserveNeverOverbooks() throws Exception {
+        AtomicInteger reserved = new AtomicInteger();
+        List<Room> rooms = roomManager.getAll();
+        runConcurrently(thread -> {
+            Random random = new Random(thread);
+            Customer customer = customerManager.getById("C00" + (thread + 1));
+            for (int i = 0; i < OPERATIONS; i++) {
+                Room room = rooms.get(random.nextInt(ROOMS));
+                if (thread == 0) {
+                    roomManager.markRoomAvailable(room.getRoomId());
+                    continue;
+                }
+                LocalDate checkIn = START.plusDays(random.nextInt(60));
+                if (bookingManager.reserve(room.getRoomId(), checkIn, checkIn.plusDays(1 + random.nextInt(3)),
+                        customer).isSuccess()) {
+                    reserved.incrementAndGet();
+                }
+            }
+        });
+        assertTrue(reserved.get() >= ROOMS);
+        assertEquals(reserved.get(), bookingManager.count());
+        assertEquals(reserved.get(), new HashSet<>(bookingManager.getAll()).size());
+        assertNoOverbooking(rooms);
+    }
+
+    @Test
+    @DisplayName("Only one front desk can occupy the same available room")
+    void occupyRoomIsExclusive() throws Exception {
+        AtomicInteger occupied = new AtomicInteger();
+        runConcurrently(thread -> {
+            if (roomManager.occupyRoom("r101")) {
+                occupied.incrementAndGet();
+            }
+        });
+        assertEquals(1, occupied.get());
+    }
+
+    @Test
+    @DisplayName("getAll() returns a consistent snapshot while other threads write")
+    void getAllIsSnapshotConsistent() throws Exception {
+        runConcurrently(thread -> {
+            for (int i = 0; i < OPERATIONS; i++) {
+                if (thread == 0) {
+                    List<Customer> snapshot = customerManager.getAll();
+                    assertEquals(snapshot.size(), new HashSet<>(snapshot).size());
+                    assertFalse(snapshot.contains(null));
+                } else {
+                    String id = "T" + thread + "-" + i;
+                    customerManager.add(new Customer(id, "Khách", "a@b.c", "0900000000",
+                            "000000000000", "Huế", START, false));
+                    if (i % 2 == 0) {
+                        customerManager.delete(id);
+                    }
+                }
+            }
+        });
+        assertEquals(THREADS + (THREADS - 1) * OPERATIONS / 2, customerManager.count());
+        assertEquals(customerManager.count(), customerManager.getAll().size());
+    }
+
+    @Test
+    @DisplayName("Versioned updates with retry lose no writes under contention")
+    void versionedUpdatesLoseNoWrites() throws Exception {
+        runConcurrently(thread -> {
+            for (int i = 0; i < OPERATIONS; i++) {
+                while (true) {
+                    Customer current = customerManager.getById("C001");
+                    if (customerManager.update("C001", current.getVersion(),
+                            c -> c.setLoyaltyPoints(c.getLoyaltyPoints() + 1)).isSuccess()) {
+                        break;
+                    }
+                }
+            }
+        });
+        assertEquals(THREADS * OPERATIONS, customerManager.getById("C001").getLoyaltyPoints(), 0.001);
+    }
+
+    @Test
+    @DisplayName("updateStatus() racing delete() never brings a deleted booking back")
+    void updateStatusDoesNotResurrectDeleted() throws Exception {
+        Customer customer = customerManager.getById("C001");
+        List<Room> rooms = roomManager.getAll();
+        for (int i = 0; i < OPERATIONS; i++) {
+            LocalDate checkIn = START.plusDays(i * 3L);
+            bookingManager.add(new Booking("B" + i, customer, rooms.get(i % ROOMS), checkIn, checkIn.plusDays(1),
+                    BookingStatus.PENDING));
+        }
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+        bookingManager.addChangeListener(new IChangeListener<>() {
+            @Override
+            public void onAdded(Booking item) {
+                events.add("+" + item.getBookingId());
+            }
+
+            @Override
+            public void onUpdated(Booking item) {
+                events.add("~" + item.getBookingId());
+            }
+
+            @Override
+            public void onDeleted(String id) {
+                events.add("-" + id);
+            }
+
+            @Override
+            public void onCleared() {
+            }
+        });
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < OPERATIONS; i++) {
+                String id = "B" + i;
+                if (thread % 2 == 0) {
+                    bookingManager.delete(id);
+                } else {
+                    bookingManager.updateStatus(id, BookingStatus.CONFIRMED);
+                }
+            }
+        });
+
+        assertEquals(0, bookingManager.count());
+        assertNoOverbooking(rooms);
+        for (int i = 0; i < OPERATIONS; i++) {
+            String id = "B" + i;
+            // Sau lần xóa, listener (tracker, nhật ký) không được nhận cập nhật nào nữa
+            assertEquals(events.indexOf("-" + id), events.lastIndexOf("-" + id), id);
+            assertTrue(events.lastIndexOf("~" + id) < events.indexOf("-" + id), id);
+        }
+    }
+
+    // ==================== Helper Methods ====================
+
+    /**
+     * Không phòng nào có hai booking trùng lịch, và chỉ mục phòng khớp với danh sách booking
+     */
+    private void assertNoOverbooking(List<Room> rooms) {
+        int indexed = 0;
+        for (Room room : rooms) {
+            List<Booking> roomBookings = bookingManager.getRoomBookings(room.getRoomId());
+            indexed += roomBookings.size();
+            roomBookings.sort(Comparator.comparing(Booking::getCheckInDate));
+            for (int i = 1; i < roomBookings.size(); i++) {
+                Booking previous = roomBookings.get(i - 1);
+                Booking next = roomBookings.get(i);
+                assertFalse(next.getCheckInDate().isBefore(previous.getCheckOutDate()),
+                        previous.getBookingId() + " overlaps " + next.getBookingId());
+            }
+        }
+        assertEquals(bookingManager.count(), indexed);
+    }
+
+    private interface Worker {
+        void run(int thread) throws Exception;
+    }
+
+    /**
+     * Chạy cùng một công việc trên THREADS luồng, bắt đầu đồng thời
+     */
+    private static void runConcurrently(Worker worker) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(pool.submit(() -> {
+                start.await();
+                worker.run(thread);
+                return null;
+            }));
+        }
+        start.countDown();
+        try {
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.hotel.service;
+
+import com.hotel.model.customer.Customer;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for CustomerManager search backed by the trigram index
+ */
+class CustomerSearchIndexTest {
+
+    private CustomerManager manager;
+
+    @BeforeEach
+    void setUp() {
+        manager = new CustomerManager();
+        manager.add(customer("C001", "Nguyễn Văn An", "an.nguyen@email.com", "0901234567"));
+        manager.add(customer("C002", "Trần Thị Bình", "binh.tran@email.com", "0912345678"));
+        manager.add(customer("C003", "Đặng Đức Nguyên", "nguyen.dang@email.com", "0987654321"));
+    }
+
+    private static Customer customer(String id, String name, String email, String phone) {
+        return new Customer(id, name, email, phone, "001" + id, "Hà Nội", LocalDate.now(), false);
+    }
+
+    private static List<String> ids(List<Customer> customers) {
+        List<String> ids = new ArrayList<>();
+        customers.forEach(c -> ids.add(c.getCustomerId()));
+        return ids;
+    }
+
+    @Test
+    @DisplayName("search() ignores case and Vietnamese diacritics, across all fields")
+    void diacriticInsensitive() {
+        assertEquals(List.of("C001", "C003"), ids(manager.search("nguyen")));
+        assertEquals(List.of("C001", "C003"), ids(manager.search("NGUYỄN")));
+        assertEquals(List.of("C003"), ids(manager.search("dang duc")));
+        assertEquals(List.of("C002"), ids(manager.search("binh.tran@")));
+        assertEquals(List.of("C003"), ids(manager.search("7654")));
+        assertEquals(List.of("C002"), ids(manager.search("c002")));
+        assertEquals(List.of("C001"), ids(manager.search("Vă")));
+        assertTrue(manager.search("nguyen an binh").isEmpty());
+        assertEquals(3, manager.search("").size());
+    }
+
+    @Test
+    @DisplayName("search() agrees with matcher() on every keyword")
+    void matcherConsistent() {
+        for (String keyword : List.of("nguyen", "văn", "an", "@email", "09", "xyz", "ng")) {
+            List<Customer> expected = new ArrayList<>(manager.getAll());
+            expected.removeIf(manager.matcher(keyword).negate());
+            assertEquals(ids(expected), ids(manager.search(keyword)), keyword);
+        }
+    }
+
+    @Test
+    @DisplayName("Index follows add, in-place update, versioned update, delete and clear")
+    void indexMaintained() {
+        Customer binh = manager.getById("C002");
+        binh.setFullName("Nguyễn Thị Bình");
+        manager.update(binh);
+        assertEquals(List.of("C001", "C002", "C003"), ids(manager.search("nguyen")));
+        assertTrue(manager.search("tran thi").isEmpty());
+
+        manager.update("C001", manager.getById("C001").getVersion(), c -> c.setFullName("Lê Văn An"));
+        assertTrue(manager.search("nguyen van").isEmpty());
+        assertEquals(List.of("C001"), ids(manager.search("le van")));
+
+        manager.delete("C003");
+        assertEquals(List.of("C001", "C002"), ids(manager.search("nguyen")));
+
+        manager.add(customer("C004", "Phạm Nguyệt", "nguyet@email.com", "0900000000"));
+        assertEquals(List.of("C001", "C002", "C004"), ids(manager.search("nguy")));
+
+        manager.clear();
+        assertTrue(manager.search("nguy").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Many deletes compact the index without losing or reordering results")
+    void compaction() {
+        manager.clear();
+        for (int i = 0; i < 5000; i++) {
+            manager.add(customer(String.format("K%05d", i), "Khách " + i, "k" + i + "@mail.vn", "09" + i));
+        }
+        for (int i = 0; i < 5000; i++) {
+            if (i % 10 != 0) {
+                manager.delete(String.format("K%05d", i));
+            }
+        }
+        List<Customer> results = manager.search("khach");
+        assertEquals(500, results.size());
+        assertEquals(ids(manager.getAll()), ids(results));
+        assertEquals(List.of("K04990"), ids(manager.search("k4990@")));
+    }
+}
@@ -0,0 +1,270 @@
+package com.hotel.service;
+
+import com.hotel.model.booking.Booking;
+import com.hotel.model.customer.Customer;
+import com.hotel.model.enums.BookingStatus;
+import com.hotel.model.room.*;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Unit tests for the per-room availability index used by BookingManager
+ * Compares indexed isRoomAvailable() against the original linear scan
+ */
+class RoomAvailabilityIndexTest {
+
+    private static final LocalDate BASE_DATE = LocalDate.of(2025, 1, 1);
+
+    private BookingManager bookingManager;
+    private RoomManager roomManager;
+    private List<Room> rooms;
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        RoomManager.resetInstance();
+        roomManager = RoomManager.getInstance();
+        bookingManager = new BookingManager(roomManager);
+
+        rooms = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            Room room = new StandardRoom("R10" + i, 1);
+            roomManager.add(room);
+            rooms.add(room);
+        }
+
+        customer = new Customer("C001", "Test Customer", "test@email.com", "0123456789",
+                "123456789012", "123 Test Street", BASE_DATE, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingManager.clear();
+        roomManager.clear();
+    }
+
+    // ==================== Boundary Tests ====================
+
+    @Test
+    @DisplayName("Index - touching dates count as overlap (same as linear scan)")
+    void touchingDatesOverlap() {
+        bookingManager.add(booking("B001", rooms.get(0), 10, 15, BookingStatus.CONFIRMED));
+
+        assertFalse(bookingManager.isRoomAvailable(rooms.get(0), day(15), day(18)));
+        assertFalse(bookingManager.isRoomAvailable(rooms.get(0), day(5), day(10)));
+        assertTrue(bookingManager.isRoomAvailable(rooms.get(0), day(16), day(18)));
+        assertTrue(bookingManager.isRoomAvailable(rooms.get(0), day(5), day(9)));
+        assertTrue(bookingManager.isRoomAvailable(rooms.get(1), day(10), day(15)));
+    }
+
+    @Test
+    @DisplayName("Index - long stay is found from a later check-in window")
+    void longStayCoversLaterQuery() {
+        bookingManager.add(booking("B001", rooms.get(0), 1, 60, BookingStatus.CONFIRMED));
+        bookingManager.add(booking("B002", rooms.get(0), 70, 72, BookingStatus.CONFIRMED));
+
+        assertFalse(bookingManager.isRoomAvailable(rooms.get(0), day(40), day(42)));
+        assertTrue(bookingManager.isRoomAvailable(rooms.get(0), day(61), day(69)));
+    }
+
+    // ==================== Maintenance Tests ====================
+
+    @Test
+    @DisplayName("Index - update() with new dates moves the booking")
+    void updateMovesBooking() {
+        Booking booking = booking("B001", rooms.get(0), 10, 15, BookingStatus.CONFIRMED);
+        bookingManager.add(booking);
+
+        booking.setCheckInDate(day(30));
+        booking.setCheckOutDate(day(35));
+        bookingManager.update(booking);
+
+        assertTrue(bookingManager.isRoomAvailable(rooms.get(0), day(10), day(15)));
+        assertFalse(bookingManager.isRoomAvailable(rooms.get(0), day(31), day(32)));
+    }
+
+    @Test
+    @DisplayName("Index - cancelling through updateStatus() frees the room")
+    void cancelFreesRoom() {
+        bookingManager.add(booking("B001", rooms.get(0), 10, 15, BookingStatus.CONFIRMED));
+
+        assertTrue(bookingManager.updateStatus("B001", BookingStatus.CANCELLED));
+        assertTrue(bookingManager.isRoomAvailable(rooms.get(0), day(10), day(15)));
+
+        assertTrue(bookingManager.updateStatus("B001", BookingStatus.CONFIRMED));
+        assertFalse(bookingManager.isRoomAvailable(rooms.get(0), day(10), day(15)));
+    }
+
+    @Test
+    @DisplayName("Index - delete() and clear() free the room")
+    void deleteAndClearFreeRoom() {
+        bookingManager.add(booking("B001", rooms.get(0), 10, 15, BookingStatus.CONFIRMED));
+        bookingManager.add(booking("B002", rooms.get(1), 10, 15, BookingStatus.CONFIRMED));
+
+        bookingManager.delete("B001");
+        assertTrue(bookingManager.isRoomAvailable(rooms.get(0), day(10), day(15)));
+        assertFalse(bookingManager.isRoomAvailable(rooms.get(1), day(10), day(15)));
+
+        bookingManager.clear();
+        assertTrue(bookingManager.isRoomAvailable(rooms.get(1), day(10), day(15)));
+    }
+
+    @Test
+    @DisplayName("Index - removing or cancelling the longest stay shrinks the search window again")
+    void longestStayRemovalShrinksWindow() {
+        RoomAvailabilityIndex index = new RoomAvailabilityIndex();
+        Booking hold = booking("B001", rooms.get(0), 1, 366, BookingStatus.CONFIRMED);
+        Booking week = booking("B002", rooms.get(0), 400, 407, BookingStatus.CONFIRMED);
+        index.put(hold);
+        index.put(week);
+        index.put(booking("B003", rooms.get(0), 410, 412, BookingStatus.CONFIRMED));
+        assertEquals(365, index.lookbackDays("R101"));
+
+        hold.setStatus(BookingStatus.CANCELLED);
+        index.put(hold);
+        assertEquals(7, index.lookbackDays("R101"));
+        assertTrue(index.isAvailable("R101", day(100), day(110)));
+
+        index.remove("B002");
+        assertEquals(2, index.lookbackDays("R101"));
+        assertFalse(index.isAvailable("R101", day(411), day(415)));
+
+        index.remove("B003");
+        assertEquals(0, index.lookbackDays("R101"));
+    }
+
+    // ==================== Randomized Comparison ====================
+
+    @Test
+    @DisplayName("Index - matches linear scan over random bookings, updates and deletes")
+    void matchesLinearScan() {
+        Random random = new Random(42);
+        List<Booking> added = new ArrayList<>();
+        BookingStatus[] statuses = BookingStatus.values();
+
+        for (int i = 0; i < 2000; i++) {
+            Room room = rooms.get(random.nextInt(rooms.size()));
+            int start = random.nextInt(365);
+            int nights = 1 + random.nextInt(random.nextInt(10) == 0 ? 40 : 5);
+            Booking booking = booking("B" + i, room, start, start + nights,
+                    statuses[random.nextInt(statuses.length)]);
+            if (bookingManager.add(booking)) {
+                added.add(booking);
+            }
+
+            // Thỉnh thoảng sửa, đổi trạng thái hoặc xóa một booking đã có
+            if (!added.isEmpty() && random.nextInt(5) == 0) {
+                Booking target = added.get(random.nextInt(added.size()));
+                switch (random.nextInt(3)) {
+                    case 0:
+                        int shift = random.nextInt(21) - 10;
+                        target.setCheckInDate(target.getCheckInDate().plusDays(shift));
+                        target.setCheckOutDate(target.getCheckOutDate().plusDays(shift));
+                        bookingManager.update(target);
+                        break;
+                    case 1:
+                        bookingManager.updateStatus(target.getBookingId(),
+                                statuses[random.nextInt(statuses.length)]);
+                        break;
+                    default:
+                        bookingManager.delete(target.getBookingId());
+                        added.remove(target);
+                        break;
+                }
+            }
+        }
+
+        for (int q = 0; q < 5000; q++) {
+            Room room = rooms.get(random.nextInt(rooms.size()));
+            int start = random.nextInt(400) - 20;
+            LocalDate checkIn = day(start);
+            LocalDate checkOut = day(start + 1 + random.nextInt(14));
+
+            assertEquals(linearScanAvailable(room, checkIn, checkOut),
+                    bookingManager.isRoomAvailable(room, checkIn, checkOut),
+                    "Mismatch for " + room.getRoomId() + " " + checkIn + " -> " + checkOut);
+        }
+    }
+
+    @Test
+    @DisplayName("Index - batch sweep in addAll() matches pairwise linear checks")
+    void batchSweepMatchesLinearScan() {
+        Random random = new Random(7);
+        for (int i = 0; i < 300; i++) {
+            Room room = rooms.get(random.nextInt(rooms.size()));
+            int start = random.nextInt(365);
+            bookingManager.add(booking("E" + i, room, start, start + 1 + random.nextInt(6), BookingStatus.CONFIRMED));
+        }
+
+        int accepted = 0;
+        for (int b = 0; b < 500; b++) {
+            List<Booking> batch = new ArrayList<>();
+            for (int i = 0, size = 1 + random.nextInt(6); i < size; i++) {
+                Room room = rooms.get(random.nextInt(rooms.size()));
+                int start = random.nextInt(400) - 20;
+                int nights = 1 + random.nextInt(random.nextInt(10) == 0 ? 30 : 4);
+                batch.add(booking("N" + b + "-" + i, room, start, start + nights,
+                        random.nextInt(8) == 0 ? BookingStatus.CANCELLED : BookingStatus.PENDING));
+            }
+
+            boolean expected = batchFits(batch);
+            assertEquals(expected, bookingManager.addAll(batch).isSuccess(), "Batch " + b);
+            assertEquals(expected, bookingManager.getById(batch.get(0).getBookingId()) != null);
+            accepted += expected ? 1 : 0;
+        }
+        assertTrue(accepted > 0);
+    }
+
+    // ==================== Helper Methods ====================
+
+    /**
+     * Lô hợp lệ khi mỗi booking chưa hủy không trùng lịch với dữ liệu có sẵn và với nhau
+     */
+    private boolean batchFits(List<Booking> batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            Booking a = batch.get(i);
+            if (a.getStatus() == BookingStatus.CANCELLED) {
+                continue;
+            }
+            if (!linearScanAvailable(a.getRoom(), a.getCheckInDate(), a.getCheckOutDate())) {
+                return false;
+            }
+            for (int j = i + 1; j < batch.size(); j++) {
+                Booking b = batch.get(j);
+                if (b.getStatus() != BookingStatus.CANCELLED && a.getRoomId().equals(b.getRoomId())
+                        && !(a.getCheckOutDate().isBefore(b.getCheckInDate())
+                        || a.getCheckInDate().isAfter(b.getCheckOutDate()))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Thuật toán duyệt tuyến tính ban đầu của BookingManager.isRoomAvailable
+     */
+    private boolean linearScanAvailable(Room room, LocalDate checkInDate, LocalDate checkOutDate) {
+        return bookingManager.getAll().stream()
+                .filter(b -> b.getRoom().getRoomId().equals(room.getRoomId()))
+                .filter(b -> b.getStatus() != BookingStatus.CANCELLED)
+                .noneMatch(b -> {
+                    LocalDate bCheckIn = b.getCheckInDate();
+                    LocalDate bCheckOut = b.getCheckOutDate();
+                    return !(checkOutDate.isBefore(bCheckIn) || checkInDate.isAfter(bCheckOut));
+                });
+    }
+
+    private Booking booking(String bookingId, Room room, int checkInDay, int checkOutDay, BookingStatus status) {
+        return new Booking(bookingId, customer, room, day(checkInDay), day(checkOutDay), status);
+    }
+
+    private static LocalDate day(int offset) {
+        return BASE_DATE.plusDays(offset);
+    }
+}
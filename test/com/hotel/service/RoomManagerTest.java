@@ -179,6 +179,51 @@ class RoomManagerTest {
         assertEquals(2, results.size());
     }
 
+    @Test
+    @DisplayName("RoomManager - search() ignores diacritics and follows description and status changes")
+    void searchDiacriticsAndChanges() {
+        StandardRoom room = new StandardRoom("R101", 1);
+        room.setDescription("Hướng biển");
+        manager.add(room);
+        manager.add(new VIPRoom("V201", 2));
+
+        assertEquals(List.of(room), manager.search("huong BIEN"));
+        assertEquals(1, manager.search("phong vip").size());
+
+        room.setDescription("Hướng núi");
+        manager.update(room);
+        assertTrue(manager.search("bien").isEmpty());
+        assertEquals(List.of(room), manager.search("nui"));
+
+        // Trạng thái đổi trực tiếp trên Room vẫn được tìm thấy
+        room.occupy();
+        assertEquals(List.of(room), manager.search("su dung"));
+        assertEquals(1, manager.search("trong").size());
+
+        manager.delete("R101");
+        assertTrue(manager.search("nui").isEmpty());
+    }
+
+    @Test
+    @DisplayName("RoomManager - search() agrees with matcher() and caches search text")
+    void searchMatchesMatcher() {
+        StandardRoom room = new StandardRoom("R101", 1);
+        manager.add(room);
+        manager.add(new DeluxeRoom("D301", 3));
+        manager.add(new VIPRoom("V201", 2));
+
+        String text = room.getSearchText();
+        assertSame(text, room.getSearchText());
+        room.setRoomId("R102");
+        assertTrue(room.getSearchText().startsWith("r102"));
+
+        for (String keyword : List.of("r1", "phong", "deluxe", "dang", "xyz", "0")) {
+            List<Room> expected = new java.util.ArrayList<>(manager.getAll());
+            expected.removeIf(manager.matcher(keyword).negate());
+            assertEquals(expected, manager.search(keyword), keyword);
+        }
+    }
+
     // ==================== Filter Tests ====================
 
     @Test
@@ -335,6 +380,20 @@ class RoomManagerTest {
         assertEquals(RoomStatus.OCCUPIED, manager.getById("R101").getStatus());
     }
 
+    @Test
+    @DisplayName("RoomManager - occupyRoom() checks in a reserved room but not one under maintenance")
+    void occupyReservedRoom() {
+        manager.add(new StandardRoom("R101", 1));
+        manager.add(new StandardRoom("R102", 1));
+        assertTrue(manager.reserveRoom("R101"));
+        assertTrue(manager.markRoomMaintenance("R102"));
+
+        assertTrue(manager.occupyRoom("R101"));
+        assertFalse(manager.occupyRoom("R102"));
+        assertEquals(RoomStatus.OCCUPIED, manager.getById("R101").getStatus());
+        assertEquals(RoomStatus.MAINTENANCE, manager.getById("R102").getStatus());
+    }
+
     @Test
     @DisplayName("RoomManager - markRoomAvailable() should change status")
     void markRoomAvailable() {
@@ -0,0 +1,139 @@
+package com.hotel.service;
+
+import com.hotel.model.booking.Booking;
+import com.hotel.model.customer.Customer;
+import com.hotel.model.enums.BookingStatus;
+import com.hotel.model.room.*;
+import com.hotel.service.interfaces.IChangeListener;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tests for onCommitted(): called once per write, after every lock has been released
+ */
+class WriteScopeTest {
+
+    private static final LocalDate START = LocalDate.of(2026, 1, 1);
+
+    private RoomManager roomManager;
+    private CustomerManager customerManager;
+    private BookingManager bookingManager;
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        RoomManager.resetInstance();
+        roomManager = RoomManager.getInstance();
+        customerManager = new CustomerManager();
+        bookingManager = new BookingManager(roomManager);
+        roomManager.add(new StandardRoom("R101", 1));
+        customer = customer("C001");
+        customerManager.add(customer);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingManager.clear();
+        roomManager.clear();
+    }
+
+    @Test
+    @DisplayName("onCommitted() runs after the room and manager locks are released")
+    void committedOutsideLocks() {
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        List<String> events = new CopyOnWriteArrayList<>();
+        AtomicBoolean checked = new AtomicBoolean();
+        bookingManager.addChangeListener(new RecordingListener<>(events) {
+            @Override
+            public void onCommitted() {
+                super.onCommitted();
+                if (checked.getAndSet(true)) {
+                    return;
+                }
+                // Luồng khác phải vào được cả khóa phòng lẫn khóa manager ngay lúc này
+                Future<Boolean> write = other.submit(() ->
+                        bookingManager.updateStatus("B001", BookingStatus.CONFIRMED));
+                assertTrue(assertDoesNotThrow(() -> write.get(5, TimeUnit.SECONDS)));
+            }
+        });
+        try {
+            assertTrue(bookingManager.addIfAvailable(booking("B001")));
+        } finally {
+            other.shutdownNow();
+        }
+        assertEquals(List.of("added", "committed", "updated", "committed"), events);
+        assertEquals(BookingStatus.CONFIRMED, bookingManager.getById("B001").getStatus());
+    }
+
+    @Test
+    @DisplayName("A batch, or writes wrapped in WriteScope.run(), commit once")
+    void batchCommitsOnce() {
+        List<String> events = new ArrayList<>();
+        customerManager.addChangeListener(new RecordingListener<>(events));
+
+        assertTrue(customerManager.addAll(List.of(customer("C002"), customer("C003"), customer("C004"))).isSuccess());
+        assertEquals(List.of("added", "added", "added", "committed"), events);
+
+        events.clear();
+        WriteScope.run(() -> {
+            customerManager.delete("C002");
+            customerManager.delete("C003");
+            assertEquals(List.of("deleted", "deleted"), events);
+            return null;
+        });
+        assertEquals(List.of("deleted", "deleted", "committed"), events);
+
+        events.clear();
+        customerManager.delete("C004");
+        assertEquals(List.of("deleted", "committed"), events);
+    }
+
+    private Booking booking(String id) {
+        return new Booking(id, customer, roomManager.getById("R101"), START, START.plusDays(2),
+                BookingStatus.PENDING);
+    }
+
+    private static Customer customer(String id) {
+        return new Customer(id, "Khách " + id, id.toLowerCase() + "@email.com", "0900000001",
+                "000000000001", "Hà Nội", START, false);
+    }
+
+    private static class RecordingListener<T> implements IChangeListener<T> {
+        private final List<String> events;
+
+        RecordingListener(List<String> events) {
+            this.events = events;
+        }
+
+        @Override
+        public void onAdded(T item) {
+            events.add("added");
+        }
+
+        @Override
+        public void onUpdated(T item) {
+            events.add("updated");
+        }
+
+        @Override
+        public void onDeleted(String id) {
+            events.add("deleted");
+        }
+
+        @Override
+        public void onCleared() {
+            events.add("cleared");
+        }
+
+        @Override
+        public void onCommitted() {
+            events.add("committed");
+        }
+    }
+}
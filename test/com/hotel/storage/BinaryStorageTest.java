@@ -0,0 +1,198 @@
+package com.hotel.storage;
+
+import com.hotel.model.booking.Booking;
+import com.hotel.model.customer.Customer;
+import com.hotel.model.enums.BookingStatus;
+import com.hotel.model.enums.RoomStatus;
+import com.hotel.model.room.*;
+import com.hotel.service.RoomManager;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+/**
+ * Tests for the compact binary storage format
+ * Benchmark so sánh JSON/nhị phân chỉ chạy với -Dbenchmark=true
+ */
+@ExtendWith(StorageFixture.Isolation.class)
+class BinaryStorageTest {
+
+    @TempDir
+    Path dataDir;
+
+    // ==================== Encoding Tests ====================
+
+    @Test
+    @DisplayName("Binary encoding - primitives round-trip")
+    void primitivesRoundTrip() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinaryEncoder out = new BinaryEncoder(bytes);
+        out.writeVarLong(Long.MAX_VALUE);
+        out.writeSignedVarLong(-3);
+        out.writeDate(LocalDate.of(1969, 12, 31));
+        out.writeDate(null);
+        out.writeEnum(BookingStatus.CHECKED_OUT);
+        out.writeEnum(null);
+        out.writeString("Phòng có view biển");
+        out.writeString(null);
+        out.writeDouble(1_250_000.5);
+        for (String id : new String[] { "B0001", "R101", "C0", "KHACH", "A-12", null }) {
+            out.writeId(id);
+        }
+
+        BinaryDecoder in = new BinaryDecoder(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(Long.MAX_VALUE, in.readVarLong());
+        assertEquals(-3, in.readSignedVarLong());
+        assertEquals(LocalDate.of(1969, 12, 31), in.readDate());
+        assertNull(in.readDate());
+        assertEquals(BookingStatus.CHECKED_OUT, in.readEnum(BookingStatus.values()));
+        assertNull(in.readEnum(BookingStatus.values()));
+        assertEquals("Phòng có view biển", in.readString());
+        assertNull(in.readString());
+        assertEquals(1_250_000.5, in.readDouble());
+        for (String id : new String[] { "B0001", "R101", "C0", "KHACH", "A-12", null }) {
+            assertEquals(id, in.readId());
+        }
+    }
+
+    @Test
+    @DisplayName("Binary encoding - repeated strings are written once")
+    void dictionaryDeduplicates() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinaryEncoder out = new BinaryEncoder(bytes);
+        out.writeDictString("Phòng tiêu chuẩn tầng 1");
+        int first = bytes.size();
+        out.writeDictString("Phòng tiêu chuẩn tầng 1");
+        assertEquals(1, bytes.size() - first);
+
+        BinaryDecoder in = new BinaryDecoder(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals("Phòng tiêu chuẩn tầng 1", in.readDictString());
+        assertEquals("Phòng tiêu chuẩn tầng 1", in.readDictString());
+    }
+
+    // ==================== DataStorage Tests ====================
+
+    @Test
+    @DisplayName("DataStorage - convertTo(BINARY) round-trips all collections and is detected on load")
+    void convertToBinaryRoundTrip() {
+        StorageFixture source = new StorageFixture();
+        source.populate(50);
+        DataStorage storage = source.storage(dataDir);
+        storage.saveAllData();
+
+        assertTrue(storage.convertTo(StorageFormat.BINARY));
+        assertTrue(Files.exists(dataDir.resolve("bookings.bin")));
+        assertFalse(Files.exists(dataDir.resolve("bookings.json")));
+
+        RoomManager.resetInstance();
+        StorageFixture loaded = new StorageFixture();
+        DataStorage reloaded = loaded.storage(dataDir);
+        assertEquals(StorageFormat.BINARY, reloaded.getFormat());
+        reloaded.loadAllData();
+
+        assertEquals(source.rooms.count(), loaded.rooms.count());
+        assertEquals(source.customers.count(), loaded.customers.count());
+        assertEquals(source.bookings.count(), loaded.bookings.count());
+        assertEquals(source.invoices.count(), loaded.invoices.count());
+
+        DeluxeRoom room = (DeluxeRoom) loaded.rooms.getById("D0003");
+        assertEquals(RoomStatus.MAINTENANCE, room.getStatus());
+        assertFalse(room.hasJacuzzi());
+        Booking booking = loaded.bookings.getById("B00007");
+        assertEquals(source.bookings.getById("B00007").getCheckOutDate(), booking.getCheckOutDate());
+        assertEquals("Ghi chú 7", booking.getNotes());
+        assertEquals(source.bookings.getById("B00007").getTotalPrice(), booking.getTotalPrice(), 0.001);
+        assertEquals(source.invoices.getById("INV00007").getTotalAmount(),
+                loaded.invoices.getById("INV00007").getTotalAmount(), 0.001);
+        assertEquals("C0007", loaded.customers.getById("C0007").getCustomerId());
+    }
+
+    @Test
+    @DisplayName("DataStorage - delta files apply on top of a binary base")
+    void deltaOnBinaryBase() {
+        StorageFixture managers = new StorageFixture();
+        managers.populate(10);
+        DataStorage storage = managers.storage(dataDir);
+        storage.setFormat(StorageFormat.BINARY);
+        storage.saveAllData();
+
+        managers.bookings.updateStatus("B00003", BookingStatus.CANCELLED);
+        storage.saveChanges();
+        assertTrue(Files.exists(dataDir.resolve("bookings.delta.jsonl")));
+
+        RoomManager.resetInstance();
+        StorageFixture loaded = new StorageFixture();
+        loaded.storage(dataDir).loadAllData();
+        assertEquals(BookingStatus.CANCELLED, loaded.bookings.getById("B00003").getStatus());
+    }
+
+    @Test
+    @DisplayName("DataStorage - binary files are several times smaller than JSON")
+    void binaryIsSmaller() throws IOException {
+        StorageFixture managers = new StorageFixture();
+        managers.populate(2000);
+        DataStorage storage = managers.storage(dataDir);
+        storage.saveAllData();
+        assertTrue(storage.exportAllData(StorageFormat.BINARY));
+
+        long json = Files.size(dataDir.resolve("bookings.json"));
+        long binary = Files.size(dataDir.resolve("bookings.bin"));
+        assertTrue(binary * 4 < json, "json=" + json + " binary=" + binary);
+        // exportAllData chỉ tạo bản sao
+        assertEquals(StorageFormat.JSON, storage.getFormat());
+        assertTrue(Files.exists(dataDir.resolve("bookings.json")));
+    }
+
+    @Test
+    @DisplayName("DataStorage - corrupt binary file is rejected by its checksum")
+    void corruptBinaryIsRejected() throws IOException {
+        StorageFixture managers = new StorageFixture();
+        managers.populate(10);
+        DataStorage storage = managers.storage(dataDir);
+        storage.convertTo(StorageFormat.BINARY);
+
+        Path file = dataDir.resolve("customers.bin");
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x20;
+        Files.write(file, bytes);
+
+        BinaryStore<Customer> store = new BinaryStore<>(file, 'C', BinaryCodecs.customers());
+        assertThrows(IOException.class, () -> store.read(c -> true));
+        assertTrue(store.load().isEmpty());
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("Benchmark - JSON vs binary load of a multi-year booking history")
+    void benchmarkJsonVsBinary() {
+        StorageFixture managers = new StorageFixture();
+        managers.populate(300_000);
+        DataStorage storage = managers.storage(dataDir);
+        storage.saveAllData();
+        storage.exportAllData(StorageFormat.BINARY);
+
+        for (StorageFormat format : StorageFormat.values()) {
+            RoomManager.resetInstance();
+            StorageFixture loaded = new StorageFixture();
+            DataStorage reader = loaded.storage(dataDir);
+            reader.setFormat(format);
+            long start = System.nanoTime();
+            reader.loadAllData();
+            long ms = (System.nanoTime() - start) / 1_000_000;
+            long size = dataDir.resolve("bookings" + format.getExtension()).toFile().length()
+                    + dataDir.resolve("invoices" + format.getExtension()).toFile().length()
+                    + dataDir.resolve("customers" + format.getExtension()).toFile().length();
+            System.out.printf("%s: %d bookings in %d ms, %,d bytes%n", format, loaded.bookings.count(), ms, size);
+            assertEquals(300_000, loaded.bookings.count());
+        }
+    }
+}
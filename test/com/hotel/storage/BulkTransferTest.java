@@ -0,0 +1,157 @@
+package com.hotel.storage;
+
+import com.hotel.model.booking.Booking;
+import com.hotel.model.room.*;
+import com.hotel.service.RoomManager;
+import com.hotel.storage.BulkTransfer.Entity;
+import com.hotel.storage.BulkTransfer.Report;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for CSV/JSON Lines bulk import and export
+ * Benchmark thông lượng chỉ chạy với -Dbenchmark=true
+ */
+@ExtendWith(StorageFixture.Isolation.class)
+class BulkTransferTest {
+
+    @TempDir
+    Path dir;
+
+    // ==================== Round-trip Tests ====================
+
+    @Test
+    @DisplayName("CSV - export then import round-trips every entity")
+    void csvRoundTrip() throws IOException {
+        assertRoundTrip(".csv");
+    }
+
+    @Test
+    @DisplayName("JSON Lines - export then import round-trips every entity")
+    void jsonLinesRoundTrip() throws IOException {
+        assertRoundTrip(".jsonl");
+    }
+
+    private void assertRoundTrip(String extension) throws IOException {
+        StorageFixture source = new StorageFixture();
+        source.populate(50);
+        Booking tricky = source.bookings.getById("B00007");
+        tricky.setNotes("Khách nói: \"cần giường phụ\", đến muộn\ndòng thứ hai");
+        for (Entity entity : Entity.values()) {
+            Report report = source.transfer().exportFile(entity, file(entity, extension));
+            assertEquals(report.rows(), report.imported());
+        }
+
+        RoomManager.resetInstance();
+        StorageFixture target = new StorageFixture();
+        for (Entity entity : Entity.values()) {
+            Report report = target.transfer().importFile(entity, file(entity, extension));
+            assertEquals(0, report.rejected(), () -> entity + " " + report.rejects());
+        }
+
+        assertEquals(source.rooms.count(), target.rooms.count());
+        assertEquals(source.customers.count(), target.customers.count());
+        assertEquals(source.bookings.count(), target.bookings.count());
+        assertEquals(source.invoices.count(), target.invoices.count());
+
+        assertEquals(tricky.getNotes(), target.bookings.getById("B00007").getNotes());
+        assertFalse(((DeluxeRoom) target.rooms.getById("D0003")).hasJacuzzi());
+        assertEquals(source.invoices.getById("INV00011").getTotalAmount(),
+                target.invoices.getById("INV00011").getTotalAmount(), 0.001);
+        assertSame(target.customers.getById(source.bookings.getById("B00011").getCustomerId()),
+                target.bookings.getById("B00011").getCustomer());
+    }
+
+    @Test
+    @DisplayName("CSV format - quoted values with commas, quotes and newlines")
+    void csvQuoting() {
+        List<String> values = Arrays.asList("a,b", "say \"hi\"", "x\ny", "", null, "plain");
+        String record = CsvFormat.format(values);
+        assertTrue(CsvFormat.isComplete(record));
+        assertFalse(CsvFormat.isComplete("\"x"));
+        assertEquals(List.of("a,b", "say \"hi\"", "x\ny", "", "", "plain"), CsvFormat.parse(record));
+        assertThrows(IllegalArgumentException.class, () -> CsvFormat.parse("\"ab\"c"));
+    }
+
+    // ==================== Reject Tests ====================
+
+    @Test
+    @DisplayName("Import reports bad rows, duplicates and missing references without aborting")
+    void importReportsRejects() throws IOException {
+        StorageFixture managers = new StorageFixture();
+        managers.populate(5);
+        Path file = dir.resolve("bookings.csv");
+        Files.writeString(file, String.join("\n",
+                String.join(",", Entity.BOOKINGS.getColumns()),
+                "B10001,C0001,S0002,2030-01-01,2030-01-03,CONFIRMED,0,",
+                "B10002,C0001,S0002,not-a-date,2030-01-03,CONFIRMED,0,",
+                "B10001,C0002,S0005,2030-02-01,2030-02-03,PENDING,0,",
+                "B00001,C0002,S0005,2030-03-01,2030-03-03,PENDING,0,",
+                "B10003,C9999,S0005,2030-04-01,2030-04-03,PENDING,0,",
+                "B10004,C0002,S0005,2030-05-01,2030-05-03,PENDING",
+                "B10005,C0002,S0005,2030-06-01,2030-06-03,PENDING,0,\"hai\ndòng\"",
+                ""), StandardCharsets.UTF_8);
+
+        Report report = managers.transfer().importFile(Entity.BOOKINGS, file);
+
+        assertEquals(7, report.rows());
+        assertEquals(2, report.imported());
+        assertEquals(5, report.rejected());
+        assertEquals(List.of(3L, 4L, 5L, 6L, 7L),
+                report.rejects().stream().map(BulkTransfer.Reject::line).toList());
+        assertTrue(report.rejects().get(3).reason().contains("C9999"));
+        assertEquals("hai\ndòng", managers.bookings.getById("B10005").getNotes());
+        assertNull(managers.bookings.getById("B10002"));
+    }
+
+    @Test
+    @DisplayName("Unknown file extension is rejected")
+    void unknownFormat() {
+        StorageFixture managers = new StorageFixture();
+        assertThrows(IllegalArgumentException.class,
+                () -> managers.transfer().importFile(Entity.ROOMS, dir.resolve("rooms.xml")));
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("Benchmark - bulk import/export throughput")
+    void benchmarkThroughput() throws IOException {
+        StorageFixture source = new StorageFixture();
+        source.populate(300_000);
+        String[] extensions = { ".csv", ".jsonl" };
+        for (String extension : extensions) {
+            for (Entity entity : List.of(Entity.ROOMS, Entity.CUSTOMERS, Entity.BOOKINGS)) {
+                Report report = source.transfer().exportFile(entity, file(entity, extension));
+                if (entity == Entity.BOOKINGS) {
+                    System.out.printf("%s export: %.0f rows/s%n", extension, report.rowsPerSecond());
+                }
+            }
+        }
+
+        for (String extension : extensions) {
+            RoomManager.resetInstance();
+            StorageFixture target = new StorageFixture();
+            target.transfer().importFile(Entity.ROOMS, file(Entity.ROOMS, extension));
+            target.transfer().importFile(Entity.CUSTOMERS, file(Entity.CUSTOMERS, extension));
+            Report report = target.transfer().importFile(Entity.BOOKINGS, file(Entity.BOOKINGS, extension));
+            System.out.printf("%s import: %.0f rows/s%n", extension, report.rowsPerSecond());
+            assertEquals(300_000, report.imported());
+        }
+    }
+
+    // ==================== Helper Methods ====================
+
+    private Path file(Entity entity, String extension) {
+        return dir.resolve(entity.name().toLowerCase() + extension);
+    }
+}
@@ -0,0 +1,182 @@
+package com.hotel.storage;
+
+import com.hotel.model.customer.Customer;
+import com.hotel.service.CustomerManager;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import static com.hotel.storage.StorageFixture.customer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for atomic snapshot writes and background checkpointing
+ */
+@ExtendWith(StorageFixture.Isolation.class)
+class CheckpointerTest {
+
+    @TempDir
+    Path dataDir;
+
+    private CustomerManager customerManager;
+    private DataStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        customerManager = new CustomerManager();
+        storage = new DataStorage(dataDir.toString(), customerManager, null, null, null);
+        customerManager.add(customer("C001", "Khách 1"));
+        storage.saveCustomers();
+    }
+
+    @AfterEach
+    void tearDown() {
+        storage.closeJournal();
+    }
+
+    @Test
+    @DisplayName("saveCustomers() - failed write leaves the previous file intact")
+    void failedWriteKeepsOldFile() throws IOException {
+        Path file = dataDir.resolve("customers.json");
+        String before = Files.readString(file);
+        // Chặn việc tạo file tạm
+        Files.createDirectory(dataDir.resolve("customers.json.tmp"));
+
+        customerManager.add(customer("C002", "Khách 2"));
+        assertFalse(storage.saveCustomers());
+        assertEquals(before, Files.readString(file));
+        assertTrue(storage.hasUnsavedChanges());
+    }
+
+    @Test
+    @DisplayName("Checkpointer - change threshold triggers a background checkpoint")
+    void thresholdTriggersCheckpoint() throws Exception {
+        storage.openJournal();
+        try (Checkpointer checkpointer = new Checkpointer(storage, Duration.ofHours(1), 3, Runnable::run)) {
+            checkpointer.start();
+            customerManager.add(customer("C002", "Khách 2"));
+            customerManager.add(customer("C003", "Khách 3"));
+            customerManager.delete("C001");
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (storage.hasUnsavedChanges() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertFalse(storage.hasUnsavedChanges());
+            // checkpoint kế tiếp thấy không còn gì để ghi
+            assertTrue(checkpointer.checkpointNow().get(10, TimeUnit.SECONDS));
+        }
+
+        CustomerManager loaded = new CustomerManager();
+        new DataStorage(dataDir.toString(), loaded, null, null, null).loadCustomers();
+        assertEquals(2, loaded.count());
+        assertNull(loaded.getById("C001"));
+        assertFalse(Files.exists(dataDir.resolve("journal.1.log")));
+    }
+
+    @Test
+    @DisplayName("Checkpoint - changes made after the snapshot stay pending and journaled")
+    void changesAfterCaptureStayPending() {
+        storage.openJournal();
+        customerManager.add(customer("C002", "Khách 2"));
+
+        DataStorage.Snapshot snapshot = storage.captureSnapshot();
+        assertNotNull(snapshot);
+        customerManager.add(customer("C003", "Khách 3"));
+        assertTrue(storage.writeSnapshot(snapshot));
+
+        assertTrue(storage.hasUnsavedChanges());
+        assertEquals(1, storage.getPendingChangeCount());
+
+        // Giả lập tắt đột ngột: C003 chỉ còn trong nhật ký
+        CustomerManager loaded = new CustomerManager();
+        DataStorage recovered = new DataStorage(dataDir.toString(), loaded, null, null, null);
+        recovered.loadCustomers();
+        assertEquals(2, loaded.count());
+        recovered.openJournal();
+        assertNotNull(loaded.getById("C003"));
+        recovered.closeJournal();
+    }
+
+    @Test
+    @DisplayName("Checkpoint - released snapshot gives its changes back")
+    void releasedSnapshotRestoresChanges() {
+        customerManager.add(customer("C002", "Khách 2"));
+
+        DataStorage.Snapshot snapshot = storage.captureSnapshot();
+        assertFalse(storage.hasUnsavedChanges());
+        storage.releaseSnapshot(snapshot);
+
+        assertEquals(1, storage.getPendingChangeCount());
+        assertEquals(1, storage.saveChanges());
+    }
+
+    @Test
+    @DisplayName("saveAllData() - a change made while the save reads the data stays pending and journaled")
+    void changeDuringSaveIsKept() {
+        EditingCustomerManager editing = new EditingCustomerManager();
+        DataStorage racing = new DataStorage(dataDir.toString(), editing, null, null, null);
+        editing.add(customer("C001", "Khách 1"));
+        racing.saveCustomers();
+        racing.openJournal();
+        try {
+            editing.add(customer("C002", "Khách 2"));
+            // Thêm C003 ngay sau khi lần lưu đã đọc dữ liệu, trước khi nó ghi xong
+            editing.duringRead = () -> editing.add(customer("C003", "Khách 3"));
+            racing.saveAllData();
+
+            assertTrue(racing.hasUnsavedChanges());
+            assertEquals(1, racing.getPendingChangeCount());
+        } finally {
+            editing.duringRead = null;
+        }
+
+        // Giả lập tắt đột ngột: C003 chỉ còn trong nhật ký, không bị xóa khi lưu
+        CustomerManager loaded = new CustomerManager();
+        DataStorage recovered = new DataStorage(dataDir.toString(), loaded, null, null, null);
+        recovered.loadCustomers();
+        assertNull(loaded.getById("C003"));
+        recovered.openJournal();
+        assertNotNull(loaded.getById("C003"));
+        recovered.closeJournal();
+        racing.closeJournal();
+    }
+
+    @Test
+    @DisplayName("captureSnapshot() - does not wait while another save holds the write lock")
+    void captureSkipsWhenBusy() {
+        customerManager.add(customer("C002", "Khách 2"));
+        DataStorage.Snapshot held = storage.captureSnapshot();
+        assertNotNull(held);
+
+        // Cùng luồng: chờ quyền ghi ở đây sẽ treo mãi
+        assertSame(DataStorage.Snapshot.BUSY, storage.captureSnapshot());
+        storage.releaseSnapshot(held);
+        assertEquals(1, storage.getPendingChangeCount());
+    }
+
+    /**
+     * Manager chạy duringRead ngay sau khi getAll() chụp xong danh sách
+     */
+    private static final class EditingCustomerManager extends CustomerManager {
+        private Runnable duringRead;
+
+        @Override
+        public List<Customer> getAll() {
+            List<Customer> all = super.getAll();
+            Runnable edit = duringRead;
+            duringRead = null;
+            if (edit != null) {
+                edit.run();
+            }
+            return all;
+        }
+    }
+
+}
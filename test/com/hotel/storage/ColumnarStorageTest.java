@@ -0,0 +1,118 @@
+package com.hotel.storage;
+
+import com.hotel.model.enums.BookingStatus;
+import com.hotel.service.BookingManager;
+import com.hotel.service.RoomManager;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Tests for the memory-mapped read-only columnar mode
+ */
+@ExtendWith(StorageFixture.Isolation.class)
+class ColumnarStorageTest {
+
+    @TempDir
+    Path dataDir;
+
+    private StorageFixture source;
+    private BookingManager bookings;
+    private DataStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        source = new StorageFixture();
+        source.populate(500);
+        bookings = source.bookings;
+        storage = source.storage(dataDir);
+        storage.saveAllData();
+        assertTrue(storage.exportColumns());
+    }
+
+    @Test
+    @DisplayName("Read-only mode - booking statistics from mapped columns match the object model")
+    void bookingStatisticsMatch() {
+        BookingManager mapped = openReadOnly().bookings;
+
+        assertTrue(mapped.hasColumns());
+        assertEquals(0, mapped.count(), "bookings must not be deserialised");
+        assertEquals(bookings.getTotalBookings(), mapped.getTotalBookings());
+        assertEquals(bookings.getCompletedBookings(), mapped.getCompletedBookings());
+        for (BookingStatus status : BookingStatus.values()) {
+            assertEquals(bookings.countByStatus(status), mapped.countByStatus(status), status.name());
+        }
+        assertEquals(bookings.getTotalRevenue(), mapped.getTotalRevenue(), 0.01);
+        for (int month = 1; month <= 12; month++) {
+            assertEquals(bookings.getMonthlyRevenue(month, 2022), mapped.getMonthlyRevenue(month, 2022), 0.01);
+        }
+    }
+
+    @Test
+    @DisplayName("Read-only mode - room statistics from mapped columns match the object model")
+    void roomStatisticsMatch() {
+        StorageFixture reader = openReadOnly();
+        RoomManager rooms = source.rooms;
+        RoomManager mappedRooms = reader.rooms;
+
+        assertEquals(rooms.count(), mappedRooms.count());
+        assertEquals(rooms.countByType(), mappedRooms.countByType());
+        assertEquals(rooms.countByStatus(), mappedRooms.countByStatus());
+        assertEquals(rooms.countByFloor(), mappedRooms.countByFloor());
+        assertEquals(rooms.calculateTotalPotentialRevenue(), mappedRooms.calculateTotalPotentialRevenue(), 0.01);
+        assertEquals(source.customers.count(), reader.customers.count());
+    }
+
+    @Test
+    @DisplayName("Read-only mode - saves are refused and files stay untouched")
+    void readOnlyRefusesWrites() throws IOException {
+        byte[] before = Files.readAllBytes(dataDir.resolve("bookings.json"));
+        StorageFixture reader = openReadOnly();
+        DataStorage readOnly = reader.storage(dataDir);
+
+        assertTrue(readOnly.isReadOnly());
+        reader.customers.add(StorageFixture.customer("C9999", "Khách mới"));
+        readOnly.saveAllData();
+        assertEquals(0, readOnly.saveChanges());
+        assertNull(readOnly.captureSnapshot());
+        assertEquals(0, readOnly.openJournal());
+        assertArrayEquals(before, Files.readAllBytes(dataDir.resolve("bookings.json")));
+    }
+
+    @Test
+    @DisplayName("Column files are refreshed by a full save once exported")
+    void columnsRefreshedOnSave() {
+        bookings.updateStatus("B00002", BookingStatus.CHECKED_OUT);
+        storage.saveAllData();
+
+        BookingManager mapped = openReadOnly().bookings;
+        assertEquals(bookings.countByStatus(BookingStatus.CHECKED_OUT), mapped.countByStatus(BookingStatus.CHECKED_OUT));
+        assertEquals(bookings.getTotalRevenue(), mapped.getTotalRevenue(), 0.01);
+    }
+
+    @Test
+    @DisplayName("Read-only mode - falls back to a full load when the column file is damaged")
+    void damagedColumnsFallBack() throws IOException {
+        Path columns = dataDir.resolve("bookings.col");
+        byte[] bytes = Files.readAllBytes(columns);
+        Files.write(columns, java.util.Arrays.copyOf(bytes, bytes.length - 3));
+
+        BookingManager loaded = openReadOnly().bookings;
+        assertFalse(loaded.hasColumns());
+        assertEquals(bookings.count(), loaded.count());
+        assertEquals(bookings.getTotalRevenue(), loaded.getTotalRevenue(), 0.01);
+    }
+
+    // ==================== Helper Methods ====================
+
+    private StorageFixture openReadOnly() {
+        StorageFixture reader = StorageFixture.fresh();
+        reader.storage(dataDir).openReadOnly();
+        return reader;
+    }
+}
@@ -0,0 +1,129 @@
+package com.hotel.storage;
+
+import com.hotel.model.booking.Booking;
+import com.hotel.model.customer.Customer;
+import com.hotel.model.enums.BookingStatus;
+import com.hotel.model.room.*;
+import com.hotel.service.BookingManager;
+import com.hotel.service.CustomerManager;
+import com.hotel.service.InvoiceManager;
+import com.hotel.service.RoomManager;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import static com.hotel.storage.StorageFixture.customer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+/**
+ * Tests for incremental saving (delta files) of DataStorage
+ */
+@ExtendWith(StorageFixture.Isolation.class)
+class DataStorageIncrementalTest {
+
+    @TempDir
+    Path dataDir;
+
+    private RoomManager roomManager;
+    private CustomerManager customerManager;
+    private BookingManager bookingManager;
+    private InvoiceManager invoiceManager;
+    private DataStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        roomManager = RoomManager.getInstance();
+        customerManager = new CustomerManager();
+        bookingManager = new BookingManager(roomManager);
+        invoiceManager = new InvoiceManager(bookingManager);
+        storage = new DataStorage(dataDir.toString(), customerManager, bookingManager, invoiceManager, roomManager);
+
+        roomManager.add(new StandardRoom("R101", 1));
+        roomManager.add(new DeluxeRoom("R301", 3));
+        for (int i = 1; i <= 20; i++) {
+            customerManager.add(customer(String.format("C%03d", i), "Khách " + i));
+        }
+        storage.saveAllData();
+    }
+
+    @Test
+    @DisplayName("saveChanges() - untouched collections are not rewritten")
+    void unchangedCollectionsAreSkipped() throws IOException {
+        Path customers = dataDir.resolve("customers.json");
+        long modified = Files.getLastModifiedTime(customers).toMillis();
+
+        assertFalse(storage.hasUnsavedChanges());
+        assertEquals(0, storage.saveChanges());
+
+        bookingManager.add(new Booking("B001", customerManager.getById("C001"), roomManager.getById("R101"),
+                LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 3), BookingStatus.CONFIRMED));
+        assertEquals(1, storage.saveChanges());
+        assertEquals(modified, Files.getLastModifiedTime(customers).toMillis());
+        assertFalse(Files.exists(dataDir.resolve("customers.delta.jsonl")));
+    }
+
+    @Test
+    @DisplayName("saveChanges() - delta entries are applied on load")
+    void deltaIsAppliedOnLoad() {
+        Customer updated = customerManager.getById("C002");
+        updated.setFullName("Trần Văn Bình");
+        customerManager.update(updated);
+        customerManager.delete("C003");
+        customerManager.add(customer("C021", "Khách mới"));
+
+        assertEquals(1, storage.saveChanges());
+        assertTrue(Files.exists(dataDir.resolve("customers.delta.jsonl")));
+
+        CustomerManager loaded = reloadCustomers();
+        assertEquals(20, loaded.count());
+        assertEquals("Trần Văn Bình", loaded.getById("C002").getFullName());
+        assertNull(loaded.getById("C003"));
+        assertNotNull(loaded.getById("C021"));
+    }
+
+    @Test
+    @DisplayName("saveChanges() - large delta is compacted into the main file")
+    void largeDeltaIsCompacted() {
+        Path delta = dataDir.resolve("customers.delta.jsonl");
+        boolean compacted = false;
+        for (int round = 0; round < 5; round++) {
+            for (Customer c : customerManager.getAll()) {
+                c.setAddress("Địa chỉ " + round);
+                customerManager.update(c);
+            }
+            boolean hadDelta = Files.exists(delta);
+            storage.saveChanges();
+            compacted |= hadDelta && !Files.exists(delta);
+        }
+
+        assertTrue(compacted);
+        assertEquals("Địa chỉ 4", reloadCustomers().getById("C010").getAddress());
+    }
+
+    @Test
+    @DisplayName("loadCustomers() - corrupt trailing delta line is skipped")
+    void corruptDeltaLineIsSkipped() throws IOException {
+        customerManager.delete("C005");
+        storage.saveChanges();
+        Files.writeString(dataDir.resolve("customers.delta.jsonl"), "{\"op\":\"UPSE",
+                StandardOpenOption.APPEND);
+
+        CustomerManager loaded = reloadCustomers();
+        assertEquals(19, loaded.count());
+        assertNull(loaded.getById("C005"));
+    }
+
+    // ==================== Helper Methods ====================
+
+    private CustomerManager reloadCustomers() {
+        CustomerManager loaded = new CustomerManager();
+        new DataStorage(dataDir.toString(), loaded, null, null, null).loadCustomers();
+        return loaded;
+    }
+
+}
@@ -0,0 +1,147 @@
+package com.hotel.storage;
+
+import com.hotel.service.BookingManager;
+import com.hotel.service.CustomerManager;
+import com.hotel.service.InvoiceManager;
+import com.hotel.service.RoomManager;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+/**
+ * Load-time benchmark for DataStorage.loadAllData()
+ * Generates 100k customers, 500k bookings and 500k invoices in the on-disk JSON format.
+ *
+ * Chỉ chạy khi bật: mvn test -Dbenchmark=true -Dtest=DataStorageLoadBenchmarkTest
+ * Có thể đổi quy mô bằng -Dbenchmark.customers / -Dbenchmark.bookings / -Dbenchmark.invoices
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@ExtendWith(StorageFixture.Isolation.class)
+class DataStorageLoadBenchmarkTest {
+
+    private static final int ROOMS = 200;
+    private static final LocalDate BASE_DATE = LocalDate.of(2020, 1, 1);
+
+    @TempDir
+    Path dataDir;
+
+    private int customers;
+    private int bookings;
+    private int invoices;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        customers = Integer.getInteger("benchmark.customers", 100_000);
+        bookings = Integer.getInteger("benchmark.bookings", 500_000);
+        invoices = Integer.getInteger("benchmark.invoices", 500_000);
+
+        writeRooms(dataDir.resolve("rooms.json"));
+        writeCustomers(dataDir.resolve("customers.json"));
+        writeBookings(dataDir.resolve("bookings.json"));
+        writeInvoices(dataDir.resolve("invoices.json"));
+    }
+
+    @Test
+    @DisplayName("Benchmark - loadAllData() with 100k customers, 500k bookings, 500k invoices")
+    void loadAllData() {
+        RoomManager roomManager = RoomManager.getInstance();
+        CustomerManager customerManager = new CustomerManager();
+        BookingManager bookingManager = new BookingManager(roomManager);
+        InvoiceManager invoiceManager = new InvoiceManager(bookingManager);
+        DataStorage storage = new DataStorage(dataDir.toString(),
+                customerManager, bookingManager, invoiceManager, roomManager);
+
+        long start = System.nanoTime();
+        storage.loadAllData();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.printf("[benchmark] loadAllData: %d rooms, %d customers, %d bookings, %d invoices in %d ms%n",
+                roomManager.count(), customerManager.count(), bookingManager.count(),
+                invoiceManager.count(), elapsedMs);
+
+        assertEquals(ROOMS, roomManager.count());
+        assertEquals(customers, customerManager.count());
+        assertEquals(bookings, bookingManager.count());
+        assertEquals(invoices, invoiceManager.count());
+    }
+
+    // ==================== Data Generators ====================
+
+    private void writeRooms(Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("{\n  \"rooms\": [\n");
+            for (int i = 0; i < ROOMS; i++) {
+                if (i > 0) writer.write(",\n");
+                writer.write("    {\"roomType\": \"STANDARD\", \"roomId\": \"" + roomId(i)
+                        + "\", \"floor\": " + (1 + i / 20) + ", \"basePrice\": 500000.0, \"status\": \"AVAILABLE\","
+                        + " \"description\": \"Phòng tiêu chuẩn\", \"bedCount\": 1, \"area\": 20.0}");
+            }
+            writer.write("\n  ]\n}\n");
+        }
+    }
+
+    private void writeCustomers(Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("[\n");
+            for (int i = 0; i < customers; i++) {
+                if (i > 0) writer.write(",\n");
+                writer.write("  {\"customerId\": \"" + customerId(i) + "\", \"fullName\": \"Nguyễn Văn " + i
+                        + "\", \"email\": \"khach" + i + "@example.com\", \"phoneNumber\": \"09" + String.format("%08d", i)
+                        + "\", \"idCard\": \"" + String.format("%012d", i) + "\", \"address\": \"Hà Nội\","
+                        + " \"registrationDate\": \"2020-01-01\", \"isVIP\": " + (i % 10 == 0)
+                        + ", \"loyaltyPoints\": 0.0}");
+            }
+            writer.write("\n]\n");
+        }
+    }
+
+    private void writeBookings(Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("[\n");
+            for (int i = 0; i < bookings; i++) {
+                if (i > 0) writer.write(",\n");
+                LocalDate checkIn = BASE_DATE.plusDays(i % 2000);
+                writer.write("  {\"bookingId\": \"" + bookingId(i) + "\", \"customerId\": \"" + customerId(i % customers)
+                        + "\", \"roomId\": \"" + roomId(i % ROOMS) + "\", \"checkInDate\": \"" + checkIn
+                        + "\", \"checkOutDate\": \"" + checkIn.plusDays(2) + "\", \"status\": \"CHECKED_OUT\","
+                        + " \"totalPrice\": 1000000.0, \"notes\": \"\"}");
+            }
+            writer.write("\n]\n");
+        }
+    }
+
+    private void writeInvoices(Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("[\n");
+            for (int i = 0; i < invoices; i++) {
+                if (i > 0) writer.write(",\n");
+                writer.write("  {\"invoiceId\": \"INV" + i + "\", \"bookingId\": \"" + bookingId(i % bookings)
+                        + "\", \"invoiceDate\": \"" + BASE_DATE.plusDays(i % 2000) + "\", \"subtotal\": 1000000.0,"
+                        + " \"taxRate\": 0.1, \"taxAmount\": 100000.0, \"totalAmount\": 1100000.0,"
+                        + " \"status\": \"PAID\", \"notes\": \"\"}");
+            }
+            writer.write("\n]\n");
+        }
+    }
+
+    private static String roomId(int i) {
+        return "R" + (1000 + i);
+    }
+
+    private static String customerId(int i) {
+        return "CUST" + i;
+    }
+
+    private static String bookingId(int i) {
+        return "BK" + i;
+    }
+}
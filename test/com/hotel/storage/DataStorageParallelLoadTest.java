@@ -0,0 +1,176 @@
+package com.hotel.storage;
+
+import com.hotel.model.booking.Booking;
+import com.hotel.model.enums.BookingStatus;
+import com.hotel.model.invoice.Invoice;
+import com.hotel.model.room.*;
+import com.hotel.service.BookingManager;
+import com.hotel.service.CustomerManager;
+import com.hotel.service.InvoiceManager;
+import com.hotel.service.RoomManager;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import static com.hotel.storage.StorageFixture.customer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for the parallel read + resolve phases of DataStorage.loadAllData()
+ */
+@ExtendWith(StorageFixture.Isolation.class)
+class DataStorageParallelLoadTest {
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    @DisplayName("loadAllData() - references only present in other collections' delta files are resolved")
+    void resolvesAcrossDeltaFiles() {
+        StorageFixture source = new StorageFixture();
+        RoomManager rooms = source.rooms;
+        CustomerManager customers = source.customers;
+        BookingManager bookings = source.bookings;
+        InvoiceManager invoices = source.invoices;
+        DataStorage storage = source.storage(dataDir);
+
+        rooms.add(new StandardRoom("R101", 1));
+        customers.add(customer("C001", "Khách C001"));
+        bookings.add(new Booking("B001", customers.getById("C001"), rooms.getById("R101"),
+                LocalDate.of(2025, 5, 1), LocalDate.of(2025, 5, 3), BookingStatus.CONFIRMED));
+        storage.saveAllData();
+
+        // Phòng, khách hàng, booking và hóa đơn mới chỉ nằm trong file delta
+        rooms.add(new VIPRoom("R501", 5));
+        customers.add(customer("C002", "Khách C002"));
+        Booking booking = new Booking("B002", customers.getById("C002"), rooms.getById("R501"),
+                LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 4), BookingStatus.CHECKED_OUT);
+        bookings.add(booking);
+        invoices.createInvoiceFromBooking(booking, "INV002");
+        assertEquals(4, storage.saveChanges());
+        assertTrue(Files.exists(dataDir.resolve("invoices.delta.jsonl")));
+
+        StorageFixture loaded = load();
+        assertEquals(2, loaded.rooms.count());
+        assertEquals(2, loaded.customers.count());
+        assertEquals(2, loaded.bookings.count());
+        Invoice invoice = loaded.invoices.getById("INV002");
+        assertNotNull(invoice);
+        assertSame(loaded.bookings.getById("B002"), invoice.getBooking());
+        assertSame(loaded.customers.getById("C002"), invoice.getBooking().getCustomer());
+        assertSame(loaded.rooms.getById("R501"), invoice.getBooking().getRoom());
+        assertEquals(booking.getTotalPrice(), invoice.getBooking().getTotalPrice(), 0.001);
+        assertFalse(loaded.storage(dataDir).hasUnsavedChanges());
+    }
+
+    @Test
+    @DisplayName("loadAllData() - dangling references are skipped, a broken file does not stop the others")
+    void skipsDanglingAndBrokenFiles() throws IOException {
+        Files.writeString(dataDir.resolve("rooms.json"), "{ \"rooms\": [ { \"roomType\": \"STANDARD\", "
+                + "\"roomId\": \"R101\", \"floor\": 1, \"basePrice\": 500000, \"status\": \"AVAILABLE\" } ] }");
+        Files.writeString(dataDir.resolve("customers.json"), "[ { \"customerId\": \"C001\", \"fullName\": \"A\", "
+                + "\"email\": \"a@example.com\", \"phoneNumber\": \"0900000001\", \"idCard\": \"012345678901\", "
+                + "\"address\": \"Huế\", \"registrationDate\": \"2025-01-01\", \"isVIP\": false } ]");
+        Files.writeString(dataDir.resolve("bookings.json"), "[ "
+                + booking("B001", "C001") + ", " + booking("B002", "C999") + " ]");
+        Files.writeString(dataDir.resolve("invoices.json"), "[ { \"invoiceId\": \"INV001\", \"bookingId\": ");
+
+        StorageFixture loaded = load();
+        assertEquals(1, loaded.rooms.count());
+        assertEquals(1, loaded.customers.count());
+        assertEquals(1, loaded.bookings.count());
+        assertNotNull(loaded.bookings.getById("B001"));
+        assertTrue(loaded.invoices.isEmpty());
+    }
+
+    @Test
+    @DisplayName("loadAllData(listener) - reports collections in order, stopping leaves storage read-only")
+    void listenerReportsAndCancels() {
+        StorageFixture source = new StorageFixture();
+        RoomManager rooms = source.rooms;
+        CustomerManager customers = source.customers;
+        BookingManager bookings = source.bookings;
+        DataStorage storage = source.storage(dataDir);
+        rooms.add(new StandardRoom("R101", 1));
+        rooms.add(new StandardRoom("R102", 1));
+        customers.add(customer("C001", "Khách C001"));
+        bookings.add(new Booking("B001", customers.getById("C001"), rooms.getById("R101"),
+                LocalDate.of(2025, 5, 1), LocalDate.of(2025, 5, 3), BookingStatus.CONFIRMED));
+        storage.saveAllData();
+
+        StorageFixture all = StorageFixture.fresh();
+        List<String> reported = new ArrayList<>();
+        assertTrue(all.storage(dataDir).loadAllData((entity, count) -> reported.add(entity + "=" + count)));
+        assertEquals(List.of("ROOMS=2", "CUSTOMERS=1", "BOOKINGS=1", "INVOICES=0"), reported);
+        assertFalse(all.storage(dataDir).isReadOnly());
+
+        StorageFixture partial = StorageFixture.fresh();
+        reported.clear();
+        assertFalse(partial.storage(dataDir).loadAllData((entity, count) -> reported.add(entity.name())
+                && entity != BulkTransfer.Entity.CUSTOMERS));
+        assertEquals(List.of("ROOMS", "CUSTOMERS"), reported);
+        assertTrue(partial.bookings.isEmpty());
+        assertTrue(partial.storage(dataDir).isReadOnly());
+
+        // Dữ liệu thiếu không được ghi đè lên file
+        partial.customers.add(customer("C002", "Khách C002"));
+        assertEquals(0, partial.storage(dataDir).saveChanges());
+        assertNotNull(load().bookings.getById("B001"));
+    }
+
+    @Test
+    @DisplayName("Lazy references - dangling records are kept, reported and saved unchanged")
+    void lazyReferencesKeepDanglingRecords() throws IOException {
+        Files.writeString(dataDir.resolve("rooms.json"), "{ \"rooms\": [ { \"roomType\": \"STANDARD\", "
+                + "\"roomId\": \"R101\", \"floor\": 1, \"basePrice\": 500000, \"status\": \"AVAILABLE\" } ] }");
+        Files.writeString(dataDir.resolve("customers.json"), "[ { \"customerId\": \"C001\", \"fullName\": \"A\", "
+                + "\"email\": \"a@example.com\", \"phoneNumber\": \"0900000001\", \"idCard\": \"012345678901\", "
+                + "\"address\": \"Huế\", \"registrationDate\": \"2025-01-01\", \"isVIP\": false } ]");
+        Files.writeString(dataDir.resolve("bookings.json"), "[ "
+                + booking("B001", "C001") + ", " + booking("B002", "C999") + " ]");
+        Files.writeString(dataDir.resolve("invoices.json"), "[ { \"invoiceId\": \"INV009\", \"bookingId\": \"B009\", "
+                + "\"invoiceDate\": \"2025-02-02\", \"taxRate\": 0.1, \"status\": \"PAID\" } ]");
+
+        StorageFixture loaded = StorageFixture.fresh();
+        loaded.storage(dataDir).setLazyReferences(true);
+        loaded.storage(dataDir).loadAllData();
+
+        assertEquals(2, loaded.bookings.count());
+        assertEquals(1, loaded.invoices.count());
+        Booking historic = loaded.bookings.getById("B001");
+        assertFalse(historic.isResolved());
+        assertEquals(1, loaded.bookings.getCustomerBookings("C001").size());
+        assertSame(loaded.customers.getById("C001"), historic.getCustomer());
+        assertNull(loaded.bookings.getById("B002").getCustomer());
+
+        assertEquals(List.of(
+                new DataStorage.DanglingReference("BOOKING", "B002", "CUSTOMER", "C999"),
+                new DataStorage.DanglingReference("INVOICE", "INV009", "BOOKING", "B009")),
+                loaded.storage(dataDir).findDanglingReferences());
+
+        loaded.storage(dataDir).saveAllData();
+        String saved = Files.readString(dataDir.resolve("bookings.json"));
+        assertTrue(saved.contains("\"C999\""), saved);
+        assertTrue(Files.readString(dataDir.resolve("invoices.json")).contains("\"B009\""));
+    }
+
+    // ==================== Helper Methods ====================
+
+    private StorageFixture load() {
+        StorageFixture loaded = StorageFixture.fresh();
+        loaded.storage(dataDir).loadAllData();
+        return loaded;
+    }
+
+    private static String booking(String bookingId, String customerId) {
+        return "{ \"bookingId\": \"" + bookingId + "\", \"customerId\": \"" + customerId + "\", "
+                + "\"roomId\": \"R101\", \"checkInDate\": \"2025-02-01\", \"checkOutDate\": \"2025-02-02\", "
+                + "\"status\": \"CONFIRMED\" }";
+    }
+}
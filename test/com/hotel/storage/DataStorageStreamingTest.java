@@ -0,0 +1,166 @@
+package com.hotel.storage;
+
+import com.hotel.model.booking.Booking;
+import com.hotel.model.customer.Customer;
+import com.hotel.model.enums.BookingStatus;
+import com.hotel.model.room.*;
+import com.hotel.service.BookingManager;
+import com.hotel.service.CustomerManager;
+import com.hotel.service.InvoiceManager;
+import com.hotel.service.RoomManager;
+import com.hotel.util.AppLogger;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for the streaming JSON load/save path of DataStorage
+ *
+ * Bài kiểm tra bộ nhớ chạy một JVM con với heap nhỏ hơn kích thước file; đọc cả file
+ * vào String/JsonArray như trước sẽ gây OutOfMemoryError. Kích thước file mặc định
+ * 64 MB, đổi bằng -Dstorage.heapTest.mb=300.
+ */
+@ExtendWith(StorageFixture.Isolation.class)
+class DataStorageStreamingTest {
+
+    private static final String CHILD_HEAP = "-Xmx32m";
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    @DisplayName("DataStorage - save then load round-trips all collections")
+    void saveAndLoadRoundTrip() {
+        RoomManager roomManager = RoomManager.getInstance();
+        CustomerManager customerManager = new CustomerManager();
+        BookingManager bookingManager = new BookingManager(roomManager);
+        InvoiceManager invoiceManager = new InvoiceManager(bookingManager);
+
+        Room room = new DeluxeRoom("R301", 3);
+        roomManager.add(room);
+        Customer customer = new Customer("C001", "Nguyễn Minh Anh", "anh@example.com", "0901000001",
+                "012345678901", "Hà Nội", LocalDate.of(2025, 1, 1), true);
+        customerManager.add(customer);
+        Booking booking = new Booking("B001", customer, room,
+                LocalDate.of(2025, 2, 1), LocalDate.of(2025, 2, 4), BookingStatus.CHECKED_OUT);
+        booking.setNotes("Khách VIP");
+        bookingManager.add(booking);
+        invoiceManager.createInvoiceFromBooking(booking, "INV001").markAsPaid();
+
+        new DataStorage(dataDir.toString(), customerManager, bookingManager, invoiceManager, roomManager)
+                .saveAllData();
+
+        RoomManager.resetInstance();
+        RoomManager loadedRooms = RoomManager.getInstance();
+        CustomerManager loadedCustomers = new CustomerManager();
+        BookingManager loadedBookings = new BookingManager(loadedRooms);
+        InvoiceManager loadedInvoices = new InvoiceManager(loadedBookings);
+        new DataStorage(dataDir.toString(), loadedCustomers, loadedBookings, loadedInvoices, loadedRooms)
+                .loadAllData();
+
+        assertTrue(loadedRooms.getById("R301") instanceof DeluxeRoom);
+        assertEquals("Nguyễn Minh Anh", loadedCustomers.getById("C001").getFullName());
+        assertEquals("Khách VIP", loadedBookings.getById("B001").getNotes());
+        assertEquals(BookingStatus.CHECKED_OUT, loadedBookings.getById("B001").getStatus());
+        assertEquals(booking.getTotalPrice(), loadedInvoices.getById("INV001").getSubtotal(), 0.01);
+    }
+
+    @Test
+    @DisplayName("DataStorage - empty files load as empty collections")
+    void emptyFilesLoadAsEmpty() throws IOException {
+        for (String file : new String[] { "rooms.json", "customers.json", "bookings.json", "invoices.json" }) {
+            Files.writeString(dataDir.resolve(file), "  \n");
+        }
+        RoomManager roomManager = RoomManager.getInstance();
+        CustomerManager customerManager = new CustomerManager();
+        BookingManager bookingManager = new BookingManager(roomManager);
+        InvoiceManager invoiceManager = new InvoiceManager(bookingManager);
+
+        new DataStorage(dataDir.toString(), customerManager, bookingManager, invoiceManager, roomManager)
+                .loadAllData();
+
+        assertTrue(roomManager.isEmpty());
+        assertTrue(customerManager.isEmpty());
+        assertTrue(bookingManager.isEmpty());
+        assertTrue(invoiceManager.isEmpty());
+    }
+
+    @Test
+    @DisplayName("DataStorage - loading a file larger than the heap stays within bounds")
+    void loadLargeFileWithSmallHeap() throws Exception {
+        long targetBytes = Long.getLong("storage.heapTest.mb", 64L) * 1024 * 1024;
+        writeLargeBookingsFile(dataDir.resolve("bookings.json"), targetBytes);
+        assertTrue(Files.size(dataDir.resolve("bookings.json")) >= targetBytes);
+
+        String javaBin = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        List<String> command = new ArrayList<>(List.of(javaBin, CHILD_HEAP,
+                "-cp", System.getProperty("java.class.path"),
+                LoadBookingsMain.class.getName(), dataDir.toString()));
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(dataDir.resolve("child.log").toFile())
+                .start();
+
+        assertTrue(process.waitFor(5, TimeUnit.MINUTES), "Child JVM timed out");
+        String output = Files.readString(dataDir.resolve("child.log"));
+        assertEquals(0, process.exitValue(), output);
+        assertTrue(output.contains("LOADED 1"), output);
+    }
+
+    /**
+     * Mọi bản ghi dùng chung một bookingId nên chỉ bản ghi đầu được giữ lại; phần còn lại
+     * là rác sau khi parse. Bộ nhớ cần thiết vì thế chỉ phụ thuộc vào cách đọc file.
+     */
+    private static void writeLargeBookingsFile(Path file, long targetBytes) throws IOException {
+        String padding = "x".repeat(1000);
+        long written = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("[\n");
+            boolean first = true;
+            while (written < targetBytes) {
+                String record = (first ? "" : ",\n")
+                        + "  {\n    \"bookingId\": \"B001\",\n    \"customerId\": \"C001\",\n    \"roomId\": \"R101\",\n"
+                        + "    \"checkInDate\": \"2025-01-01\",\n    \"checkOutDate\": \"2025-01-03\",\n"
+                        + "    \"status\": \"CONFIRMED\",\n    \"totalPrice\": 1000000.0,\n"
+                        + "    \"notes\": \"" + padding + "\"\n  }";
+                writer.write(record);
+                written += record.length();
+                first = false;
+            }
+            writer.write("\n]");
+        }
+    }
+
+    /**
+     * Điểm vào của JVM con: tải bookings.json rồi in số booking đã tải
+     */
+    static final class LoadBookingsMain {
+        public static void main(String[] args) {
+            AppLogger.setConsoleLogging(false);
+            AppLogger.setFileLogging(false);
+
+            RoomManager roomManager = RoomManager.getInstance();
+            roomManager.add(new StandardRoom("R101", 1));
+            CustomerManager customerManager = new CustomerManager();
+            customerManager.add(new Customer("C001", "Test Customer", "test@email.com", "0123456789",
+                    "123456789012", "123 Test Street", LocalDate.of(2025, 1, 1), false));
+            BookingManager bookingManager = new BookingManager(roomManager);
+            InvoiceManager invoiceManager = new InvoiceManager(bookingManager);
+
+            new DataStorage(args[0], customerManager, bookingManager, invoiceManager, roomManager).loadBookings();
+            System.out.println("LOADED " + bookingManager.count());
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.hotel.storage;
+
+import com.hotel.model.booking.Booking;
+import com.hotel.model.customer.Customer;
+import com.hotel.model.enums.BookingStatus;
+import com.hotel.model.room.*;
+import com.hotel.service.BookingManager;
+import com.hotel.service.CustomerManager;
+import com.hotel.service.InvoiceManager;
+import com.hotel.service.RoomManager;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for the write-ahead journal and its replay through DataStorage
+ */
+@ExtendWith(StorageFixture.Isolation.class)
+class JournalTest {
+
+    @TempDir
+    Path dataDir;
+
+    // ==================== Journal Tests ====================
+
+    @Test
+    @DisplayName("Journal - records are replayed in order")
+    void replayInOrder() throws IOException {
+        Path file = dataDir.resolve("journal.log");
+        try (Journal journal = new Journal(file)) {
+            journal.open();
+            journal.append("một");
+            journal.append("two");
+            journal.append("ba");
+        }
+
+        List<String> records = new ArrayList<>();
+        assertEquals(3, new Journal(file).replay(records::add));
+        assertEquals(List.of("một", "two", "ba"), records);
+    }
+
+    @Test
+    @DisplayName("Journal - torn tail is truncated and appends continue after it")
+    void tornTailIsTruncated() throws IOException {
+        Path file = dataDir.resolve("journal.log");
+        try (Journal journal = new Journal(file)) {
+            journal.open();
+            journal.append("first");
+            journal.append("second");
+        }
+        long size = Files.size(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 3);
+        }
+
+        List<String> records = new ArrayList<>();
+        Journal journal = new Journal(file);
+        assertEquals(1, journal.replay(records::add));
+        assertEquals(List.of("first"), records);
+
+        journal.open();
+        journal.append("third");
+        journal.close();
+
+        records.clear();
+        new Journal(file).replay(records::add);
+        assertEquals(List.of("first", "third"), records);
+    }
+
+    @Test
+    @DisplayName("Journal - record with a bad checksum stops replay")
+    void badChecksumStopsReplay() throws IOException {
+        Path file = dataDir.resolve("journal.log");
+        try (Journal journal = new Journal(file)) {
+            journal.open();
+            journal.append("good");
+            journal.append("flipped");
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 0x01;
+        Files.write(file, bytes);
+
+        List<String> records = new ArrayList<>();
+        assertEquals(1, new Journal(file).replay(records::add));
+        assertEquals(List.of("good"), records);
+    }
+
+    @Test
+    @DisplayName("Journal - concurrent appends are all durable")
+    void concurrentAppends() throws Exception {
+        Path file = dataDir.resolve("journal.log");
+        Journal journal = new Journal(file);
+        journal.open();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 50; i++) {
+                    try {
+                        journal.append(thread + ":" + i);
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        journal.close();
+
+        assertEquals(200, new Journal(file).replay(r -> { }));
+    }
+
+    @Test
+    @DisplayName("Journal - enqueue() only buffers; commit() makes this thread's records durable once")
+    void enqueueThenCommit() throws IOException {
+        Path file = dataDir.resolve("journal.log");
+        Journal journal = new Journal(file);
+        journal.open();
+        journal.enqueue("a");
+        journal.enqueue("b");
+        assertEquals(0, Files.size(file));
+
+        journal.commit();
+        long committed = Files.size(file);
+        assertTrue(committed > 0);
+        journal.commit(); // Không còn gì để chờ
+        assertEquals(committed, Files.size(file));
+        journal.close();
+
+        List<String> records = new ArrayList<>();
+        assertEquals(2, new Journal(file).replay(records::add));
+        assertEquals(List.of("a", "b"), records);
+    }
+
+    // ==================== DataStorage Replay Tests ====================
+
+    @Test
+    @DisplayName("DataStorage - unsaved changes survive a crash through the journal")
+    void unsavedChangesAreRecovered() {
+        RoomManager roomManager = RoomManager.getInstance();
+        CustomerManager customerManager = new CustomerManager();
+        BookingManager bookingManager = new BookingManager(roomManager);
+        InvoiceManager invoiceManager = new InvoiceManager(bookingManager);
+        roomManager.add(new StandardRoom("R101", 1));
+        DataStorage storage = new DataStorage(dataDir.toString(), customerManager, bookingManager,
+                invoiceManager, roomManager);
+        storage.saveAllData();
+        storage.openJournal();
+
+        Customer customer = new Customer("C001", "Lê Thị Hoa", "hoa@example.com", "0901000001",
+                "012345678901", "Huế", LocalDate.of(2025, 1, 1), false);
+        customerManager.add(customer);
+        Booking booking = new Booking("B001", customer, roomManager.getById("R101"),
+                LocalDate.of(2025, 4, 1), LocalDate.of(2025, 4, 3), BookingStatus.PENDING);
+        bookingManager.add(booking);
+        bookingManager.updateStatus("B001", BookingStatus.CHECKED_IN);
+        invoiceManager.createInvoiceFromBooking(booking, "INV001");
+        // Không lưu, không đóng nhật ký: giả lập chương trình bị tắt đột ngột
+
+        RoomManager.resetInstance();
+        RoomManager loadedRooms = RoomManager.getInstance();
+        CustomerManager loadedCustomers = new CustomerManager();
+        BookingManager loadedBookings = new BookingManager(loadedRooms);
+        InvoiceManager loadedInvoices = new InvoiceManager(loadedBookings);
+        DataStorage recovered = new DataStorage(dataDir.toString(), loadedCustomers, loadedBookings,
+                loadedInvoices, loadedRooms);
+        recovered.loadAllData();
+
+        assertTrue(recovered.openJournal() > 0);
+        assertEquals("Lê Thị Hoa", loadedCustomers.getById("C001").getFullName());
+        assertEquals(BookingStatus.CHECKED_IN, loadedBookings.getById("B001").getStatus());
+        assertNotNull(loadedInvoices.getById("INV001"));
+        assertTrue(recovered.hasUnsavedChanges());
+
+        recovered.saveChanges();
+        assertFalse(recovered.hasUnsavedChanges());
+        assertEquals(0, dataDir.resolve("journal.log").toFile().length());
+        recovered.closeJournal();
+    }
+
+    @Test
+    @DisplayName("DataStorage - discarded journal is not replayed")
+    void discardedJournalIsNotReplayed() {
+        RoomManager roomManager = RoomManager.getInstance();
+        CustomerManager customerManager = new CustomerManager();
+        DataStorage storage = new DataStorage(dataDir.toString(), customerManager, null, null, roomManager);
+        storage.openJournal();
+        customerManager.add(new Customer("C001", "Lê Thị Hoa", "hoa@example.com", "0901000001",
+                "012345678901", "Huế", LocalDate.of(2025, 1, 1), false));
+        storage.discardJournal();
+
+        CustomerManager loaded = new CustomerManager();
+        assertEquals(0, new DataStorage(dataDir.toString(), loaded, null, null, null).openJournal());
+        assertTrue(loaded.isEmpty());
+    }
+}
@@ -0,0 +1,114 @@
+package com.hotel.storage;
+
+import com.hotel.model.booking.Booking;
+import com.hotel.model.customer.Customer;
+import com.hotel.model.enums.BookingStatus;
+import com.hotel.model.room.*;
+import com.hotel.service.BookingManager;
+import com.hotel.service.CustomerManager;
+import com.hotel.service.InvoiceManager;
+import com.hotel.service.RoomManager;
+import com.hotel.util.AppLogger;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+/**
+ * Bộ manager và dữ liệu mẫu dùng chung cho các test lưu trữ / nhập xuất
+ * Dùng RoomManager singleton: test gọi RoomManager.resetInstance() (hoặc fresh()) trước khi tạo bộ mới.
+ */
+final class StorageFixture {
+    final RoomManager rooms = RoomManager.getInstance();
+    final CustomerManager customers = new CustomerManager();
+    final BookingManager bookings = new BookingManager(rooms);
+    final InvoiceManager invoices = new InvoiceManager(bookings);
+
+    private DataStorage storage;
+
+    /**
+     * Bộ manager trống trên RoomManager mới, ví dụ để tải lại dữ liệu vừa lưu
+     */
+    static StorageFixture fresh() {
+        RoomManager.resetInstance();
+        return new StorageFixture();
+    }
+
+    /**
+     * DataStorage của bộ manager này (tạo ở lần gọi đầu, các lần sau trả lại cùng đối tượng)
+     */
+    DataStorage storage(Path dir) {
+        if (storage == null) {
+            storage = new DataStorage(dir.toString(), customers, bookings, invoices, rooms);
+        }
+        return storage;
+    }
+
+    BulkTransfer transfer() {
+        return new BulkTransfer(rooms, customers, bookings, invoices, 2);
+    }
+
+    /**
+     * 20 phòng (D0003 không có bồn tắm, đang bảo trì), bookingCount / 5 khách hàng (tối thiểu 10),
+     * bookingCount booking, mỗi booking một hóa đơn
+     */
+    void populate(int bookingCount) {
+        for (int i = 1; i <= 20; i++) {
+            Room room = switch (i % 3) {
+                case 0 -> new DeluxeRoom(String.format("D%04d", i), i / 5 + 1);
+                case 1 -> new VIPRoom(String.format("V%04d", i), i / 5 + 1);
+                default -> new StandardRoom(String.format("S%04d", i), i / 5 + 1);
+            };
+            rooms.add(room);
+        }
+        DeluxeRoom deluxe = (DeluxeRoom) rooms.getById("D0003");
+        deluxe.setHasJacuzzi(false);
+        deluxe.markMaintenance();
+
+        int customerCount = Math.max(10, bookingCount / 5);
+        for (int i = 1; i <= customerCount; i++) {
+            customers.add(new Customer(String.format("C%04d", i), "Khách hàng " + i,
+                    "khach" + i + "@example.com", String.format("09%08d", i), String.format("0%011d", i),
+                    i % 2 == 0 ? "Số " + i + ", Hà Nội" : "TP. Hồ Chí Minh", LocalDate.of(2020, 1, 1).plusDays(i % 1500),
+                    i % 10 == 0));
+        }
+
+        LocalDate start = LocalDate.of(2021, 1, 1);
+        BookingStatus[] statuses = BookingStatus.values();
+        for (int i = 1; i <= bookingCount; i++) {
+            Room room = rooms.getAll().get(i % 20);
+            Customer customer = customers.getById(String.format("C%04d", 1 + i % customerCount));
+            LocalDate checkIn = start.plusDays(i % 1460);
+            Booking booking = new Booking(String.format("B%05d", i), customer, room,
+                    checkIn, checkIn.plusDays(1 + i % 5), statuses[i % statuses.length]);
+            booking.setNotes(i % 7 == 0 ? "Ghi chú " + i : "");
+            bookings.add(booking);
+            invoices.createInvoiceFromBooking(booking, String.format("INV%05d", i));
+        }
+    }
+
+    static Customer customer(String id, String name) {
+        return new Customer(id, name, id.toLowerCase() + "@example.com", "0901000001",
+                "012345678901", "Hà Nội", LocalDate.of(2025, 1, 1), false);
+    }
+
+    /**
+     * Tắt ghi log ra file và dùng RoomManager mới cho mỗi test; dùng qua @ExtendWith(StorageFixture.Isolation.class)
+     */
+    static final class Isolation implements BeforeEachCallback, AfterEachCallback {
+
+        @Override
+        public void beforeEach(ExtensionContext context) {
+            AppLogger.setFileLogging(false);
+            RoomManager.resetInstance();
+        }
+
+        @Override
+        public void afterEach(ExtensionContext context) {
+            RoomManager.getInstance().clear();
+            AppLogger.setFileLogging(true);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.hotel.ui.base;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import javax.swing.event.TableModelEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Tests for the list-backed table model: lazy cell values and row events
+ */
+class EntityTableModelTest {
+
+    private final AtomicInteger cellCalls = new AtomicInteger();
+    private final List<TableModelEvent> events = new ArrayList<>();
+    private EntityTableModel<String> model;
+
+    @BeforeEach
+    void setUp() {
+        model = new EntityTableModel<>(new String[] { "ID", "Độ dài" }, (item, column) -> {
+            cellCalls.incrementAndGet();
+            return column == 0 ? item : item.length();
+        });
+        model.addTableModelListener(events::add);
+    }
+
+    @Test
+    @DisplayName("setRows - one data-changed event, cells computed only when read")
+    void setRowsIsLazy() {
+        model.setRows(IntStream.range(0, 100_000).mapToObj(i -> "B" + i).toList());
+
+        assertEquals(1, events.size());
+        assertEquals(Integer.MAX_VALUE, events.get(0).getLastRow());
+        assertEquals(0, cellCalls.get());
+        assertEquals(100_000, model.getRowCount());
+        assertEquals("B99999", model.getValueAt(99_999, 0));
+        assertEquals(6, model.getValueAt(99_999, 1));
+        assertEquals(2, cellCalls.get());
+        assertEquals("Độ dài", model.getColumnName(1));
+        assertFalse(model.isCellEditable(0, 0));
+    }
+
+    @Test
+    @DisplayName("addRow/updateRow/removeRow - one event for the affected row only")
+    void rowEvents() {
+        model.setRows(List.of("B1", "B2", "B3"));
+        events.clear();
+
+        model.addRow("B4");
+        model.updateRow(1, "B22");
+        model.removeRow(0);
+
+        assertEquals(List.of("B22", "B3", "B4"), List.of(model.getRow(0), model.getRow(1), model.getRow(2)));
+        assertEquals(1, model.indexOf("B3"));
+        assertEvent(events.get(0), TableModelEvent.INSERT, 3);
+        assertEvent(events.get(1), TableModelEvent.UPDATE, 1);
+        assertEvent(events.get(2), TableModelEvent.DELETE, 0);
+    }
+
+    private static void assertEvent(TableModelEvent event, int type, int row) {
+        assertEquals(type, event.getType());
+        assertEquals(row, event.getFirstRow());
+        assertEquals(row, event.getLastRow());
+    }
+}
@@ -0,0 +1,114 @@
+package com.hotel.ui.util;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import javax.swing.*;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+/**
+ * Tests for search-as-you-type: debounce, refinement from the previous result and stale queries
+ */
+class IncrementalSearchTest {
+
+    private static final List<String> NAMES = IntStream.range(0, 10_000)
+            .mapToObj(i -> (i % 2 == 0 ? "nguyen " : "tran ") + i).toList();
+
+    private final AtomicInteger fullSearches = new AtomicInteger();
+    private final BlockingQueue<String> results = new LinkedBlockingQueue<>();
+    private final JTextField field = new JTextField();
+    private volatile CountDownLatch blockSearch;
+    private IncrementalSearch<String> search;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            search = new IncrementalSearch<>(this::fullSearch, IncrementalSearchTest::matcher,
+                    (keyword, found) -> results.add(keyword + "=" + found.size()));
+            search.attach(field);
+        });
+    }
+
+    @Test
+    @DisplayName("Typing - only the last keyword after the pause is searched")
+    void debouncesKeystrokes() throws Exception {
+        onEdt(() -> {
+            field.setText("n");
+            field.setText("ng");
+            field.setText("ngu");
+        });
+        assertEquals("ngu=5000", results.poll(5, TimeUnit.SECONDS));
+        assertNull(results.poll(IncrementalSearch.DEBOUNCE_MS * 2L, TimeUnit.MILLISECONDS));
+        assertEquals(1, fullSearches.get());
+    }
+
+    @Test
+    @DisplayName("Extending the keyword refines the previous result, a new keyword searches again")
+    void refinesPreviousResult() throws Exception {
+        searchNow("nguyen");
+        assertEquals("nguyen=5000", results.poll(5, TimeUnit.SECONDS));
+        searchNow("nguyen 12");
+        assertEquals("nguyen 12=56", results.poll(5, TimeUnit.SECONDS));
+        assertEquals(1, fullSearches.get());
+
+        searchNow("tran");
+        assertEquals("tran=5000", results.poll(5, TimeUnit.SECONDS));
+        assertEquals(2, fullSearches.get());
+
+        onEdt(search::reset);
+        searchNow("tran 1");
+        assertEquals("tran 1=556", results.poll(5, TimeUnit.SECONDS));
+        assertEquals(3, fullSearches.get());
+    }
+
+    @Test
+    @DisplayName("A newer query wins; the stale result is never delivered")
+    void staleResultIsDropped() throws Exception {
+        blockSearch = new CountDownLatch(1);
+        searchNow("tran");
+        CountDownLatch slow = blockSearch;
+        blockSearch = null;
+        searchNow("nguyen");
+        assertEquals("nguyen=5000", results.poll(5, TimeUnit.SECONDS));
+
+        slow.countDown();
+        assertNull(results.poll(300, TimeUnit.MILLISECONDS));
+    }
+
+    // ==================== Helper Methods ====================
+
+    private List<String> fullSearch(String keyword) {
+        fullSearches.incrementAndGet();
+        CountDownLatch latch = blockSearch;
+        if (latch != null) {
+            try {
+                latch.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return NAMES.stream().filter(matcher(keyword)).toList();
+    }
+
+    private static Predicate<String> matcher(String keyword) {
+        return name -> name.contains(keyword);
+    }
+
+    private void searchNow(String keyword) throws Exception {
+        onEdt(() -> {
+            field.setText(keyword);
+            search.searchNow();
+        });
+    }
+
+    private static void onEdt(Runnable action) throws Exception {
+        SwingUtilities.invokeAndWait(action);
+    }
+}
@@ -0,0 +1,96 @@
+package com.hotel.util;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for AppLogger level guards and lazy formatting
+ */
+class AppLoggerTest {
+
+    @BeforeEach
+    void setUp() {
+        AppLogger.setFileLogging(false);
+        AppLogger.setConsoleLogging(false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        AppLogger.setLevel(AppLogger.Level.INFO);
+        AppLogger.setConsoleLogging(true);
+        AppLogger.setFileLogging(true);
+    }
+
+    @Test
+    @DisplayName("Disabled level - supplier and argument toString() are never called")
+    void disabledLevelDoesNotFormat() {
+        AtomicInteger calls = new AtomicInteger();
+        Object arg = new Object() {
+            @Override
+            public String toString() {
+                calls.incrementAndGet();
+                return "arg";
+            }
+        };
+
+        AppLogger.setLevel(AppLogger.Level.INFO);
+        AppLogger.debug(() -> "x" + calls.incrementAndGet());
+        AppLogger.debug("%s", arg);
+        AppLogger.debug("%s %s", arg, arg);
+        AppLogger.debug("%s %s %s", arg, arg, arg);
+        assertEquals(0, calls.get());
+        assertFalse(AppLogger.isEnabled(AppLogger.Level.DEBUG));
+
+        AppLogger.setConsoleLogging(true);
+        AppLogger.setLevel(AppLogger.Level.ERROR);
+        AppLogger.warn(() -> "x" + calls.incrementAndGet());
+        AppLogger.info("%s", arg);
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    @DisplayName("Enabled level - formats once, including nested log calls from toString()")
+    void enabledLevelFormats() {
+        AtomicInteger calls = new AtomicInteger();
+        Object nested = new Object() {
+            @Override
+            public String toString() {
+                calls.incrementAndGet();
+                AppLogger.info("lồng nhau %s", "bên trong");
+                return "ngoài";
+            }
+        };
+        AppLogger.setFileLogging(true);
+        AppLogger.info("%s và %s", nested, 42);
+        AppLogger.info(() -> "supplier " + calls.incrementAndGet());
+        assertEquals(2, calls.get());
+        assertTrue(AppLogger.flush());
+    }
+
+    @Test
+    @DisplayName("Disabled DEBUG calls (entering/exiting) allocate nothing")
+    void disabledCallsDoNotAllocate() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        AppLogger.setLevel(AppLogger.Level.INFO);
+        long threadId = Thread.currentThread().threadId();
+        for (int i = 0; i < 20_000; i++) {
+            AppLogger.entering("RoomPanel", "refresh");
+        }
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 100_000; i++) {
+            AppLogger.entering("RoomPanel", "refresh");
+            AppLogger.exiting("RoomPanel", "refresh");
+            AppLogger.debug("Phòng %s", "R101");
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        assertTrue(allocated < 64 * 1024, "allocated " + allocated + " bytes");
+    }
+}
@@ -0,0 +1,242 @@
+package com.hotel.util;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.hotel.util.AsyncLogAppender.Event;
+import com.hotel.util.AsyncLogAppender.RingBuffer;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Tests for the asynchronous log appender: ring buffer, text/JSON line format and log file rolling
+ */
+class AsyncLogAppenderTest {
+
+    @TempDir
+    Path dir;
+
+    private AsyncLogAppender appender;
+
+    @AfterEach
+    void tearDown() {
+        if (appender != null) {
+            appender.close(5, TimeUnit.SECONDS);
+        }
+    }
+
+    // ==================== Ring Buffer Tests ====================
+
+    @Test
+    @DisplayName("Ring buffer - FIFO, bounded, capacity rounded to a power of two")
+    void ringBufferIsBoundedFifo() {
+        RingBuffer<Integer> ring = new RingBuffer<>(5);
+        assertEquals(8, ring.capacity());
+        for (int i = 0; i < 8; i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertFalse(ring.offer(8));
+        assertEquals(0, ring.poll());
+        assertTrue(ring.offer(8));
+        for (int i = 1; i <= 8; i++) {
+            assertEquals(i, ring.poll());
+        }
+        assertNull(ring.poll());
+        assertTrue(ring.isEmpty());
+        assertEquals(9, ring.published());
+    }
+
+    // ==================== Appender Tests ====================
+
+    @Test
+    @DisplayName("Appender - concurrent producers lose nothing and keep per-thread order (BLOCK)")
+    void concurrentProducersKeepOrder() throws Exception {
+        Path file = dir.resolve("logs/app.log");
+        appender = new AsyncLogAppender(file, 64, AppLogger.OverflowPolicy.BLOCK,
+                AppLogger.RollingPolicy.NONE);
+        int threads = 4;
+        int perThread = 5000;
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            producers.add(new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    appender.append(event("T" + id + " " + i, null));
+                }
+            }));
+        }
+        producers.forEach(Thread::start);
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        assertTrue(appender.flush(5, TimeUnit.SECONDS));
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(threads * perThread, lines.size());
+        int[] next = new int[threads];
+        for (String line : lines) {
+            String[] parts = line.substring(line.lastIndexOf('T')).split(" ");
+            int id = Integer.parseInt(parts[0].substring(1));
+            assertEquals(next[id]++, Integer.parseInt(parts[1]), line);
+        }
+        assertEquals(0, appender.getDroppedCount());
+    }
+
+    @Test
+    @DisplayName("Appender - DROP policy never blocks the caller and reports dropped lines")
+    void dropPolicyCountsDroppedLines() throws IOException {
+        Path file = dir.resolve("app.log");
+        appender = new AsyncLogAppender(file, 2, AppLogger.OverflowPolicy.DROP,
+                AppLogger.RollingPolicy.NONE);
+        CountDownLatch release = new CountDownLatch(1);
+        // Luồng ghi bị giữ lại khi đọc stack trace của sự kiện đầu tiên
+        assertTrue(appender.append(event("đang giữ luồng ghi", new StallingException(release))));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (appender.append(event("lấp đầy", null)) && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        for (int i = 0; i < 10; i++) {
+            assertFalse(appender.append(event("bị bỏ", null)));
+        }
+        assertTrue(appender.getDroppedCount() >= 10);
+
+        release.countDown();
+        assertTrue(appender.flush(5, TimeUnit.SECONDS));
+        String content = Files.readString(file, StandardCharsets.UTF_8);
+        assertTrue(content.contains("StallingException"));
+        assertTrue(content.contains("đã bỏ qua"));
+        assertFalse(content.contains("bị bỏ"));
+    }
+
+    // ==================== Format Tests ====================
+
+    @Test
+    @DisplayName("JSON format - one parseable object per line with typed fields and exception")
+    void jsonFormatWritesOneObjectPerLine() throws IOException {
+        Path file = dir.resolve("app.log");
+        appender = new AsyncLogAppender(file, 64, AppLogger.OverflowPolicy.BLOCK, AppLogger.RollingPolicy.NONE);
+        appender.setFormat(AppLogger.Format.JSON);
+        Object[] fields = { "durationMs", 42L, "recordCount", 1500, "file", "data\\bookings.json", "ok", true,
+                null, null };
+        appender.append(new Event(System.currentTimeMillis(), AppLogger.Level.INFO, "Đã lưu \"đặt phòng\"\nxong",
+                null, false, true, "data-loader", "storage", fields));
+        appender.append(new Event(System.currentTimeMillis(), AppLogger.Level.ERROR, "lỗi",
+                new IllegalStateException("hỏng"), false, true, "main", AppLogger.DEFAULT_CATEGORY, null));
+        assertTrue(appender.flush(5, TimeUnit.SECONDS));
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(2, lines.size());
+        JsonObject first = JsonParser.parseString(lines.get(0)).getAsJsonObject();
+        assertEquals("INFO", first.get("level").getAsString());
+        assertEquals("data-loader", first.get("thread").getAsString());
+        assertEquals("storage", first.get("logger").getAsString());
+        assertEquals("Đã lưu \"đặt phòng\"\nxong", first.get("message").getAsString());
+        assertEquals(42, first.get("durationMs").getAsLong());
+        assertEquals(1500, first.get("recordCount").getAsInt());
+        assertEquals("data\\bookings.json", first.get("file").getAsString());
+        assertTrue(first.get("ok").getAsBoolean());
+        assertTrue(first.get("time").getAsString().matches("\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}\\.\\d{3}.+"));
+
+        JsonObject second = JsonParser.parseString(lines.get(1)).getAsJsonObject();
+        assertTrue(second.get("exception").getAsString().startsWith("Exception: java.lang.IllegalStateException: hỏng"));
+    }
+
+    @Test
+    @DisplayName("Text format - structured fields are appended as key=value")
+    void textFormatAppendsFields() throws IOException {
+        Path file = dir.resolve("app.log");
+        appender = new AsyncLogAppender(file, 64, AppLogger.OverflowPolicy.BLOCK, AppLogger.RollingPolicy.NONE);
+        appender.append(new Event(System.currentTimeMillis(), AppLogger.Level.INFO, "Đã tải", null, false, true,
+                "main", "storage", new Object[] { "durationMs", 7L, "recordCount", 3 }));
+        assertTrue(appender.flush(5, TimeUnit.SECONDS));
+        assertTrue(Files.readString(file, StandardCharsets.UTF_8).endsWith("] Đã tải | durationMs=7 recordCount=3"
+                + System.lineSeparator()));
+    }
+
+    // ==================== Rolling Tests ====================
+
+    @Test
+    @DisplayName("Rolling - rolls by size, gzips archives and keeps only the newest N")
+    void rollsBySizeAndKeepsNArchives() throws IOException {
+        Path file = dir.resolve("hotel.log");
+        RollingLogFile log = new RollingLogFile(file, new AppLogger.RollingPolicy(100, false, 2, true));
+        for (int i = 0; i < 10; i++) {
+            log.write(StandardCharsets.UTF_8.encode("dòng " + i + " " + "x".repeat(60) + "\n"));
+        }
+        log.close(5, TimeUnit.SECONDS);
+
+        LocalDate today = LocalDate.now();
+        assertTrue(Files.readString(file, StandardCharsets.UTF_8).startsWith("dòng 9"));
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(List.of("hotel-" + today + ".8.log.gz", "hotel-" + today + ".9.log.gz", "hotel.log"),
+                    files.map(path -> path.getFileName().toString()).sorted().toList());
+        }
+        assertTrue(gunzip(dir.resolve("hotel-" + today + ".9.log.gz")).startsWith("dòng 8"));
+    }
+
+    @Test
+    @DisplayName("Rolling - a file from a previous day is archived under that day")
+    void rollsByDay() throws IOException {
+        Path file = dir.resolve("hotel.log");
+        Files.writeString(file, "hôm qua\n", StandardCharsets.UTF_8);
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        Files.setLastModifiedTime(file, FileTime.from(yesterday.atStartOfDay(ZoneId.systemDefault()).toInstant()));
+
+        RollingLogFile log = new RollingLogFile(file, new AppLogger.RollingPolicy(0, true, 0, true));
+        log.write(StandardCharsets.UTF_8.encode("hôm nay\n"));
+        log.close(5, TimeUnit.SECONDS);
+
+        assertEquals("hôm nay\n", Files.readString(file, StandardCharsets.UTF_8));
+        assertEquals("hôm qua\n", gunzip(dir.resolve("hotel-" + yesterday + ".1.log.gz")));
+    }
+
+    // ==================== Helper Methods ====================
+
+    private static String gunzip(Path file) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Event event(String message, Throwable throwable) {
+        return new Event(System.currentTimeMillis(), AppLogger.Level.INFO, message, throwable, false, true,
+                Thread.currentThread().getName(), AppLogger.DEFAULT_CATEGORY, null);
+    }
+
+    /** Exception giữ luồng ghi lại cho đến khi latch được mở */
+    private static final class StallingException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final transient CountDownLatch release;
+
+        StallingException(CountDownLatch release) {
+            super("stall");
+            this.release = release;
+        }
+
+        @Override
+        public StackTraceElement[] getStackTrace() {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.getStackTrace();
+        }
+    }
+}